@@ -121,6 +121,11 @@ public class ClassGenerator
     }
 
     public Map<String, Class<?>> defineClasses(List<ClassDefinition> classDefinitions)
+    {
+        return defineClasses(generateBytecode(classDefinitions));
+    }
+
+    public Map<String, byte[]> generateBytecode(List<ClassDefinition> classDefinitions)
     {
         ClassInfoLoader classInfoLoader = createClassInfoLoader(classDefinitions, classLoader);
         Map<String, byte[]> bytecodes = new LinkedHashMap<>();
@@ -190,6 +195,11 @@ public class ClassGenerator
             }
         }
 
+        return bytecodes;
+    }
+
+    public Map<String, Class<?>> defineClasses(Map<String, byte[]> bytecodes)
+    {
         Map<String, Class<?>> classes = classLoader.defineClasses(bytecodes);
 
         try {
@@ -42,6 +42,8 @@ public class CacheFactory
 
         switch (cacheConfig.getCacheType()) {
             case FILE_MERGE:
+            case SLAB:
+                // both cache managers are served through the same read-through input stream
                 return new FileMergeCachingFileSystem(
                         factoryUri,
                         factoryConfig,
@@ -17,6 +17,8 @@ import com.facebook.presto.cache.alluxio.AlluxioCacheConfig;
 import com.facebook.presto.cache.alluxio.AlluxioCachingConfigurationProvider;
 import com.facebook.presto.cache.filemerge.FileMergeCacheConfig;
 import com.facebook.presto.cache.filemerge.FileMergeCacheManager;
+import com.facebook.presto.cache.slab.SlabCacheConfig;
+import com.facebook.presto.cache.slab.SlabCacheManager;
 import com.facebook.presto.hive.DynamicConfigurationProvider;
 import com.google.inject.Binder;
 import com.google.inject.Module;
@@ -27,6 +29,7 @@ import jakarta.inject.Singleton;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
 import static com.facebook.presto.cache.CacheType.FILE_MERGE;
+import static com.facebook.presto.cache.CacheType.SLAB;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
@@ -41,6 +44,7 @@ public class CachingModule
         newExporter(binder).export(CacheStats.class).withGeneratedName();
         configBinder(binder).bindConfig(CacheConfig.class);
         configBinder(binder).bindConfig(FileMergeCacheConfig.class);
+        configBinder(binder).bindConfig(SlabCacheConfig.class);
         configBinder(binder).bindConfig(AlluxioCacheConfig.class);
 
         newSetBinder(binder, DynamicConfigurationProvider.class).addBinding().to(AlluxioCachingConfigurationProvider.class).in(Scopes.SINGLETON);
@@ -51,7 +55,7 @@ public class CachingModule
     //TODO: how to inject something with having constructor with parameter.
     @Singleton
     @Provides
-    public CacheManager createCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig, CacheStats cacheStats)
+    public CacheManager createCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig, SlabCacheConfig slabCacheConfig, CacheStats cacheStats)
     {
         if (cacheConfig.isCachingEnabled() && cacheConfig.getCacheType() == FILE_MERGE) {
             return new FileMergeCacheManager(
@@ -62,6 +66,13 @@ public class CachingModule
                     newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-remover-%s")),
                     newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-size-calculator-%s")));
         }
+        if (cacheConfig.isCachingEnabled() && cacheConfig.getCacheType() == SLAB) {
+            return new SlabCacheManager(
+                    cacheConfig,
+                    slabCacheConfig,
+                    cacheStats,
+                    newScheduledThreadPool(5, daemonThreadsNamed("hive-cache-flusher-%s")));
+        }
         return new NoOpCacheManager();
     }
 }
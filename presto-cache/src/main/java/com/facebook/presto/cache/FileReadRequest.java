@@ -16,6 +16,7 @@ package com.facebook.presto.cache;
 import org.apache.hadoop.fs.Path;
 
 import java.util.Objects;
+import java.util.OptionalLong;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,12 +25,22 @@ public class FileReadRequest
     private final Path path;
     private final long offset;
     private final int length;
+    // identify the version of the file, so that a file rewritten at the same path is not served from the cache
+    private final long modificationTime;
+    private final OptionalLong fileSize;
 
     public FileReadRequest(Path path, long offset, int length)
+    {
+        this(path, offset, length, 0, OptionalLong.empty());
+    }
+
+    public FileReadRequest(Path path, long offset, int length, long modificationTime, OptionalLong fileSize)
     {
         this.path = requireNonNull(path, "path is null");
         this.offset = requireNonNull(offset, "offset is null");
         this.length = requireNonNull(length, "length is null");
+        this.modificationTime = modificationTime;
+        this.fileSize = requireNonNull(fileSize, "fileSize is null");
     }
 
     public Path getPath()
@@ -47,10 +58,20 @@ public class FileReadRequest
         return length;
     }
 
+    public long getModificationTime()
+    {
+        return modificationTime;
+    }
+
+    public OptionalLong getFileSize()
+    {
+        return fileSize;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(path, offset, length);
+        return Objects.hash(path, offset, length, modificationTime, fileSize);
     }
 
     @Override
@@ -65,6 +86,8 @@ public class FileReadRequest
         FileReadRequest other = (FileReadRequest) object;
         return Objects.equals(this.path, other.path) &&
                 Objects.equals(this.offset, other.offset) &&
-                Objects.equals(this.length, other.length);
+                Objects.equals(this.length, other.length) &&
+                this.modificationTime == other.modificationTime &&
+                Objects.equals(this.fileSize, other.fileSize);
     }
 }
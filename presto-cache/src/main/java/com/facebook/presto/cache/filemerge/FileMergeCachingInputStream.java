@@ -20,6 +20,7 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.Path;
 
 import java.io.IOException;
+import java.util.OptionalLong;
 
 import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.Slices.wrappedBuffer;
@@ -31,6 +32,8 @@ public final class FileMergeCachingInputStream
     private final FSDataInputStream inputStream;
     private final CacheManager cacheManager;
     private final Path path;
+    private final long modificationTime;
+    private final OptionalLong fileSize;
     private final CacheQuota cacheQuota;
     private final boolean cacheValidationEnabled;
 
@@ -38,6 +41,8 @@ public final class FileMergeCachingInputStream
             FSDataInputStream inputStream,
             CacheManager cacheManager,
             Path path,
+            long modificationTime,
+            OptionalLong fileSize,
             CacheQuota cacheQuota,
             boolean cacheValidationEnabled)
     {
@@ -45,6 +50,8 @@ public final class FileMergeCachingInputStream
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.cacheManager = requireNonNull(cacheManager, "cacheManager is null");
         this.path = requireNonNull(path, "path is null");
+        this.modificationTime = modificationTime;
+        this.fileSize = requireNonNull(fileSize, "fileSize is null");
         this.cacheQuota = requireNonNull(cacheQuota, "cacheQuota is null");
         this.cacheValidationEnabled = cacheValidationEnabled;
     }
@@ -60,7 +67,7 @@ public final class FileMergeCachingInputStream
     public void readFully(long position, byte[] buffer, int offset, int length)
             throws IOException
     {
-        FileReadRequest key = new FileReadRequest(path, position, length);
+        FileReadRequest key = new FileReadRequest(path, position, length, modificationTime, fileSize);
         switch (cacheManager.get(key, buffer, offset, cacheQuota)) {
             case HIT:
                 break;
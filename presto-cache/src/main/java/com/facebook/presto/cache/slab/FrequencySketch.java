@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.slab;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.math.IntMath.ceilingPowerOfTwo;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * A count-min sketch estimating how often a key was accessed recently, used as the
+ * TinyLFU admission filter of the cache. Each key maps to four 4-bit counters, so the
+ * estimate saturates at 15. Once the number of increments reaches ten times the number
+ * of tracked keys, all counters are halved, so the sketch favors recent accesses.
+ * <p>
+ * This class is not thread safe.
+ */
+class FrequencySketch
+{
+    private static final int HASH_COUNT = 4;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long COUNTER_MASK = 0xfL;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+    // keeps hash collisions rare for small caches
+    private static final int MIN_SIZE = 1024;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(long expectedSize)
+    {
+        checkArgument(expectedSize > 0, "expectedSize must be positive");
+        int size = toIntExact(min(max(expectedSize, MIN_SIZE), 1 << 26));
+        // each long holds 16 counters, so this is four counters per tracked key
+        this.table = new long[ceilingPowerOfTwo(size)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    public int frequency(long hash)
+    {
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            long counterHash = counterHash(hash, i);
+            frequency = min(frequency, (int) ((table[tableIndex(counterHash)] >>> counterOffset(counterHash)) & COUNTER_MASK));
+        }
+        return frequency;
+    }
+
+    public void increment(long hash)
+    {
+        boolean added = false;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            long counterHash = counterHash(hash, i);
+            int index = tableIndex(counterHash);
+            int offset = counterOffset(counterHash);
+            if (((table[index] >>> offset) & COUNTER_MASK) < MAX_FREQUENCY) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset()
+    {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int tableIndex(long counterHash)
+    {
+        return (int) (counterHash >>> 32) & tableMask;
+    }
+
+    private static int counterOffset(long counterHash)
+    {
+        return ((int) counterHash & 15) << 2;
+    }
+
+    private static long counterHash(long hash, int i)
+    {
+        long counterHash = (hash + SEEDS[i]) * SEEDS[i];
+        return counterHash ^ (counterHash >>> 29);
+    }
+}
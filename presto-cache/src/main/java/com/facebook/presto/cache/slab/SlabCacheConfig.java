@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.slab;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.MaxDataSize;
+import com.facebook.airlift.units.MinDataSize;
+import jakarta.validation.constraints.AssertTrue;
+
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class SlabCacheConfig
+{
+    private DataSize pageSize = new DataSize(1, MEGABYTE);
+    private DataSize slabSize = new DataSize(1, GIGABYTE);
+    private DataSize maxCacheSize = new DataSize(100, GIGABYTE);
+    private DataSize maxInMemoryCacheSize = new DataSize(2, GIGABYTE);
+
+    @MinDataSize("1kB")
+    @MaxDataSize("1GB")
+    public DataSize getPageSize()
+    {
+        return pageSize;
+    }
+
+    @Config("cache.slab.page-size")
+    @ConfigDescription("Size of the file fragments kept in the cache")
+    public SlabCacheConfig setPageSize(DataSize pageSize)
+    {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    @MinDataSize("1kB")
+    public DataSize getSlabSize()
+    {
+        return slabSize;
+    }
+
+    @Config("cache.slab.slab-size")
+    @ConfigDescription("Size of each preallocated file on local disk holding cached fragments")
+    public SlabCacheConfig setSlabSize(DataSize slabSize)
+    {
+        this.slabSize = slabSize;
+        return this;
+    }
+
+    @MinDataSize("1kB")
+    public DataSize getMaxCacheSize()
+    {
+        return maxCacheSize;
+    }
+
+    @Config("cache.slab.max-cache-size")
+    @ConfigDescription("The maximum size of the cache on local disk")
+    public SlabCacheConfig setMaxCacheSize(DataSize maxCacheSize)
+    {
+        this.maxCacheSize = maxCacheSize;
+        return this;
+    }
+
+    public DataSize getMaxInMemoryCacheSize()
+    {
+        return maxInMemoryCacheSize;
+    }
+
+    @Config("cache.slab.max-in-memory-cache-size")
+    @ConfigDescription("The maximum size of data waiting in memory to be written to the cache")
+    public SlabCacheConfig setMaxInMemoryCacheSize(DataSize maxInMemoryCacheSize)
+    {
+        this.maxInMemoryCacheSize = maxInMemoryCacheSize;
+        return this;
+    }
+
+    @AssertTrue(message = "cache.slab.slab-size must be a multiple of cache.slab.page-size and not larger than cache.slab.max-cache-size")
+    public boolean isSlabSizeValid()
+    {
+        return slabSize.toBytes() % pageSize.toBytes() == 0 && slabSize.compareTo(maxCacheSize) <= 0;
+    }
+}
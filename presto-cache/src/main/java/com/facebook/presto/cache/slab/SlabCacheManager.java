@@ -0,0 +1,691 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.slab;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.cache.CacheConfig;
+import com.facebook.presto.cache.CacheManager;
+import com.facebook.presto.cache.CacheResult;
+import com.facebook.presto.cache.CacheStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import com.facebook.presto.spi.PrestoException;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.Slice;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Caches page aligned fragments of remote files in fixed size slab files on local disk.
+ * <p>
+ * Each slab is divided into slots of one page. A cached page holds a contiguous range of
+ * a page of the remote file, stored at the same position within its slot, so fragments of
+ * the same page can be merged by writing them in place. Pages are evicted in least recently
+ * used order, but a new page is only admitted into a full cache if it has been accessed more
+ * often than the page it would evict, so one-off scans do not flush out frequently read data.
+ * <p>
+ * Pages are keyed by the path, modification time and size of the remote file, so a file
+ * rewritten at the same path is read again instead of being served from stale pages.
+ * <p>
+ * The index of cached pages is written to the cache directory on shutdown and loaded on
+ * startup, so the cache survives graceful restarts. The index is deleted once loaded, so
+ * after a crash the cache starts empty instead of trusting slabs that were being written.
+ */
+public class SlabCacheManager
+        implements CacheManager
+{
+    private static final Logger log = Logger.get(SlabCacheManager.class);
+
+    private static final String SLAB_FILE_PREFIX = "slab-";
+    private static final String SLAB_FILE_EXTENSION = ".data";
+    private static final String INDEX_FILE_NAME = "slab-cache.index";
+    private static final int INDEX_MAGIC = 0x534c4142;
+    private static final int INDEX_VERSION = 2;
+
+    private final ExecutorService cacheFlushExecutor;
+    private final CacheStats stats;
+
+    private final File baseDirectory;
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final long maxInflightBytes;
+    private final FileChannel[] slabs;
+
+    // bumped whenever a slot is given to another page, so readers can detect that the slot was reused while they read it
+    private final AtomicLongArray slotGenerations;
+
+    // pages in least recently used order
+    @GuardedBy("this")
+    private final LinkedHashMap<PageKey, PageEntry> pages = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // number of writes in progress into a cached page; such slots cannot be evicted
+    @GuardedBy("this")
+    private final int[] slotWriters;
+    @GuardedBy("this")
+    private final FrequencySketch frequencySketch;
+    @GuardedBy("this")
+    private final Map<Long, Long> cacheScopeSizeInBytes = new HashMap<>();
+
+    @Inject
+    public SlabCacheManager(
+            CacheConfig cacheConfig,
+            SlabCacheConfig slabCacheConfig,
+            CacheStats stats,
+            ExecutorService cacheFlushExecutor)
+    {
+        requireNonNull(cacheConfig, "cacheConfig is null");
+        requireNonNull(slabCacheConfig, "slabCacheConfig is null");
+        requireNonNull(cacheConfig.getBaseDirectory(), "cache base directory is null");
+        this.cacheFlushExecutor = requireNonNull(cacheFlushExecutor, "cacheFlushExecutor is null");
+        this.stats = requireNonNull(stats, "stats is null");
+
+        this.baseDirectory = new File(cacheConfig.getBaseDirectory());
+        this.pageSize = toIntExact(slabCacheConfig.getPageSize().toBytes());
+        long slabSize = slabCacheConfig.getSlabSize().toBytes();
+        checkArgument(slabSize % pageSize == 0, "slab size is not a multiple of page size");
+        this.pagesPerSlab = toIntExact(slabSize / pageSize);
+        int slabCount = toIntExact(max(slabCacheConfig.getMaxCacheSize().toBytes() / slabSize, 1));
+        checkArgument(slabCacheConfig.getMaxInMemoryCacheSize().toBytes() >= 0, "maxInflightBytes is negative");
+        this.maxInflightBytes = slabCacheConfig.getMaxInMemoryCacheSize().toBytes();
+
+        int slotCount = toIntExact((long) slabCount * pagesPerSlab);
+        this.slotGenerations = new AtomicLongArray(slotCount);
+        this.slotWriters = new int[slotCount];
+        this.frequencySketch = new FrequencySketch(slotCount);
+
+        try {
+            Files.createDirectories(baseDirectory.toPath());
+            this.slabs = new FileChannel[slabCount];
+            for (int i = 0; i < slabCount; i++) {
+                File slabFile = new File(baseDirectory, SLAB_FILE_PREFIX + i + SLAB_FILE_EXTENSION);
+                try (RandomAccessFile file = new RandomAccessFile(slabFile, "rw")) {
+                    file.setLength(slabSize);
+                }
+                slabs[i] = FileChannel.open(slabFile.toPath(), READ, WRITE);
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "cannot create cache slabs in " + baseDirectory, e);
+        }
+
+        synchronized (this) {
+            loadIndex();
+            boolean[] usedSlots = new boolean[slotCount];
+            for (PageEntry entry : pages.values()) {
+                usedSlots[entry.getSlot()] = true;
+            }
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (!usedSlots[slot]) {
+                    freeSlots.add(slot);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        cacheFlushExecutor.shutdown();
+        try {
+            if (!cacheFlushExecutor.awaitTermination(10, SECONDS)) {
+                log.warn("Cache writes did not finish in time, the cache index is not persisted");
+                return;
+            }
+            synchronized (this) {
+                persistIndex();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to persist the cache index to %s", baseDirectory);
+        }
+        finally {
+            for (FileChannel slab : slabs) {
+                try {
+                    slab.close();
+                }
+                catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public CacheResult get(FileReadRequest request, byte[] buffer, int offset, CacheQuota cacheQuota)
+    {
+        if (request.getLength() <= 0) {
+            // no-op
+            stats.incrementCacheHit();
+            return CacheResult.HIT;
+        }
+
+        long start = request.getOffset();
+        long end = start + request.getLength();
+        long firstPage = start / pageSize;
+        long lastPage = (end - 1) / pageSize;
+
+        List<PageEntry> entries = new ArrayList<>();
+        boolean cached = true;
+        synchronized (this) {
+            for (long pageIndex = firstPage; pageIndex <= lastPage; pageIndex++) {
+                PageKey key = PageKey.of(request, pageIndex);
+                // record every access so the admission filter knows how popular a page is before it is cached
+                frequencySketch.increment(key.longHash());
+                PageEntry entry = pages.get(key);
+                long pageStart = pageIndex * pageSize;
+                if (entry == null || !entry.contains(toIntExact(max(start, pageStart) - pageStart), toIntExact(min(end, pageStart + pageSize) - pageStart))) {
+                    cached = false;
+                }
+                entries.add(entry);
+            }
+        }
+
+        if (cached && read(entries, firstPage, start, end, buffer, offset)) {
+            stats.incrementCacheHit();
+            return CacheResult.HIT;
+        }
+
+        synchronized (this) {
+            if (exceedsQuota(cacheQuota, request.getLength())) {
+                stats.incrementQuotaExceed();
+                return CacheResult.CACHE_QUOTA_EXCEED;
+            }
+        }
+
+        stats.incrementCacheMiss();
+        return CacheResult.MISS;
+    }
+
+    @Override
+    public void put(FileReadRequest request, Slice data, CacheQuota cacheQuota)
+    {
+        if (data.length() == 0 || stats.getInMemoryRetainedBytes() + data.length() >= maxInflightBytes) {
+            // cannot accept more requests
+            return;
+        }
+
+        // make a copy given the input data could be a reusable buffer
+        stats.addInMemoryRetainedBytes(data.length());
+        byte[] copy = data.getBytes();
+
+        try {
+            cacheFlushExecutor.submit(() -> {
+                try {
+                    write(request, copy, cacheQuota);
+                }
+                catch (IOException e) {
+                    log.warn(e, "%s failed to cache %s at offset %s with length %s", Thread.currentThread().getName(), request.getPath(), request.getOffset(), copy.length);
+                }
+                finally {
+                    stats.addInMemoryRetainedBytes(-copy.length);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            // the cache is shutting down
+            stats.addInMemoryRetainedBytes(-copy.length);
+        }
+    }
+
+    private boolean read(List<PageEntry> entries, long firstPage, long start, long end, byte[] buffer, int offset)
+    {
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                PageEntry entry = entries.get(i);
+                long pageStart = (firstPage + i) * pageSize;
+                long readStart = max(start, pageStart);
+                int length = toIntExact(min(end, pageStart + pageSize) - readStart);
+                readSlot(entry.getSlot(), toIntExact(readStart - pageStart), buffer, offset + toIntExact(readStart - start), length);
+                if (slotGenerations.get(entry.getSlot()) != entry.getGeneration()) {
+                    // the page was evicted while it was read
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read from cache slabs in %s", baseDirectory);
+            return false;
+        }
+    }
+
+    private void write(FileReadRequest request, byte[] data, CacheQuota cacheQuota)
+            throws IOException
+    {
+        long start = request.getOffset();
+        long end = start + data.length;
+        for (long pageIndex = start / pageSize; pageIndex <= (end - 1) / pageSize; pageIndex++) {
+            long pageStart = pageIndex * pageSize;
+            int fragmentStart = toIntExact(max(start, pageStart) - pageStart);
+            int fragmentEnd = toIntExact(min(end, pageStart + pageSize) - pageStart);
+            writePage(PageKey.of(request, pageIndex), fragmentStart, fragmentEnd, data, toIntExact(pageStart + fragmentStart - start), cacheQuota);
+        }
+    }
+
+    private void writePage(PageKey key, int fragmentStart, int fragmentEnd, byte[] data, int dataOffset, CacheQuota cacheQuota)
+            throws IOException
+    {
+        PageEntry existing;
+        int slot;
+        long generation;
+        synchronized (this) {
+            existing = pages.get(key);
+            if (existing != null && (existing.contains(fragmentStart, fragmentEnd) || (!existing.isContiguous(fragmentStart, fragmentEnd) && existing.getLength() >= fragmentEnd - fragmentStart))) {
+                // the page already holds this fragment or a larger one
+                return;
+            }
+            if (exceedsQuota(cacheQuota, fragmentEnd - fragmentStart)) {
+                return;
+            }
+            if (existing != null) {
+                slot = existing.getSlot();
+                generation = existing.getGeneration();
+                slotWriters[slot]++;
+            }
+            else {
+                slot = allocateSlot(key);
+                if (slot < 0) {
+                    return;
+                }
+                generation = slotGenerations.incrementAndGet(slot);
+            }
+        }
+
+        boolean written = false;
+        try {
+            writeSlot(slot, fragmentStart, data, dataOffset, fragmentEnd - fragmentStart);
+            written = true;
+        }
+        finally {
+            synchronized (this) {
+                if (existing != null) {
+                    slotWriters[slot]--;
+                    PageEntry current = pages.get(key);
+                    if (written && current != null && current.getGeneration() == generation) {
+                        PageEntry updated = current.withFragment(fragmentStart, fragmentEnd);
+                        pages.put(key, updated);
+                        updateCacheScopeSize(updated.getCacheScopeIdentifier(), updated.getLength() - current.getLength());
+                    }
+                }
+                else if (written && !pages.containsKey(key)) {
+                    pages.put(key, new PageEntry(slot, generation, fragmentStart, fragmentEnd, cacheQuota.getIdentifier()));
+                    updateCacheScopeSize(cacheQuota.getIdentifier(), fragmentEnd - fragmentStart);
+                }
+                else {
+                    // the write failed or another writer cached the page first
+                    freeSlots.add(slot);
+                }
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private int allocateSlot(PageKey key)
+    {
+        Integer freeSlot = freeSlots.poll();
+        if (freeSlot != null) {
+            return freeSlot;
+        }
+
+        // the cache is full: only admit the page if it is more popular than the least recently used page
+        int frequency = frequencySketch.frequency(key.longHash());
+        Iterator<Entry<PageKey, PageEntry>> iterator = pages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<PageKey, PageEntry> victim = iterator.next();
+            PageEntry victimEntry = victim.getValue();
+            if (slotWriters[victimEntry.getSlot()] > 0) {
+                continue;
+            }
+            if (frequency <= frequencySketch.frequency(victim.getKey().longHash())) {
+                stats.incrementAdmissionRejected();
+                return -1;
+            }
+            iterator.remove();
+            updateCacheScopeSize(victimEntry.getCacheScopeIdentifier(), -victimEntry.getLength());
+            stats.incrementEviction();
+            return victimEntry.getSlot();
+        }
+        return -1;
+    }
+
+    @GuardedBy("this")
+    private boolean exceedsQuota(CacheQuota cacheQuota, long bytes)
+    {
+        long cacheSize = cacheScopeSizeInBytes.getOrDefault(cacheQuota.getIdentifier(), 0L) + bytes;
+        return cacheQuota.getQuota().map(quota -> cacheSize > quota.toBytes()).orElse(false);
+    }
+
+    @GuardedBy("this")
+    private void updateCacheScopeSize(long cacheScopeIdentifier, long bytes)
+    {
+        long size = cacheScopeSizeInBytes.getOrDefault(cacheScopeIdentifier, 0L) + bytes;
+        if (size == 0) {
+            cacheScopeSizeInBytes.remove(cacheScopeIdentifier);
+        }
+        else {
+            cacheScopeSizeInBytes.put(cacheScopeIdentifier, size);
+        }
+    }
+
+    private void readSlot(int slot, int pageOffset, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        FileChannel slab = slabs[slot / pagesPerSlab];
+        long position = slotPosition(slot) + pageOffset;
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, length);
+        while (byteBuffer.hasRemaining()) {
+            int bytesRead = slab.read(byteBuffer, position);
+            if (bytesRead < 0) {
+                throw new EOFException("Unexpected end of cache slab");
+            }
+            position += bytesRead;
+        }
+    }
+
+    private void writeSlot(int slot, int pageOffset, byte[] data, int offset, int length)
+            throws IOException
+    {
+        FileChannel slab = slabs[slot / pagesPerSlab];
+        long position = slotPosition(slot) + pageOffset;
+        ByteBuffer byteBuffer = ByteBuffer.wrap(data, offset, length);
+        while (byteBuffer.hasRemaining()) {
+            position += slab.write(byteBuffer, position);
+        }
+    }
+
+    private long slotPosition(int slot)
+    {
+        return (long) (slot % pagesPerSlab) * pageSize;
+    }
+
+    @GuardedBy("this")
+    private void persistIndex()
+            throws IOException
+    {
+        for (FileChannel slab : slabs) {
+            slab.force(false);
+        }
+
+        File indexFile = new File(baseDirectory, INDEX_FILE_NAME);
+        File temporaryFile = new File(baseDirectory, INDEX_FILE_NAME + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(INDEX_VERSION);
+            output.writeInt(pageSize);
+            output.writeInt(pagesPerSlab);
+            output.writeInt(slabs.length);
+            output.writeInt(pages.size());
+            // least recently used first, so the access order is restored on load
+            for (Entry<PageKey, PageEntry> page : pages.entrySet()) {
+                PageEntry entry = page.getValue();
+                PageKey key = page.getKey();
+                // paths are not limited to the 64KB of writeUTF
+                byte[] path = key.getPath().getBytes(UTF_8);
+                output.writeInt(path.length);
+                output.write(path);
+                output.writeLong(key.getModificationTime());
+                output.writeLong(key.getFileSize());
+                output.writeLong(key.getPageIndex());
+                output.writeInt(entry.getSlot());
+                output.writeInt(entry.getStart());
+                output.writeInt(entry.getEnd());
+                output.writeLong(entry.getCacheScopeIdentifier());
+            }
+        }
+        Files.move(temporaryFile.toPath(), indexFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @GuardedBy("this")
+    private void loadIndex()
+    {
+        File indexFile = new File(baseDirectory, INDEX_FILE_NAME);
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != INDEX_MAGIC ||
+                    input.readInt() != INDEX_VERSION ||
+                    input.readInt() != pageSize ||
+                    input.readInt() != pagesPerSlab ||
+                    input.readInt() != slabs.length) {
+                log.info("Ignoring cache index %s written with a different cache configuration", indexFile);
+                return;
+            }
+
+            int pageCount = input.readInt();
+            boolean[] usedSlots = new boolean[slotGenerations.length()];
+            for (int i = 0; i < pageCount; i++) {
+                int pathLength = input.readInt();
+                if (pathLength < 0) {
+                    throw new IOException("Corrupted cache index entry with path length " + pathLength);
+                }
+                byte[] path = new byte[pathLength];
+                input.readFully(path);
+                PageKey key = new PageKey(new String(path, UTF_8), input.readLong(), input.readLong(), input.readLong());
+                int slot = input.readInt();
+                int start = input.readInt();
+                int end = input.readInt();
+                long cacheScopeIdentifier = input.readLong();
+                if (slot < 0 || slot >= usedSlots.length || usedSlots[slot] || start < 0 || start >= end || end > pageSize) {
+                    throw new IOException("Corrupted cache index entry for slot " + slot);
+                }
+                usedSlots[slot] = true;
+                pages.put(key, new PageEntry(slot, 0, start, end, cacheScopeIdentifier));
+                updateCacheScopeSize(cacheScopeIdentifier, end - start);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to load cache index %s, starting with an empty cache", indexFile);
+            pages.clear();
+            cacheScopeSizeInBytes.clear();
+        }
+        finally {
+            // the slabs are modified from now on, so the index must not be used after a crash
+            if (!indexFile.delete()) {
+                log.warn("Failed to delete cache index %s, starting with an empty cache", indexFile);
+                pages.clear();
+                cacheScopeSizeInBytes.clear();
+            }
+        }
+    }
+
+    private static class PageKey
+    {
+        private static final long UNKNOWN_FILE_SIZE = -1;
+
+        private final String path;
+        private final long modificationTime;
+        private final long fileSize;
+        private final long pageIndex;
+
+        public PageKey(String path, long modificationTime, long fileSize, long pageIndex)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.modificationTime = modificationTime;
+            this.fileSize = fileSize;
+            this.pageIndex = pageIndex;
+        }
+
+        public static PageKey of(FileReadRequest request, long pageIndex)
+        {
+            return new PageKey(request.getPath().toString(), request.getModificationTime(), request.getFileSize().orElse(UNKNOWN_FILE_SIZE), pageIndex);
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        public long getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public long getFileSize()
+        {
+            return fileSize;
+        }
+
+        public long getPageIndex()
+        {
+            return pageIndex;
+        }
+
+        public long longHash()
+        {
+            return 31L * Objects.hash(path, modificationTime, fileSize) + pageIndex;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return pageIndex == other.pageIndex &&
+                    modificationTime == other.modificationTime &&
+                    fileSize == other.fileSize &&
+                    path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, modificationTime, fileSize, pageIndex);
+        }
+    }
+
+    private static class PageEntry
+    {
+        private final int slot;
+        private final long generation;
+        // the cached range within the page
+        private final int start;
+        private final int end;
+        private final long cacheScopeIdentifier;
+
+        public PageEntry(int slot, long generation, int start, int end, long cacheScopeIdentifier)
+        {
+            this.slot = slot;
+            this.generation = generation;
+            this.start = start;
+            this.end = end;
+            this.cacheScopeIdentifier = cacheScopeIdentifier;
+        }
+
+        public int getSlot()
+        {
+            return slot;
+        }
+
+        public long getGeneration()
+        {
+            return generation;
+        }
+
+        public int getStart()
+        {
+            return start;
+        }
+
+        public int getEnd()
+        {
+            return end;
+        }
+
+        public int getLength()
+        {
+            return end - start;
+        }
+
+        public long getCacheScopeIdentifier()
+        {
+            return cacheScopeIdentifier;
+        }
+
+        public boolean contains(int start, int end)
+        {
+            return this.start <= start && end <= this.end;
+        }
+
+        public boolean isContiguous(int start, int end)
+        {
+            return start <= this.end && this.start <= end;
+        }
+
+        /**
+         * Returns the entry after writing the fragment into the slot: the union of both ranges if
+         * they are contiguous, otherwise the larger of the two.
+         */
+        public PageEntry withFragment(int start, int end)
+        {
+            if (isContiguous(start, end)) {
+                return new PageEntry(slot, generation, min(this.start, start), max(this.end, end), cacheScopeIdentifier);
+            }
+            if (end - start > getLength()) {
+                return new PageEntry(slot, generation, start, end, cacheScopeIdentifier);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.slab;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestSlabCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(SlabCacheConfig.class)
+                .setPageSize(new DataSize(1, MEGABYTE))
+                .setSlabSize(new DataSize(1, GIGABYTE))
+                .setMaxCacheSize(new DataSize(100, GIGABYTE))
+                .setMaxInMemoryCacheSize(new DataSize(2, GIGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("cache.slab.page-size", "64kB")
+                .put("cache.slab.slab-size", "256MB")
+                .put("cache.slab.max-cache-size", "10GB")
+                .put("cache.slab.max-in-memory-cache-size", "42MB")
+                .build();
+
+        SlabCacheConfig expected = new SlabCacheConfig()
+                .setPageSize(new DataSize(64, KILOBYTE))
+                .setSlabSize(new DataSize(256, MEGABYTE))
+                .setMaxCacheSize(new DataSize(10, GIGABYTE))
+                .setMaxInMemoryCacheSize(new DataSize(42, MEGABYTE));
+        assertFullMapping(properties, expected);
+    }
+}
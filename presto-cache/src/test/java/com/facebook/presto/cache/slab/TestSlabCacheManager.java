@@ -0,0 +1,380 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.slab;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.cache.CacheConfig;
+import com.facebook.presto.cache.CacheManager;
+import com.facebook.presto.cache.CacheResult;
+import com.facebook.presto.cache.CacheStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
+import static com.facebook.presto.cache.CacheResult.HIT;
+import static com.facebook.presto.cache.CacheResult.MISS;
+import static com.facebook.presto.cache.TestingCacheUtils.stressTest;
+import static com.facebook.presto.cache.TestingCacheUtils.validateBuffer;
+import static com.facebook.presto.hive.CacheQuota.NO_CACHE_CONSTRAINTS;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestSlabCacheManager
+{
+    private static final int DATA_LENGTH = (int) new DataSize(20, KILOBYTE).toBytes();
+    private static final int PAGE_SIZE = (int) new DataSize(1, KILOBYTE).toBytes();
+    private final byte[] data = new byte[DATA_LENGTH];
+
+    private File cacheDirectory;
+    private File fileDirectory;
+    private File dataFile;
+
+    @BeforeClass
+    public void setup()
+            throws IOException
+    {
+        new Random().nextBytes(data);
+
+        this.cacheDirectory = createTempDirectory("cache").toFile();
+        this.fileDirectory = createTempDirectory("file").toFile();
+        this.dataFile = new File(fileDirectory, "data");
+
+        Files.write(dataFile.toPath(), data, CREATE_NEW);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close()
+            throws IOException
+    {
+        deleteRecursively(cacheDirectory.toPath(), ALLOW_INSECURE);
+        deleteRecursively(fileDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testBasic()
+            throws InterruptedException, ExecutionException, IOException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        CacheManager cacheManager = slabCacheManager("basic", new DataSize(64, KILOBYTE), stats);
+        byte[] buffer = new byte[4096];
+
+        // new read spanning two pages
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 1000, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getCacheHit(), 0);
+        stats.trigger();
+        assertEquals(stats.getInMemoryRetainedBytes(), 0);
+        validateBuffer(data, 1000, buffer, 0, 100);
+
+        // within the cached range
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 1010, buffer, 0, 80));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getCacheHit(), 1);
+        validateBuffer(data, 1010, buffer, 0, 80);
+
+        // partially within the cached range
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 1050, buffer, 10, 100));
+        assertEquals(stats.getCacheMiss(), 2);
+        assertEquals(stats.getCacheHit(), 1);
+        stats.trigger();
+        validateBuffer(data, 1050, buffer, 10, 100);
+
+        // the fragments of the second page were merged
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 1024, buffer, 0, 126));
+        assertEquals(stats.getCacheMiss(), 2);
+        assertEquals(stats.getCacheHit(), 2);
+        validateBuffer(data, 1024, buffer, 0, 126);
+
+        // a read covering several pages
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 3000, buffer, 0, 4000));
+        stats.trigger();
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 3100, buffer, 50, 3000));
+        assertEquals(stats.getCacheMiss(), 3);
+        assertEquals(stats.getCacheHit(), 3);
+        assertEquals(stats.getCacheHitRatio(), 0.5, 0.0001);
+        assertEquals(stats.getEviction(), 0);
+        validateBuffer(data, 3100, buffer, 50, 3000);
+    }
+
+    @Test(invocationCount = 10)
+    public void testStress()
+            throws ExecutionException, InterruptedException
+    {
+        // a small cache, so pages are evicted while they are read
+        CacheManager cacheManager = slabCacheManager("stress-" + randomUUID(), new DataSize(8, KILOBYTE), new CacheStats());
+
+        stressTest(data, (position, buffer, offset, length) -> readFully(cacheManager, NO_CACHE_CONSTRAINTS, position, buffer, offset, length));
+    }
+
+    @Test(timeOut = 30_000)
+    public void testQuota()
+            throws InterruptedException, ExecutionException, IOException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        CacheManager cacheManager = slabCacheManager("quota", new DataSize(64, KILOBYTE), stats);
+        byte[] buffer = new byte[10240];
+
+        CacheQuota cacheQuota = new CacheQuota("test.table", Optional.of(DataSize.succinctDataSize(1, KILOBYTE)));
+        // read within the cache quota
+        assertFalse(readFully(cacheManager, cacheQuota, 42, buffer, 0, 100));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getQuotaExceed(), 0);
+        stats.trigger();
+        validateBuffer(data, 42, buffer, 0, 100);
+
+        // read beyond cache quota
+        assertFalse(readFully(cacheManager, cacheQuota, 47, buffer, 0, 9000));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getQuotaExceed(), 1);
+        validateBuffer(data, 47, buffer, 0, 9000);
+
+        // previously cached data is still served
+        assertTrue(readFully(cacheManager, cacheQuota, 47, buffer, 0, 90));
+        assertEquals(stats.getCacheHit(), 1);
+        assertEquals(stats.getQuotaExceed(), 1);
+        validateBuffer(data, 47, buffer, 0, 90);
+
+        // other tables are not limited by the quota
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 5000, buffer, 0, 9000));
+        stats.trigger();
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 5000, buffer, 0, 9000));
+        assertEquals(stats.getQuotaExceed(), 1);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testAdmission()
+            throws InterruptedException, ExecutionException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        // room for two pages
+        CacheManager cacheManager = slabCacheManager("admission", new DataSize(2, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        Path path = new Path("/admission/data");
+
+        for (int page = 0; page < 2; page++) {
+            assertEquals(getPage(cacheManager, path, page), MISS);
+            assertEquals(getPage(cacheManager, path, page), MISS);
+            putPage(cacheManager, path, page);
+            stats.trigger();
+            assertEquals(getPage(cacheManager, path, page), HIT);
+        }
+
+        // a page read once is not admitted over more frequently read pages
+        assertEquals(getPage(cacheManager, path, 2), MISS);
+        putPage(cacheManager, path, 2);
+        stats.trigger();
+        assertEquals(stats.getAdmissionRejected(), 1);
+        assertEquals(stats.getEviction(), 0);
+
+        // once it is read more often than the least recently used page, it replaces that page
+        assertEquals(getPage(cacheManager, path, 2), MISS);
+        assertEquals(getPage(cacheManager, path, 2), MISS);
+        assertEquals(getPage(cacheManager, path, 2), MISS);
+        putPage(cacheManager, path, 2);
+        stats.trigger();
+        assertEquals(stats.getAdmissionRejected(), 1);
+        assertEquals(stats.getEviction(), 1);
+        assertEquals(getPage(cacheManager, path, 2), HIT);
+        assertEquals(getPage(cacheManager, path, 1), HIT);
+        assertEquals(getPage(cacheManager, path, 0), MISS);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testPersistence()
+            throws InterruptedException, ExecutionException, IOException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        SlabCacheManager cacheManager = slabCacheManager("persistence", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        byte[] buffer = new byte[4096];
+
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 100, buffer, 0, 3000));
+        stats.trigger();
+        cacheManager.destroy();
+
+        // the cache index is loaded after a restart
+        stats = new TestingCacheStats();
+        ExecutorService flushExecutor = newFlushExecutor();
+        cacheManager = slabCacheManager("persistence", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, flushExecutor);
+        assertTrue(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 200, buffer, 0, 2000));
+        assertEquals(stats.getCacheHit(), 1);
+        validateBuffer(data, 200, buffer, 0, 2000);
+
+        // the cache is not persisted without a graceful shutdown
+        flushExecutor.shutdownNow();
+        stats = new TestingCacheStats();
+        cacheManager = slabCacheManager("persistence", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        assertFalse(readFully(cacheManager, NO_CACHE_CONSTRAINTS, 200, buffer, 0, 2000));
+        assertEquals(stats.getCacheMiss(), 1);
+        validateBuffer(data, 200, buffer, 0, 2000);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testRewrittenFile()
+            throws InterruptedException, ExecutionException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        SlabCacheManager cacheManager = slabCacheManager("rewritten", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        Path path = new Path("/rewritten/data");
+
+        putPage(cacheManager, path, 0, 1000, OptionalLong.of(DATA_LENGTH));
+        stats.trigger();
+        assertEquals(getPage(cacheManager, path, 0, 1000, OptionalLong.of(DATA_LENGTH)), HIT);
+
+        // a file rewritten at the same path is not served from the cache
+        assertEquals(getPage(cacheManager, path, 0, 2000, OptionalLong.of(DATA_LENGTH)), MISS);
+        assertEquals(getPage(cacheManager, path, 0, 1000, OptionalLong.of(DATA_LENGTH * 2)), MISS);
+
+        // nor after a restart
+        cacheManager.destroy();
+        stats = new TestingCacheStats();
+        cacheManager = slabCacheManager("rewritten", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        assertEquals(getPage(cacheManager, path, 0, 2000, OptionalLong.of(DATA_LENGTH)), MISS);
+        assertEquals(getPage(cacheManager, path, 0, 1000, OptionalLong.of(DATA_LENGTH)), HIT);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testPersistenceOfLongPaths()
+            throws InterruptedException, ExecutionException
+    {
+        TestingCacheStats stats = new TestingCacheStats();
+        SlabCacheManager cacheManager = slabCacheManager("long-paths", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), stats, newFlushExecutor());
+        // longer than the 64KB that DataOutput.writeUTF can write
+        Path path = new Path("/" + Strings.repeat("a", 70_000));
+
+        putPage(cacheManager, path, 0, 0, OptionalLong.empty());
+        stats.trigger();
+        cacheManager.destroy();
+
+        cacheManager = slabCacheManager("long-paths", new DataSize(64, KILOBYTE), new DataSize(1, KILOBYTE), new TestingCacheStats(), newFlushExecutor());
+        assertEquals(getPage(cacheManager, path, 0, 0, OptionalLong.empty()), HIT);
+    }
+
+    private SlabCacheManager slabCacheManager(String name, DataSize maxCacheSize, CacheStats cacheStats)
+    {
+        return slabCacheManager(name, maxCacheSize, new DataSize(4, KILOBYTE), cacheStats, newFlushExecutor());
+    }
+
+    private SlabCacheManager slabCacheManager(String name, DataSize maxCacheSize, DataSize slabSize, CacheStats cacheStats, ExecutorService flushExecutor)
+    {
+        URI directory = new File(cacheDirectory, name).toURI();
+        SlabCacheConfig slabCacheConfig = new SlabCacheConfig()
+                .setPageSize(new DataSize(PAGE_SIZE, BYTE))
+                .setSlabSize(slabSize)
+                .setMaxCacheSize(maxCacheSize);
+        return new SlabCacheManager(new CacheConfig().setBaseDirectory(directory), slabCacheConfig, cacheStats, flushExecutor);
+    }
+
+    private static ExecutorService newFlushExecutor()
+    {
+        return newScheduledThreadPool(5, daemonThreadsNamed("test-cache-flusher-%s"));
+    }
+
+    private CacheResult getPage(CacheManager cacheManager, Path path, int page)
+    {
+        return getPage(cacheManager, path, page, 0, OptionalLong.empty());
+    }
+
+    private CacheResult getPage(CacheManager cacheManager, Path path, int page, long modificationTime, OptionalLong fileSize)
+    {
+        return cacheManager.get(new FileReadRequest(path, (long) page * PAGE_SIZE, PAGE_SIZE, modificationTime, fileSize), new byte[PAGE_SIZE], 0, NO_CACHE_CONSTRAINTS);
+    }
+
+    private void putPage(CacheManager cacheManager, Path path, int page)
+    {
+        putPage(cacheManager, path, page, 0, OptionalLong.empty());
+    }
+
+    private void putPage(CacheManager cacheManager, Path path, int page, long modificationTime, OptionalLong fileSize)
+    {
+        cacheManager.put(new FileReadRequest(path, (long) page * PAGE_SIZE, PAGE_SIZE, modificationTime, fileSize), wrappedBuffer(data, page * PAGE_SIZE, PAGE_SIZE), NO_CACHE_CONSTRAINTS);
+    }
+
+    private boolean readFully(CacheManager cacheManager, CacheQuota cacheQuota, long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        FileReadRequest key = new FileReadRequest(new Path(dataFile.getAbsolutePath()), position, length);
+        switch (cacheManager.get(key, buffer, offset, cacheQuota)) {
+            case HIT:
+                return true;
+            case MISS:
+                try (RandomAccessFile file = new RandomAccessFile(dataFile.getAbsolutePath(), "r")) {
+                    file.seek(position);
+                    file.readFully(buffer, offset, length);
+                }
+                cacheManager.put(key, wrappedBuffer(buffer, offset, length), cacheQuota);
+                return false;
+            case CACHE_QUOTA_EXCEED:
+            default:
+                try (RandomAccessFile file = new RandomAccessFile(dataFile.getAbsolutePath(), "r")) {
+                    file.seek(position);
+                    file.readFully(buffer, offset, length);
+                }
+                return false;
+        }
+    }
+
+    private static class TestingCacheStats
+            extends CacheStats
+    {
+        private SettableFuture<?> trigger;
+
+        public TestingCacheStats()
+        {
+            this.trigger = SettableFuture.create();
+        }
+
+        @Override
+        public void addInMemoryRetainedBytes(long bytes)
+        {
+            super.addInMemoryRetainedBytes(bytes);
+            if (bytes < 0) {
+                trigger.set(null);
+            }
+        }
+
+        public void trigger()
+                throws InterruptedException, ExecutionException
+        {
+            trigger.get();
+            trigger = SettableFuture.create();
+        }
+    }
+}
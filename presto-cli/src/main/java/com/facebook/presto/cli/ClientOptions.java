@@ -156,6 +156,9 @@ public class ClientOptions
     @Option(name = "--disable-compression", title = "disable response compression", description = "Disable compression of query results")
     public boolean disableCompression;
 
+    @Option(name = "--binary-results", title = "binary results", description = "Transfer query results in the binary page format instead of JSON")
+    public boolean binaryResults;
+
     @Option(name = "--validate-nexturi-source", title = "validate nextUri source", description = "Validate nextUri server host and port does not change during query execution")
     public boolean validateNextUriSource;
 
@@ -197,7 +200,8 @@ public class ClientOptions
                 disableCompression,
                 emptyMap(),
                 emptyMap(),
-                validateNextUriSource);
+                validateNextUriSource,
+                binaryResults);
     }
 
     public static URI parseServer(String server)
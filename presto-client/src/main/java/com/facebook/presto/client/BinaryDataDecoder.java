@@ -0,0 +1,267 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.NamedTypeSignature;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.common.type.TimeZoneKey;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.CharType.createCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.IpAddressType.IPADDRESS;
+import static com.facebook.presto.common.type.IpPrefixType.IPPREFIX;
+import static com.facebook.presto.common.type.JsonType.JSON;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimeType.TIME;
+import static com.facebook.presto.common.type.TimeWithTimeZoneType.TIME_WITH_TIME_ZONE;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP_MICROSECONDS;
+import static com.facebook.presto.common.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIME_ZONE;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.UuidType.UUID;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
+import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Strings.nullToEmpty;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Decodes the {@code binaryData} of query results, which holds the result pages in the
+ * serialized page format of the engine, into the same row values as {@link FixJsonDataUtils}
+ * produces for the {@code data} of query results.
+ */
+final class BinaryDataDecoder
+{
+    private static final List<Type> SCALAR_TYPES = ImmutableList.of(
+            BIGINT, INTEGER, SMALLINT, TINYINT, DOUBLE, REAL, BOOLEAN, JSON, DATE, TIME, TIME_WITH_TIME_ZONE,
+            TIMESTAMP, TIMESTAMP_MICROSECONDS, TIMESTAMP_WITH_TIME_ZONE, UUID, IPADDRESS, IPPREFIX);
+    private static final int BING_TILE_COORDINATE_MASK = (1 << 24) - 1;
+    private static final int BING_TILE_ZOOM_MASK = (1 << 6) - 1;
+
+    private final PagesSerde serde = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+    private final SqlFunctionProperties properties;
+
+    public BinaryDataDecoder(TimeZoneKey timeZone, Locale locale, String user, boolean legacyTimestamp)
+    {
+        this.properties = SqlFunctionProperties.builder()
+                .setTimeZoneKey(requireNonNull(timeZone, "timeZone is null"))
+                .setSessionLocale(firstNonNull(locale, Locale.ENGLISH))
+                .setSessionUser(nullToEmpty(user))
+                .setLegacyTimestamp(legacyTimestamp)
+                .build();
+    }
+
+    public Iterable<List<Object>> decode(List<Column> columns, Iterable<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        requireNonNull(columns, "columns is null");
+        List<ValueDecoder> decoders = columns.stream()
+                .map(column -> createDecoder(parseTypeSignature(column.getType())))
+                .collect(toList());
+
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (String encodedPage : binaryData) {
+            SerializedPage serializedPage = readSerializedPage(wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput());
+            if (COMPRESSED.isSet(serializedPage.getPageCodecMarkers()) || ENCRYPTED.isSet(serializedPage.getPageCodecMarkers())) {
+                throw new ClientException("Compressed or encrypted result pages are not supported in binary results");
+            }
+            Page page = serde.deserialize(serializedPage);
+            if (page.getChannelCount() != columns.size()) {
+                throw new ClientException(format("Expected %s columns, but result page has %s", columns.size(), page.getChannelCount()));
+            }
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                List<Object> row = new ArrayList<>(columns.size());
+                for (int channel = 0; channel < columns.size(); channel++) {
+                    Block block = page.getBlock(channel);
+                    row.add(block.isNull(position) ? null : decoders.get(channel).decode(block, position));
+                }
+                rows.add(unmodifiableList(row)); // allow nulls in list
+            }
+        }
+        return rows.build();
+    }
+
+    private ValueDecoder createDecoder(TypeSignature signature)
+    {
+        if (signature.isDistinctType()) {
+            return createDecoder(signature.getDistinctTypeInfo().getBaseType());
+        }
+        if (signature.getTypeSignatureBase().hasTypeName() && signature.getTypeSignatureBase().hasStandardType()) {
+            return createDecoder(signature.getStandardTypeSignature());
+        }
+        if (signature.isVarcharEnum()) {
+            return createDecoder(VARCHAR.getTypeSignature());
+        }
+        if (signature.isBigintEnum()) {
+            return createDecoder(BIGINT.getTypeSignature());
+        }
+        switch (signature.getBase()) {
+            case StandardTypes.ARRAY: {
+                ValueDecoder elementDecoder = createDecoder(signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(0));
+                return (block, position) -> {
+                    Block elements = block.getBlock(position);
+                    List<Object> array = new ArrayList<>(elements.getPositionCount());
+                    for (int i = 0; i < elements.getPositionCount(); i++) {
+                        array.add(decodeNullable(elementDecoder, elements, i));
+                    }
+                    return array;
+                };
+            }
+            case StandardTypes.MAP: {
+                ValueDecoder keyDecoder = createDecoder(signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(0));
+                ValueDecoder valueDecoder = createDecoder(signature.getTypeOrNamedTypeParametersAsTypeSignatures().get(1));
+                return (block, position) -> {
+                    // keys and values alternate in the block of a single map
+                    Block entries = block.getBlock(position);
+                    Map<Object, Object> map = new HashMap<>();
+                    for (int i = 0; i < entries.getPositionCount(); i += 2) {
+                        map.put(decodeNullable(keyDecoder, entries, i), decodeNullable(valueDecoder, entries, i + 1));
+                    }
+                    return map;
+                };
+            }
+            case StandardTypes.ROW: {
+                List<String> fieldNames = new ArrayList<>();
+                List<ValueDecoder> fieldDecoders = new ArrayList<>();
+                for (int i = 0; i < signature.getParameters().size(); i++) {
+                    NamedTypeSignature field = signature.getParameters().get(i).getNamedTypeSignature();
+                    fieldNames.add(field.getName().orElse("field" + i));
+                    fieldDecoders.add(createDecoder(field.getTypeSignature()));
+                }
+                return (block, position) -> {
+                    Block fields = block.getBlock(position);
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 0; i < fieldDecoders.size(); i++) {
+                        row.put(fieldNames.get(i), decodeNullable(fieldDecoders.get(i), fields, i));
+                    }
+                    return row;
+                };
+            }
+            case StandardTypes.UNKNOWN:
+                // the only value of the unknown type is null
+                return (block, position) -> null;
+            case StandardTypes.VARBINARY:
+                return BinaryDataDecoder::decodeBytes;
+            case StandardTypes.GEOMETRY:
+            case StandardTypes.SPHERICAL_GEOGRAPHY:
+                return (block, position) -> GeometryWktFormatter.toWkt(block.getSlice(position, 0, block.getSliceLength(position)));
+            case StandardTypes.BING_TILE:
+                return (block, position) -> decodeBingTile(block.getLong(position));
+            case StandardTypes.INTERVAL_YEAR_TO_MONTH:
+                return (block, position) -> IntervalYearMonth.formatMonths(block.getInt(position));
+            case StandardTypes.INTERVAL_DAY_TO_SECOND:
+                return (block, position) -> IntervalDayTime.formatMillis(block.getLong(position));
+        }
+
+        Optional<Type> scalarType = getScalarType(signature);
+        if (!scalarType.isPresent()) {
+            // like the data of query results, values of other types, such as sketches, are sent as their serialized form
+            return (block, position) -> {
+                try {
+                    return decodeBytes(block, position);
+                }
+                catch (UnsupportedOperationException e) {
+                    throw new ClientException(format("Type %s is not supported in binary results", signature), e);
+                }
+            };
+        }
+        Type type = scalarType.get();
+        return (block, position) -> {
+            Object value = type.getObjectValue(properties, block, position);
+            if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+                return value;
+            }
+            // dates, times and decimals are sent as the text of their SQL values
+            return value.toString();
+        };
+    }
+
+    private static Object decodeNullable(ValueDecoder decoder, Block block, int position)
+    {
+        return block.isNull(position) ? null : decoder.decode(block, position);
+    }
+
+    private static byte[] decodeBytes(Block block, int position)
+    {
+        return block.getSlice(position, 0, block.getSliceLength(position)).getBytes();
+    }
+
+    private static Map<String, Object> decodeBingTile(long tile)
+    {
+        // same fields as the JSON form of a tile: x in bits 32 to 55, y in bits 0 to 23 and the zoom level in bits 26 to 31
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("x", (int) (tile >>> 32) & BING_TILE_COORDINATE_MASK);
+        fields.put("y", (int) tile & BING_TILE_COORDINATE_MASK);
+        fields.put("zoom", (int) (tile >>> 26) & BING_TILE_ZOOM_MASK);
+        return fields;
+    }
+
+    private static Optional<Type> getScalarType(TypeSignature signature)
+    {
+        for (Type type : SCALAR_TYPES) {
+            if (type.getTypeSignature().equals(signature)) {
+                return Optional.of(type);
+            }
+        }
+        switch (signature.getBase()) {
+            case StandardTypes.VARCHAR:
+                return Optional.of(VARCHAR);
+            case StandardTypes.CHAR:
+                return Optional.of(createCharType(signature.getParameters().get(0).getLongLiteral()));
+            case StandardTypes.DECIMAL:
+                return Optional.of(createDecimalType(
+                        signature.getParameters().get(0).getLongLiteral().intValue(),
+                        signature.getParameters().get(1).getLongLiteral().intValue()));
+        }
+        return Optional.empty();
+    }
+
+    private interface ValueDecoder
+    {
+        Object decode(Block block, int position);
+    }
+}
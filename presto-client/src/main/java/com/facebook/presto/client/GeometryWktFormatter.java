@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.Slice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Formats the serialized form of {@code Geometry} and {@code SphericalGeography} values
+ * as well-known text, without depending on a geometry library. The serialized form is
+ * a one byte geometry type followed by either the coordinates of a point, the corners of
+ * an envelope, an ESRI shape, or the length prefixed members of a geometry collection.
+ */
+final class GeometryWktFormatter
+{
+    private static final int POINT = 0;
+    private static final int MULTI_POINT = 1;
+    private static final int LINE_STRING = 2;
+    private static final int MULTI_LINE_STRING = 3;
+    private static final int POLYGON = 4;
+    private static final int MULTI_POLYGON = 5;
+    private static final int GEOMETRY_COLLECTION = 6;
+    private static final int ENVELOPE = 7;
+
+    private GeometryWktFormatter() {}
+
+    public static String toWkt(Slice shape)
+    {
+        requireNonNull(shape, "shape is null");
+        BasicSliceInput input = shape.getInput();
+        StringBuilder wkt = new StringBuilder();
+        appendGeometry(wkt, input, input.readByte(), input.available());
+        return wkt.toString();
+    }
+
+    private static void appendGeometry(StringBuilder wkt, BasicSliceInput input, int type, int length)
+    {
+        switch (type) {
+            case POINT:
+                appendPoint(wkt, input);
+                return;
+            case MULTI_POINT:
+                appendMultiPoint(wkt, input);
+                return;
+            case LINE_STRING:
+            case MULTI_LINE_STRING:
+                appendPolyline(wkt, input, type == MULTI_LINE_STRING);
+                return;
+            case POLYGON:
+            case MULTI_POLYGON:
+                appendPolygon(wkt, input, type == MULTI_POLYGON);
+                return;
+            case GEOMETRY_COLLECTION:
+                appendGeometryCollection(wkt, input, length);
+                return;
+            case ENVELOPE:
+                appendEnvelope(wkt, input);
+                return;
+            default:
+                throw new ClientException(format("Unknown geometry type: %s", type));
+        }
+    }
+
+    private static void appendPoint(StringBuilder wkt, BasicSliceInput input)
+    {
+        double x = input.readDouble();
+        double y = input.readDouble();
+        wkt.append("POINT ");
+        if (isNaN(x) || isNaN(y)) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        appendCoordinate(wkt, x, y);
+        wkt.append(')');
+    }
+
+    private static void appendMultiPoint(StringBuilder wkt, BasicSliceInput input)
+    {
+        skipShapeHeader(input);
+        int pointCount = input.readInt();
+        wkt.append("MULTIPOINT ");
+        if (pointCount == 0) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        for (int i = 0; i < pointCount; i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            wkt.append('(');
+            appendCoordinate(wkt, input.readDouble(), input.readDouble());
+            wkt.append(')');
+        }
+        wkt.append(')');
+    }
+
+    private static void appendPolyline(StringBuilder wkt, BasicSliceInput input, boolean multitype)
+    {
+        List<double[]> paths = readParts(input);
+        if (!multitype && paths.size() <= 1) {
+            wkt.append("LINESTRING ");
+            if (paths.isEmpty()) {
+                wkt.append("EMPTY");
+                return;
+            }
+            appendCoordinates(wkt, paths.get(0));
+            return;
+        }
+        wkt.append("MULTILINESTRING ");
+        if (paths.isEmpty()) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            appendCoordinates(wkt, paths.get(i));
+        }
+        wkt.append(')');
+    }
+
+    private static void appendPolygon(StringBuilder wkt, BasicSliceInput input, boolean multitype)
+    {
+        // shapes store the exterior ring of each polygon clockwise, followed by its holes
+        // counter clockwise, while well-known text lists exterior rings counter clockwise
+        List<List<double[]>> polygons = new ArrayList<>();
+        for (double[] ring : readParts(input)) {
+            if (isClockwise(ring) || polygons.isEmpty()) {
+                polygons.add(new ArrayList<>());
+            }
+            polygons.get(polygons.size() - 1).add(reverse(ring));
+        }
+
+        if (!multitype && polygons.size() <= 1) {
+            wkt.append("POLYGON ");
+            if (polygons.isEmpty()) {
+                wkt.append("EMPTY");
+                return;
+            }
+            appendRings(wkt, polygons.get(0));
+            return;
+        }
+        wkt.append("MULTIPOLYGON ");
+        if (polygons.isEmpty()) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        for (int i = 0; i < polygons.size(); i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            appendRings(wkt, polygons.get(i));
+        }
+        wkt.append(')');
+    }
+
+    private static void appendGeometryCollection(StringBuilder wkt, BasicSliceInput input, int length)
+    {
+        // each member is its length, its geometry type and its serialized form
+        long end = input.position() + length;
+        wkt.append("GEOMETRYCOLLECTION ");
+        if (input.position() >= end) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        boolean first = true;
+        while (input.position() < end) {
+            int memberLength = input.readInt();
+            long memberEnd = input.position() + memberLength;
+            if (!first) {
+                wkt.append(", ");
+            }
+            first = false;
+            appendGeometry(wkt, input, input.readByte(), memberLength - 1);
+            input.setPosition(memberEnd);
+        }
+        wkt.append(')');
+    }
+
+    private static void appendEnvelope(StringBuilder wkt, BasicSliceInput input)
+    {
+        double xMin = input.readDouble();
+        double yMin = input.readDouble();
+        double xMax = input.readDouble();
+        double yMax = input.readDouble();
+        wkt.append("POLYGON ");
+        if (isNaN(xMin) || isNaN(yMin) || isNaN(xMax) || isNaN(yMax)) {
+            wkt.append("EMPTY");
+            return;
+        }
+        wkt.append('(');
+        appendCoordinates(wkt, new double[] {xMin, yMin, xMax, yMin, xMax, yMax, xMin, yMax, xMin, yMin});
+        wkt.append(')');
+    }
+
+    private static void skipShapeHeader(BasicSliceInput input)
+    {
+        // shape type followed by the bounding box
+        input.skipBytes(Integer.BYTES + 4 * Double.BYTES);
+    }
+
+    private static List<double[]> readParts(BasicSliceInput input)
+    {
+        skipShapeHeader(input);
+        int partCount = input.readInt();
+        int pointCount = input.readInt();
+        int[] startIndexes = new int[partCount + 1];
+        for (int i = 0; i < partCount; i++) {
+            startIndexes[i] = input.readInt();
+        }
+        startIndexes[partCount] = pointCount;
+
+        List<double[]> parts = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            double[] coordinates = new double[toIntExact(2L * (startIndexes[i + 1] - startIndexes[i]))];
+            for (int j = 0; j < coordinates.length; j++) {
+                coordinates[j] = input.readDouble();
+            }
+            parts.add(coordinates);
+        }
+        return parts;
+    }
+
+    private static boolean isClockwise(double[] ring)
+    {
+        // sum over the edges of (x2 - x1) * (y2 + y1), which is positive for clockwise rings
+        double area = 0;
+        int points = ring.length / 2;
+        for (int i = 0; i < points; i++) {
+            int next = (i + 1) % points;
+            area += (ring[2 * next] - ring[2 * i]) * (ring[2 * next + 1] + ring[2 * i + 1]);
+        }
+        return area > 0;
+    }
+
+    private static double[] reverse(double[] coordinates)
+    {
+        double[] reversed = new double[coordinates.length];
+        for (int i = 0; i < coordinates.length; i += 2) {
+            reversed[coordinates.length - i - 2] = coordinates[i];
+            reversed[coordinates.length - i - 1] = coordinates[i + 1];
+        }
+        return reversed;
+    }
+
+    private static void appendRings(StringBuilder wkt, List<double[]> rings)
+    {
+        wkt.append('(');
+        for (int i = 0; i < rings.size(); i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            appendCoordinates(wkt, rings.get(i));
+        }
+        wkt.append(')');
+    }
+
+    private static void appendCoordinates(StringBuilder wkt, double[] coordinates)
+    {
+        wkt.append('(');
+        for (int i = 0; i < coordinates.length; i += 2) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            appendCoordinate(wkt, coordinates[i], coordinates[i + 1]);
+        }
+        wkt.append(')');
+    }
+
+    private static void appendCoordinate(StringBuilder wkt, double x, double y)
+    {
+        wkt.append(formatOrdinate(x)).append(' ').append(formatOrdinate(y));
+    }
+
+    private static String formatOrdinate(double value)
+    {
+        if (value == 0) {
+            return "0";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
@@ -88,6 +88,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 class StatementClientV1
         implements StatementClient
 {
+    private static final String LEGACY_TIMESTAMP = "legacy_timestamp";
     private static final MediaType MEDIA_TYPE_TEXT = MediaType.parse("text/plain; charset=utf-8");
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
 
@@ -115,6 +116,7 @@ class StatementClientV1
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
     private final boolean validateNextUriSource;
+    private final BinaryDataDecoder binaryDataDecoder;
     private final Map<String, List<String>> responseHeaders;
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
@@ -131,6 +133,11 @@ class StatementClientV1
         this.user = session.getUser();
         this.compressionDisabled = session.isCompressionDisabled();
         this.validateNextUriSource = session.validateNextUriSource();
+        this.binaryDataDecoder = new BinaryDataDecoder(
+                session.getTimeZone(),
+                session.getLocale(),
+                session.getUser(),
+                Boolean.parseBoolean(session.getProperties().getOrDefault(LEGACY_TIMESTAMP, "true")));
 
         Request request = buildQueryRequest(session, query);
 
@@ -150,7 +157,12 @@ class StatementClientV1
         if (url == null) {
             throw new ClientException("Invalid server URL: " + session.getServer());
         }
-        url = url.newBuilder().encodedPath("/v1/statement").build();
+        HttpUrl.Builder urlBuilder = url.newBuilder().encodedPath("/v1/statement");
+        if (session.isBinaryResults()) {
+            // the server propagates the parameter to the next URIs of the query
+            urlBuilder.addQueryParameter("binaryResults", "true");
+        }
+        url = urlBuilder.build();
 
         Request.Builder builder = prepareRequest(url)
                 .post(RequestBody.create(MEDIA_TYPE_TEXT, query));
@@ -506,6 +518,21 @@ class StatementClientV1
             removedSessionFunctions.add(urlDecode(signature));
         }
 
+        if (results.getBinaryData() != null) {
+            results = new QueryResults(
+                    results.getId(),
+                    results.getInfoUri(),
+                    results.getPartialCancelUri(),
+                    results.getNextUri(),
+                    results.getColumns(),
+                    binaryDataDecoder.decode(results.getColumns(), results.getBinaryData()),
+                    null,
+                    results.getStats(),
+                    results.getError(),
+                    results.getWarnings(),
+                    results.getUpdateType(),
+                    results.getUpdateCount());
+        }
         currentResults.set(results);
     }
 
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static io.airlift.slice.Slices.utf8Slice;
+
+/**
+ * Compares the client side cost of decoding a batch of query results sent as JSON {@code data}
+ * with decoding the same rows sent as serialized pages in {@code binaryData}.
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkQueryResultsDecoding
+{
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final String STATS_ONLY_RESULTS = "{\"id\":\"query\",\"infoUri\":\"http://localhost/query\",\"stats\":{\"state\":\"RUNNING\"," +
+            "\"queued\":false,\"scheduled\":true,\"nodes\":1,\"totalSplits\":0,\"queuedSplits\":0,\"runningSplits\":0,\"completedSplits\":0," +
+            "\"cpuTimeMillis\":0,\"wallTimeMillis\":0,\"queuedTimeMillis\":0,\"elapsedTimeMillis\":0,\"processedRows\":0,\"processedBytes\":0,\"peakMemoryBytes\":0}}";
+
+    @State(Scope.Thread)
+    public static class Data
+    {
+        @Param({"1024", "16384"})
+        private int rowCount = 1024;
+
+        private final BinaryDataDecoder decoder = new BinaryDataDecoder(UTC_KEY, Locale.ENGLISH, "user", true);
+        private String jsonResults;
+        private String binaryResults;
+
+        @Setup
+        public void setup()
+        {
+            List<Column> columns = ImmutableList.of(new Column("id", BIGINT), new Column("name", VARCHAR), new Column("price", DOUBLE));
+            ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+            BlockBuilder ids = BIGINT.createBlockBuilder(null, rowCount);
+            BlockBuilder names = VARCHAR.createBlockBuilder(null, rowCount);
+            BlockBuilder prices = DOUBLE.createBlockBuilder(null, rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                String name = "name_" + i;
+                rows.add(ImmutableList.of((long) i, name, i * 1.5));
+                BIGINT.writeLong(ids, i);
+                VARCHAR.writeSlice(names, utf8Slice(name));
+                DOUBLE.writeDouble(prices, i * 1.5);
+            }
+
+            PagesSerde serde = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+            DynamicSliceOutput output = new DynamicSliceOutput(rowCount * 32);
+            writeSerializedPage(output, serde.serialize(new Page(ids.build(), names.build(), prices.build())));
+            String encodedPage = Base64.getEncoder().encodeToString(output.slice().getBytes());
+
+            QueryResults statsOnly = QUERY_RESULTS_CODEC.fromJson(STATS_ONLY_RESULTS);
+            jsonResults = QUERY_RESULTS_CODEC.toJson(createResults(statsOnly, columns, rows.build(), null));
+            binaryResults = QUERY_RESULTS_CODEC.toJson(createResults(statsOnly, columns, null, ImmutableList.of(encodedPage)));
+        }
+
+        private static QueryResults createResults(QueryResults statsOnly, List<Column> columns, List<List<Object>> data, List<String> binaryData)
+        {
+            return new QueryResults(
+                    statsOnly.getId(),
+                    statsOnly.getInfoUri(),
+                    null,
+                    URI.create("http://localhost/next"),
+                    columns,
+                    data,
+                    binaryData,
+                    statsOnly.getStats(),
+                    null,
+                    ImmutableList.of(),
+                    null,
+                    null);
+        }
+    }
+
+    @Benchmark
+    public Iterable<List<Object>> decodeJsonData(Data data)
+    {
+        return QUERY_RESULTS_CODEC.fromJson(data.jsonResults).getData();
+    }
+
+    @Benchmark
+    public Iterable<List<Object>> decodeBinaryData(Data data)
+    {
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(data.binaryResults);
+        return data.decoder.decode(results.getColumns(), results.getBinaryData());
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkQueryResultsDecoding.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
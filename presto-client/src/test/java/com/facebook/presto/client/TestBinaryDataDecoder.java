@@ -0,0 +1,292 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.RowType;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RowType.field;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.UnknownType.UNKNOWN;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Double.NaN;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestBinaryDataDecoder
+{
+    private static final PagesSerde SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    private final BinaryDataDecoder decoder = new BinaryDataDecoder(UTC_KEY, Locale.ENGLISH, "user", true);
+
+    @Test
+    public void testDecode()
+    {
+        ArrayType arrayType = new ArrayType(BIGINT);
+        RowType rowType = RowType.from(ImmutableList.of(field("foo", BIGINT), field("bar", VARCHAR)));
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, DOUBLE, DATE, VARBINARY, arrayType, rowType);
+
+        List<BlockBuilder> builders = types.stream()
+                .map(type -> type.createBlockBuilder(null, 2))
+                .collect(toImmutableList());
+        BIGINT.writeLong(builders.get(0), 42);
+        VARCHAR.writeSlice(builders.get(1), utf8Slice("test string"));
+        DOUBLE.writeDouble(builders.get(2), 1.5);
+        DATE.writeLong(builders.get(3), 17348);
+        VARBINARY.writeSlice(builders.get(4), wrappedBuffer(new byte[] {1, 2, 3}));
+        BlockBuilder arrayBuilder = builders.get(5).beginBlockEntry();
+        BIGINT.writeLong(arrayBuilder, 1);
+        arrayBuilder.appendNull();
+        BIGINT.writeLong(arrayBuilder, 3);
+        builders.get(5).closeEntry();
+        BlockBuilder rowBuilder = builders.get(6).beginBlockEntry();
+        BIGINT.writeLong(rowBuilder, 7);
+        VARCHAR.writeSlice(rowBuilder, utf8Slice("seven"));
+        builders.get(6).closeEntry();
+        builders.forEach(BlockBuilder::appendNull);
+
+        Page page = new Page(builders.stream()
+                .map(BlockBuilder::build)
+                .toArray(Block[]::new));
+
+        List<Column> columns = ImmutableList.of(
+                new Column("c0", BIGINT),
+                new Column("c1", VARCHAR),
+                new Column("c2", DOUBLE),
+                new Column("c3", DATE),
+                new Column("c4", VARBINARY),
+                new Column("c5", arrayType),
+                new Column("c6", rowType));
+        List<List<Object>> rows = ImmutableList.copyOf(decoder.decode(columns, ImmutableList.of(encode(page))));
+
+        assertEquals(rows.size(), 2);
+        List<Object> row = rows.get(0);
+        assertEquals(row.get(0), 42L);
+        assertEquals(row.get(1), "test string");
+        assertEquals(row.get(2), 1.5);
+        assertEquals(row.get(3), "2017-07-01");
+        assertEquals((byte[]) row.get(4), new byte[] {1, 2, 3});
+        assertEquals(row.get(5), Arrays.asList(1L, null, 3L));
+        assertEquals(row.get(6), ImmutableMap.of("foo", 7L, "bar", "seven"));
+        for (Object value : rows.get(1)) {
+            assertNull(value);
+        }
+    }
+
+    @Test
+    public void testDecodeTypesWithoutClientRepresentation()
+    {
+        List<Column> columns = ImmutableList.of(
+                new Column("c0", UNKNOWN),
+                new Column("c1", parseTypeSignature(StandardTypes.BING_TILE)),
+                new Column("c2", parseTypeSignature(StandardTypes.HYPER_LOG_LOG)),
+                new Column("c3", parseTypeSignature("qdigest(bigint)")),
+                new Column("c4", parseTypeSignature(StandardTypes.GEOMETRY)),
+                new Column("c5", parseTypeSignature(StandardTypes.SPHERICAL_GEOGRAPHY)));
+
+        BlockBuilder unknownBuilder = UNKNOWN.createBlockBuilder(null, 2);
+        BlockBuilder tileBuilder = BIGINT.createBlockBuilder(null, 2);
+        BlockBuilder hyperLogLogBuilder = VARBINARY.createBlockBuilder(null, 2);
+        BlockBuilder digestBuilder = VARBINARY.createBlockBuilder(null, 2);
+        BlockBuilder geometryBuilder = VARBINARY.createBlockBuilder(null, 2);
+        BlockBuilder geographyBuilder = VARBINARY.createBlockBuilder(null, 2);
+        unknownBuilder.appendNull();
+        // tile x = 3, y = 5 at zoom level 10
+        BIGINT.writeLong(tileBuilder, (3L << 32) | 5 | (10L << 26));
+        VARBINARY.writeSlice(hyperLogLogBuilder, wrappedBuffer(new byte[] {1, 2}));
+        VARBINARY.writeSlice(digestBuilder, wrappedBuffer(new byte[] {3, 4}));
+        VARBINARY.writeSlice(geometryBuilder, point(1, 2.5));
+        VARBINARY.writeSlice(geographyBuilder, point(-122.25, 37.5));
+        unknownBuilder.appendNull();
+        tileBuilder.appendNull();
+        hyperLogLogBuilder.appendNull();
+        digestBuilder.appendNull();
+        geometryBuilder.appendNull();
+        geographyBuilder.appendNull();
+        Page page = new Page(
+                unknownBuilder.build(),
+                tileBuilder.build(),
+                hyperLogLogBuilder.build(),
+                digestBuilder.build(),
+                geometryBuilder.build(),
+                geographyBuilder.build());
+
+        List<List<Object>> rows = ImmutableList.copyOf(decoder.decode(columns, ImmutableList.of(encode(page))));
+
+        assertEquals(rows.size(), 2);
+        List<Object> row = rows.get(0);
+        assertNull(row.get(0));
+        assertEquals(row.get(1), ImmutableMap.of("x", 3, "y", 5, "zoom", 10));
+        assertEquals((byte[]) row.get(2), new byte[] {1, 2});
+        assertEquals((byte[]) row.get(3), new byte[] {3, 4});
+        assertEquals(row.get(4), "POINT (1 2.5)");
+        assertEquals(row.get(5), "POINT (-122.25 37.5)");
+        for (Object value : rows.get(1)) {
+            assertNull(value);
+        }
+    }
+
+    @Test
+    public void testDecodeGeometry()
+    {
+        // exterior rings are serialized clockwise and holes counter clockwise
+        double[] shell = {0, 0, 0, 4, 4, 4, 4, 0, 0, 0};
+        double[] hole = {1, 1, 2, 1, 2, 2, 1, 2, 1, 1};
+        double[] otherShell = {10, 10, 10, 11, 11, 11, 10, 10};
+
+        assertGeometry(point(NaN, NaN), "POINT EMPTY");
+        assertGeometry(shape(1, 8, new double[] {1, 2, 3, 4}), "MULTIPOINT ((1 2), (3 4))");
+        assertGeometry(shape(2, 3, new double[] {0, 0, 1, 1, 2, 0}), "LINESTRING (0 0, 1 1, 2 0)");
+        assertGeometry(shape(3, 3, new double[] {0, 0, 1, 1}, new double[] {5, 5, 6, 6}), "MULTILINESTRING ((0 0, 1 1), (5 5, 6 6))");
+        assertGeometry(shape(4, 5), "POLYGON EMPTY");
+        assertGeometry(
+                shape(4, 5, shell, hole),
+                "POLYGON ((0 0, 4 0, 4 4, 0 4, 0 0), (1 1, 1 2, 2 2, 2 1, 1 1))");
+        assertGeometry(
+                shape(5, 5, shell, hole, otherShell),
+                "MULTIPOLYGON (((0 0, 4 0, 4 4, 0 4, 0 0), (1 1, 1 2, 2 2, 2 1, 1 1)), ((10 10, 11 11, 10 11, 10 10)))");
+        assertGeometry(
+                collection(point(1, 2), shape(2, 3, new double[] {0, 0, 1, 1})),
+                "GEOMETRYCOLLECTION (POINT (1 2), LINESTRING (0 0, 1 1))");
+        assertGeometry(collection(), "GEOMETRYCOLLECTION EMPTY");
+
+        DynamicSliceOutput envelope = new DynamicSliceOutput(33);
+        envelope.appendByte(7);
+        envelope.appendDouble(1);
+        envelope.appendDouble(2);
+        envelope.appendDouble(3);
+        envelope.appendDouble(4);
+        assertGeometry(envelope.slice(), "POLYGON ((1 2, 3 2, 3 4, 1 4, 1 2))");
+    }
+
+    @Test(expectedExceptions = ClientException.class, expectedExceptionsMessageRegExp = "Type Color is not supported in binary results")
+    public void testUnsupportedFixedWidthType()
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, 1);
+        BIGINT.writeLong(builder, 1);
+        decoder.decode(
+                ImmutableList.of(new Column("c0", parseTypeSignature("Color"))),
+                ImmutableList.of(encode(new Page(builder.build()))));
+    }
+
+    @Test
+    public void testDecodeAbsentData()
+    {
+        assertNull(decoder.decode(ImmutableList.of(new Column("c0", BIGINT)), null));
+    }
+
+    @Test(expectedExceptions = ClientException.class, expectedExceptionsMessageRegExp = "Expected 2 columns, but result page has 1")
+    public void testColumnCountMismatch()
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, 1);
+        BIGINT.writeLong(builder, 1);
+        decoder.decode(
+                ImmutableList.of(new Column("c0", BIGINT), new Column("c1", BIGINT)),
+                ImmutableList.of(encode(new Page(builder.build()))));
+    }
+
+    private void assertGeometry(Slice geometry, String expected)
+    {
+        BlockBuilder builder = VARBINARY.createBlockBuilder(null, 1);
+        VARBINARY.writeSlice(builder, geometry);
+        List<List<Object>> rows = ImmutableList.copyOf(decoder.decode(
+                ImmutableList.of(new Column("c0", parseTypeSignature(StandardTypes.GEOMETRY))),
+                ImmutableList.of(encode(new Page(builder.build())))));
+        assertEquals(rows.get(0).get(0), expected);
+    }
+
+    private static Slice point(double x, double y)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(17);
+        output.appendByte(0);
+        output.appendDouble(x);
+        output.appendDouble(y);
+        return output.slice();
+    }
+
+    private static Slice shape(int geometryType, int shapeType, double[]... parts)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(100);
+        output.appendByte(geometryType);
+        output.appendInt(shapeType);
+        // the bounding box is not used when formatting
+        for (int i = 0; i < 4; i++) {
+            output.appendDouble(NaN);
+        }
+        int pointCount = Arrays.stream(parts).mapToInt(part -> part.length / 2).sum();
+        if (shapeType == 8) {
+            output.appendInt(pointCount);
+        }
+        else {
+            output.appendInt(parts.length);
+            output.appendInt(pointCount);
+            int start = 0;
+            for (double[] part : parts) {
+                output.appendInt(start);
+                start += part.length / 2;
+            }
+        }
+        for (double[] part : parts) {
+            for (double ordinate : part) {
+                output.appendDouble(ordinate);
+            }
+        }
+        return output.slice();
+    }
+
+    private static Slice collection(Slice... geometries)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(100);
+        output.appendByte(6);
+        for (Slice geometry : geometries) {
+            output.appendInt(geometry.length());
+            output.appendBytes(geometry);
+        }
+        return output.slice();
+    }
+
+    private static String encode(Page page)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        writeSerializedPage(output, SERDE.serialize(page));
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+}
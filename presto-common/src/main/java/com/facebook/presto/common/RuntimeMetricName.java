@@ -87,4 +87,11 @@ public class RuntimeMetricName
     public static final String DIRECTORY_LISTING_CACHE_MISS = "directoryListingCacheMiss";
     public static final String DIRECTORY_LISTING_TIME_NANOS = "directoryListingTimeNanos";
     public static final String FILES_READ_COUNT = "filesReadCount";
+    // Number of spilled pages that were already read ahead when requested, and that had to be waited for
+    public static final String UNSPILL_PREFETCH_HIT = "unspillPrefetchHit";
+    public static final String UNSPILL_PREFETCH_MISS = "unspillPrefetchMiss";
+    // Number of positions evaluated and selected by each conjunct of an adaptive filter, suffixed with the position of the conjunct in the plan
+    public static final String FILTER_CONJUNCT_INPUT_POSITIONS = "filterConjunctInputPositions";
+    public static final String FILTER_CONJUNCT_SELECTED_POSITIONS = "filterConjunctSelectedPositions";
+    public static final String ADAPTIVE_FILTER_REORDER_COUNT = "adaptiveFilterReorderCount";
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.common.array.ByteArrayUtils.hash;
+import static com.facebook.presto.common.predicate.TupleDomainFilterUtils.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Split block Bloom filter, as described in the Parquet specification.
+ * <p>
+ * The filter is an array of 256 bit blocks. A value sets exactly one bit in each of the eight
+ * 32 bit words of the block selected by its hash, so a lookup touches a single cache line.
+ * Filters with the same number of blocks can be merged, which is how the filters collected
+ * by parallel drivers are combined.
+ */
+public final class SplitBlockBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SplitBlockBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int MAX_BLOCKS = 1 << 22;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    private final int[] words;
+    private final int blockMask;
+
+    private SplitBlockBloomFilter(int[] words)
+    {
+        this.words = requireNonNull(words, "words is null");
+        int blocks = words.length / WORDS_PER_BLOCK;
+        checkArgument(blocks > 0 && Integer.bitCount(blocks) == 1, "number of blocks must be a power of 2");
+        this.blockMask = blocks - 1;
+    }
+
+    /**
+     * Creates an empty filter with roughly 1% false positive probability for {@code expectedEntries} values.
+     */
+    public static SplitBlockBloomFilter create(int expectedEntries)
+    {
+        checkArgument(expectedEntries >= 0, "expectedEntries is negative");
+        long bits = max(1, (long) expectedEntries) * BITS_PER_ENTRY;
+        int blocks = (int) min(MAX_BLOCKS, Long.highestOneBit(max(1, (bits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK) * 2 - 1));
+        return new SplitBlockBloomFilter(new int[blocks * WORDS_PER_BLOCK]);
+    }
+
+    public static long hashLong(long value)
+    {
+        // murmur3 fmix64
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static long hashBytes(byte[] bytes, int offset, int length)
+    {
+        return hashLong(hash(bytes, offset, length));
+    }
+
+    public void putLong(long value)
+    {
+        put(hashLong(value));
+    }
+
+    public void putBytes(byte[] bytes, int offset, int length)
+    {
+        put(hashBytes(bytes, offset, length));
+    }
+
+    public boolean mightContainLong(long value)
+    {
+        return mightContain(hashLong(value));
+    }
+
+    public boolean mightContainBytes(byte[] bytes, int offset, int length)
+    {
+        return mightContain(hashBytes(bytes, offset, length));
+    }
+
+    public void put(long hash)
+    {
+        int block = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[block + i] |= 1 << ((key * SALT[i]) >>> 27);
+        }
+    }
+
+    public boolean mightContain(long hash)
+    {
+        int block = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((words[block + i] & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds all values of {@code other} to this filter. Both filters must have the same size.
+     */
+    public void merge(SplitBlockBloomFilter other)
+    {
+        checkArgument(words.length == other.words.length, "Cannot merge Bloom filters of different sizes");
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public SplitBlockBloomFilter copy()
+    {
+        return new SplitBlockBloomFilter(words.clone());
+    }
+
+    public int getSizeInBits()
+    {
+        return words.length * Integer.SIZE;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private int blockOffset(long hash)
+    {
+        // the upper half of the hash selects the block, the lower half the bits within the block
+        return ((int) (hash >>> 32) & blockMask) * WORDS_PER_BLOCK;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(words, ((SplitBlockBloomFilter) o).words);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SplitBlockBloomFilter{sizeInBits=" + getSizeInBits() + "}";
+    }
+}
@@ -1515,6 +1515,105 @@ public interface TupleDomainFilter
         }
     }
 
+    /**
+     * Restricts the values accepted by {@code delegate} to those that may be contained in a
+     * Bloom filter, e.g. the join keys collected from the build side of a join. Supports
+     * values read as longs (integral and date types) and as bytes (varchar and varbinary).
+     */
+    class BloomFilterValues
+            extends AbstractTupleDomainFilter
+    {
+        private final TupleDomainFilter delegate;
+        private final SplitBlockBloomFilter bloomFilter;
+
+        private BloomFilterValues(TupleDomainFilter delegate, SplitBlockBloomFilter bloomFilter)
+        {
+            super(requireNonNull(delegate, "delegate is null").isDeterministic(), delegate.testNull());
+            this.delegate = delegate;
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+        }
+
+        public static BloomFilterValues of(TupleDomainFilter delegate, SplitBlockBloomFilter bloomFilter)
+        {
+            return new BloomFilterValues(delegate, bloomFilter);
+        }
+
+        @Override
+        public boolean testNonNull()
+        {
+            return delegate.testNonNull();
+        }
+
+        @Override
+        public boolean testLong(long value)
+        {
+            return delegate.testLong(value) && bloomFilter.mightContainLong(value);
+        }
+
+        @Override
+        public boolean testBytes(byte[] buffer, int offset, int length)
+        {
+            return delegate.testBytes(buffer, offset, length) && bloomFilter.mightContainBytes(buffer, offset, length);
+        }
+
+        @Override
+        public boolean testLength(int length)
+        {
+            return delegate.testLength(length);
+        }
+
+        @Override
+        public int getPrecedingPositionsToFail()
+        {
+            return delegate.getPrecedingPositionsToFail();
+        }
+
+        @Override
+        public int getSucceedingPositionsToFail()
+        {
+            return delegate.getSucceedingPositionsToFail();
+        }
+
+        @Override
+        public boolean isPositionalFilter()
+        {
+            return delegate.isPositionalFilter();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BloomFilterValues that = (BloomFilterValues) o;
+            return delegate.equals(that.delegate) &&
+                    bloomFilter.equals(that.bloomFilter);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(delegate, bloomFilter);
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder(this.getClass().getName());
+            sb.append("{delegate='").append(delegate);
+            sb.append(", bloomFilter=").append(bloomFilter);
+            sb.append("}");
+
+            return sb.toString();
+        }
+    }
+
     class BigintMultiRange
             extends AbstractTupleDomainFilter
     {
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSplitBlockBloomFilter
+{
+    @Test
+    public void testSize()
+    {
+        assertEquals(SplitBlockBloomFilter.create(0).getSizeInBits(), 256);
+        assertEquals(SplitBlockBloomFilter.create(1).getSizeInBits(), 256);
+        assertEquals(SplitBlockBloomFilter.create(100).getSizeInBits(), 1024);
+        assertEquals(SplitBlockBloomFilter.create(1_000_000).getSizeInBits(), 16 * 1024 * 1024);
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        int entries = 100_000;
+        SplitBlockBloomFilter filter = SplitBlockBloomFilter.create(entries);
+        for (long value = 0; value < entries; value++) {
+            filter.putLong(value * 7);
+        }
+        for (long value = 0; value < entries; value++) {
+            assertTrue(filter.mightContainLong(value * 7));
+        }
+
+        int falsePositives = 0;
+        for (long value = 0; value < entries; value++) {
+            falsePositives += filter.mightContainLong(value * 7 + 1) ? 1 : 0;
+        }
+        assertTrue(falsePositives < entries * 0.02, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testMerge()
+    {
+        SplitBlockBloomFilter left = SplitBlockBloomFilter.create(1_000);
+        SplitBlockBloomFilter right = SplitBlockBloomFilter.create(1_000);
+        left.putLong(42);
+        right.putBytes(new byte[] {1, 2, 3}, 0, 3);
+
+        SplitBlockBloomFilter merged = left.copy();
+        merged.merge(right);
+        assertTrue(merged.mightContainLong(42));
+        assertTrue(merged.mightContainBytes(new byte[] {1, 2, 3}, 0, 3));
+        assertFalse(left.mightContainBytes(new byte[] {1, 2, 3}, 0, 3));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Cannot merge Bloom filters of different sizes")
+    public void testMergeDifferentSizes()
+    {
+        SplitBlockBloomFilter.create(10).merge(SplitBlockBloomFilter.create(10_000));
+    }
+}
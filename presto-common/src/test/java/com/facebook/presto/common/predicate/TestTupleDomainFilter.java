@@ -362,6 +362,40 @@ public class TestTupleDomainFilter
         return Slices.utf8Slice(value).getBytes();
     }
 
+    @Test
+    public void testBloomFilterValues()
+    {
+        SplitBlockBloomFilter bloomFilter = SplitBlockBloomFilter.create(1_000);
+        for (long value = 0; value < 1_000; value += 2) {
+            bloomFilter.putLong(value);
+        }
+        TupleDomainFilter filter = TupleDomainFilter.BloomFilterValues.of(BigintRange.of(0, 500, false), bloomFilter);
+
+        for (long value = 0; value <= 500; value += 2) {
+            assertTrue(filter.testLong(value));
+        }
+        assertFalse(filter.testNull());
+        assertFalse(filter.testLong(-2));
+        assertFalse(filter.testLong(502));
+
+        int falsePositives = 0;
+        for (long value = 1; value < 500; value += 2) {
+            falsePositives += filter.testLong(value) ? 1 : 0;
+        }
+        assertTrue(falsePositives < 25, "too many false positives: " + falsePositives);
+
+        bloomFilter = SplitBlockBloomFilter.create(10);
+        bloomFilter.putBytes(toBytes("abc"), 0, 3);
+        bloomFilter.putBytes(toBytes("hello"), 0, 5);
+        filter = TupleDomainFilter.BloomFilterValues.of(TupleDomainFilter.IS_NOT_NULL, bloomFilter);
+
+        assertTrue(filter.testLength(3));
+        assertTrue(filter.testBytes(toBytes("abc"), 0, 3));
+        assertTrue(filter.testBytes(toBytes("xhellox"), 1, 5));
+        assertFalse(filter.testNull());
+        assertFalse(filter.testBytes(toBytes("abd"), 0, 3));
+    }
+
     @Test
     public void testBytesMultiRange()
     {
@@ -50,4 +50,10 @@ public class CacheStatsMBean
     {
         return cache.stats().hitRate();
     }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
 }
@@ -20,8 +20,10 @@ import com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 
@@ -39,9 +41,14 @@ public class HiveCommonClientConfig
     private double orcWriterValidationPercentage;
     private boolean useOrcColumnNames;
     private DataSize orcTinyStripeThreshold = new DataSize(8, MEGABYTE);
+    private DataSize orcMaxStripeReadAheadSize = new DataSize(0, BYTE);
+    private int orcStripeReadAheadThreads = 32;
     private boolean parquetBatchReadOptimizationEnabled;
     private boolean parquetEnableBatchReaderVerification;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
+    private DataSize parquetMaxBufferSize = new DataSize(8, MEGABYTE);
+    private DataSize parquetMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private boolean parquetBloomFiltersEnabled;
     private boolean rangeFiltersOnSubscriptsEnabled;
     private boolean readNullMaskedParquetEncryptedValueEnabled;
     private boolean useParquetColumnNames;
@@ -210,6 +217,34 @@ public class HiveCommonClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getOrcMaxStripeReadAheadSize()
+    {
+        return orcMaxStripeReadAheadSize;
+    }
+
+    @Config("hive.orc.max-stripe-read-ahead-size")
+    @ConfigDescription("Maximum size of the next stripe to read in the background while the current stripe is decoded, 0 disables read-ahead")
+    public HiveCommonClientConfig setOrcMaxStripeReadAheadSize(DataSize orcMaxStripeReadAheadSize)
+    {
+        this.orcMaxStripeReadAheadSize = orcMaxStripeReadAheadSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcStripeReadAheadThreads()
+    {
+        return orcStripeReadAheadThreads;
+    }
+
+    @Config("hive.orc.stripe-read-ahead-threads")
+    @ConfigDescription("Number of threads reading ORC stripes ahead on each worker")
+    public HiveCommonClientConfig setOrcStripeReadAheadThreads(int orcStripeReadAheadThreads)
+    {
+        this.orcStripeReadAheadThreads = orcStripeReadAheadThreads;
+        return this;
+    }
+
     @Config("hive.parquet-batch-read-optimization-enabled")
     @ConfigDescription("enable parquet batch reads optimization")
     public HiveCommonClientConfig setParquetBatchReadOptimizationEnabled(boolean parquetBatchReadOptimizationEnabled)
@@ -249,6 +284,47 @@ public class HiveCommonClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getParquetMaxBufferSize()
+    {
+        return parquetMaxBufferSize;
+    }
+
+    @Config("hive.parquet.max-buffer-size")
+    @ConfigDescription("Maximum size of a single merged read of Parquet column chunks. Set to 0 to disable merged reads")
+    public HiveCommonClientConfig setParquetMaxBufferSize(DataSize parquetMaxBufferSize)
+    {
+        this.parquetMaxBufferSize = parquetMaxBufferSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetMaxMergeDistance()
+    {
+        return parquetMaxMergeDistance;
+    }
+
+    @Config("hive.parquet.max-merge-distance")
+    @ConfigDescription("Maximum size of gap between two Parquet column chunks to merge into a single read")
+    public HiveCommonClientConfig setParquetMaxMergeDistance(DataSize parquetMaxMergeDistance)
+    {
+        this.parquetMaxMergeDistance = parquetMaxMergeDistance;
+        return this;
+    }
+
+    public boolean isParquetBloomFiltersEnabled()
+    {
+        return parquetBloomFiltersEnabled;
+    }
+
+    @Config("hive.parquet.bloom-filters.enabled")
+    @ConfigDescription("Use Parquet bloom filters to skip row groups for equality and IN predicates")
+    public HiveCommonClientConfig setParquetBloomFiltersEnabled(boolean parquetBloomFiltersEnabled)
+    {
+        this.parquetBloomFiltersEnabled = parquetBloomFiltersEnabled;
+        return this;
+    }
+
     public boolean isRangeFiltersOnSubscriptsEnabled()
     {
         return rangeFiltersOnSubscriptsEnabled;
@@ -51,6 +51,7 @@ public class HiveCommonSessionProperties
     private static final String ORC_MAX_BUFFER_SIZE = "orc_max_buffer_size";
     private static final String ORC_MAX_MERGE_DISTANCE = "orc_max_merge_distance";
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
+    private static final String ORC_MAX_STRIPE_READ_AHEAD_SIZE = "orc_max_stripe_read_ahead_size";
     private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE_MODE = "orc_optimized_writer_validate_mode";
@@ -60,6 +61,9 @@ public class HiveCommonSessionProperties
     private static final String ORC_ZSTD_JNI_DECOMPRESSION_ENABLED = "orc_zstd_jni_decompression_enabled";
     private static final String PARQUET_BATCH_READER_VERIFICATION_ENABLED = "parquet_batch_reader_verification_enabled";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
+    private static final String PARQUET_MAX_BUFFER_SIZE = "parquet_max_buffer_size";
+    private static final String PARQUET_MAX_MERGE_DISTANCE = "parquet_max_merge_distance";
+    private static final String PARQUET_BLOOM_FILTERS_ENABLED = "parquet_bloom_filters_enabled";
     private static final String PARQUET_USE_COLUMN_NAMES = "parquet_use_column_names";
     public static final String READ_MASKED_VALUE_ENABLED = "read_null_masked_parquet_encrypted_value_enabled";
     public static final String AFFINITY_SCHEDULING_FILE_SECTION_SIZE = "affinity_scheduling_file_section_size";
@@ -150,6 +154,11 @@ public class HiveCommonSessionProperties
                         "ORC: Threshold below which an ORC stripe or file will read in its entirety",
                         hiveCommonClientConfig.getOrcTinyStripeThreshold(),
                         false),
+                dataSizeSessionProperty(
+                        ORC_MAX_STRIPE_READ_AHEAD_SIZE,
+                        "ORC: Maximum size of the next stripe to read in the background while the current stripe is decoded",
+                        hiveCommonClientConfig.getOrcMaxStripeReadAheadSize(),
+                        false),
                 booleanProperty(
                         ORC_ZSTD_JNI_DECOMPRESSION_ENABLED,
                         "use JNI based zstd decompression for reading ORC files",
@@ -175,6 +184,21 @@ public class HiveCommonSessionProperties
                         "Parquet: Maximum size of a block to read",
                         hiveCommonClientConfig.getParquetMaxReadBlockSize(),
                         false),
+                dataSizeSessionProperty(
+                        PARQUET_MAX_BUFFER_SIZE,
+                        "Parquet: Maximum size of a single merged read of column chunks",
+                        hiveCommonClientConfig.getParquetMaxBufferSize(),
+                        false),
+                dataSizeSessionProperty(
+                        PARQUET_MAX_MERGE_DISTANCE,
+                        "Parquet: Maximum size of gap between two column chunks to merge into a single read",
+                        hiveCommonClientConfig.getParquetMaxMergeDistance(),
+                        false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTERS_ENABLED,
+                        "Parquet: Enable bloom filters for predicate pushdown",
+                        hiveCommonClientConfig.isParquetBloomFiltersEnabled(),
+                        false),
                 booleanProperty(
                         PARQUET_USE_COLUMN_NAMES,
                         "Experimental: Parquet: Access Parquet columns using names from the file",
@@ -264,6 +288,11 @@ public class HiveCommonSessionProperties
         return session.getProperty(ORC_TINY_STRIPE_THRESHOLD, DataSize.class);
     }
 
+    public static DataSize getOrcMaxStripeReadAheadSize(ConnectorSession session)
+    {
+        return session.getProperty(ORC_MAX_STRIPE_READ_AHEAD_SIZE, DataSize.class);
+    }
+
     public static boolean isOrcZstdJniDecompressionEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_ZSTD_JNI_DECOMPRESSION_ENABLED, Boolean.class);
@@ -289,6 +318,21 @@ public class HiveCommonSessionProperties
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
     }
 
+    public static DataSize getParquetMaxBufferSize(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_MAX_BUFFER_SIZE, DataSize.class);
+    }
+
+    public static DataSize getParquetMaxMergeDistance(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_MAX_MERGE_DISTANCE, DataSize.class);
+    }
+
+    public static boolean isParquetBloomFiltersEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTERS_ENABLED, Boolean.class);
+    }
+
     public static boolean isUseParquetColumnNames(ConnectorSession session)
     {
         return session.getProperty(PARQUET_USE_COLUMN_NAMES, Boolean.class);
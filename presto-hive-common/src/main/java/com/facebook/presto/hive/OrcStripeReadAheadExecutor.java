@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * The threads reading ORC stripes ahead for the record readers of a connector.
+ */
+public class OrcStripeReadAheadExecutor
+{
+    private final ExecutorService executor;
+
+    @Inject
+    public OrcStripeReadAheadExecutor(HiveCommonClientConfig config)
+    {
+        this.executor = newFixedThreadPool(config.getOrcStripeReadAheadThreads(), daemonThreadsNamed("orc-stripe-read-ahead-%s"));
+    }
+
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
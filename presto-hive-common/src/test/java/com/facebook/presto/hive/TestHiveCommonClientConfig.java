@@ -35,11 +35,16 @@ public class TestHiveCommonClientConfig
                 .setNodeSelectionStrategy(NodeSelectionStrategy.valueOf("NO_PREFERENCE"))
                 .setUseParquetColumnNames(false)
                 .setParquetMaxReadBlockSize(new DataSize(16, DataSize.Unit.MEGABYTE))
+                .setParquetMaxBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
+                .setParquetMaxMergeDistance(new DataSize(1, DataSize.Unit.MEGABYTE))
+                .setParquetBloomFiltersEnabled(false)
                 .setOrcBloomFiltersEnabled(false)
                 .setOrcMaxMergeDistance(new DataSize(1, DataSize.Unit.MEGABYTE))
                 .setOrcMaxBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
                 .setOrcStreamBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
                 .setOrcTinyStripeThreshold(new DataSize(8, DataSize.Unit.MEGABYTE))
+                .setOrcMaxStripeReadAheadSize(new DataSize(0, DataSize.Unit.BYTE))
+                .setOrcStripeReadAheadThreads(32)
                 .setOrcMaxReadBlockSize(new DataSize(16, DataSize.Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
                 .setOrcOptimizedWriterEnabled(true)
@@ -62,11 +67,16 @@ public class TestHiveCommonClientConfig
                 .put("hive.node-selection-strategy", "HARD_AFFINITY")
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.parquet.max-read-block-size", "66kB")
+                .put("hive.parquet.max-buffer-size", "4MB")
+                .put("hive.parquet.max-merge-distance", "512kB")
+                .put("hive.parquet.bloom-filters.enabled", "true")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.max-merge-distance", "22kB")
                 .put("hive.orc.max-buffer-size", "44kB")
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.orc.tiny-stripe-threshold", "61kB")
+                .put("hive.orc.max-stripe-read-ahead-size", "32MB")
+                .put("hive.orc.stripe-read-ahead-threads", "4")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.orc.optimized-writer.enabled", "false")
@@ -86,11 +96,16 @@ public class TestHiveCommonClientConfig
                 .setNodeSelectionStrategy(HARD_AFFINITY)
                 .setUseParquetColumnNames(true)
                 .setParquetMaxReadBlockSize(new DataSize(66, DataSize.Unit.KILOBYTE))
+                .setParquetMaxBufferSize(new DataSize(4, DataSize.Unit.MEGABYTE))
+                .setParquetMaxMergeDistance(new DataSize(512, DataSize.Unit.KILOBYTE))
+                .setParquetBloomFiltersEnabled(true)
                 .setOrcBloomFiltersEnabled(true)
                 .setOrcMaxMergeDistance(new DataSize(22, DataSize.Unit.KILOBYTE))
                 .setOrcMaxBufferSize(new DataSize(44, DataSize.Unit.KILOBYTE))
                 .setOrcStreamBufferSize(new DataSize(55, DataSize.Unit.KILOBYTE))
                 .setOrcTinyStripeThreshold(new DataSize(61, DataSize.Unit.KILOBYTE))
+                .setOrcMaxStripeReadAheadSize(new DataSize(32, DataSize.Unit.MEGABYTE))
+                .setOrcStripeReadAheadThreads(4)
                 .setOrcMaxReadBlockSize(new DataSize(66, DataSize.Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
                 .setOrcOptimizedWriterEnabled(false)
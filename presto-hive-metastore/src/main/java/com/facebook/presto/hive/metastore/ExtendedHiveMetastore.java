@@ -25,11 +25,14 @@ import com.facebook.presto.spi.security.PrestoPrincipal;
 import com.facebook.presto.spi.security.RoleGrant;
 import com.facebook.presto.spi.statistics.ColumnStatisticType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -118,6 +121,18 @@ public interface ExtendedHiveMetastore
 
     Map<String, Optional<Partition>> getPartitionsByNames(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames);
 
+    // Fetches a batch of partitions on the given executor, so callers can keep several batches in flight.
+    // Implementations that hold the partitions in memory should complete the future without using the executor.
+    default ListenableFuture<Map<String, Optional<Partition>>> getPartitionsByNamesAsync(
+            MetastoreContext metastoreContext,
+            String databaseName,
+            String tableName,
+            List<PartitionNameWithVersion> partitionNames,
+            Executor executor)
+    {
+        return Futures.submit(() -> getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNames), executor);
+    }
+
     MetastoreOperationResult addPartitions(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionWithStatistics> partitions);
 
     void dropPartition(MetastoreContext metastoreContext, String databaseName, String tableName, List<String> parts, boolean deleteData);
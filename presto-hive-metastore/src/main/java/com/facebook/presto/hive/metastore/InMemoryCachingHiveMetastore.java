@@ -29,6 +29,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.errorprone.annotations.ThreadSafe;
 import jakarta.inject.Inject;
@@ -44,6 +46,7 @@ import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
@@ -81,6 +84,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.ImmutableSetMultimap.toImmutableSetMultimap;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Streams.stream;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -710,6 +714,22 @@ public class InMemoryCachingHiveMetastore
         return partitionsByName.build();
     }
 
+    @Override
+    public ListenableFuture<Map<String, Optional<Partition>>> getPartitionsByNamesAsync(
+            MetastoreContext metastoreContext,
+            String databaseName,
+            String tableName,
+            List<PartitionNameWithVersion> partitionNames,
+            Executor executor)
+    {
+        boolean allCached = partitionNames.stream()
+                .allMatch(name -> partitionCache.asMap().containsKey(getCachingKey(metastoreContext, hivePartitionName(databaseName, tableName, name))));
+        if (allCached) {
+            return immediateFuture(getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNames));
+        }
+        return Futures.submit(() -> getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNames), executor);
+    }
+
     private Optional<Partition> loadPartitionByName(KeyAndContext<HivePartitionName> partitionName)
     {
         //Invalidate Partition Statistics Cache on a partition cache miss.
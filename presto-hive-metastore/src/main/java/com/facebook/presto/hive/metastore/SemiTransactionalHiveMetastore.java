@@ -46,6 +46,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
@@ -64,12 +65,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.ErrorType.USER_ERROR;
 import static com.facebook.presto.common.RuntimeMetricName.GET_PARTITIONS_BY_NAMES_TIME_NANOS;
 import static com.facebook.presto.common.RuntimeMetricName.GET_TABLE_TIME_NANOS;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CORRUPTED_COLUMN_STATISTICS;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_METASTORE_ERROR;
@@ -734,13 +737,54 @@ public class SemiTransactionalHiveMetastore
         }
     }
 
-    public synchronized Map<String, Optional<Partition>> getPartitionsByNames(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames)
+    public Map<String, Optional<Partition>> getPartitionsByNames(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames)
+    {
+        ImmutableMap.Builder<String, Optional<Partition>> resultBuilder = ImmutableMap.builder();
+        List<PartitionNameWithVersion> partitionNamesToQuery = getPartitionsOfTransaction(databaseName, tableName, partitionNames, resultBuilder);
+        // the lock is not held while calling the metastore, so the partition batches of a query can be fetched concurrently
+        Map<String, Optional<Partition>> delegateResult = metastoreContext.getRuntimeStats().recordWallTime(GET_PARTITIONS_BY_NAMES_TIME_NANOS, () -> delegate.getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNamesToQuery));
+        resultBuilder.putAll(delegateResult);
+
+        cacheLastDataCommitTimes(delegateResult, databaseName, tableName);
+
+        return resultBuilder.build();
+    }
+
+    public ListenableFuture<Map<String, Optional<Partition>>> getPartitionsByNamesAsync(
+            MetastoreContext metastoreContext,
+            String databaseName,
+            String tableName,
+            List<PartitionNameWithVersion> partitionNames,
+            Executor executor)
+    {
+        ImmutableMap.Builder<String, Optional<Partition>> resultBuilder = ImmutableMap.builder();
+        List<PartitionNameWithVersion> partitionNamesToQuery = getPartitionsOfTransaction(databaseName, tableName, partitionNames, resultBuilder);
+        long startTime = System.nanoTime();
+        return Futures.transform(
+                delegate.getPartitionsByNamesAsync(metastoreContext, databaseName, tableName, partitionNamesToQuery, executor),
+                delegateResult -> {
+                    metastoreContext.getRuntimeStats().addMetricValueIgnoreZero(GET_PARTITIONS_BY_NAMES_TIME_NANOS, NANO, System.nanoTime() - startTime);
+                    resultBuilder.putAll(delegateResult);
+                    cacheLastDataCommitTimes(delegateResult, databaseName, tableName);
+                    return resultBuilder.build();
+                },
+                directExecutor());
+    }
+
+    /**
+     * Adds the partitions added, altered or dropped in this transaction to {@code resultBuilder}
+     * and returns the names of the partitions that have to be fetched from the metastore.
+     */
+    private synchronized List<PartitionNameWithVersion> getPartitionsOfTransaction(
+            String databaseName,
+            String tableName,
+            List<PartitionNameWithVersion> partitionNames,
+            ImmutableMap.Builder<String, Optional<Partition>> resultBuilder)
     {
         checkReadable();
         TableSource tableSource = getTableSource(databaseName, tableName);
         Map<List<String>, Action<PartitionAndMore>> partitionActionsOfTable = partitionActions.computeIfAbsent(new SchemaTableName(databaseName, tableName), k -> new HashMap<>());
         ImmutableList.Builder<PartitionNameWithVersion> partitionNamesToQuery = ImmutableList.builder();
-        ImmutableMap.Builder<String, Optional<Partition>> resultBuilder = ImmutableMap.builder();
         for (PartitionNameWithVersion partitionNameWithVersion : partitionNames) {
             List<String> partitionValues = toPartitionValues(partitionNameWithVersion.getPartitionName());
             Action<PartitionAndMore> partitionAction = partitionActionsOfTable.get(partitionValues);
@@ -760,12 +804,7 @@ public class SemiTransactionalHiveMetastore
                 resultBuilder.put(partitionNameWithVersion.getPartitionName(), getPartitionFromPartitionAction(partitionAction));
             }
         }
-        Map<String, Optional<Partition>> delegateResult = metastoreContext.getRuntimeStats().recordWallTime(GET_PARTITIONS_BY_NAMES_TIME_NANOS, () -> delegate.getPartitionsByNames(metastoreContext, databaseName, tableName, partitionNamesToQuery.build()));
-        resultBuilder.putAll(delegateResult);
-
-        cacheLastDataCommitTimes(delegateResult, databaseName, tableName);
-
-        return resultBuilder.build();
+        return partitionNamesToQuery.build();
     }
 
     private synchronized void cacheLastDataCommitTimes(Map<String, Optional<Partition>> existingPartitions, String databaseName, String tableName)
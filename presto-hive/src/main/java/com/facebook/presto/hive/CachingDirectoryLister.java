@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.common.RuntimeStats;
@@ -21,22 +22,40 @@ import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.security.ConnectorIdentity;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import jakarta.inject.Inject;
 import org.apache.hadoop.fs.Path;
 import org.openjdk.jol.info.ClassLayout;
 import org.weakref.jmx.Managed;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_CACHE_HIT;
 import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_CACHE_MISS;
@@ -44,38 +63,119 @@ import static com.facebook.presto.common.RuntimeMetricName.DIRECTORY_LISTING_TIM
 import static com.facebook.presto.common.RuntimeMetricName.FILES_READ_COUNT;
 import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.common.RuntimeUnit.NONE;
+import static com.facebook.presto.hive.FileStatusCacheRefreshMode.EXPIRE;
+import static com.facebook.presto.hive.FileStatusCacheRefreshMode.MODIFICATION_TIME;
+import static com.facebook.presto.hive.NestedDirectoryPolicy.RECURSE;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Maps.immutableEntry;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public class CachingDirectoryLister
         implements DirectoryLister
 {
+    private static final Logger log = Logger.get(CachingDirectoryLister.class);
+    // background refreshes outlive the query that triggered them, so they do not act as its user
+    private static final HdfsContext REFRESH_CONTEXT = new HdfsContext(new ConnectorIdentity("presto", Optional.empty(), Optional.empty()));
+
     private final Cache<String, ValueHolder> cache;
     private final CachedTableChecker cachedTableChecker;
     private final DirectoryLister delegate;
+    private final FileStatusCacheRefreshMode refreshMode;
+    private final long refreshIntervalNanos;
+    private final boolean refreshAheadEnabled;
+    private final int refreshBatchSize;
+    private final Executor refreshExecutor;
+    private final Optional<HdfsEnvironment> hdfsEnvironment;
+    private final Ticker ticker;
+
+    // cached directories of each table, so the expired directories of a table can be revalidated together
+    private final Map<SchemaTableName, Set<String>> tableDirectories = new ConcurrentHashMap<>();
+    private final Set<SchemaTableName> tablesBeingRevalidated = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong revalidationCount = new AtomicLong();
+    private final AtomicLong changedDirectoryCount = new AtomicLong();
+    private final AtomicLong refreshAheadCount = new AtomicLong();
 
     @Inject
-    public CachingDirectoryLister(@ForCachingDirectoryLister DirectoryLister delegate, HiveClientConfig hiveClientConfig)
+    public CachingDirectoryLister(
+            @ForCachingDirectoryLister DirectoryLister delegate,
+            @ForCachingDirectoryLister ExecutorService refreshExecutor,
+            HdfsEnvironment hdfsEnvironment,
+            HiveClientConfig hiveClientConfig)
+    {
+        this(
+                delegate,
+                hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
+                hiveClientConfig.getFileStatusCacheMaxRetainedSize(),
+                hiveClientConfig.getFileStatusCacheTables(),
+                hiveClientConfig.getFileStatusCacheRefreshMode(),
+                hiveClientConfig.isFileStatusCacheRefreshAheadEnabled(),
+                hiveClientConfig.getFileStatusCacheRefreshBatchSize(),
+                refreshExecutor,
+                Optional.of(hdfsEnvironment),
+                Ticker.systemTicker());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, HiveClientConfig hiveClientConfig)
     {
         this(
                 delegate,
                 hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
                 hiveClientConfig.getFileStatusCacheMaxRetainedSize(),
-                hiveClientConfig.getFileStatusCacheTables());
+                hiveClientConfig.getFileStatusCacheTables(),
+                hiveClientConfig.getFileStatusCacheRefreshMode(),
+                hiveClientConfig.isFileStatusCacheRefreshAheadEnabled(),
+                hiveClientConfig.getFileStatusCacheRefreshBatchSize(),
+                directExecutor(),
+                Optional.empty(),
+                Ticker.systemTicker());
     }
 
     public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, DataSize maxSize, List<String> tables)
+    {
+        this(delegate, expireAfterWrite, maxSize, tables, EXPIRE, false, 1, directExecutor(), Optional.empty(), Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CachingDirectoryLister(
+            DirectoryLister delegate,
+            Duration expireAfterWrite,
+            DataSize maxSize,
+            List<String> tables,
+            FileStatusCacheRefreshMode refreshMode,
+            boolean refreshAheadEnabled,
+            int refreshBatchSize,
+            Executor refreshExecutor,
+            Optional<HdfsEnvironment> hdfsEnvironment,
+            Ticker ticker)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
-        cache = CacheBuilder.newBuilder()
+        this.refreshMode = requireNonNull(refreshMode, "refreshMode is null");
+        this.refreshIntervalNanos = expireAfterWrite.roundTo(TimeUnit.NANOSECONDS);
+        this.refreshAheadEnabled = refreshAheadEnabled;
+        checkArgument(refreshBatchSize > 0, "refreshBatchSize must be positive");
+        this.refreshBatchSize = refreshBatchSize;
+        this.refreshExecutor = requireNonNull(refreshExecutor, "refreshExecutor is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+
+        CacheBuilder<String, ValueHolder> cacheBuilder = CacheBuilder.newBuilder()
                 .maximumWeight(maxSize.toBytes())
                 .weigher((Weigher<String, ValueHolder>) (key, value) -> toIntExact(key.length() + value.getRetainedSizeInBytes()))
-                .expireAfterWrite(expireAfterWrite.toMillis(), TimeUnit.MILLISECONDS)
-                .recordStats()
-                .build();
+                .ticker(ticker)
+                .recordStats();
+        if (refreshMode == EXPIRE) {
+            cacheBuilder.expireAfterWrite(expireAfterWrite.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        else {
+            // listings are revalidated once they are older than expireAfterWrite instead of being dropped
+            cacheBuilder = cacheBuilder.removalListener((RemovalListener<String, ValueHolder>) this::removeTableDirectory);
+        }
+        cache = cacheBuilder.build();
         this.cachedTableChecker = new CachedTableChecker(requireNonNull(tables, "tables is null"));
     }
 
@@ -93,7 +193,7 @@ public class CachingDirectoryLister
         if (hiveDirectoryContext.isCacheable()) {
             // DO NOT USE Caching, when cache is disabled.
             // This is useful for debugging issues, when cache is explicitly disabled via session property.
-            ValueHolder value = Optional.ofNullable(cache.getIfPresent(path.toString())).orElse(null);
+            ValueHolder value = getCachedValue(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
             if (value != null) {
                 List<HiveFileInfo> files = value.getFiles();
                 runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_HIT, NONE, 1);
@@ -104,15 +204,232 @@ public class CachingDirectoryLister
         }
 
         runtimeStats.addMetricValue(DIRECTORY_LISTING_CACHE_MISS, NONE, 1);
+        if (hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName())) {
+            // read the modification time before listing, so a change made while listing is caught by the next revalidation
+            OptionalLong modificationTime = getListingModificationTime(fileSystem, path, hiveDirectoryContext);
+            Iterator<HiveFileInfo> iterator = delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
+            runtimeStats.addMetricValue(DIRECTORY_LISTING_TIME_NANOS, NANO, System.nanoTime() - startTime);
+            return fileCountTrackingIterator(iterator, path, runtimeStats, Optional.of(table.getSchemaTableName()), modificationTime);
+        }
         Iterator<HiveFileInfo> iterator = delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
         runtimeStats.addMetricValue(DIRECTORY_LISTING_TIME_NANOS, NANO, System.nanoTime() - startTime);
-        if (hiveDirectoryContext.isCacheable() && cachedTableChecker.isCachedTable(table.getSchemaTableName())) {
-            return fileCountTrackingIterator(iterator, path, runtimeStats, true);
+        return fileCountTrackingIterator(iterator, path, runtimeStats, Optional.empty(), OptionalLong.empty());
+    }
+
+    private ValueHolder getCachedValue(
+            ExtendedFileSystem fileSystem,
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext)
+    {
+        String key = path.toString();
+        ValueHolder value = cache.getIfPresent(key);
+        if (value == null || refreshMode == EXPIRE) {
+            return value;
+        }
+
+        long age = ticker.read() - value.getValidationTime();
+        if (age < refreshIntervalNanos) {
+            if (refreshAheadEnabled && age >= refreshIntervalNanos - refreshIntervalNanos / 4) {
+                refreshAhead(table, path, partition, namenodeStats, hiveDirectoryContext, value);
+            }
+            return value;
+        }
+
+        // the other expired directories of the table are likely to be listed next, revalidate them in the background
+        revalidateExpiredDirectories(value.getTableName(), key);
+        if (revalidate(fileSystem, key, value)) {
+            return value;
+        }
+        cache.asMap().remove(key, value);
+        return null;
+    }
+
+    private void revalidateExpiredDirectories(SchemaTableName tableName, String currentKey)
+    {
+        if (!hdfsEnvironment.isPresent() || !tablesBeingRevalidated.add(tableName)) {
+            return;
+        }
+
+        long now = ticker.read();
+        List<Entry<String, ValueHolder>> expiredDirectories = new ArrayList<>();
+        for (String key : tableDirectories.getOrDefault(tableName, ImmutableSet.of())) {
+            // use the map view, so the scan does not count towards the cache stats
+            ValueHolder value = cache.asMap().get(key);
+            if (!key.equals(currentKey) &&
+                    value != null &&
+                    value.getModificationTime().isPresent() &&
+                    now - value.getValidationTime() >= refreshIntervalNanos &&
+                    value.tryStartRefresh()) {
+                expiredDirectories.add(immutableEntry(key, value));
+            }
+        }
+        if (expiredDirectories.isEmpty()) {
+            tablesBeingRevalidated.remove(tableName);
+            return;
+        }
+
+        List<List<Entry<String, ValueHolder>>> batches = Lists.partition(expiredDirectories, refreshBatchSize);
+        AtomicInteger remainingBatches = new AtomicInteger(batches.size());
+        for (List<Entry<String, ValueHolder>> batch : batches) {
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        for (Entry<String, ValueHolder> entry : batch) {
+                            try {
+                                Path path = new Path(entry.getKey());
+                                if (!revalidate(getRefreshFileSystem(path), entry.getKey(), entry.getValue())) {
+                                    cache.asMap().remove(entry.getKey(), entry.getValue());
+                                }
+                            }
+                            catch (IOException | RuntimeException e) {
+                                log.warn(e, "Failed to revalidate the cached listing of %s", entry.getKey());
+                            }
+                            finally {
+                                entry.getValue().finishRefresh();
+                            }
+                        }
+                    }
+                    finally {
+                        if (remainingBatches.decrementAndGet() == 0) {
+                            tablesBeingRevalidated.remove(tableName);
+                        }
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                batch.forEach(entry -> entry.getValue().finishRefresh());
+                if (remainingBatches.decrementAndGet() == 0) {
+                    tablesBeingRevalidated.remove(tableName);
+                }
+            }
+        }
+    }
+
+    private void refreshAhead(
+            Table table,
+            Path path,
+            Optional<Partition> partition,
+            NamenodeStats namenodeStats,
+            HiveDirectoryContext hiveDirectoryContext,
+            ValueHolder value)
+    {
+        if (!hdfsEnvironment.isPresent() || !value.tryStartRefresh()) {
+            return;
+        }
+
+        // the refresh outlives the query, so it must not report into the runtime stats of the query
+        HiveDirectoryContext refreshContext = new HiveDirectoryContext(
+                hiveDirectoryContext.getNestedDirectoryPolicy(),
+                true,
+                hiveDirectoryContext.isSkipEmptyFilesEnabled(),
+                REFRESH_CONTEXT.getIdentity(),
+                hiveDirectoryContext.getAdditionalProperties(),
+                new RuntimeStats());
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshAheadCount.incrementAndGet();
+                    ExtendedFileSystem fileSystem = getRefreshFileSystem(path);
+                    String key = path.toString();
+                    if (!revalidate(fileSystem, key, value)) {
+                        OptionalLong modificationTime = getListingModificationTime(fileSystem, path, refreshContext);
+                        List<HiveFileInfo> files = ImmutableList.copyOf(delegate.list(fileSystem, table, path, partition, namenodeStats, refreshContext));
+                        putFiles(key, table.getSchemaTableName(), files, modificationTime);
+                    }
+                }
+                catch (IOException | RuntimeException e) {
+                    log.warn(e, "Failed to refresh the cached listing of %s", path);
+                }
+                finally {
+                    value.finishRefresh();
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            value.finishRefresh();
+        }
+    }
+
+    /**
+     * Returns true and renews the listing if the directory has not been modified since it was listed.
+     */
+    private boolean revalidate(ExtendedFileSystem fileSystem, String key, ValueHolder value)
+    {
+        if (!value.getModificationTime().isPresent()) {
+            return false;
+        }
+        revalidationCount.incrementAndGet();
+        if (!value.getModificationTime().equals(getModificationTime(fileSystem, new Path(key)))) {
+            changedDirectoryCount.incrementAndGet();
+            return false;
         }
-        return fileCountTrackingIterator(iterator, path, runtimeStats, false);
+        value.setValidationTime(ticker.read());
+        return true;
     }
 
-    private Iterator<HiveFileInfo> fileCountTrackingIterator(Iterator<HiveFileInfo> iterator, Path path, RuntimeStats runtimeStats, boolean enableCaching)
+    private OptionalLong getListingModificationTime(ExtendedFileSystem fileSystem, Path path, HiveDirectoryContext hiveDirectoryContext)
+    {
+        // the modification time of a directory does not change with the content of its subdirectories
+        if (refreshMode != MODIFICATION_TIME || hiveDirectoryContext.getNestedDirectoryPolicy() == RECURSE) {
+            return OptionalLong.empty();
+        }
+        return getModificationTime(fileSystem, path);
+    }
+
+    private static OptionalLong getModificationTime(ExtendedFileSystem fileSystem, Path path)
+    {
+        try {
+            long modificationTime = fileSystem.getFileStatus(path).getModificationTime();
+            // object stores report no modification time for directories
+            return modificationTime > 0 ? OptionalLong.of(modificationTime) : OptionalLong.empty();
+        }
+        catch (IOException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private ExtendedFileSystem getRefreshFileSystem(Path path)
+            throws IOException
+    {
+        return hdfsEnvironment.get().getFileSystem(REFRESH_CONTEXT, path);
+    }
+
+    private void putFiles(String key, SchemaTableName tableName, List<HiveFileInfo> files, OptionalLong modificationTime)
+    {
+        if (refreshMode != EXPIRE) {
+            tableDirectories.compute(tableName, (name, keys) -> {
+                Set<String> directories = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                directories.add(key);
+                return directories;
+            });
+        }
+        cache.put(key, new ValueHolder(files, tableName, modificationTime, ticker.read()));
+    }
+
+    private void removeTableDirectory(RemovalNotification<String, ValueHolder> notification)
+    {
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
+        String key = notification.getKey();
+        tableDirectories.computeIfPresent(notification.getValue().getTableName(), (name, keys) -> {
+            // the directory may have been listed again in the meantime
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private Iterator<HiveFileInfo> fileCountTrackingIterator(
+            Iterator<HiveFileInfo> iterator,
+            Path path,
+            RuntimeStats runtimeStats,
+            Optional<SchemaTableName> cachedTableName,
+            OptionalLong modificationTime)
     {
         return new Iterator<HiveFileInfo>()
         {
@@ -124,9 +441,7 @@ public class CachingDirectoryLister
                 boolean hasNext = iterator.hasNext();
                 if (!hasNext) {
                     runtimeStats.addMetricValue(FILES_READ_COUNT, NONE, files.size());
-                    if (enableCaching) {
-                        cache.put(path.toString(), new ValueHolder(files));
-                    }
+                    cachedTableName.ifPresent(tableName -> putFiles(path.toString(), tableName, files, modificationTime));
                 }
                 return hasNext;
             }
@@ -213,15 +528,40 @@ public class CachingDirectoryLister
         return cache.size();
     }
 
+    @Managed
+    public long getRevalidationCount()
+    {
+        return revalidationCount.get();
+    }
+
+    @Managed
+    public long getChangedDirectoryCount()
+    {
+        return changedDirectoryCount.get();
+    }
+
+    @Managed
+    public long getRefreshAheadCount()
+    {
+        return refreshAheadCount.get();
+    }
+
     private static class ValueHolder
     {
         private static final long INSTANCE_SIZE = ClassLayout.parseClass(ValueHolder.class).instanceSize();
 
         private final List<HiveFileInfo> files;
+        private final SchemaTableName tableName;
+        private final OptionalLong modificationTime;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long validationTime;
 
-        public ValueHolder(List<HiveFileInfo> files)
+        public ValueHolder(List<HiveFileInfo> files, SchemaTableName tableName, OptionalLong modificationTime, long validationTime)
         {
             this.files = ImmutableList.copyOf(requireNonNull(files, "files is null"));
+            this.tableName = requireNonNull(tableName, "tableName is null");
+            this.modificationTime = requireNonNull(modificationTime, "modificationTime is null");
+            this.validationTime = validationTime;
         }
 
         public List<HiveFileInfo> getFiles()
@@ -229,6 +569,36 @@ public class CachingDirectoryLister
             return files;
         }
 
+        public SchemaTableName getTableName()
+        {
+            return tableName;
+        }
+
+        public OptionalLong getModificationTime()
+        {
+            return modificationTime;
+        }
+
+        public long getValidationTime()
+        {
+            return validationTime;
+        }
+
+        public void setValidationTime(long validationTime)
+        {
+            this.validationTime = validationTime;
+        }
+
+        public boolean tryStartRefresh()
+        {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        public void finishRefresh()
+        {
+            refreshing.set(false);
+        }
+
         public long getRetainedSizeInBytes()
         {
             return INSTANCE_SIZE + files.stream().map(HiveFileInfo::getRetainedSizeInBytes).reduce(0L, Long::sum);
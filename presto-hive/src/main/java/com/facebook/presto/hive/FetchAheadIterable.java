@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Maps.immutableEntry;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fetches up to {@code fetchConcurrency} batches ahead of the consumer, and returns the batches
+ * with their fetched values in order. The fetches that were started but not consumed yet are
+ * cancelled when a fetch fails or when {@link #cancel()} is called.
+ */
+class FetchAheadIterable<T, R>
+        implements Iterable<Entry<T, R>>
+{
+    private final Iterable<T> batches;
+    private final Function<T, ListenableFuture<R>> fetcher;
+    private final int fetchConcurrency;
+
+    private final Set<ListenableFuture<R>> pendingFetches = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public FetchAheadIterable(Iterable<T> batches, Function<T, ListenableFuture<R>> fetcher, int fetchConcurrency)
+    {
+        this.batches = requireNonNull(batches, "batches is null");
+        this.fetcher = requireNonNull(fetcher, "fetcher is null");
+        checkArgument(fetchConcurrency >= 1, "fetchConcurrency must be at least 1");
+        this.fetchConcurrency = fetchConcurrency;
+    }
+
+    /**
+     * Cancels the pending fetches. Iterators return no more batches afterwards.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        pendingFetches.forEach(fetch -> fetch.cancel(true));
+    }
+
+    @Override
+    public Iterator<Entry<T, R>> iterator()
+    {
+        return new AbstractIterator<Entry<T, R>>()
+        {
+            private final Iterator<T> iterator = batches.iterator();
+            private final Deque<Entry<T, ListenableFuture<R>>> fetches = new ArrayDeque<>();
+
+            @Override
+            protected Entry<T, R> computeNext()
+            {
+                while (!cancelled && fetches.size() < fetchConcurrency && iterator.hasNext()) {
+                    T batch = iterator.next();
+                    ListenableFuture<R> fetch = fetcher.apply(batch);
+                    pendingFetches.add(fetch);
+                    fetches.add(immutableEntry(batch, fetch));
+                }
+                if (cancelled) {
+                    // a fetch started while cancelling is not seen by cancel()
+                    fetches.forEach(fetch -> fetch.getValue().cancel(true));
+                    fetches.clear();
+                    return endOfData();
+                }
+
+                Entry<T, ListenableFuture<R>> fetch = fetches.poll();
+                if (fetch == null) {
+                    return endOfData();
+                }
+                try {
+                    return immutableEntry(fetch.getKey(), getFutureValue(fetch.getValue()));
+                }
+                catch (RuntimeException e) {
+                    cancel();
+                    throw e;
+                }
+                finally {
+                    pendingFetches.remove(fetch.getValue());
+                }
+            }
+        };
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.stats.CounterStat;
 import com.facebook.airlift.stats.DistributionStat;
 import com.facebook.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -29,6 +30,8 @@ public class FileFormatDataSourceStats
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
     private final TimeStat time10MBPlus = new TimeStat(MILLISECONDS);
+    private final CounterStat readRequests = new CounterStat();
+    private final CounterStat overReadBytes = new CounterStat();
 
     @Managed
     @Nested
@@ -72,8 +75,23 @@ public class FileFormatDataSourceStats
         return time10MBPlus;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getReadRequests()
+    {
+        return readRequests;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getOverReadBytes()
+    {
+        return overReadBytes;
+    }
+
     public void readDataBytesPerSecond(long bytes, long nanos)
     {
+        readRequests.update(1);
         readBytes.add(bytes);
         if (bytes < 100 * 1024) {
             time0Bto100KB.add(nanos, NANOSECONDS);
@@ -93,4 +111,9 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void addOverReadBytes(long bytes)
+    {
+        overReadBytes.update(bytes);
+    }
 }
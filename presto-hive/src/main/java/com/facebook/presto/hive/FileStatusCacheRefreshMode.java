@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+public enum FileStatusCacheRefreshMode
+{
+    /**
+     * Cached directory listings are dropped once they are older than the expire time.
+     */
+    EXPIRE,
+    /**
+     * Cached directory listings older than the expire time are kept as long as the
+     * modification time of the directory is unchanged, and re-listed otherwise.
+     * The modification time of a directory only changes when files are added, removed
+     * or renamed in it, so a file appended to or overwritten in place keeps its cached
+     * status until then.
+     */
+    MODIFICATION_TIME
+}
@@ -41,6 +41,7 @@ import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.hive.BucketFunctionType.HIVE_COMPATIBLE;
 import static com.facebook.presto.hive.BucketFunctionType.PRESTO_NATIVE;
+import static com.facebook.presto.hive.FileStatusCacheRefreshMode.EXPIRE;
 import static com.facebook.presto.hive.HiveClientConfig.InsertExistingPartitionsBehavior.APPEND;
 import static com.facebook.presto.hive.HiveClientConfig.InsertExistingPartitionsBehavior.ERROR;
 import static com.facebook.presto.hive.HiveClientConfig.InsertExistingPartitionsBehavior.OVERWRITE;
@@ -70,6 +71,7 @@ public class HiveClientConfig
     private int maxSplitIteratorThreads = 1_000;
     private int minPartitionBatchSize = 10;
     private int maxPartitionBatchSize = 100;
+    private int partitionBatchFetchConcurrency = 4;
     private int maxInitialSplits = 200;
     private int splitLoaderConcurrency = 4;
     private DataSize maxInitialSplitSize;
@@ -163,6 +165,10 @@ public class HiveClientConfig
     private Duration fileStatusCacheExpireAfterWrite = new Duration(0, TimeUnit.SECONDS);
     private DataSize fileStatusCacheMaxRetainedSize = new DataSize(0, KILOBYTE);
     private List<String> fileStatusCacheTables = ImmutableList.of();
+    private FileStatusCacheRefreshMode fileStatusCacheRefreshMode = EXPIRE;
+    private boolean fileStatusCacheRefreshAheadEnabled;
+    private int fileStatusCacheRefreshBatchSize = 100;
+    private int maxFileStatusCacheRefreshThreads = 16;
 
     private DataSize pageFileStripeMaxSize = new DataSize(24, MEGABYTE);
     private boolean parquetDereferencePushdownEnabled;
@@ -454,6 +460,20 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getPartitionBatchFetchConcurrency()
+    {
+        return partitionBatchFetchConcurrency;
+    }
+
+    @Config("hive.metastore.partition-batch-fetch-concurrency")
+    @ConfigDescription("Number of partition batches of a table fetched from the metastore at the same time")
+    public HiveClientConfig setPartitionBatchFetchConcurrency(int partitionBatchFetchConcurrency)
+    {
+        this.partitionBatchFetchConcurrency = partitionBatchFetchConcurrency;
+        return this;
+    }
+
     @NotNull
     public List<String> getResourceConfigFiles()
     {
@@ -838,6 +858,61 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public FileStatusCacheRefreshMode getFileStatusCacheRefreshMode()
+    {
+        return fileStatusCacheRefreshMode;
+    }
+
+    @Config("hive.file-status-cache.refresh-mode")
+    @ConfigDescription("How expired directory listings are refreshed: EXPIRE drops them, MODIFICATION_TIME re-lists only directories whose modification time changed, which misses files appended to or overwritten in place")
+    public HiveClientConfig setFileStatusCacheRefreshMode(FileStatusCacheRefreshMode fileStatusCacheRefreshMode)
+    {
+        this.fileStatusCacheRefreshMode = fileStatusCacheRefreshMode;
+        return this;
+    }
+
+    public boolean isFileStatusCacheRefreshAheadEnabled()
+    {
+        return fileStatusCacheRefreshAheadEnabled;
+    }
+
+    @Config("hive.file-status-cache.refresh-ahead-enabled")
+    @ConfigDescription("Refresh directory listings that are read shortly before they expire in the background")
+    public HiveClientConfig setFileStatusCacheRefreshAheadEnabled(boolean fileStatusCacheRefreshAheadEnabled)
+    {
+        this.fileStatusCacheRefreshAheadEnabled = fileStatusCacheRefreshAheadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getFileStatusCacheRefreshBatchSize()
+    {
+        return fileStatusCacheRefreshBatchSize;
+    }
+
+    @Config("hive.file-status-cache.refresh-batch-size")
+    @ConfigDescription("Number of expired directories of a table revalidated together in the background")
+    public HiveClientConfig setFileStatusCacheRefreshBatchSize(int fileStatusCacheRefreshBatchSize)
+    {
+        this.fileStatusCacheRefreshBatchSize = fileStatusCacheRefreshBatchSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxFileStatusCacheRefreshThreads()
+    {
+        return maxFileStatusCacheRefreshThreads;
+    }
+
+    @Config("hive.file-status-cache.max-refresh-threads")
+    @ConfigDescription("Maximum number of threads refreshing directory listings in the background")
+    public HiveClientConfig setMaxFileStatusCacheRefreshThreads(int maxFileStatusCacheRefreshThreads)
+    {
+        this.maxFileStatusCacheRefreshThreads = maxFileStatusCacheRefreshThreads;
+        return this;
+    }
+
     public enum HdfsAuthenticationType
     {
         NONE,
@@ -64,6 +64,7 @@ import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.BloomFilterCacheKey;
 import com.facebook.presto.parquet.cache.CachingParquetMetadataSource;
 import com.facebook.presto.parquet.cache.MetadataReader;
 import com.facebook.presto.parquet.cache.ParquetCacheConfig;
@@ -85,6 +86,7 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import jakarta.inject.Singleton;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.weakref.jmx.MBeanExporter;
 
 import java.util.Optional;
@@ -251,6 +253,16 @@ public class HiveClientModule
                 daemonThreadsNamed("hive-metastore-" + hiveClientId + "-%s"));
     }
 
+    @ForCachingDirectoryLister
+    @Singleton
+    @Provides
+    public ExecutorService createCachingDirectoryListerExecutor(HiveConnectorId hiveClientId, HiveClientConfig hiveClientConfig)
+    {
+        return newFixedThreadPool(
+                hiveClientConfig.getMaxFileStatusCacheRefreshThreads(),
+                daemonThreadsNamed("hive-directory-lister-" + hiveClientId + "-%s"));
+    }
+
     @ForFileRename
     @Singleton
     @Provides
@@ -344,6 +356,7 @@ public class HiveClientModule
     public ParquetMetadataSource createParquetMetadataSource(ParquetCacheConfig parquetCacheConfig, MBeanExporter exporter)
     {
         ParquetMetadataSource parquetMetadataSource = new MetadataReader();
+        Optional<Cache<ParquetDataSourceId, ParquetFileMetadata>> metadataCache = Optional.empty();
         if (parquetCacheConfig.isMetadataCacheEnabled()) {
             Cache<ParquetDataSourceId, ParquetFileMetadata> cache = CacheBuilder.newBuilder()
                     .maximumWeight(parquetCacheConfig.getMetadataCacheSize().toBytes())
@@ -352,9 +365,24 @@ public class HiveClientModule
                     .recordStats()
                     .build();
             CacheStatsMBean cacheStatsMBean = new CacheStatsMBean(cache);
-            parquetMetadataSource = new CachingParquetMetadataSource(cache, parquetMetadataSource);
+            metadataCache = Optional.of(cache);
             exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_ParquetMetadata"), cacheStatsMBean);
         }
+        Optional<Cache<BloomFilterCacheKey, Optional<BloomFilter>>> bloomFilterCache = Optional.empty();
+        if (parquetCacheConfig.isBloomFilterCacheEnabled()) {
+            Cache<BloomFilterCacheKey, Optional<BloomFilter>> cache = CacheBuilder.newBuilder()
+                    .maximumWeight(parquetCacheConfig.getBloomFilterCacheSize().toBytes())
+                    .weigher((key, bloomFilter) -> ((Optional<?>) bloomFilter).map(filter -> ((BloomFilter) filter).getBitsetSize()).orElse(0))
+                    .expireAfterAccess(parquetCacheConfig.getBloomFilterCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                    .recordStats()
+                    .build();
+            CacheStatsMBean cacheStatsMBean = new CacheStatsMBean(cache);
+            bloomFilterCache = Optional.of(cache);
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_ParquetBloomFilter"), cacheStatsMBean);
+        }
+        if (metadataCache.isPresent() || bloomFilterCache.isPresent()) {
+            parquetMetadataSource = new CachingParquetMetadataSource(metadataCache, bloomFilterCache, parquetMetadataSource);
+        }
         return parquetMetadataSource;
     }
 
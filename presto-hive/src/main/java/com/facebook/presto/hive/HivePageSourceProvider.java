@@ -393,7 +393,9 @@ public class HivePageSourceProvider
                     fileContext,
                     encryptionInformation,
                     layout.isAppendRowNumberEnabled(),
-                    rowIDPartitionComponent);
+                    rowIDPartitionComponent,
+                    splitContext.getDynamicFilterBloomFilters().entrySet().stream()
+                            .collect(toImmutableMap(entry -> ((HiveColumnHandle) entry.getKey()).getName(), Map.Entry::getValue)));
             if (pageSource.isPresent()) {
                 return Optional.of(pageSource.get());
             }
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.spi.ConnectorPageSource;
@@ -44,5 +45,6 @@ public interface HiveSelectivePageSourceFactory
             HiveFileContext hiveFileContext,
             Optional<EncryptionInformation> encryptionInformation,
             boolean appendRowNumberEnabled,
-            Optional<byte[]> rowIDPartitionComponent);
+            Optional<byte[]> rowIDPartitionComponent,
+            Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters); // key is column name
 }
@@ -58,6 +58,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import jakarta.inject.Inject;
 import org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe;
 import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
@@ -117,6 +120,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.Double.isFinite;
 import static java.lang.Float.floatToIntBits;
 import static java.lang.Math.max;
@@ -139,11 +143,13 @@ public class HiveSplitManager
     private final HdfsEnvironment hdfsEnvironment;
     private final DirectoryLister directoryLister;
     private final Executor executor;
+    private final Executor partitionFetchExecutor;
     private final CoercionPolicy coercionPolicy;
     private final int maxOutstandingSplits;
     private final DataSize maxOutstandingSplitsSize;
     private final int minPartitionBatchSize;
     private final int maxPartitionBatchSize;
+    private final int partitionBatchFetchConcurrency;
     private final int splitLoaderConcurrency;
     private final boolean recursiveDfsWalkerEnabled;
     private final CounterStat highMemorySplitSourceCounter;
@@ -170,12 +176,15 @@ public class HiveSplitManager
                 hdfsEnvironment,
                 directoryLister,
                 new BoundedExecutor(executorService, hiveClientConfig.getMaxSplitIteratorThreads()),
+                // split loaders wait for the partition batches, so the batches must not be fetched on the bounded split loader executor
+                executorService,
                 coercionPolicy,
                 new CounterStat(),
                 hiveClientConfig.getMaxOutstandingSplits(),
                 hiveClientConfig.getMaxOutstandingSplitsSize(),
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
+                hiveClientConfig.getPartitionBatchFetchConcurrency(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
                 hiveClientConfig.getRecursiveDirWalkerEnabled(),
                 cacheQuotaRequirementProvider,
@@ -189,12 +198,14 @@ public class HiveSplitManager
             HdfsEnvironment hdfsEnvironment,
             DirectoryLister directoryLister,
             Executor executor,
+            Executor partitionFetchExecutor,
             CoercionPolicy coercionPolicy,
             CounterStat highMemorySplitSourceCounter,
             int maxOutstandingSplits,
             DataSize maxOutstandingSplitsSize,
             int minPartitionBatchSize,
             int maxPartitionBatchSize,
+            int partitionBatchFetchConcurrency,
             int splitLoaderConcurrency,
             boolean recursiveDfsWalkerEnabled,
             CacheQuotaRequirementProvider cacheQuotaRequirementProvider,
@@ -206,6 +217,7 @@ public class HiveSplitManager
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.executor = new ErrorCodedExecutor(executor);
+        this.partitionFetchExecutor = new ErrorCodedExecutor(partitionFetchExecutor);
         this.coercionPolicy = requireNonNull(coercionPolicy, "coercionPolicy is null");
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
         checkArgument(maxOutstandingSplits >= 1, "maxOutstandingSplits must be at least 1");
@@ -213,6 +225,8 @@ public class HiveSplitManager
         this.maxOutstandingSplitsSize = maxOutstandingSplitsSize;
         this.minPartitionBatchSize = minPartitionBatchSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
+        checkArgument(partitionBatchFetchConcurrency >= 1, "partitionBatchFetchConcurrency must be at least 1");
+        this.partitionBatchFetchConcurrency = partitionBatchFetchConcurrency;
         this.splitLoaderConcurrency = splitLoaderConcurrency;
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
         this.cacheQuotaRequirementProvider = requireNonNull(cacheQuotaRequirementProvider, "cacheQuotaRequirementProvider is null");
@@ -287,6 +301,8 @@ public class HiveSplitManager
         // sort partitions
         partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitions);
 
+        // completed when the split source is closed or fails, to cancel the partition batches fetched ahead
+        SettableFuture<?> splitLoaderStopped = SettableFuture.create();
         Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(
                 metastore,
                 table,
@@ -297,11 +313,12 @@ public class HiveSplitManager
                 splitSchedulingContext.getWarningCollector(),
                 layout.getRequestedColumns(),
                 layout.getPredicateColumns(),
-                layout.getDomainPredicate().getDomains());
+                layout.getDomainPredicate().getDomains(),
+                splitLoaderStopped);
 
         double ratio = getSplitScanRatio(session, tableName, layout, metadata, partitions);
 
-        HiveSplitLoader hiveSplitLoader = new BackgroundHiveSplitLoader(
+        HiveSplitLoader hiveSplitLoader = notifyOnStop(new BackgroundHiveSplitLoader(
                 table,
                 hivePartitions,
                 getInfoColumnConstraints(layout.getDomainPredicate(), layout.getPredicateColumns()),
@@ -314,7 +331,8 @@ public class HiveSplitManager
                 min(splitLoaderConcurrency, partitions.size()), // Avoid over-committing split loader concurrency
                 recursiveDfsWalkerEnabled,
                 splitSchedulingContext.schedulerUsesHostAddresses(),
-                layout.isPartialAggregationsPushedDown());
+                layout.isPartialAggregationsPushedDown()),
+                splitLoaderStopped);
 
         HiveSplitSource splitSource = computeSplitSource(splitSchedulingContext, table, session, hiveSplitLoader, ratio);
         hiveSplitLoader.start(splitSource);
@@ -457,7 +475,8 @@ public class HiveSplitManager
             WarningCollector warningCollector,
             Optional<Set<HiveColumnHandle>> requestedColumns,
             Map<String, HiveColumnHandle> predicateColumns,
-            Optional<Map<Subfield, Domain>> domains)
+            Optional<Map<Subfield, Domain>> domains,
+            ListenableFuture<?> splitLoaderStopped)
     {
         if (hivePartitions.isEmpty()) {
             return ImmutableList.of();
@@ -493,7 +512,7 @@ public class HiveSplitManager
 
         Iterable<List<HivePartition>> partitionNameBatches = partitionExponentially(hivePartitions, minPartitionBatchSize, maxPartitionBatchSize);
         Iterable<List<HivePartitionMetadata>> partitionBatches = computePartitionMetadata(partitionNameBatches, session, table, metastore,
-                tableName, predicateColumns, domains, allRequestedColumns, hiveBucketHandle, resolvedHiveStorageFormat, warningCollector);
+                tableName, predicateColumns, domains, allRequestedColumns, hiveBucketHandle, resolvedHiveStorageFormat, warningCollector, splitLoaderStopped);
         return concat(partitionBatches);
     }
 
@@ -507,10 +526,18 @@ public class HiveSplitManager
                                                                            Optional<Set<HiveColumnHandle>> allRequestedColumns,
                                                                            Optional<HiveBucketHandle> hiveBucketHandle,
                                                                            Optional<HiveStorageFormat> resolvedHiveStorageFormat,
-                                                                           WarningCollector warningCollector)
+                                                                           WarningCollector warningCollector,
+                                                                           ListenableFuture<?> splitLoaderStopped)
     {
-        Iterable<List<HivePartitionMetadata>> partitionBatches = transform(partitionNameBatches, partitionBatch -> {
-            Map<String, PartitionSplitInfo> partitionSplitInfo = getPartitionSplitInfo(session, metastore, tableName, partitionBatch, predicateColumns, domains);
+        // fetch the next batches while the split loader works on the current one
+        FetchAheadIterable<List<HivePartition>, Map<String, PartitionSplitInfo>> partitionFetches = new FetchAheadIterable<>(
+                partitionNameBatches,
+                partitionBatch -> getPartitionSplitInfo(session, metastore, tableName, partitionBatch, predicateColumns, domains),
+                partitionBatchFetchConcurrency);
+        splitLoaderStopped.addListener(partitionFetches::cancel, directExecutor());
+        Iterable<List<HivePartitionMetadata>> partitionBatches = transform(partitionFetches, partitionFetch -> {
+            List<HivePartition> partitionBatch = partitionFetch.getKey();
+            Map<String, PartitionSplitInfo> partitionSplitInfo = partitionFetch.getValue();
             if (partitionBatch.size() != partitionSplitInfo.size()) {
                 throw new PrestoException(GENERIC_INTERNAL_ERROR, format("Expected %s partitions but found %s", partitionBatch.size(), partitionSplitInfo.size()));
             }
@@ -740,7 +767,7 @@ public class HiveSplitManager
                 || inputFormat.equals(HoodieParquetRealtimeInputFormat.class.getName())));
     }
 
-    private Map<String, PartitionSplitInfo> getPartitionSplitInfo(
+    private ListenableFuture<Map<String, PartitionSplitInfo>> getPartitionSplitInfo(
             ConnectorSession session,
             SemiTransactionalHiveMetastore metastore,
             SchemaTableName tableName,
@@ -759,11 +786,28 @@ public class HiveSplitManager
                 metastore.getColumnConverterProvider(),
                 session.getWarningCollector(),
                 session.getRuntimeStats());
-        Map<String, Optional<Partition>> partitions = metastore.getPartitionsByNames(
+        ListenableFuture<Map<String, Optional<Partition>>> partitionsFuture = metastore.getPartitionsByNamesAsync(
                 metastoreContext,
                 tableName.getSchemaName(),
                 tableName.getTableName(),
-                Lists.transform(partitionBatch, HivePartition::getPartitionId));
+                Lists.transform(partitionBatch, HivePartition::getPartitionId),
+                partitionFetchExecutor);
+        return Futures.transform(
+                partitionsFuture,
+                partitions -> getPartitionSplitInfo(session, metastore, metastoreContext, tableName, partitionBatch, partitions, predicateColumns, domains),
+                partitionFetchExecutor);
+    }
+
+    private Map<String, PartitionSplitInfo> getPartitionSplitInfo(
+            ConnectorSession session,
+            SemiTransactionalHiveMetastore metastore,
+            MetastoreContext metastoreContext,
+            SchemaTableName tableName,
+            List<HivePartition> partitionBatch,
+            Map<String, Optional<Partition>> partitions,
+            Map<String, HiveColumnHandle> predicateColumns,
+            Optional<Map<Subfield, Domain>> domains)
+    {
         Map<String, PartitionStatistics> partitionStatistics = ImmutableMap.of();
         if (domains.isPresent() && isPartitionStatisticsBasedOptimizationEnabled(session)) {
             partitionStatistics = metastore.getPartitionStatistics(
@@ -1039,6 +1083,25 @@ public class HiveSplitManager
         };
     }
 
+    private static HiveSplitLoader notifyOnStop(HiveSplitLoader splitLoader, SettableFuture<?> stopped)
+    {
+        return new HiveSplitLoader()
+        {
+            @Override
+            public void start(HiveSplitSource splitSource)
+            {
+                splitLoader.start(splitSource);
+            }
+
+            @Override
+            public void stop()
+            {
+                splitLoader.stop();
+                stopped.set(null);
+            }
+        };
+    }
+
     private static class ErrorCodedExecutor
             implements Executor
     {
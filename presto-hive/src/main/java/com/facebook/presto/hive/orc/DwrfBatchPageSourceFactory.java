@@ -25,6 +25,7 @@ import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveDwrfEncryptionProvider;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
+import com.facebook.presto.hive.OrcStripeReadAheadExecutor;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
 import com.facebook.presto.orc.OrcReaderOptions;
@@ -42,9 +43,11 @@ import org.joda.time.DateTimeZone;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxStripeReadAheadSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -63,8 +66,32 @@ public class DwrfBatchPageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<Executor> stripeReadAheadExecutor;
 
     @Inject
+    public DwrfBatchPageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            OrcStripeReadAheadExecutor stripeReadAheadExecutor)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                config,
+                hdfsEnvironment,
+                stats,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                dwrfEncryptionProvider,
+                Optional.of(requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null").getExecutor()));
+    }
+
     public DwrfBatchPageSourceFactory(
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
@@ -74,6 +101,29 @@ public class DwrfBatchPageSourceFactory
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                config,
+                hdfsEnvironment,
+                stats,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                dwrfEncryptionProvider,
+                Optional.empty());
+    }
+
+    private DwrfBatchPageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -83,6 +133,7 @@ public class DwrfBatchPageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
     }
 
     @Override
@@ -128,6 +179,8 @@ public class DwrfBatchPageSourceFactory
                         .withMaxMergeDistance(getOrcMaxMergeDistance(session))
                         .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
                         .withMaxBlockSize(getOrcMaxReadBlockSize(session))
+                        .withMaxStripeReadAheadSize(getOrcMaxStripeReadAheadSize(session))
+                        .withStripeReadAheadExecutor(stripeReadAheadExecutor)
                         .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
                         .build(),
                 encryptionInformation,
@@ -15,6 +15,7 @@ package com.facebook.presto.hive.orc;
 
 import com.facebook.hive.orc.OrcSerde;
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.BucketAdaptation;
@@ -28,6 +29,7 @@ import com.facebook.presto.hive.HiveDwrfEncryptionProvider;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveSelectivePageSourceFactory;
+import com.facebook.presto.hive.OrcStripeReadAheadExecutor;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
 import com.facebook.presto.orc.StripeMetadataSourceFactory;
@@ -45,6 +47,7 @@ import org.joda.time.DateTimeZone;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static com.facebook.presto.hive.HiveUtil.checkRowIDPartitionComponent;
@@ -65,8 +68,36 @@ public class DwrfSelectivePageSourceFactory
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<Executor> stripeReadAheadExecutor;
 
     @Inject
+    public DwrfSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            TupleDomainFilterCache tupleDomainFilterCache,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            OrcStripeReadAheadExecutor stripeReadAheadExecutor)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                rowExpressionService,
+                config,
+                hdfsEnvironment,
+                stats,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                tupleDomainFilterCache,
+                dwrfEncryptionProvider,
+                Optional.of(requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null").getExecutor()));
+    }
+
     public DwrfSelectivePageSourceFactory(
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
@@ -78,6 +109,33 @@ public class DwrfSelectivePageSourceFactory
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             TupleDomainFilterCache tupleDomainFilterCache,
             HiveDwrfEncryptionProvider dwrfEncryptionProvider)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                rowExpressionService,
+                config,
+                hdfsEnvironment,
+                stats,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                tupleDomainFilterCache,
+                dwrfEncryptionProvider,
+                Optional.empty());
+    }
+
+    private DwrfSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            TupleDomainFilterCache tupleDomainFilterCache,
+            HiveDwrfEncryptionProvider dwrfEncryptionProvider,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -89,6 +147,7 @@ public class DwrfSelectivePageSourceFactory
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "dwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
     }
 
     @Override
@@ -108,7 +167,8 @@ public class DwrfSelectivePageSourceFactory
             HiveFileContext hiveFileContext,
             Optional<EncryptionInformation> encryptionInformation,
             boolean appendRowNumberEnabled,
-            Optional<byte[]> rowIDPartitionComponent)
+            Optional<byte[]> rowIDPartitionComponent,
+            Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters)
     {
         if (!OrcSerde.class.getName().equals(storage.getStorageFormat().getSerDe())) {
             return Optional.empty();
@@ -148,6 +208,8 @@ public class DwrfSelectivePageSourceFactory
                 encryptionInformation,
                 dwrfEncryptionProvider,
                 appendRowNumberEnabled,
-                rowIDPartitionComponent));
+                rowIDPartitionComponent,
+                dynamicFilterBloomFilters,
+                stripeReadAheadExecutor));
     }
 }
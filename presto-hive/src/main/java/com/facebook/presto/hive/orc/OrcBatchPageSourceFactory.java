@@ -25,6 +25,7 @@ import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveOrcAggregatedMemoryContext;
+import com.facebook.presto.hive.OrcStripeReadAheadExecutor;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
 import com.facebook.presto.orc.OrcAggregatedMemoryContext;
@@ -56,10 +57,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxStripeReadAheadSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
@@ -84,8 +87,29 @@ public class OrcBatchPageSourceFactory
     private final int domainCompactionThreshold;
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
+    private final Optional<Executor> stripeReadAheadExecutor;
 
     @Inject
+    public OrcBatchPageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            OrcStripeReadAheadExecutor stripeReadAheadExecutor)
+    {
+        this(
+                typeManager,
+                hdfsEnvironment,
+                stats,
+                config.getDomainCompactionThreshold(),
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                Optional.of(requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null").getExecutor()));
+    }
+
     public OrcBatchPageSourceFactory(
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
@@ -101,7 +125,8 @@ public class OrcBatchPageSourceFactory
                 stats,
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
-                stripeMetadataSourceFactory);
+                stripeMetadataSourceFactory,
+                Optional.empty());
     }
 
     public OrcBatchPageSourceFactory(
@@ -111,6 +136,18 @@ public class OrcBatchPageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory)
+    {
+        this(typeManager, hdfsEnvironment, stats, domainCompactionThreshold, orcFileTailSource, stripeMetadataSourceFactory, Optional.empty());
+    }
+
+    private OrcBatchPageSourceFactory(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            int domainCompactionThreshold,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -118,6 +155,7 @@ public class OrcBatchPageSourceFactory
         this.domainCompactionThreshold = domainCompactionThreshold;
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
     }
 
     @Override
@@ -164,6 +202,8 @@ public class OrcBatchPageSourceFactory
                         .withMaxMergeDistance(getOrcMaxMergeDistance(session))
                         .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
                         .withMaxBlockSize(getOrcMaxReadBlockSize(session))
+                        .withMaxStripeReadAheadSize(getOrcMaxStripeReadAheadSize(session))
+                        .withStripeReadAheadExecutor(stripeReadAheadExecutor)
                         .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
                         .build(),
                 encryptionInformation,
@@ -18,8 +18,10 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.common.predicate.FilterFunction;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BloomFilterValues;
 import com.facebook.presto.common.relation.Predicate;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
@@ -37,6 +39,7 @@ import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveOrcAggregatedMemoryContext;
 import com.facebook.presto.hive.HiveSelectivePageSourceFactory;
 import com.facebook.presto.hive.HiveType;
+import com.facebook.presto.hive.OrcStripeReadAheadExecutor;
 import com.facebook.presto.hive.SubfieldExtractor;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.orc.DwrfEncryptionProvider;
@@ -87,10 +90,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.common.predicate.TupleDomainFilter.IS_NOT_NULL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.expressions.LogicalRowExpressions.and;
@@ -101,6 +106,7 @@ import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucket;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxStripeReadAheadSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
@@ -139,8 +145,34 @@ public class OrcSelectivePageSourceFactory
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
     private final TupleDomainFilterCache tupleDomainFilterCache;
+    private final Optional<Executor> stripeReadAheadExecutor;
 
     @Inject
+    public OrcSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HiveClientConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            TupleDomainFilterCache tupleDomainFilterCache,
+            OrcStripeReadAheadExecutor stripeReadAheadExecutor)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                rowExpressionService,
+                hdfsEnvironment,
+                stats,
+                config.getDomainCompactionThreshold(),
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                tupleDomainFilterCache,
+                Optional.of(requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null").getExecutor()));
+    }
+
     public OrcSelectivePageSourceFactory(
             TypeManager typeManager,
             StandardFunctionResolution functionResolution,
@@ -174,6 +206,31 @@ public class OrcSelectivePageSourceFactory
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory,
             TupleDomainFilterCache tupleDomainFilterCache)
+    {
+        this(
+                typeManager,
+                functionResolution,
+                rowExpressionService,
+                hdfsEnvironment,
+                stats,
+                domainCompactionThreshold,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                tupleDomainFilterCache,
+                Optional.empty());
+    }
+
+    private OrcSelectivePageSourceFactory(
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution,
+            RowExpressionService rowExpressionService,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            int domainCompactionThreshold,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            TupleDomainFilterCache tupleDomainFilterCache,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
@@ -184,6 +241,7 @@ public class OrcSelectivePageSourceFactory
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailCache is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
         this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
     }
 
     @Override
@@ -203,7 +261,8 @@ public class OrcSelectivePageSourceFactory
             HiveFileContext hiveFileContext,
             Optional<EncryptionInformation> encryptionInformation,
             boolean appendRowNumberEnabled,
-            Optional<byte[]> rowIDPartitionComponent)
+            Optional<byte[]> rowIDPartitionComponent,
+            Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters)
     {
         if (!OrcSerde.class.getName().equals(storage.getStorageFormat().getSerDe())) {
             return Optional.empty();
@@ -242,7 +301,9 @@ public class OrcSelectivePageSourceFactory
                 encryptionInformation,
                 NO_ENCRYPTION,
                 appendRowNumberEnabled,
-                rowIDPartitionComponent));
+                rowIDPartitionComponent,
+                dynamicFilterBloomFilters,
+                stripeReadAheadExecutor));
     }
 
     public static ConnectorPageSource createOrcPageSource(
@@ -273,7 +334,9 @@ public class OrcSelectivePageSourceFactory
             Optional<EncryptionInformation> encryptionInformation,
             DwrfEncryptionProvider dwrfEncryptionProvider,
             boolean appendRowNumberEnabled,
-            Optional<byte[]> rowIDPartitionComponent)
+            Optional<byte[]> rowIDPartitionComponent,
+            Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         checkArgument(domainCompactionThreshold >= 1, "domainCompactionThreshold must be at least 1");
 
@@ -292,6 +355,8 @@ public class OrcSelectivePageSourceFactory
                 .withMaxMergeDistance(maxMergeDistance)
                 .withTinyStripeThreshold(tinyStripeThreshold)
                 .withMaxBlockSize(maxReadBlockSize)
+                .withMaxStripeReadAheadSize(getOrcMaxStripeReadAheadSize(session))
+                .withStripeReadAheadExecutor(stripeReadAheadExecutor)
                 .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
                 .withAppendRowNumber(appendRowNumberEnabled || supplyRowIDs)
                 .build();
@@ -326,7 +391,7 @@ public class OrcSelectivePageSourceFactory
             OrcPredicate orcPredicate = toOrcPredicate(domainPredicate, physicalColumns, mappedCoercers, typeManager, domainCompactionThreshold, orcBloomFiltersEnabled);
 
             Map<String, Integer> columnIndices = ImmutableBiMap.copyOf(columnNames).inverse();
-            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, columnIndices, mappedCoercers, tupleDomainFilterCache);
+            Map<Integer, Map<Subfield, TupleDomainFilter>> tupleDomainFilters = toTupleDomainFilters(domainPredicate, dynamicFilterBloomFilters, columnIndices, mappedCoercers, tupleDomainFilterCache);
 
             List<Integer> outputIndices = outputColumns.stream().map(indexMapping::get).collect(toImmutableList());
             Map<Integer, List<Subfield>> requiredSubfields = collectRequiredSubfields(physicalColumns, outputIndices, tupleDomainFilters, remainingPredicate, columnIndices, functionResolution, rowExpressionService, session);
@@ -541,7 +606,12 @@ public class OrcSelectivePageSourceFactory
         }
     }
 
-    private static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(TupleDomain<Subfield> domainPredicate, Map<String, Integer> columnIndices, Map<Integer, HiveCoercer> coercers, TupleDomainFilterCache tupleDomainFilterCache)
+    private static Map<Integer, Map<Subfield, TupleDomainFilter>> toTupleDomainFilters(
+            TupleDomain<Subfield> domainPredicate,
+            Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters,
+            Map<String, Integer> columnIndices,
+            Map<Integer, HiveCoercer> coercers,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
         Map<Subfield, TupleDomainFilter> filtersBySubfield = Maps.transformValues(domainPredicate.getDomains().get(), tupleDomainFilterCache::getFilter);
 
@@ -556,6 +626,19 @@ public class OrcSelectivePageSourceFactory
             filtersByColumn.computeIfAbsent(columnIndex, k -> new HashMap<>()).put(subfield, filter);
         }
 
+        // Dynamic filter Bloom filters are evaluated together with the domain of the entire column.
+        // Columns with coercions are skipped, since the filter holds the hashes of the table schema values.
+        for (Map.Entry<String, SplitBlockBloomFilter> entry : dynamicFilterBloomFilters.entrySet()) {
+            Integer columnIndex = columnIndices.get(entry.getKey());
+            if (columnIndex == null || coercers.containsKey(columnIndex)) {
+                continue;
+            }
+            Subfield subfield = new Subfield(entry.getKey());
+            Map<Subfield, TupleDomainFilter> columnFilters = filtersByColumn.computeIfAbsent(columnIndex, k -> new HashMap<>());
+            TupleDomainFilter filter = columnFilters.getOrDefault(subfield, IS_NOT_NULL);
+            columnFilters.put(subfield, BloomFilterValues.of(filter, entry.getValue()));
+        }
+
         return ImmutableMap.copyOf(filtersByColumn);
     }
 
@@ -74,6 +74,12 @@ public class HdfsParquetDataSource
         }
     }
 
+    @Override
+    protected void addOverReadBytes(long bytes)
+    {
+        stats.addOverReadBytes(bytes);
+    }
+
     @Override
     public Optional<ColumnIndex> readColumnIndex(ColumnChunkMetaData column)
             throws IOException
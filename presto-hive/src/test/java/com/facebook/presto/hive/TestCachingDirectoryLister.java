@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.airlift.testing.TestingTicker;
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
+import com.facebook.presto.hive.metastore.Partition;
+import com.facebook.presto.hive.metastore.Table;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.HadoopExtendedFileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.hive.FileStatusCacheRefreshMode.EXPIRE;
+import static com.facebook.presto.hive.FileStatusCacheRefreshMode.MODIFICATION_TIME;
+import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static com.facebook.presto.hive.HiveTestUtils.SESSION;
+import static com.facebook.presto.hive.NestedDirectoryPolicy.IGNORED;
+import static com.facebook.presto.hive.TestBackgroundHiveSplitLoader.SIMPLE_TABLE;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestCachingDirectoryLister
+{
+    private static final Duration REFRESH_INTERVAL = new Duration(4, MINUTES);
+
+    private File tempDir;
+    private ExtendedFileSystem fileSystem;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDir = createTempDir();
+        LocalFileSystem localFileSystem = new LocalFileSystem();
+        localFileSystem.initialize(URI.create("file:///"), new Configuration());
+        fileSystem = new HadoopExtendedFileSystem(localFileSystem);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testExpire()
+            throws IOException
+    {
+        TestingTicker ticker = new TestingTicker();
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister directoryLister = createDirectoryLister(delegate, EXPIRE, false, ticker);
+        File directory = createDirectory("expire", 1);
+
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(delegate.getListCount(), 1);
+
+        ticker.increment(5, MINUTES);
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(directoryLister.getRevalidationCount(), 0);
+    }
+
+    @Test
+    public void testRevalidateModificationTime()
+            throws IOException
+    {
+        TestingTicker ticker = new TestingTicker();
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister directoryLister = createDirectoryLister(delegate, MODIFICATION_TIME, false, ticker);
+        File directory = createDirectory("revalidate", 1);
+
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(delegate.getListCount(), 1);
+
+        // the directory did not change, so the listing is renewed without listing again
+        ticker.increment(5, MINUTES);
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(delegate.getListCount(), 1);
+        assertEquals(directoryLister.getRevalidationCount(), 1);
+        assertEquals(directoryLister.getChangedDirectoryCount(), 0);
+
+        // a change is only noticed once the listing is due for revalidation again
+        addFile(directory, 2, 2_000_000);
+        assertEquals(list(directoryLister, directory).size(), 1);
+        ticker.increment(5, MINUTES);
+        assertEquals(list(directoryLister, directory).size(), 2);
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(directoryLister.getRevalidationCount(), 2);
+        assertEquals(directoryLister.getChangedDirectoryCount(), 1);
+    }
+
+    @Test
+    public void testRevalidateOtherDirectoriesOfTable()
+            throws IOException
+    {
+        TestingTicker ticker = new TestingTicker();
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister directoryLister = createDirectoryLister(delegate, MODIFICATION_TIME, false, ticker);
+        File first = createDirectory("batch_first", 1);
+        File changed = createDirectory("batch_changed", 1);
+        File unchanged = createDirectory("batch_unchanged", 1);
+        list(directoryLister, first);
+        list(directoryLister, changed);
+        list(directoryLister, unchanged);
+        assertEquals(delegate.getListCount(), 3);
+
+        addFile(changed, 2, 2_000_000);
+        ticker.increment(5, MINUTES);
+        list(directoryLister, first);
+
+        // listing one expired directory revalidates all expired directories of the table
+        assertEquals(directoryLister.getRevalidationCount(), 3);
+        assertEquals(directoryLister.getChangedDirectoryCount(), 1);
+        assertFalse(directoryLister.isPathCached(path(changed)));
+        assertTrue(directoryLister.isPathCached(path(unchanged)));
+
+        assertEquals(list(directoryLister, unchanged).size(), 1);
+        assertEquals(list(directoryLister, changed).size(), 2);
+        assertEquals(delegate.getListCount(), 4);
+        assertEquals(directoryLister.getRevalidationCount(), 3);
+    }
+
+    @Test
+    public void testRefreshAhead()
+            throws IOException
+    {
+        TestingTicker ticker = new TestingTicker();
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister directoryLister = createDirectoryLister(delegate, MODIFICATION_TIME, true, ticker);
+        File directory = createDirectory("refresh_ahead", 1);
+        list(directoryLister, directory);
+
+        ticker.increment(2, MINUTES);
+        list(directoryLister, directory);
+        assertEquals(directoryLister.getRefreshAheadCount(), 0);
+
+        // the listing is close to its revalidation, so it is refreshed while the cached listing is served
+        addFile(directory, 2, 2_000_000);
+        ticker.increment(70, SECONDS);
+        assertEquals(list(directoryLister, directory).size(), 1);
+        assertEquals(directoryLister.getRefreshAheadCount(), 1);
+        assertEquals(delegate.getListCount(), 2);
+        // the refresh is not done as the user of the query that triggered it
+        assertNotEquals(delegate.getLastUser(), SESSION.getUser());
+
+        assertEquals(list(directoryLister, directory).size(), 2);
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    private static CachingDirectoryLister createDirectoryLister(DirectoryLister delegate, FileStatusCacheRefreshMode refreshMode, boolean refreshAheadEnabled, TestingTicker ticker)
+    {
+        return new CachingDirectoryLister(
+                delegate,
+                REFRESH_INTERVAL,
+                new DataSize(1, MEGABYTE),
+                ImmutableList.of("*"),
+                refreshMode,
+                refreshAheadEnabled,
+                1,
+                directExecutor(),
+                Optional.of(HDFS_ENVIRONMENT),
+                ticker);
+    }
+
+    private List<HiveFileInfo> list(DirectoryLister directoryLister, File directory)
+    {
+        HiveDirectoryContext hiveDirectoryContext = new HiveDirectoryContext(
+                IGNORED,
+                true,
+                false,
+                SESSION.getIdentity(),
+                ImmutableMap.of(),
+                new RuntimeStats());
+        return ImmutableList.copyOf(directoryLister.list(fileSystem, SIMPLE_TABLE, path(directory), Optional.empty(), new NamenodeStats(), hiveDirectoryContext));
+    }
+
+    private File createDirectory(String name, int fileCount)
+            throws IOException
+    {
+        File directory = new File(tempDir, name);
+        assertTrue(directory.mkdir());
+        for (int i = 1; i <= fileCount; i++) {
+            addFile(directory, i, 1_000_000);
+        }
+        return directory;
+    }
+
+    private static void addFile(File directory, int fileNumber, long directoryModificationTime)
+            throws IOException
+    {
+        assertTrue(new File(directory, "file" + fileNumber).createNewFile());
+        // set the modification time explicitly, as the file system may only track it in seconds
+        assertTrue(directory.setLastModified(directoryModificationTime));
+    }
+
+    private static Path path(File directory)
+    {
+        return new Path(directory.toURI());
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private final DirectoryLister delegate = new HadoopDirectoryLister();
+        private int listCount;
+        private String lastUser;
+
+        @Override
+        public Iterator<HiveFileInfo> list(
+                ExtendedFileSystem fileSystem,
+                Table table,
+                Path path,
+                Optional<Partition> partition,
+                NamenodeStats namenodeStats,
+                HiveDirectoryContext hiveDirectoryContext)
+        {
+            listCount++;
+            lastUser = hiveDirectoryContext.getConnectorIdentity().getUser();
+            return delegate.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext);
+        }
+
+        public int getListCount()
+        {
+            return listCount;
+        }
+
+        public String getLastUser()
+        {
+            return lastUser;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Maps.immutableEntry;
+import static java.util.stream.IntStream.range;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestFetchAheadIterable
+{
+    @Test
+    public void testBatchesAreReturnedInOrder()
+    {
+        TestingFetcher fetcher = new TestingFetcher(5);
+        FetchAheadIterable<Integer, String> iterable = new FetchAheadIterable<>(ImmutableList.of(0, 1, 2, 3, 4), fetcher::fetch, 2);
+        Iterator<Entry<Integer, String>> iterator = iterable.iterator();
+
+        // nothing is fetched before the first batch is requested
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of());
+
+        // later batches may complete first
+        fetcher.complete(1);
+        fetcher.complete(0);
+        assertEquals(iterator.next(), immutableEntry(0, "batch0"));
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1));
+
+        fetcher.complete(2);
+        assertEquals(iterator.next(), immutableEntry(1, "batch1"));
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2));
+
+        fetcher.complete(4);
+        fetcher.complete(3);
+        assertEquals(iterator.next(), immutableEntry(2, "batch2"));
+        assertEquals(iterator.next(), immutableEntry(3, "batch3"));
+        assertEquals(iterator.next(), immutableEntry(4, "batch4"));
+        assertFalse(iterator.hasNext());
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testFailedFetchCancelsFetchesAhead()
+    {
+        TestingFetcher fetcher = new TestingFetcher(5);
+        FetchAheadIterable<Integer, String> iterable = new FetchAheadIterable<>(ImmutableList.of(0, 1, 2, 3, 4), fetcher::fetch, 3);
+        Iterator<Entry<Integer, String>> iterator = iterable.iterator();
+
+        fetcher.complete(0);
+        assertEquals(iterator.next(), immutableEntry(0, "batch0"));
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2));
+
+        fetcher.fail(1, new RuntimeException("metastore failure"));
+        assertThrows(RuntimeException.class, iterator::next);
+
+        // the batches fetched ahead of the failed one are cancelled, and no more batches are fetched
+        assertTrue(fetcher.getFuture(2).isCancelled());
+        assertTrue(fetcher.getFuture(3).isCancelled());
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2, 3));
+    }
+
+    @Test
+    public void testCancelCancelsFetchesAhead()
+    {
+        TestingFetcher fetcher = new TestingFetcher(5);
+        FetchAheadIterable<Integer, String> iterable = new FetchAheadIterable<>(ImmutableList.of(0, 1, 2, 3, 4), fetcher::fetch, 3);
+        Iterator<Entry<Integer, String>> iterator = iterable.iterator();
+
+        fetcher.complete(0);
+        assertEquals(iterator.next(), immutableEntry(0, "batch0"));
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2));
+
+        // the query is abandoned while batches are fetched ahead
+        iterable.cancel();
+        assertTrue(fetcher.getFuture(1).isCancelled());
+        assertTrue(fetcher.getFuture(2).isCancelled());
+        assertFalse(iterator.hasNext());
+        assertEquals(fetcher.getFetchedBatches(), ImmutableList.of(0, 1, 2));
+    }
+
+    private static class TestingFetcher
+    {
+        private final List<SettableFuture<String>> futures;
+        private final List<Integer> fetchedBatches = new ArrayList<>();
+
+        public TestingFetcher(int batchCount)
+        {
+            futures = range(0, batchCount)
+                    .mapToObj(batch -> SettableFuture.<String>create())
+                    .collect(toImmutableList());
+        }
+
+        public ListenableFuture<String> fetch(int batch)
+        {
+            fetchedBatches.add(batch);
+            return futures.get(batch);
+        }
+
+        public void complete(int batch)
+        {
+            futures.get(batch).set("batch" + batch);
+        }
+
+        public void fail(int batch, Throwable throwable)
+        {
+            futures.get(batch).setException(throwable);
+        }
+
+        public SettableFuture<String> getFuture(int batch)
+        {
+            return futures.get(batch);
+        }
+
+        public List<Integer> getFetchedBatches()
+        {
+            return ImmutableList.copyOf(fetchedBatches);
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class TestHiveClientConfig
                 .setAllowCorruptWritesForTesting(false)
                 .setMinPartitionBatchSize(10)
                 .setMaxPartitionBatchSize(100)
+                .setPartitionBatchFetchConcurrency(4)
                 .setMaxInitialSplits(200)
                 .setMaxInitialSplitSize(new DataSize(32, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(4)
@@ -123,6 +124,10 @@ public class TestHiveClientConfig
                 .setFileStatusCacheExpireAfterWrite(new Duration(0, TimeUnit.SECONDS))
                 .setFileStatusCacheMaxRetainedSize(new DataSize(0, KILOBYTE))
                 .setFileStatusCacheTables("")
+                .setFileStatusCacheRefreshMode(FileStatusCacheRefreshMode.EXPIRE)
+                .setFileStatusCacheRefreshAheadEnabled(false)
+                .setFileStatusCacheRefreshBatchSize(100)
+                .setMaxFileStatusCacheRefreshThreads(16)
                 .setPageFileStripeMaxSize(new DataSize(24, Unit.MEGABYTE))
                 .setBucketFunctionTypeForExchange(HIVE_COMPATIBLE)
                 .setBucketFunctionTypeForCteMaterialization(PRESTO_NATIVE)
@@ -183,6 +188,7 @@ public class TestHiveClientConfig
                 .put("hive.allow-corrupt-writes-for-testing", "true")
                 .put("hive.metastore.partition-batch-size.min", "1")
                 .put("hive.metastore.partition-batch-size.max", "1000")
+                .put("hive.metastore.partition-batch-fetch-concurrency", "8")
                 .put("hive.dfs.ipc-ping-interval", "34s")
                 .put("hive.dfs-timeout", "33s")
                 .put("hive.dfs.connect.timeout", "20s")
@@ -250,6 +256,10 @@ public class TestHiveClientConfig
                 .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
                 .put("hive.file-status-cache.max-retained-size", "500MB")
                 .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.file-status-cache.refresh-mode", "MODIFICATION_TIME")
+                .put("hive.file-status-cache.refresh-ahead-enabled", "true")
+                .put("hive.file-status-cache.refresh-batch-size", "500")
+                .put("hive.file-status-cache.max-refresh-threads", "4")
                 .put("hive.pagefile.writer.stripe-max-size", "1kB")
                 .put("hive.bucket-function-type-for-exchange", "PRESTO_NATIVE")
                 .put("hive.bucket-function-type-for-cte-materialization", "HIVE_COMPATIBLE")
@@ -307,6 +317,7 @@ public class TestHiveClientConfig
                 .setAllowCorruptWritesForTesting(true)
                 .setMinPartitionBatchSize(1)
                 .setMaxPartitionBatchSize(1000)
+                .setPartitionBatchFetchConcurrency(8)
                 .setMaxInitialSplits(10)
                 .setMaxInitialSplitSize(new DataSize(16, Unit.MEGABYTE))
                 .setSplitLoaderConcurrency(1)
@@ -373,6 +384,10 @@ public class TestHiveClientConfig
                 .setFileStatusCacheTables("foo.bar1,foo.bar2")
                 .setFileStatusCacheMaxRetainedSize((new DataSize(500, MEGABYTE)))
                 .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setFileStatusCacheRefreshMode(FileStatusCacheRefreshMode.MODIFICATION_TIME)
+                .setFileStatusCacheRefreshAheadEnabled(true)
+                .setFileStatusCacheRefreshBatchSize(500)
+                .setMaxFileStatusCacheRefreshThreads(4)
                 .setPageFileStripeMaxSize(new DataSize(1, Unit.KILOBYTE))
                 .setBucketFunctionTypeForExchange(PRESTO_NATIVE)
                 .setBucketFunctionTypeForCteMaterialization(HIVE_COMPATIBLE)
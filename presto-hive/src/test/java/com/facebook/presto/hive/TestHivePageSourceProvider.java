@@ -18,6 +18,7 @@ import com.facebook.presto.cache.CacheConfig;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.TestingTypeManager;
 import com.facebook.presto.common.type.Type;
@@ -729,7 +730,8 @@ public class TestHivePageSourceProvider
                 HiveFileContext hiveFileContext,
                 Optional<EncryptionInformation> encryptionInformation,
                 boolean appendRowNumberEnabled,
-                Optional<byte[]> rowIDPartitionComponent)
+                Optional<byte[]> rowIDPartitionComponent,
+                Map<String, SplitBlockBloomFilter> dynamicFilterBloomFilters)
         {
             if (!OrcSerde.class.getName().equals(storage.getStorageFormat().getSerDe())) {
                 return Optional.empty();
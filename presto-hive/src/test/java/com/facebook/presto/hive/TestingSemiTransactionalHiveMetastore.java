@@ -42,6 +42,7 @@ import com.facebook.presto.spi.security.PrestoPrincipal;
 import com.facebook.presto.spi.security.RoleGrant;
 import com.facebook.presto.spi.statistics.ColumnStatisticType;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.apache.hadoop.fs.Path;
 
@@ -50,6 +51,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -271,6 +273,12 @@ public class TestingSemiTransactionalHiveMetastore
         throw new UnsupportedOperationException("method not implemented");
     }
 
+    @Override
+    public synchronized ListenableFuture<Map<String, Optional<Partition>>> getPartitionsByNamesAsync(MetastoreContext metastoreContext, String databaseName, String tableName, List<PartitionNameWithVersion> partitionNames, Executor executor)
+    {
+        throw new UnsupportedOperationException("method not implemented");
+    }
+
     @Override
     public synchronized void addPartition(ConnectorSession session, String databaseName, String tableName, String tablePath, boolean isNewTable, Partition partition, Path currentLocation, PartitionStatistics statistics)
     {
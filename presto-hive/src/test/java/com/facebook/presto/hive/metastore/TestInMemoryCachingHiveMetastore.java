@@ -31,10 +31,12 @@ import com.facebook.presto.spi.constraints.UniqueConstraint;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +44,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheType.ALL;
@@ -574,6 +577,28 @@ public class TestInMemoryCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 5);
     }
 
+    @Test
+    public void testGetPartitionsByNamesAsync()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        List<PartitionNameWithVersion> partitionNames = ImmutableList.of(TEST_PARTITION_NAME_WITH_VERSION1, TEST_PARTITION_NAME_WITH_VERSION2);
+
+        // partitions missing from the cache are fetched on the executor
+        ListenableFuture<Map<String, Optional<Partition>>> partitions = metastoreWithAllCachesEnabled.getPartitionsByNamesAsync(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, partitionNames, tasks::add);
+        assertFalse(partitions.isDone());
+        assertEquals(tasks.size(), 1);
+        tasks.get(0).run();
+        assertEquals(getFutureValue(partitions).size(), 2);
+        int accessCount = mockClient.getAccessCount();
+
+        // cached partitions are served without the executor
+        partitions = metastoreWithAllCachesEnabled.getPartitionsByNamesAsync(TEST_METASTORE_CONTEXT, TEST_DATABASE, TEST_TABLE, partitionNames, tasks::add);
+        assertTrue(partitions.isDone());
+        assertEquals(tasks.size(), 1);
+        assertEquals(getFutureValue(partitions).size(), 2);
+        assertEquals(mockClient.getAccessCount(), accessCount);
+    }
+
     @Test
     public void testListRoles()
             throws Exception
@@ -41,6 +41,9 @@ import com.facebook.presto.hive.datasink.OutputStreamDataSinkFactory;
 import com.facebook.presto.hive.gcs.GcsConfigurationInitializer;
 import com.facebook.presto.hive.gcs.HiveGcsConfig;
 import com.facebook.presto.hive.gcs.HiveGcsConfigurationInitializer;
+import com.facebook.presto.iceberg.delete.DecodedDeleteFile;
+import com.facebook.presto.iceberg.delete.DeleteFileCache;
+import com.facebook.presto.iceberg.delete.DeleteFileCacheKey;
 import com.facebook.presto.iceberg.nessie.IcebergNessieConfig;
 import com.facebook.presto.iceberg.optimizer.IcebergPlanOptimizerProvider;
 import com.facebook.presto.iceberg.procedure.ExpireSnapshotsProcedure;
@@ -75,6 +78,7 @@ import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.cache.BloomFilterCacheKey;
 import com.facebook.presto.parquet.cache.CachingParquetMetadataSource;
 import com.facebook.presto.parquet.cache.MetadataReader;
 import com.facebook.presto.parquet.cache.ParquetCacheConfig;
@@ -97,6 +101,7 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import jakarta.inject.Singleton;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.weakref.jmx.MBeanExporter;
 
 import java.nio.ByteBuffer;
@@ -111,6 +116,7 @@ import static com.facebook.presto.common.Utils.checkArgument;
 import static com.facebook.presto.iceberg.CatalogType.HADOOP;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableRowGroupIndices;
 import static com.facebook.presto.orc.StripeMetadataSource.CacheableSlice;
+import static com.google.common.primitives.Ints.saturatedCast;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static com.google.inject.multibindings.OptionalBinder.newOptionalBinder;
@@ -123,6 +129,8 @@ import static org.weakref.jmx.guice.ExportBinder.newExporter;
 public class IcebergCommonModule
         extends AbstractConfigurationAwareModule
 {
+    private static final int DELETE_FILE_CACHE_CONCURRENCY_LEVEL = 4;
+
     private final String connectorId;
 
     public IcebergCommonModule(String connectorId)
@@ -224,6 +232,23 @@ public class IcebergCommonModule
         return statisticsFileCache;
     }
 
+    @Singleton
+    @Provides
+    public DeleteFileCache createDeleteFileCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        long maxSizeInBytes = config.getMaxDeleteFileCacheSize().toBytes();
+        Cache<DeleteFileCacheKey, DecodedDeleteFile> delegate = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeInBytes)
+                .<DeleteFileCacheKey, DecodedDeleteFile>weigher((key, entry) -> saturatedCast(entry.getRetainedSizeInBytes()))
+                .concurrencyLevel(DELETE_FILE_CACHE_CONCURRENCY_LEVEL)
+                .recordStats()
+                .build();
+        // the maximum weight is split across the segments of the cache, and an entry only fits into one segment
+        DeleteFileCache deleteFileCache = new DeleteFileCache(delegate, maxSizeInBytes / DELETE_FILE_CACHE_CONCURRENCY_LEVEL, config.isDeleteFileCacheEnabled());
+        exporter.export(generatedNameOf(DeleteFileCache.class, connectorId), deleteFileCache);
+        return deleteFileCache;
+    }
+
     @Singleton
     @Provides
     public ManifestFileCache createManifestFileCache(IcebergConfig config, MBeanExporter exporter)
@@ -267,6 +292,16 @@ public class IcebergCommonModule
                 daemonThreadsNamed("iceberg-split-manager-" + connectorId + "-%s"));
     }
 
+    @Provides
+    @Singleton
+    @ForIcebergSplitLoader
+    public ExecutorService createSplitLoaderExecutor(IcebergConfig config)
+    {
+        return newFixedThreadPool(
+                config.getSplitLoaderThreads(),
+                daemonThreadsNamed("iceberg-split-loader-" + connectorId + "-%s"));
+    }
+
     @Singleton
     @Provides
     public OrcFileTailSource createOrcFileTailSource(OrcCacheConfig orcCacheConfig, MBeanExporter exporter)
@@ -336,6 +371,7 @@ public class IcebergCommonModule
     public ParquetMetadataSource createParquetMetadataSource(ParquetCacheConfig parquetCacheConfig, MBeanExporter exporter)
     {
         ParquetMetadataSource parquetMetadataSource = new MetadataReader();
+        Optional<Cache<ParquetDataSourceId, ParquetFileMetadata>> metadataCache = Optional.empty();
         if (parquetCacheConfig.isMetadataCacheEnabled()) {
             Cache<ParquetDataSourceId, ParquetFileMetadata> cache = CacheBuilder.newBuilder()
                     .maximumWeight(parquetCacheConfig.getMetadataCacheSize().toBytes())
@@ -344,9 +380,24 @@ public class IcebergCommonModule
                     .recordStats()
                     .build();
             CacheStatsMBean cacheStatsMBean = new CacheStatsMBean(cache);
-            parquetMetadataSource = new CachingParquetMetadataSource(cache, parquetMetadataSource);
+            metadataCache = Optional.of(cache);
             exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_ParquetMetadata"), cacheStatsMBean);
         }
+        Optional<Cache<BloomFilterCacheKey, Optional<BloomFilter>>> bloomFilterCache = Optional.empty();
+        if (parquetCacheConfig.isBloomFilterCacheEnabled()) {
+            Cache<BloomFilterCacheKey, Optional<BloomFilter>> cache = CacheBuilder.newBuilder()
+                    .maximumWeight(parquetCacheConfig.getBloomFilterCacheSize().toBytes())
+                    .weigher((key, bloomFilter) -> ((Optional<?>) bloomFilter).map(filter -> ((BloomFilter) filter).getBitsetSize()).orElse(0))
+                    .expireAfterAccess(parquetCacheConfig.getBloomFilterCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                    .recordStats()
+                    .build();
+            CacheStatsMBean cacheStatsMBean = new CacheStatsMBean(cache);
+            bloomFilterCache = Optional.of(cache);
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_ParquetBloomFilter"), cacheStatsMBean);
+        }
+        if (metadataCache.isPresent() || bloomFilterCache.isPresent()) {
+            parquetMetadataSource = new CachingParquetMetadataSource(metadataCache, bloomFilterCache, parquetMetadataSource);
+        }
         return parquetMetadataSource;
     }
 }
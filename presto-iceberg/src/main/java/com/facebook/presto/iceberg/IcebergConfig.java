@@ -75,7 +75,12 @@ public class IcebergConfig
     private long manifestCacheMaxContentLength = IO_MANIFEST_CACHE_MAX_CONTENT_LENGTH_DEFAULT;
     private DataSize manifestCacheMaxChunkSize = succinctDataSize(2, MEGABYTE);
     private int splitManagerThreads = Runtime.getRuntime().availableProcessors();
+    private boolean pipelinedSplitPlanningEnabled;
+    private int maxOutstandingSplits = 1_000;
+    private int splitLoaderThreads = Runtime.getRuntime().availableProcessors();
     private DataSize maxStatisticsFileCacheSize = succinctDataSize(256, MEGABYTE);
+    private boolean deleteFileCacheEnabled = true;
+    private DataSize maxDeleteFileCacheSize = succinctDataSize(128, MEGABYTE);
     private String materializedViewStoragePrefix = "__mv_storage__";
 
     @NotNull
@@ -413,6 +418,47 @@ public class IcebergConfig
         return this;
     }
 
+    public boolean isPipelinedSplitPlanningEnabled()
+    {
+        return pipelinedSplitPlanningEnabled;
+    }
+
+    @Config("iceberg.pipelined-split-planning-enabled")
+    @ConfigDescription("Plan splits on a background thread and hand them to the scheduler as soon as each manifest is read")
+    public IcebergConfig setPipelinedSplitPlanningEnabled(boolean pipelinedSplitPlanningEnabled)
+    {
+        this.pipelinedSplitPlanningEnabled = pipelinedSplitPlanningEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxOutstandingSplits()
+    {
+        return maxOutstandingSplits;
+    }
+
+    @Config("iceberg.max-outstanding-splits")
+    @ConfigDescription("Maximum number of planned splits buffered per table scan when pipelined split planning is enabled")
+    public IcebergConfig setMaxOutstandingSplits(int maxOutstandingSplits)
+    {
+        this.maxOutstandingSplits = maxOutstandingSplits;
+        return this;
+    }
+
+    @Min(1)
+    public int getSplitLoaderThreads()
+    {
+        return splitLoaderThreads;
+    }
+
+    @Config("iceberg.split-loader-threads")
+    @ConfigDescription("Number of threads planning splits in the background when pipelined split planning is enabled")
+    public IcebergConfig setSplitLoaderThreads(int splitLoaderThreads)
+    {
+        this.splitLoaderThreads = splitLoaderThreads;
+        return this;
+    }
+
     @Min(0)
     public int getMetadataPreviousVersionsMax()
     {
@@ -466,6 +512,32 @@ public class IcebergConfig
         return this;
     }
 
+    public boolean isDeleteFileCacheEnabled()
+    {
+        return deleteFileCacheEnabled;
+    }
+
+    @Config("iceberg.delete-file-cache-enabled")
+    @ConfigDescription("Cache decoded position and equality delete files on workers")
+    public IcebergConfig setDeleteFileCacheEnabled(boolean deleteFileCacheEnabled)
+    {
+        this.deleteFileCacheEnabled = deleteFileCacheEnabled;
+        return this;
+    }
+
+    public DataSize getMaxDeleteFileCacheSize()
+    {
+        return maxDeleteFileCacheSize;
+    }
+
+    @Config("iceberg.max-delete-file-cache-size")
+    @ConfigDescription("The maximum size in bytes the delete file cache should consume")
+    public IcebergConfig setMaxDeleteFileCacheSize(DataSize maxDeleteFileCacheSize)
+    {
+        this.maxDeleteFileCacheSize = maxDeleteFileCacheSize;
+        return this;
+    }
+
     public int getStatisticsKllSketchKParameter()
     {
         return this.statisticsKllSketchKParameter;
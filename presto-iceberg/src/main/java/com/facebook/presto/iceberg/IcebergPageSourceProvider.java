@@ -36,13 +36,19 @@ import com.facebook.presto.hive.HiveDwrfEncryptionProvider;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveOrcAggregatedMemoryContext;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.OrcStripeReadAheadExecutor;
 import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
 import com.facebook.presto.hive.orc.HdfsOrcDataSource;
 import com.facebook.presto.hive.orc.OrcBatchPageSource;
 import com.facebook.presto.hive.orc.ProjectionBasedDwrfKeyProvider;
 import com.facebook.presto.hive.parquet.ParquetPageSource;
 import com.facebook.presto.iceberg.changelog.ChangelogPageSource;
+import com.facebook.presto.iceberg.delete.DecodedDeleteFile;
+import com.facebook.presto.iceberg.delete.DecodedEqualityDeletes;
+import com.facebook.presto.iceberg.delete.DecodedPositionDeletes;
 import com.facebook.presto.iceberg.delete.DeleteFile;
+import com.facebook.presto.iceberg.delete.DeleteFileCache;
+import com.facebook.presto.iceberg.delete.DeleteFileCacheKey;
 import com.facebook.presto.iceberg.delete.DeleteFilter;
 import com.facebook.presto.iceberg.delete.IcebergDeletePageSink;
 import com.facebook.presto.iceberg.delete.PositionDeleteFilter;
@@ -67,6 +73,7 @@ import com.facebook.presto.parquet.ParquetCorruptionException;
 import com.facebook.presto.parquet.ParquetDataSource;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.cache.ParquetMetadataSource;
+import com.facebook.presto.parquet.predicate.BloomFilterStore;
 import com.facebook.presto.parquet.predicate.Predicate;
 import com.facebook.presto.parquet.reader.ParquetReader;
 import com.facebook.presto.spi.ColumnHandle;
@@ -108,6 +115,7 @@ import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.ColumnIO;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
+import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
 import org.roaringbitmap.longlong.LongBitmapDataProvider;
 import org.roaringbitmap.longlong.Roaring64Bitmap;
 
@@ -120,6 +128,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -132,14 +141,18 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcLazyRea
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxStripeReadAheadSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcStreamBufferSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMaxBufferSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMaxReadBlockSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getReadNullMaskedParquetEncryptedValue;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReadsEnabled;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBloomFiltersEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createDecryptor;
 import static com.facebook.presto.iceberg.FileContent.EQUALITY_DELETES;
@@ -156,9 +169,11 @@ import static com.facebook.presto.iceberg.IcebergOrcColumn.ROOT_COLUMN_ID;
 import static com.facebook.presto.iceberg.IcebergUtil.getColumns;
 import static com.facebook.presto.iceberg.IcebergUtil.getLocationProvider;
 import static com.facebook.presto.iceberg.IcebergUtil.getShallowWrappedIcebergTable;
+import static com.facebook.presto.iceberg.IcebergUtil.schemaFromHandles;
 import static com.facebook.presto.iceberg.TypeConverter.ORC_ICEBERG_ID_KEY;
 import static com.facebook.presto.iceberg.TypeConverter.toHiveType;
 import static com.facebook.presto.iceberg.delete.EqualityDeleteFilter.readEqualityDeletes;
+import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.readAllPositionDeletes;
 import static com.facebook.presto.iceberg.delete.PositionDeleteFilter.readPositionDeletes;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
@@ -213,6 +228,8 @@ public class IcebergPageSourceProvider
     private final PageIndexerFactory pageIndexerFactory;
     private final int maxOpenPartitions;
     private final SortParameters sortParameters;
+    private final DeleteFileCache deleteFileCache;
+    private final Executor stripeReadAheadExecutor;
 
     @Inject
     public IcebergPageSourceProvider(
@@ -228,7 +245,9 @@ public class IcebergPageSourceProvider
             JsonCodec<CommitTaskData> jsonCodec,
             PageIndexerFactory pageIndexerFactory,
             IcebergConfig icebergConfig,
-            SortParameters sortParameters)
+            SortParameters sortParameters,
+            DeleteFileCache deleteFileCache,
+            OrcStripeReadAheadExecutor stripeReadAheadExecutor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.fileFormatDataSourceStats = requireNonNull(fileFormatDataSourceStats, "fileFormatDataSourceStats is null");
@@ -244,6 +263,8 @@ public class IcebergPageSourceProvider
         requireNonNull(icebergConfig, "icebergConfig is null");
         this.maxOpenPartitions = icebergConfig.getMaxPartitionsPerWriter();
         this.sortParameters = requireNonNull(sortParameters, "sortParameters is null");
+        this.deleteFileCache = requireNonNull(deleteFileCache, "deleteFileCache is null");
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null").getExecutor();
     }
 
     private static ConnectorPageSourceWithRowPositions createParquetPageSource(
@@ -310,6 +331,10 @@ public class IcebergPageSourceProvider
             TupleDomain<ColumnDescriptor> parquetTupleDomain = getParquetTupleDomain(descriptorsByPath, effectivePredicate);
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
             final ParquetDataSource finalDataSource = dataSource;
+            Optional<BloomFilterStore> bloomFilterStore = Optional.empty();
+            if (isParquetBloomFiltersEnabled(session)) {
+                bloomFilterStore = Optional.of(new BloomFilterStore(parquetMetadataSource, finalDataSource, hiveFileContext.isCacheable(), hiveFileContext.getModificationTime()));
+            }
 
             long nextStart = 0;
             Optional<Long> startRowPosition = Optional.empty();
@@ -323,7 +348,7 @@ public class IcebergPageSourceProvider
                     long firstDataPage = block.getColumns().get(firstIndex.get()).getFirstDataPageOffset();
                     Optional<ColumnIndexStore> columnIndexStore = getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, false);
                     if ((firstDataPage >= start) && (firstDataPage < (start + length)) &&
-                            predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, Optional.of(session.getWarningCollector()))) {
+                            predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, Optional.of(session.getWarningCollector()), bloomFilterStore)) {
                         blocks.add(block);
                         blockIndexStores.add(columnIndexStore.orElse(null));
                         blockStarts.add(nextStart);
@@ -349,7 +374,9 @@ public class IcebergPageSourceProvider
                     parquetPredicate,
                     blockIndexStores,
                     false,
-                    fileDecryptor);
+                    fileDecryptor,
+                    getParquetMaxMergeDistance(session),
+                    getParquetMaxBufferSize(session));
 
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> prestoTypes = ImmutableList.builder();
@@ -995,6 +1022,18 @@ public class IcebergPageSourceProvider
                     }
                 }
 
+                Optional<DecodedPositionDeletes> cachedDeletes = getPositionDeletes(session, delete, deleteColumns);
+                if (cachedDeletes.isPresent()) {
+                    ImmutableLongBitmapDataProvider cachedRows = cachedDeletes.get().getDeletedRows(dataFilePath);
+                    if (storeDeleteFilePath) {
+                        filters.add(new PositionDeleteFilter(cachedRows, delete.path()));
+                    }
+                    else {
+                        cachedRows.forEach(deletedRows::addLong);
+                    }
+                    continue;
+                }
+
                 try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, deleteDomain)) {
                     readPositionDeletes(pageSource, targetPath, deletedRows);
                 }
@@ -1013,12 +1052,7 @@ public class IcebergPageSourceProvider
                         .map(id -> IcebergColumnHandle.create(schema.findField(id), typeManager, IcebergColumnHandle.ColumnType.REGULAR))
                         .collect(toImmutableList());
 
-                try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
-                    filters.add(readEqualityDeletes(pageSource, columns, storeDeleteFilePath ? delete.path() : null));
-                }
-                catch (IOException e) {
-                    throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
-                }
+                filters.add(getEqualityDeletes(session, delete, columns).toFilter(storeDeleteFilePath ? delete.path() : null));
             }
             else {
                 throw new VerifyException("Unknown delete content: " + delete.content());
@@ -1032,6 +1066,54 @@ public class IcebergPageSourceProvider
         return filters;
     }
 
+    /**
+     * Returns the decoded position deletes of all data files referenced by the delete file, or empty
+     * when they are not cached and the rows of the data file should be read with the file path pushed down.
+     */
+    private Optional<DecodedPositionDeletes> getPositionDeletes(ConnectorSession session, DeleteFile delete, List<IcebergColumnHandle> deleteColumns)
+    {
+        if (!deleteFileCache.isEnabled()) {
+            return Optional.empty();
+        }
+
+        // the whole file is decoded, so that the splits of every data file it references can share it
+        DeleteFileCacheKey key = new DeleteFileCacheKey(delete.path(), delete.fileSizeInBytes());
+        return deleteFileCache.getOrDecode(key, () -> {
+            try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, TupleDomain.all())) {
+                return readAllPositionDeletes(pageSource);
+            }
+            catch (IOException e) {
+                throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
+            }
+        }).flatMap(deletes -> deletes instanceof DecodedPositionDeletes ? Optional.of((DecodedPositionDeletes) deletes) : Optional.empty());
+    }
+
+    private DecodedEqualityDeletes getEqualityDeletes(ConnectorSession session, DeleteFile delete, List<IcebergColumnHandle> columns)
+    {
+        if (deleteFileCache.isEnabled()) {
+            DeleteFileCacheKey key = new DeleteFileCacheKey(delete.path(), delete.fileSizeInBytes());
+            Optional<DecodedDeleteFile> cached = deleteFileCache.getOrDecode(key, () -> decodeEqualityDeletes(session, delete, columns));
+            // the equality columns may have been read with different types before a schema change
+            if (cached.isPresent() && cached.get() instanceof DecodedEqualityDeletes) {
+                DecodedEqualityDeletes deletes = (DecodedEqualityDeletes) cached.get();
+                if (deletes.getSchema().asStruct().equals(schemaFromHandles(columns).asStruct())) {
+                    return deletes;
+                }
+            }
+        }
+        return decodeEqualityDeletes(session, delete, columns);
+    }
+
+    private DecodedEqualityDeletes decodeEqualityDeletes(ConnectorSession session, DeleteFile delete, List<IcebergColumnHandle> columns)
+    {
+        try (ConnectorPageSource pageSource = openDeletes(session, delete, columns, TupleDomain.all())) {
+            return readEqualityDeletes(pageSource, columns);
+        }
+        catch (IOException e) {
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e);
+        }
+    }
+
     private ConnectorPageSource openDeletes(
             ConnectorSession session,
             DeleteFile delete,
@@ -1080,6 +1162,8 @@ public class IcebergPageSourceProvider
                         .withMaxMergeDistance(getOrcMaxMergeDistance(session))
                         .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
                         .withMaxBlockSize(getOrcMaxReadBlockSize(session))
+                        .withMaxStripeReadAheadSize(getOrcMaxStripeReadAheadSize(session))
+                        .withStripeReadAheadExecutor(Optional.of(stripeReadAheadExecutor))
                         .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
                         .build();
 
@@ -73,6 +73,7 @@ public final class IcebergSessionProperties
     public static final String TARGET_SPLIT_SIZE_BYTES = "target_split_size_bytes";
     public static final String MATERIALIZED_VIEW_STORAGE_PREFIX = "materialized_view_storage_prefix";
     public static final String MAX_PARTITIONS_PER_WRITER = "max_partitions_per_writer";
+    public static final String PIPELINED_SPLIT_PLANNING_ENABLED = "pipelined_split_planning_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -242,6 +243,11 @@ public final class IcebergSessionProperties
                                 "This is only used when the storage_table table property is not explicitly set. " +
                                 "When a custom table name is provided, it takes precedence over this prefix.",
                         icebergConfig.getMaterializedViewStoragePrefix(),
+                        false))
+                .add(booleanProperty(
+                        PIPELINED_SPLIT_PLANNING_ENABLED,
+                        "Plan splits on a background thread and hand them to the scheduler as soon as each manifest is read",
+                        icebergConfig.isPipelinedSplitPlanningEnabled(),
                         false));
 
         nessieConfig.ifPresent((config) -> propertiesBuilder
@@ -396,4 +402,9 @@ public final class IcebergSessionProperties
     {
         return session.getProperty(MATERIALIZED_VIEW_STORAGE_PREFIX, String.class);
     }
+
+    public static boolean isPipelinedSplitPlanningEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PIPELINED_SPLIT_PLANNING_ENABLED, Boolean.class);
+    }
 }
@@ -36,10 +36,12 @@ import org.apache.iceberg.util.SnapshotUtil;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.facebook.presto.iceberg.ExpressionConverter.toIcebergExpression;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.isPipelinedSplitPlanningEnabled;
 import static com.facebook.presto.iceberg.IcebergTableType.CHANGELOG;
 import static com.facebook.presto.iceberg.IcebergTableType.EQUALITY_DELETES;
 import static com.facebook.presto.iceberg.IcebergUtil.getIcebergTable;
@@ -54,17 +56,24 @@ public class IcebergSplitManager
     private final TypeManager typeManager;
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorServiceMBean;
+    private final ExecutorService splitLoaderExecutor;
+    private final int maxOutstandingSplits;
+    private final IcebergSplitPlanningStats splitPlanningStats = new IcebergSplitPlanningStats();
 
     @Inject
     public IcebergSplitManager(
             IcebergTransactionManager transactionManager,
             TypeManager typeManager,
-            @ForIcebergSplitManager ExecutorService executor)
+            @ForIcebergSplitManager ExecutorService executor,
+            @ForIcebergSplitLoader ExecutorService splitLoaderExecutor,
+            IcebergConfig config)
     {
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.executorServiceMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) executor);
+        this.splitLoaderExecutor = requireNonNull(splitLoaderExecutor, "splitLoaderExecutor is null");
+        this.maxOutstandingSplits = requireNonNull(config, "config is null").getMaxOutstandingSplits();
     }
 
     @Override
@@ -110,6 +119,7 @@ public class IcebergSplitManager
         else {
             TableScan tableScan = icebergTable.newScan()
                     .metricsReporter(new RuntimeStatsMetricsReporter(session.getRuntimeStats()))
+                    .metricsReporter(splitPlanningStats)
                     .filter(toIcebergExpression(predicate))
                     .useSnapshot(table.getIcebergTableName().getSnapshotId().get())
                     .planWith(executor);
@@ -119,7 +129,10 @@ public class IcebergSplitManager
             IcebergSplitSource splitSource = new IcebergSplitSource(
                     session,
                     tableScan,
-                    getMetadataColumnConstraints(layoutHandle.getValidPredicate()));
+                    getMetadataColumnConstraints(layoutHandle.getValidPredicate()),
+                    splitPlanningStats,
+                    isPipelinedSplitPlanningEnabled(session) ? Optional.of(splitLoaderExecutor) : Optional.empty(),
+                    maxOutstandingSplits);
             return splitSource;
         }
     }
@@ -130,4 +143,11 @@ public class IcebergSplitManager
     {
         return executorServiceMBean;
     }
+
+    @Managed
+    @Nested
+    public IcebergSplitPlanningStats getSplitPlanningStats()
+    {
+        return splitPlanningStats;
+    }
 }
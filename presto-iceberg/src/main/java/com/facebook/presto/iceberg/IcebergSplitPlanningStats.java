@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
+import org.apache.iceberg.metrics.CounterResult;
+import org.apache.iceberg.metrics.MetricsReport;
+import org.apache.iceberg.metrics.MetricsReporter;
+import org.apache.iceberg.metrics.ScanReport;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Connector wide statistics of split planning, aggregated over all table scans.
+ */
+public class IcebergSplitPlanningStats
+        implements MetricsReporter
+{
+    private final TimeStat timeToFirstSplit = new TimeStat(MILLISECONDS);
+    private final CounterStat scannedDataManifests = new CounterStat();
+    private final CounterStat skippedDataManifests = new CounterStat();
+    private final CounterStat scannedDeleteManifests = new CounterStat();
+    private final CounterStat skippedDeleteManifests = new CounterStat();
+
+    @Override
+    public void report(MetricsReport report)
+    {
+        if (!(report instanceof ScanReport)) {
+            return;
+        }
+        ScanReport scanReport = (ScanReport) report;
+        update(scannedDataManifests, scanReport.scanMetrics().scannedDataManifests());
+        update(skippedDataManifests, scanReport.scanMetrics().skippedDataManifests());
+        update(scannedDeleteManifests, scanReport.scanMetrics().scannedDeleteManifests());
+        update(skippedDeleteManifests, scanReport.scanMetrics().skippedDeleteManifests());
+    }
+
+    public void recordTimeToFirstSplit(long nanos)
+    {
+        timeToFirstSplit.add(nanos, NANOSECONDS);
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getTimeToFirstSplit()
+    {
+        return timeToFirstSplit;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getScannedDataManifests()
+    {
+        return scannedDataManifests;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSkippedDataManifests()
+    {
+        return skippedDataManifests;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getScannedDeleteManifests()
+    {
+        return scannedDeleteManifests;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSkippedDeleteManifests()
+    {
+        return skippedDeleteManifests;
+    }
+
+    private static void update(CounterStat stat, CounterResult result)
+    {
+        if (result != null) {
+            stat.update(result.value());
+        }
+    }
+}
@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.iceberg;
 
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.hive.util.AsyncQueue;
 import com.facebook.presto.iceberg.delete.DeleteFile;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
@@ -24,6 +26,8 @@ import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.PartitionSpecParser;
@@ -37,7 +41,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.airlift.concurrent.MoreFutures.toCompletableFuture;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getAffinitySchedulingFileSectionSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getNodeSelectionStrategy;
 import static com.facebook.presto.iceberg.FileFormat.fromIcebergFileFormat;
@@ -48,8 +57,10 @@ import static com.facebook.presto.iceberg.IcebergUtil.getTargetSplitSize;
 import static com.facebook.presto.iceberg.IcebergUtil.metadataColumnsMatchPredicates;
 import static com.facebook.presto.iceberg.IcebergUtil.partitionDataFromStructLike;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.limit;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.apache.iceberg.util.TableScanUtil.splitFiles;
@@ -57,7 +68,7 @@ import static org.apache.iceberg.util.TableScanUtil.splitFiles;
 public class IcebergSplitSource
         implements ConnectorSplitSource
 {
-    private CloseableIterator<FileScanTask> fileScanTaskIterator;
+    private CloseableIterator<FileScanTask> fileScanTaskIterator = CloseableIterator.empty();
 
     private final Closer closer = Closer.create();
     private final double minimumAssignedSplitWeight;
@@ -67,28 +78,60 @@ public class IcebergSplitSource
 
     private final TupleDomain<IcebergColumnHandle> metadataColumnConstraints;
 
+    private final RuntimeStats runtimeStats;
+    private final String timeToFirstSplitMetricName;
+    private final IcebergSplitPlanningStats splitPlanningStats;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean firstSplitReturned = new AtomicBoolean();
+
+    // present when splits are planned on a background thread and handed out as soon as they are ready
+    private final Optional<AsyncQueue<ConnectorSplit>> splitQueue;
+    private final Optional<Executor> splitLoaderExecutor;
+    private final AtomicReference<Throwable> loaderFailure = new AtomicReference<>();
+    private volatile boolean closed;
+
     public IcebergSplitSource(
             ConnectorSession session,
             TableScan tableScan,
-            TupleDomain<IcebergColumnHandle> metadataColumnConstraints)
+            TupleDomain<IcebergColumnHandle> metadataColumnConstraints,
+            IcebergSplitPlanningStats splitPlanningStats,
+            Optional<Executor> splitLoaderExecutor,
+            int maxOutstandingSplits)
     {
         requireNonNull(session, "session is null");
         this.metadataColumnConstraints = requireNonNull(metadataColumnConstraints, "metadataColumnConstraints is null");
+        this.splitPlanningStats = requireNonNull(splitPlanningStats, "splitPlanningStats is null");
+        this.splitLoaderExecutor = requireNonNull(splitLoaderExecutor, "splitLoaderExecutor is null");
+        this.runtimeStats = session.getRuntimeStats();
+        this.timeToFirstSplitMetricName = tableScan.table().name() + ".scan.timeToFirstSplit";
         this.targetSplitSize = getTargetSplitSize(session, tableScan).toBytes();
         this.minimumAssignedSplitWeight = getMinimumAssignedSplitWeight(session);
         this.nodeSelectionStrategy = getNodeSelectionStrategy(session);
         this.affinitySchedulingFileSectionSize = getAffinitySchedulingFileSectionSize(session).toBytes();
-        this.fileScanTaskIterator = closer.register(
-                splitFiles(
-                        closer.register(tableScan.planFiles()),
-                        targetSplitSize)
-                        .iterator());
+        this.splitQueue = splitLoaderExecutor.map(executor -> new AsyncQueue<>(maxOutstandingSplits, executor));
+        if (splitLoaderExecutor.isPresent()) {
+            splitLoaderExecutor.get().execute(() -> startLoading(tableScan));
+        }
+        else {
+            openScan(tableScan);
+        }
     }
 
     @Override
     public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, int maxSize)
     {
-        // TODO: move this to a background thread
+        if (splitQueue.isPresent()) {
+            AsyncQueue<ConnectorSplit> queue = splitQueue.get();
+            return toCompletableFuture(Futures.transform(
+                    queue.getBatchAsync(maxSize),
+                    splits -> {
+                        throwIfLoaderFailed();
+                        recordFirstSplit(splits);
+                        return new ConnectorSplitBatch(splits, queue.isFinished());
+                    },
+                    directExecutor()));
+        }
+
         List<ConnectorSplit> splits = new ArrayList<>();
         Iterator<FileScanTask> iterator = limit(fileScanTaskIterator, maxSize);
         while (iterator.hasNext()) {
@@ -98,17 +141,92 @@ public class IcebergSplitSource
                 splits.add(icebergSplit);
             }
         }
+        recordFirstSplit(splits);
         return completedFuture(new ConnectorSplitBatch(splits, isFinished()));
     }
 
     @Override
     public boolean isFinished()
     {
+        if (splitQueue.isPresent()) {
+            throwIfLoaderFailed();
+            return splitQueue.get().isFinished();
+        }
         return !fileScanTaskIterator.hasNext();
     }
 
     @Override
     public void close()
+    {
+        if (splitQueue.isPresent()) {
+            // the loader releases the scan resources once it observes the split source is closed
+            closed = true;
+            splitQueue.get().finish();
+            return;
+        }
+        closeScan();
+    }
+
+    private void startLoading(TableScan tableScan)
+    {
+        try {
+            openScan(tableScan);
+        }
+        catch (Throwable t) {
+            loaderFailure.compareAndSet(null, t);
+            finishLoading();
+            return;
+        }
+        loadSplits();
+    }
+
+    private void loadSplits()
+    {
+        AsyncQueue<ConnectorSplit> queue = splitQueue.get();
+        try {
+            // Iceberg reads the manifests in parallel on the split manager executor, so the
+            // file scan tasks of a manifest become available as soon as it has been pruned and read
+            while (!closed && fileScanTaskIterator.hasNext()) {
+                FileScanTask task = fileScanTaskIterator.next();
+                IcebergSplit icebergSplit = (IcebergSplit) toIcebergSplit(task);
+                if (metadataColumnsMatchPredicates(metadataColumnConstraints, icebergSplit.getPath(), icebergSplit.getDataSequenceNumber())) {
+                    ListenableFuture<?> notFull = queue.offer(icebergSplit);
+                    if (!notFull.isDone()) {
+                        // give the loader thread back until the scheduler catches up, since the queue
+                        // signals the waiting loaders on the same bounded executor
+                        notFull.addListener(this::loadSplits, splitLoaderExecutor.get());
+                        return;
+                    }
+                }
+            }
+        }
+        catch (Throwable t) {
+            loaderFailure.compareAndSet(null, t);
+        }
+        finishLoading();
+    }
+
+    private void finishLoading()
+    {
+        splitQueue.get().finish();
+        try {
+            closeScan();
+        }
+        catch (RuntimeException e) {
+            loaderFailure.compareAndSet(null, e);
+        }
+    }
+
+    private void openScan(TableScan tableScan)
+    {
+        this.fileScanTaskIterator = closer.register(
+                splitFiles(
+                        closer.register(tableScan.planFiles()),
+                        targetSplitSize)
+                        .iterator());
+    }
+
+    private void closeScan()
     {
         try {
             closer.close();
@@ -121,6 +239,24 @@ public class IcebergSplitSource
         }
     }
 
+    private void throwIfLoaderFailed()
+    {
+        Throwable failure = loaderFailure.get();
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
+    private void recordFirstSplit(List<ConnectorSplit> splits)
+    {
+        if (!splits.isEmpty() && firstSplitReturned.compareAndSet(false, true)) {
+            long nanos = System.nanoTime() - startNanos;
+            splitPlanningStats.recordTimeToFirstSplit(nanos);
+            runtimeStats.addMetricValue(timeToFirstSplitMetricName, NANO, nanos);
+        }
+    }
+
     private ConnectorSplit toIcebergSplit(FileScanTask task)
     {
         PartitionSpec spec = task.spec();
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import jakarta.annotation.Nullable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.util.StructLikeSet;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The deleted rows of an equality delete file, projected to its equality columns.
+ */
+public final class DecodedEqualityDeletes
+        implements DecodedDeleteFile
+{
+    private final Schema schema;
+    private final Optional<EqualityDeleteHashSet> hashSet;
+    private final Supplier<StructLikeSet> deleteSet;
+    private final long retainedSizeInBytes;
+
+    DecodedEqualityDeletes(Schema schema, Optional<EqualityDeleteHashSet> hashSet, Supplier<StructLikeSet> deleteSet, long retainedSizeInBytes)
+    {
+        this.schema = requireNonNull(schema, "schema is null");
+        this.hashSet = requireNonNull(hashSet, "hashSet is null");
+        this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    public DeleteFilter toFilter(@Nullable String deleteFilePath)
+    {
+        return new EqualityDeleteFilter(schema, hashSet, deleteSet, deleteFilePath);
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.ImmutableLongBitmapDataProvider;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The deleted row positions of a position delete file, for every data file it references.
+ */
+public final class DecodedPositionDeletes
+        implements DecodedDeleteFile
+{
+    private static final ImmutableLongBitmapDataProvider NO_DELETED_ROWS = new Roaring64Bitmap();
+    private static final long ENTRY_OVERHEAD = 64;
+
+    private final Map<String, ImmutableLongBitmapDataProvider> deletedRows;
+    private final long retainedSizeInBytes;
+
+    public DecodedPositionDeletes(Map<String, ? extends ImmutableLongBitmapDataProvider> deletedRows)
+    {
+        this.deletedRows = ImmutableMap.copyOf(requireNonNull(deletedRows, "deletedRows is null"));
+        long retainedSizeInBytes = 0;
+        for (Map.Entry<String, ImmutableLongBitmapDataProvider> entry : this.deletedRows.entrySet()) {
+            retainedSizeInBytes += ENTRY_OVERHEAD + (long) entry.getKey().length() * Character.BYTES + entry.getValue().getLongSizeInBytes();
+        }
+        this.retainedSizeInBytes = retainedSizeInBytes;
+    }
+
+    public ImmutableLongBitmapDataProvider getDeletedRows(String dataFilePath)
+    {
+        return deletedRows.getOrDefault(dataFilePath, NO_DELETED_ROWS);
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.presto.hive.CacheStatsMBean;
+import com.google.common.cache.Cache;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+
+/**
+ * Worker cache of decoded delete files, so that the splits of all data files sharing a
+ * delete file do not each read and decode it again.
+ */
+public class DeleteFileCache
+        extends SimpleForwardingCache<DeleteFileCacheKey, DecodedDeleteFile>
+{
+    // remembers that a delete file does not fit, so that it is not decoded in full again
+    private static final DecodedDeleteFile TOO_LARGE = () -> 64;
+
+    private final DistributionStat decodedSizes = new DistributionStat();
+    private final long maxEntrySizeInBytes;
+    private final boolean enabled;
+    private final CacheStatsMBean cacheStats;
+
+    public DeleteFileCache(Cache<DeleteFileCacheKey, DecodedDeleteFile> delegate, long maxEntrySizeInBytes, boolean enabled)
+    {
+        super(delegate);
+        this.maxEntrySizeInBytes = maxEntrySizeInBytes;
+        this.enabled = enabled;
+        this.cacheStats = new CacheStatsMBean(delegate);
+    }
+
+    /**
+     * Returns the cached delete file, decoding it if it is not cached yet. Concurrent callers
+     * for the same file wait for a single decoding. Returns empty when the file is too large
+     * to be cached and was decoded by an earlier caller.
+     */
+    public Optional<DecodedDeleteFile> getOrDecode(DeleteFileCacheKey key, Supplier<? extends DecodedDeleteFile> decoder)
+    {
+        AtomicReference<DecodedDeleteFile> uncached = new AtomicReference<>();
+        DecodedDeleteFile deletes;
+        try {
+            deletes = get(key, () -> {
+                DecodedDeleteFile decoded = decoder.get();
+                decodedSizes.add(decoded.getRetainedSizeInBytes());
+                if (decoded.getRetainedSizeInBytes() > maxEntrySizeInBytes) {
+                    // the cache would evict the entry right away
+                    uncached.set(decoded);
+                    return TOO_LARGE;
+                }
+                return decoded;
+            });
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new UncheckedExecutionException(e.getCause());
+        }
+
+        if (deletes == TOO_LARGE) {
+            return Optional.ofNullable(uncached.get());
+        }
+        return Optional.of(deletes);
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getCacheStats()
+    {
+        return cacheStats;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getDecodedSizeDistribution()
+    {
+        return decodedSizes;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class DeleteFileCacheKey
+{
+    private final String path;
+    private final long length;
+
+    public DeleteFileCacheKey(String path, long length)
+    {
+        this.path = requireNonNull(path, "path is null");
+        this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeleteFileCacheKey)) {
+            return false;
+        }
+        DeleteFileCacheKey that = (DeleteFileCacheKey) o;
+        return length == that.length && Objects.equals(path, that.path);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(path, length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("path", path)
+                .add("length", length)
+                .toString();
+    }
+}
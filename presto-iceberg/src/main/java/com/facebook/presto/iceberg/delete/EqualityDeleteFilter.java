@@ -17,29 +17,41 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.iceberg.IcebergColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
+import com.google.common.collect.ImmutableList;
 import jakarta.annotation.Nullable;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Types.NestedField;
 import org.apache.iceberg.util.StructLikeSet;
 import org.apache.iceberg.util.StructProjection;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.iceberg.IcebergUtil.schemaFromHandles;
+import static com.google.common.base.Suppliers.memoize;
+import static com.google.common.base.Suppliers.ofInstance;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public final class EqualityDeleteFilter
         implements DeleteFilter
 {
+    // rough per row cost of the set entry and of the Iceberg values it holds
+    private static final long ROW_OVERHEAD = 96;
+    private static final long VALUE_OVERHEAD = 24;
+
     private final Schema schema;
-    private final StructLikeSet deleteSet;
+    private final Optional<EqualityDeleteHashSet> hashSet;
+    private final Supplier<StructLikeSet> deleteSet;
     @Nullable
     private final String deleteFilePath;
 
-    private EqualityDeleteFilter(Schema schema, StructLikeSet deleteSet, @Nullable String deleteFilePath)
+    EqualityDeleteFilter(Schema schema, Optional<EqualityDeleteHashSet> hashSet, Supplier<StructLikeSet> deleteSet, @Nullable String deleteFilePath)
     {
         this.schema = requireNonNull(schema, "schema is null");
+        this.hashSet = requireNonNull(hashSet, "hashSet is null");
         this.deleteSet = requireNonNull(deleteSet, "deleteSet is null");
         this.deleteFilePath = deleteFilePath;
     }
@@ -47,12 +59,20 @@ public final class EqualityDeleteFilter
     @Override
     public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
     {
+        if (hashSet.isPresent()) {
+            Optional<int[]> channels = getEqualityChannels(columns, hashSet.get().getTypes());
+            if (channels.isPresent()) {
+                return new DeletedPositionsPredicate(hashSet.get(), channels.get());
+            }
+        }
+
         Type[] types = columns.stream()
                 .map(IcebergColumnHandle::getType)
                 .toArray(Type[]::new);
 
         Schema fileSchema = schemaFromHandles(columns);
         StructProjection projection = StructProjection.create(fileSchema, schema);
+        StructLikeSet deleteSet = this.deleteSet.get();
 
         return (page, position) -> {
             StructLike row = new LazyStructLikeRow(types, page, position);
@@ -66,14 +86,50 @@ public final class EqualityDeleteFilter
         return Optional.ofNullable(deleteFilePath);
     }
 
-    public static DeleteFilter readEqualityDeletes(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns, String deleteFilePath)
+    private Optional<int[]> getEqualityChannels(List<IcebergColumnHandle> columns, List<Type> types)
     {
-        Type[] types = columns.stream()
-                .map(IcebergColumnHandle::getType)
-                .toArray(Type[]::new);
+        List<NestedField> fields = schema.columns();
+        int[] channels = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            channels[i] = -1;
+            for (int channel = 0; channel < columns.size(); channel++) {
+                IcebergColumnHandle column = columns.get(channel);
+                if (column.getId() == fields.get(i).fieldId() && column.getType().equals(types.get(i))) {
+                    channels[i] = channel;
+                    break;
+                }
+            }
+            if (channels[i] == -1) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(channels);
+    }
 
+    public static DecodedEqualityDeletes readEqualityDeletes(ConnectorPageSource pageSource, List<IcebergColumnHandle> columns)
+    {
+        List<Type> types = columns.stream()
+                .map(IcebergColumnHandle::getType)
+                .collect(toImmutableList());
         Schema deleteSchema = schemaFromHandles(columns);
+
+        if (types.stream().allMatch(EqualityDeleteHashSet::isSupportedType)) {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null && page.getPositionCount() > 0) {
+                    pages.add(page.getLoadedPage().compact());
+                }
+            }
+            EqualityDeleteHashSet hashSet = EqualityDeleteHashSet.create(types, pages.build());
+            // the StructLikeSet fallback is built lazily, but the cache weighs an entry only when it is added
+            long retainedSizeInBytes = hashSet.getRetainedSizeInBytes() + hashSet.getEntryCount() * (ROW_OVERHEAD + types.size() * VALUE_OVERHEAD);
+            return new DecodedEqualityDeletes(deleteSchema, Optional.of(hashSet), memoize(() -> hashSet.toStructLikeSet(deleteSchema)), retainedSizeInBytes);
+        }
+
+        Type[] typeArray = types.toArray(new Type[0]);
         StructLikeSet deleteSet = StructLikeSet.create(deleteSchema.asStruct());
+        long retainedSizeInBytes = 0;
 
         while (!pageSource.isFinished()) {
             Page page = pageSource.getNextPage();
@@ -82,10 +138,41 @@ public final class EqualityDeleteFilter
             }
 
             for (int position = 0; position < page.getPositionCount(); position++) {
-                deleteSet.add(new StructLikeRow(types, page, position));
+                deleteSet.add(new StructLikeRow(typeArray, page, position));
             }
+            retainedSizeInBytes += page.getSizeInBytes() + page.getPositionCount() * (ROW_OVERHEAD + typeArray.length * VALUE_OVERHEAD);
+        }
+
+        return new DecodedEqualityDeletes(deleteSchema, Optional.empty(), ofInstance(deleteSet), retainedSizeInBytes);
+    }
+
+    /**
+     * Looks up all positions of a page at once, so that the equality columns are hashed
+     * block by block rather than row by row.
+     */
+    private static final class DeletedPositionsPredicate
+            implements RowPredicate
+    {
+        private final EqualityDeleteHashSet hashSet;
+        private final int[] channels;
+        private Page currentPage;
+        private boolean[] deletedPositions;
+
+        public DeletedPositionsPredicate(EqualityDeleteHashSet hashSet, int[] channels)
+        {
+            this.hashSet = requireNonNull(hashSet, "hashSet is null");
+            this.channels = requireNonNull(channels, "channels is null");
         }
 
-        return new EqualityDeleteFilter(deleteSchema, deleteSet, deleteFilePath);
+        @SuppressWarnings({"ObjectEquality", "ReferenceEquality"})
+        @Override
+        public boolean test(Page page, int position)
+        {
+            if (page != currentPage) {
+                deletedPositions = hashSet.getDeletedPositions(page, channels);
+                currentPage = page;
+            }
+            return !deletedPositions[position];
+        }
     }
 }
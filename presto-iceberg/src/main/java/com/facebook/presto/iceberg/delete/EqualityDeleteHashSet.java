@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.BooleanType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TimeType;
+import com.facebook.presto.common.type.TimestampType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarbinaryType;
+import com.facebook.presto.common.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.XxHash64;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.util.StructLikeSet;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.common.type.TypeUtils.hashPosition;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.multiplyExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash set of the rows of an equality delete file, which hashes and compares the equality
+ * columns directly on the blocks of the scanned pages instead of converting every value
+ * to an Iceberg {@link org.apache.iceberg.StructLike}.
+ */
+final class EqualityDeleteHashSet
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(EqualityDeleteHashSet.class).instanceSize();
+    private static final int EMPTY = -1;
+
+    private final List<Type> types;
+    private final List<Page> pages;
+    private final int mask;
+    // entry index per hash table slot
+    private final int[] table;
+    // page index in the upper and position in the lower 32 bits of each entry
+    private final long[] entryAddresses;
+    private final long[] entryHashes;
+    private int entryCount;
+
+    private EqualityDeleteHashSet(List<Type> types, List<Page> pages)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+
+        int rowCount = pages.stream().mapToInt(Page::getPositionCount).sum();
+        int tableSize = Integer.highestOneBit(Math.max(multiplyExact(rowCount, 2) - 1, 1)) << 1;
+        this.mask = tableSize - 1;
+        this.table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        this.entryAddresses = new long[rowCount];
+        this.entryHashes = new long[rowCount];
+
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            Page page = pages.get(pageIndex);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                add(pageIndex, page, position);
+            }
+        }
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        // floating point types are left out as their block equality does not match the Iceberg one for NaN and negative zero
+        return type instanceof BigintType ||
+                type instanceof IntegerType ||
+                type instanceof SmallintType ||
+                type instanceof TinyintType ||
+                type instanceof DateType ||
+                type instanceof BooleanType ||
+                type instanceof DecimalType ||
+                type instanceof VarbinaryType ||
+                type instanceof VarcharType ||
+                type instanceof TimestampType ||
+                type instanceof TimeType;
+    }
+
+    public static EqualityDeleteHashSet create(List<Type> types, List<Page> pages)
+    {
+        return new EqualityDeleteHashSet(types, pages);
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE +
+                pages.stream().mapToLong(Page::getRetainedSizeInBytes).sum() +
+                sizeOf(table) +
+                sizeOf(entryAddresses) +
+                sizeOf(entryHashes);
+    }
+
+    /**
+     * Returns for every position of the page whether the values of the given channels match a deleted row.
+     */
+    public boolean[] getDeletedPositions(Page page, int[] channels)
+    {
+        int positionCount = page.getPositionCount();
+        long[] hashes = new long[positionCount];
+        for (int i = 0; i < channels.length; i++) {
+            Type type = types.get(i);
+            Block block = page.getBlock(channels[i]);
+            for (int position = 0; position < positionCount; position++) {
+                hashes[position] = 31 * hashes[position] + hashPosition(type, block, position);
+            }
+        }
+
+        boolean[] deleted = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            deleted[position] = contains(page, channels, position, XxHash64.hash(hashes[position]));
+        }
+        return deleted;
+    }
+
+    /**
+     * Converts the deleted rows for the Iceberg {@link org.apache.iceberg.StructLike} comparison,
+     * used when the equality columns can not be matched to channels of the scanned pages.
+     */
+    public StructLikeSet toStructLikeSet(Schema schema)
+    {
+        Type[] typeArray = types.toArray(new Type[0]);
+        StructLikeSet deleteSet = StructLikeSet.create(schema.asStruct());
+        for (int entry = 0; entry < entryCount; entry++) {
+            long address = entryAddresses[entry];
+            deleteSet.add(new StructLikeRow(typeArray, pages.get((int) (address >>> 32)), (int) address));
+        }
+        return deleteSet;
+    }
+
+    private void add(int pageIndex, Page page, int position)
+    {
+        long hash = hashRow(page, position);
+        int slot = (int) (hash & mask);
+        while (table[slot] != EMPTY) {
+            int entry = table[slot];
+            if (entryHashes[entry] == hash && rowEquals(entry, page, null, position)) {
+                // duplicate delete rows only need to be matched once
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        entryAddresses[entryCount] = ((long) pageIndex << 32) | position;
+        entryHashes[entryCount] = hash;
+        table[slot] = entryCount;
+        entryCount++;
+    }
+
+    private boolean contains(Page page, int[] channels, int position, long hash)
+    {
+        int slot = (int) (hash & mask);
+        while (table[slot] != EMPTY) {
+            int entry = table[slot];
+            if (entryHashes[entry] == hash && rowEquals(entry, page, channels, position)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private long hashRow(Page page, int position)
+    {
+        long hash = 0;
+        for (int channel = 0; channel < types.size(); channel++) {
+            hash = 31 * hash + hashPosition(types.get(channel), page.getBlock(channel), position);
+        }
+        return XxHash64.hash(hash);
+    }
+
+    private boolean rowEquals(int entry, Page page, int[] channels, int position)
+    {
+        long address = entryAddresses[entry];
+        Page entryPage = pages.get((int) (address >>> 32));
+        int entryPosition = (int) address;
+        for (int i = 0; i < types.size(); i++) {
+            Block entryBlock = entryPage.getBlock(i);
+            Block block = page.getBlock(channels == null ? i : channels[i]);
+            boolean entryNull = entryBlock.isNull(entryPosition);
+            if (entryNull != block.isNull(position)) {
+                return false;
+            }
+            // null values are equal in equality deletes
+            if (!entryNull && !types.get(i).equalTo(entryBlock, entryPosition, block, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
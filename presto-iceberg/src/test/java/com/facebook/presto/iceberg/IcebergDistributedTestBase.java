@@ -1286,6 +1286,34 @@ public abstract class IcebergDistributedTestBase
         assertQuery("SELECT nationkey FROM " + tableName, "SELECT nationkey FROM nation WHERE nationkey not in (0 ,8)");
     }
 
+    @Test
+    public void testDeleteFileCache()
+            throws Exception
+    {
+        String tableName = "test_delete_file_cache_" + randomTableSuffix();
+        assertUpdate("CREATE TABLE " + tableName + " AS SELECT * FROM tpch.tiny.nation order by nationkey", 25);
+        Table icebergTable = updateTable(tableName);
+        String dataFilePath = (String) computeActual("SELECT file_path FROM \"" + tableName + "$files\" LIMIT 1").getOnlyValue();
+        writePositionDeleteToNationTable(icebergTable, dataFilePath, 0);
+
+        String jmxMetricsQuery = format("SELECT sum(\"cachestats.hitcount\"), sum(\"cachestats.misscount\"), sum(\"cachestats.size\") " +
+                "FROM jmx.current.\"com.facebook.presto.iceberg.delete:name=%s,type=deletefilecache\"", getSession().getCatalog().get());
+        MaterializedRow before = computeActual(jmxMetricsQuery).getMaterializedRows().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertQuery("SELECT nationkey FROM " + tableName, "SELECT nationkey FROM nation WHERE nationkey != 0");
+        }
+
+        MaterializedRow after = computeActual(jmxMetricsQuery).getMaterializedRows().get(0);
+        long hits = (long) after.getField(0) - (long) before.getField(0);
+        long misses = (long) after.getField(1) - (long) before.getField(1);
+        assertTrue(misses > 0);
+        assertTrue(hits + misses >= 3);
+        assertTrue((long) after.getField(2) > 0);
+
+        getQueryRunner().execute("DROP TABLE " + tableName);
+    }
+
     @DataProvider(name = "equalityDeleteOptions")
     public Object[][] equalityDeleteDataProvider()
     {
@@ -68,11 +68,16 @@ public class TestIcebergConfig
                 .setManifestCacheExpireDuration(IO_MANIFEST_CACHE_EXPIRATION_INTERVAL_MS_DEFAULT)
                 .setManifestCacheMaxContentLength(IO_MANIFEST_CACHE_MAX_CONTENT_LENGTH_DEFAULT)
                 .setSplitManagerThreads(Runtime.getRuntime().availableProcessors())
+                .setPipelinedSplitPlanningEnabled(false)
+                .setMaxOutstandingSplits(1000)
+                .setSplitLoaderThreads(Runtime.getRuntime().availableProcessors())
                 .setMetadataPreviousVersionsMax(METADATA_PREVIOUS_VERSIONS_MAX_DEFAULT)
                 .setMetadataDeleteAfterCommit(METADATA_DELETE_AFTER_COMMIT_ENABLED_DEFAULT)
                 .setMetricsMaxInferredColumn(METRICS_MAX_INFERRED_COLUMN_DEFAULTS_DEFAULT)
                 .setManifestCacheMaxChunkSize(succinctDataSize(2, MEGABYTE))
                 .setMaxStatisticsFileCacheSize(succinctDataSize(256, MEGABYTE))
+                .setDeleteFileCacheEnabled(true)
+                .setMaxDeleteFileCacheSize(succinctDataSize(128, MEGABYTE))
                 .setStatisticsKllSketchKParameter(1024)
                 .setMaterializedViewStoragePrefix("__mv_storage__"));
     }
@@ -105,10 +110,15 @@ public class TestIcebergConfig
                 .put("iceberg.io.manifest.cache.max-content-length", "10485760")
                 .put("iceberg.io.manifest.cache.max-chunk-size", "1MB")
                 .put("iceberg.split-manager-threads", "42")
+                .put("iceberg.pipelined-split-planning-enabled", "true")
+                .put("iceberg.max-outstanding-splits", "10")
+                .put("iceberg.split-loader-threads", "3")
                 .put("iceberg.metadata-previous-versions-max", "1")
                 .put("iceberg.metadata-delete-after-commit", "true")
                 .put("iceberg.metrics-max-inferred-column", "16")
                 .put("iceberg.max-statistics-file-cache-size", "512MB")
+                .put("iceberg.delete-file-cache-enabled", "false")
+                .put("iceberg.max-delete-file-cache-size", "64MB")
                 .put("iceberg.statistics-kll-sketch-k-parameter", "4096")
                 .put("iceberg.materialized-view-storage-prefix", "custom_mv_prefix")
                 .build();
@@ -138,10 +148,15 @@ public class TestIcebergConfig
                 .setManifestCacheMaxContentLength(10485760)
                 .setManifestCacheMaxChunkSize(succinctDataSize(1, MEGABYTE))
                 .setSplitManagerThreads(42)
+                .setPipelinedSplitPlanningEnabled(true)
+                .setMaxOutstandingSplits(10)
+                .setSplitLoaderThreads(3)
                 .setMetadataPreviousVersionsMax(1)
                 .setMetadataDeleteAfterCommit(true)
                 .setMetricsMaxInferredColumn(16)
                 .setMaxStatisticsFileCacheSize(succinctDataSize(512, MEGABYTE))
+                .setDeleteFileCacheEnabled(false)
+                .setMaxDeleteFileCacheSize(succinctDataSize(64, MEGABYTE))
                 .setStatisticsKllSketchKParameter(4096)
                 .setMaterializedViewStoragePrefix("custom_mv_prefix");
 
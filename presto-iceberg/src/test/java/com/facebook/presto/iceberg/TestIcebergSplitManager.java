@@ -31,6 +31,7 @@ import com.facebook.presto.testing.QueryRunner;
 import com.facebook.presto.tests.AbstractTestQueryFramework;
 import com.facebook.presto.transaction.TransactionManager;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.iceberg.TableProperties;
 import org.testng.annotations.Test;
 
@@ -45,6 +46,7 @@ import java.util.stream.IntStream;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.AFFINITY_SCHEDULING_FILE_SECTION_SIZE;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.NODE_SELECTION_STRATEGY;
 import static com.facebook.presto.iceberg.IcebergQueryRunner.ICEBERG_CATALOG;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.PIPELINED_SPLIT_PLANNING_ENABLED;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.PUSHDOWN_FILTER_ENABLED;
 import static com.facebook.presto.iceberg.IcebergSessionProperties.TARGET_SPLIT_SIZE_BYTES;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
@@ -62,7 +64,13 @@ public class TestIcebergSplitManager
     protected QueryRunner createQueryRunner()
             throws Exception
     {
-        return IcebergQueryRunner.builder().build().getQueryRunner();
+        // a single loader thread and a small split queue make pipelined planning wait for the scheduler
+        return IcebergQueryRunner.builder()
+                .setExtraConnectorProperties(ImmutableMap.of(
+                        "iceberg.max-outstanding-splits", "2",
+                        "iceberg.split-loader-threads", "1"))
+                .build()
+                .getQueryRunner();
     }
 
     @Test
@@ -235,6 +243,32 @@ public class TestIcebergSplitManager
         assertQuerySucceeds("DROP TABLE test_affinity_section_scheduling");
     }
 
+    @Test
+    public void testPipelinedSplitPlanning()
+    {
+        assertQuerySucceeds("CREATE TABLE test_pipelined_split_planning (a bigint, b varchar) WITH(partitioning = ARRAY['b'])");
+        for (int i = 0; i < 5; i++) {
+            assertUpdate("INSERT INTO test_pipelined_split_planning VALUES (" + i + ", 'p" + (i % 3) + "')", 1);
+        }
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(ICEBERG_CATALOG, PIPELINED_SPLIT_PLANNING_ENABLED, "false")
+                .build();
+        Session pipelinedSession = Session.builder(getSession())
+                .setCatalogSessionProperty(ICEBERG_CATALOG, PIPELINED_SPLIT_PLANNING_ENABLED, "true")
+                .build();
+
+        String selectQuery = "SELECT * FROM test_pipelined_split_planning";
+        assertEquals(getSplitsForSql(pipelinedSession, selectQuery).size(), getSplitsForSql(session, selectQuery).size());
+        assertEquals(getSplitsForSql(pipelinedSession, selectQuery).size(), 5);
+
+        String filteredQuery = "SELECT * FROM test_pipelined_split_planning WHERE b = 'p1'";
+        assertEquals(getSplitsForSql(pipelinedSession, filteredQuery).size(), getSplitsForSql(session, filteredQuery).size());
+        assertEquals(getSplitsForSql(pipelinedSession, filteredQuery).size(), 2);
+
+        assertQuery(pipelinedSession, selectQuery, "VALUES (0, 'p0'), (1, 'p1'), (2, 'p2'), (3, 'p0'), (4, 'p1')");
+        assertQuerySucceeds("DROP TABLE test_pipelined_split_planning");
+    }
+
     private Session sessionWithFilterPushdown(boolean pushdown)
     {
         return Session.builder(getQueryRunner().getDefaultSession())
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeleteFileCache
+{
+    private static final DeleteFileCacheKey KEY = new DeleteFileCacheKey("file:///deletes.parquet", 100);
+
+    @Test
+    public void testDecodesOnce()
+    {
+        DeleteFileCache cache = createCache(1024 * 1024);
+        AtomicInteger decodings = new AtomicInteger();
+        DecodedPositionDeletes deletes = positionDeletes(10);
+
+        Optional<DecodedDeleteFile> first = cache.getOrDecode(KEY, () -> {
+            decodings.incrementAndGet();
+            return deletes;
+        });
+        Optional<DecodedDeleteFile> second = cache.getOrDecode(KEY, () -> {
+            decodings.incrementAndGet();
+            return deletes;
+        });
+
+        assertSame(first.get(), deletes);
+        assertSame(second.get(), deletes);
+        assertEquals(decodings.get(), 1);
+    }
+
+    @Test
+    public void testTooLargeToCache()
+    {
+        DecodedPositionDeletes deletes = positionDeletes(100_000);
+        DeleteFileCache cache = createCache(deletes.getRetainedSizeInBytes() - 1);
+        AtomicInteger decodings = new AtomicInteger();
+
+        // the caller decoding the file still gets its rows, later callers read the file themselves
+        Optional<DecodedDeleteFile> first = cache.getOrDecode(KEY, () -> {
+            decodings.incrementAndGet();
+            return deletes;
+        });
+        Optional<DecodedDeleteFile> second = cache.getOrDecode(KEY, () -> {
+            decodings.incrementAndGet();
+            return deletes;
+        });
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), deletes);
+        assertFalse(second.isPresent());
+        assertEquals(decodings.get(), 1);
+    }
+
+    private static DeleteFileCache createCache(long maxEntrySizeInBytes)
+    {
+        return new DeleteFileCache(CacheBuilder.newBuilder().build(), maxEntrySizeInBytes, true);
+    }
+
+    private static DecodedPositionDeletes positionDeletes(int positionCount)
+    {
+        Roaring64Bitmap deletedRows = new Roaring64Bitmap();
+        for (long position = 0; position < positionCount; position++) {
+            deletedRows.addLong(position * 3);
+        }
+        return new DecodedPositionDeletes(ImmutableMap.of("file:///data.parquet", deletedRows));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.StructLikeSet;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestEqualityDeleteHashSet
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+
+    @Test
+    public void testDeletedPositions()
+    {
+        EqualityDeleteHashSet hashSet = EqualityDeleteHashSet.create(TYPES, ImmutableList.of(
+                page(new Long[] {1L, 2L, null}, new String[] {"a", "b", "c"}),
+                page(new Long[] {1L, 3L}, new String[] {"a", null})));
+
+        // the data page has an extra leading column and the equality columns in reverse order
+        Page data = new Page(
+                bigints(42L, 42L, 42L, 42L, 42L, 42L),
+                varchars("a", "b", "b", "c", null, "c"),
+                bigints(1L, 2L, 1L, null, 3L, 3L));
+        boolean[] deleted = hashSet.getDeletedPositions(data, new int[] {2, 1});
+        assertEquals(deleted, new boolean[] {true, true, false, true, true, false});
+    }
+
+    @Test
+    public void testEmptyDeletes()
+    {
+        EqualityDeleteHashSet hashSet = EqualityDeleteHashSet.create(TYPES, ImmutableList.of());
+        boolean[] deleted = hashSet.getDeletedPositions(page(new Long[] {1L}, new String[] {"a"}), new int[] {0, 1});
+        assertEquals(deleted, new boolean[] {false});
+    }
+
+    @Test
+    public void testToStructLikeSet()
+    {
+        EqualityDeleteHashSet hashSet = EqualityDeleteHashSet.create(TYPES, ImmutableList.of(
+                page(new Long[] {1L, 1L, 2L}, new String[] {"a", "a", "b"})));
+        Schema schema = new Schema(optional(1, "id", Types.LongType.get()), optional(2, "name", Types.StringType.get()));
+        StructLikeSet deleteSet = hashSet.toStructLikeSet(schema);
+
+        // duplicate delete rows are stored once
+        assertEquals(deleteSet.size(), 2);
+        Type[] types = TYPES.toArray(new Type[0]);
+        Page rows = page(new Long[] {2L, 3L}, new String[] {"b", "b"});
+        assertTrue(deleteSet.contains(new StructLikeRow(types, rows, 0)));
+        assertFalse(deleteSet.contains(new StructLikeRow(types, rows, 1)));
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(EqualityDeleteHashSet.isSupportedType(BIGINT));
+        assertTrue(EqualityDeleteHashSet.isSupportedType(VARCHAR));
+        assertFalse(EqualityDeleteHashSet.isSupportedType(DOUBLE));
+    }
+
+    private static Page page(Long[] ids, String[] names)
+    {
+        return new Page(bigints(ids), varchars(names));
+    }
+
+    private static Block bigints(Long... values)
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, values.length);
+        Arrays.stream(values).forEach(value -> {
+            if (value == null) {
+                builder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(builder, value);
+            }
+        });
+        return builder.build();
+    }
+
+    private static Block varchars(String... values)
+    {
+        BlockBuilder builder = VARCHAR.createBlockBuilder(null, values.length);
+        Arrays.stream(values).forEach(value -> {
+            if (value == null) {
+                builder.appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(builder, utf8Slice(value));
+            }
+        });
+        return builder.build();
+    }
+}
@@ -149,6 +149,7 @@ public final class SystemSessionProperties
     public static final String JOIN_REORDERING_STRATEGY = "join_reordering_strategy";
     public static final String PARTIAL_MERGE_PUSHDOWN_STRATEGY = "partial_merge_pushdown_strategy";
     public static final String MAX_REORDERED_JOINS = "max_reordered_joins";
+    public static final String MAX_EXHAUSTIVE_REORDERED_JOINS = "max_exhaustive_reordered_joins";
     public static final String INITIAL_SPLITS_PER_NODE = "initial_splits_per_node";
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
@@ -189,6 +190,10 @@ public final class SystemSessionProperties
     public static final String PARTIAL_AGGREGATION_BYTE_REDUCTION_THRESHOLD = "partial_aggregation_byte_reduction_threshold";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION = "adaptive_partial_aggregation";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION_ROWS_REDUCTION_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String FLAT_GROUP_BY_HASH_ENABLED = "flat_group_by_hash_enabled";
+    public static final String COMPACT_JOIN_HASH_TABLE_ENABLED = "compact_join_hash_table_enabled";
+    public static final String BIGINT_GROUP_BY_DIRECT_INDEX_ENABLED = "bigint_group_by_direct_index_enabled";
+    public static final String HISTORY_BASED_GROUP_BY_HASH_SIZING_ENABLED = "history_based_group_by_hash_sizing_enabled";
     public static final String OPTIMIZE_TOP_N_ROW_NUMBER = "optimize_top_n_row_number";
     public static final String OPTIMIZE_TOP_N_RANK = "optimize_top_n_rank";
     public static final String OPTIMIZE_CASE_EXPRESSION_PREDICATE = "optimize_case_expression_predicate";
@@ -230,6 +235,9 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_range_row_limit_per_driver";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_bloom_filter_row_limit_per_driver";
+    public static final String OFFLOAD_BLOCKING_PAGE_SOURCES = "offload_blocking_page_sources";
+    public static final String BLOCKING_PAGE_SOURCE_MAX_BUFFERED_PAGES = "blocking_page_source_max_buffered_pages";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
     public static final String REMOTE_FUNCTIONS_ENABLED = "remote_functions_enabled";
@@ -797,6 +805,21 @@ public final class SystemSessionProperties
                             return intValue;
                         },
                         value -> value),
+                new PropertyMetadata<>(
+                        MAX_EXHAUSTIVE_REORDERED_JOINS,
+                        "The maximum number of joins to reorder by enumerating all join orders. Larger groups are reordered greedily",
+                        BIGINT,
+                        Integer.class,
+                        featuresConfig.getMaxExhaustiveReorderedJoins(),
+                        false,
+                        value -> {
+                            int intValue = ((Number) requireNonNull(value, "value is null")).intValue();
+                            if (intValue < 2) {
+                                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be greater than or equal to 2: %s", MAX_EXHAUSTIVE_REORDERED_JOINS, intValue));
+                            }
+                            return intValue;
+                        },
+                        value -> value),
                 booleanProperty(
                         FAST_INEQUALITY_JOINS,
                         "Use faster handling of inequality join if it is possible",
@@ -1018,6 +1041,26 @@ public final class SystemSessionProperties
                         "Rows reduction ratio threshold at which to adaptively disable partial aggregation",
                         featuresConfig.getAdaptivePartialAggregationRowsReductionRatioThreshold(),
                         false),
+                booleanProperty(
+                        FLAT_GROUP_BY_HASH_ENABLED,
+                        "Store the keys of multi-column hash aggregations as flat rows in a single array",
+                        featuresConfig.isFlatGroupByHashEnabled(),
+                        false),
+                booleanProperty(
+                        COMPACT_JOIN_HASH_TABLE_ENABLED,
+                        "Store the keys and output columns of hash join build sides as rows in a single array",
+                        featuresConfig.isCompactJoinHashTableEnabled(),
+                        false),
+                booleanProperty(
+                        BIGINT_GROUP_BY_DIRECT_INDEX_ENABLED,
+                        "Index the groups of single BIGINT key aggregations directly by value while the keys span a small range",
+                        featuresConfig.isBigintGroupByDirectIndexEnabled(),
+                        false),
+                booleanProperty(
+                        HISTORY_BASED_GROUP_BY_HASH_SIZING_ENABLED,
+                        "Size the hash tables of aggregations from the number of groups of previous runs, when history based statistics are available",
+                        featuresConfig.isHistoryBasedGroupByHashSizingEnabled(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_TOP_N_ROW_NUMBER,
                         "Use top N row number optimization",
@@ -1283,6 +1326,21 @@ public final class SystemSessionProperties
                         "Maximum number of build-side rows per driver up to which min and max values will be collected for dynamic filtering",
                         featuresConfig.getDynamicFilteringRangeRowLimitPerDriver(),
                         false),
+                integerProperty(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER,
+                        "Maximum number of build-side rows per driver up to which a Bloom filter of the values will be collected for dynamic filtering",
+                        featuresConfig.getDynamicFilteringBloomFilterRowLimitPerDriver(),
+                        false),
+                booleanProperty(
+                        OFFLOAD_BLOCKING_PAGE_SOURCES,
+                        "Read page sources of connectors doing blocking I/O on dedicated threads instead of the driver threads",
+                        featuresConfig.isOffloadBlockingPageSources(),
+                        false),
+                integerProperty(
+                        BLOCKING_PAGE_SOURCE_MAX_BUFFERED_PAGES,
+                        "Maximum number of pages read ahead by an offloaded blocking page source",
+                        featuresConfig.getBlockingPageSourceMaxBufferedPages(),
+                        false),
                 booleanProperty(
                         FRAGMENT_RESULT_CACHING_ENABLED,
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
@@ -2463,6 +2521,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(MAX_REORDERED_JOINS, Integer.class);
     }
 
+    public static int getMaxExhaustiveReorderedJoins(Session session)
+    {
+        return session.getSystemProperty(MAX_EXHAUSTIVE_REORDERED_JOINS, Integer.class);
+    }
+
     public static boolean isColocatedJoinEnabled(Session session)
     {
         return session.getSystemProperty(COLOCATED_JOIN, Boolean.class);
@@ -2728,6 +2791,26 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ROWS_REDUCTION_RATIO_THRESHOLD, Double.class);
     }
 
+    public static boolean isFlatGroupByHashEnabled(Session session)
+    {
+        return session.getSystemProperty(FLAT_GROUP_BY_HASH_ENABLED, Boolean.class);
+    }
+
+    public static boolean isCompactJoinHashTableEnabled(Session session)
+    {
+        return session.getSystemProperty(COMPACT_JOIN_HASH_TABLE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isBigintGroupByDirectIndexEnabled(Session session)
+    {
+        return session.getSystemProperty(BIGINT_GROUP_BY_DIRECT_INDEX_ENABLED, Boolean.class);
+    }
+
+    public static boolean isHistoryBasedGroupByHashSizingEnabled(Session session)
+    {
+        return session.getSystemProperty(HISTORY_BASED_GROUP_BY_HASH_SIZING_ENABLED, Boolean.class);
+    }
+
     public static boolean isOptimizeTopNRowNumber(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_TOP_N_ROW_NUMBER, Boolean.class);
@@ -2983,6 +3066,21 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER, Integer.class);
     }
 
+    public static int getDynamicFilteringBloomFilterRowLimitPerDriver(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_ROW_LIMIT_PER_DRIVER, Integer.class);
+    }
+
+    public static boolean isOffloadBlockingPageSources(Session session)
+    {
+        return session.getSystemProperty(OFFLOAD_BLOCKING_PAGE_SOURCES, Boolean.class);
+    }
+
+    public static int getBlockingPageSourceMaxBufferedPages(Session session)
+    {
+        return session.getSystemProperty(BLOCKING_PAGE_SOURCE_MAX_BUFFERED_PAGES, Integer.class);
+    }
+
     public static boolean isFragmentResultCachingEnabled(Session session)
     {
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
@@ -93,6 +93,7 @@ import java.util.function.Function;
 import static com.facebook.presto.metadata.FunctionExtractor.extractFunctions;
 import static com.facebook.presto.spi.ConnectorId.createInformationSchemaConnectorId;
 import static com.facebook.presto.spi.ConnectorId.createSystemTablesConnectorId;
+import static com.facebook.presto.spi.connector.ConnectorCapabilities.BLOCKING_PAGE_SOURCE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
@@ -311,7 +312,10 @@ public class ConnectorManager
         connectors.put(connectorId, connector);
 
         splitManager.addConnectorSplitManager(connectorId, connector.getSplitManager());
-        pageSourceManager.addConnectorPageSourceProvider(connectorId, connector.getPageSourceProvider());
+        pageSourceManager.addConnectorPageSourceProvider(
+                connectorId,
+                connector.getPageSourceProvider(),
+                connector.getConnector().getCapabilities().contains(BLOCKING_PAGE_SOURCE));
 
         connector.getPageSinkProvider()
                 .ifPresent(pageSinkProvider -> pageSinkManager.addConnectorPageSinkProvider(connectorId, pageSinkProvider));
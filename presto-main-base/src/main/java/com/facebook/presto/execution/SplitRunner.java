@@ -27,6 +27,14 @@ public interface SplitRunner
 
     String getInfo();
 
+    /**
+     * Returns the CPU time spent for this split on threads other than the one calling {@link #processFor(Duration)}.
+     */
+    default long getAdditionalCpuNanos()
+    {
+        return 0;
+    }
+
     @Override
     void close();
 }
@@ -1078,6 +1078,15 @@ public class SqlTaskExecution
             return driver.processFor(duration);
         }
 
+        @Override
+        public synchronized long getAdditionalCpuNanos()
+        {
+            if (driver == null) {
+                return 0;
+            }
+            return driver.getDriverContext().getAdditionalCpuNanos();
+        }
+
         @Override
         public String getInfo()
         {
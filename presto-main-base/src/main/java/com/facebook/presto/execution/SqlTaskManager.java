@@ -38,8 +38,10 @@ import com.facebook.presto.memory.MemoryPoolAssignment;
 import com.facebook.presto.memory.MemoryPoolAssignmentsRequest;
 import com.facebook.presto.memory.NodeMemoryConfig;
 import com.facebook.presto.memory.QueryContext;
+import com.facebook.presto.memory.VoidTraversingQueryContextVisitor;
 import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.operator.FragmentResultCacheManager;
+import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.TaskMemoryReservationSummary;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.QueryId;
@@ -72,8 +74,10 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.airlift.concurrent.Threads.threadsNamed;
+import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.presto.SystemSessionProperties.getHeapDumpFileDirectory;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxBroadcastMemory;
 import static com.facebook.presto.SystemSessionProperties.getQueryMaxMemoryPerNode;
@@ -228,6 +232,11 @@ public class SqlTaskManager
     @Override
     public synchronized void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments)
     {
+        // revoking requests are not versioned, and the coordinator keeps sending them while its pool stays full
+        for (QueryId queryId : assignments.getQueriesToRevoke()) {
+            requestMemoryRevoking(queryId);
+        }
+
         String assignmentCoordinatorId = assignments.getCoordinatorId();
         long assignmentVersion = assignments.getVersion();
         if (assignmentVersion <= currentMemoryPoolAssignmentVersions.getOrDefault(assignmentCoordinatorId, Long.MIN_VALUE)) {
@@ -250,6 +259,27 @@ public class SqlTaskManager
         }
     }
 
+    private void requestMemoryRevoking(QueryId queryId)
+    {
+        QueryContext queryContext = queryContexts.getIfPresent(queryId);
+        if (queryContext == null) {
+            return;
+        }
+        AtomicLong revokedBytes = new AtomicLong();
+        queryContext.accept(new VoidTraversingQueryContextVisitor<AtomicLong>()
+        {
+            @Override
+            public Void visitOperatorContext(OperatorContext operatorContext, AtomicLong revokedBytes)
+            {
+                revokedBytes.addAndGet(operatorContext.requestMemoryRevoking());
+                return null;
+            }
+        }, revokedBytes);
+        if (revokedBytes.get() > 0) {
+            log.debug("Requested revoking %s of %s on behalf of the coordinator", succinctBytes(revokedBytes.get()), queryId);
+        }
+    }
+
     @PostConstruct
     public void start()
     {
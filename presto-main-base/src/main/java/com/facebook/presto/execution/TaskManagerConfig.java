@@ -85,6 +85,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private boolean workStealingSplitQueueEnabled;
 
     private boolean legacyLifespanCompletionCondition;
     private TaskPriorityTracking taskPriorityTracking = TaskPriorityTracking.TASK_FAIR;
@@ -286,6 +287,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isWorkStealingSplitQueueEnabled()
+    {
+        return workStealingSplitQueueEnabled;
+    }
+
+    @Config("task.work-stealing-split-queue-enabled")
+    @ConfigDescription("Queue waiting splits in per thread stripes that idle runner threads steal from, instead of in a single queue shared by all runner threads")
+    public TaskManagerConfig setWorkStealingSplitQueueEnabled(boolean workStealingSplitQueueEnabled)
+    {
+        this.workStealingSplitQueueEnabled = workStealingSplitQueueEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -66,6 +66,8 @@ public class PrioritizedSplitRunner
     private final AtomicLong scheduledNanos = new AtomicLong();
     private final AtomicLong waitNanos = new AtomicLong();
     private final AtomicLong cpuTimeNanos = new AtomicLong();
+    // only accessed by the thread running process()
+    private long lastAdditionalCpuNanos;
     private final AtomicLong processCalls = new AtomicLong();
 
     private final CounterStat globalCpuTimeMicros;
@@ -169,7 +171,13 @@ public class PrioritizedSplitRunner
             long quantaScheduledNanos = endNanos - startNanos;
             scheduledNanos.addAndGet(quantaScheduledNanos);
 
-            priority.set(taskHandle.addScheduledNanos(quantaScheduledNanos));
+            // CPU spent for the split outside of the driver thread (e.g. by offloaded page sources) since the last quantum
+            long additionalCpuNanos = splitRunner.getAdditionalCpuNanos();
+            long quantaAdditionalCpuNanos = additionalCpuNanos - lastAdditionalCpuNanos;
+            lastAdditionalCpuNanos = additionalCpuNanos;
+            quantaCpuNanos += quantaAdditionalCpuNanos;
+
+            priority.set(taskHandle.addScheduledNanos(quantaScheduledNanos + quantaAdditionalCpuNanos));
             lastRun.set(endNanos);
 
             Duration wallDuration = new Duration(quantaScheduledNanos, NANOSECONDS);
@@ -67,7 +67,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
-import static com.facebook.presto.execution.executor.MultilevelSplitQueue.computeLevel;
+import static com.facebook.presto.execution.executor.AbstractMultilevelSplitQueue.computeLevel;
 import static com.facebook.presto.util.MoreMath.min;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -134,7 +134,7 @@ public class TaskExecutor
     /**
      * Splits waiting for a runner thread.
      */
-    private final MultilevelSplitQueue waitingSplits;
+    private final AbstractMultilevelSplitQueue waitingSplits;
 
     /**
      * Per query priority trackers
@@ -182,7 +182,7 @@ public class TaskExecutor
     private volatile boolean lowMemory;
 
     @Inject
-    public TaskExecutor(TaskManagerConfig config, EmbedVersion embedVersion, MultilevelSplitQueue splitQueue)
+    public TaskExecutor(TaskManagerConfig config, EmbedVersion embedVersion, AbstractMultilevelSplitQueue splitQueue)
     {
         this(requireNonNull(config, "config is null").getMaxWorkerThreads(),
                 config.getMinDrivers(),
@@ -226,7 +226,7 @@ public class TaskExecutor
             int guaranteedNumberOfDriversPerTask,
             int maximumNumberOfDriversPerTask,
             TaskPriorityTracking taskPriorityTracking,
-            MultilevelSplitQueue splitQueue,
+            AbstractMultilevelSplitQueue splitQueue,
             Ticker ticker)
     {
         this(
@@ -254,7 +254,7 @@ public class TaskExecutor
             Predicate<List<StackTraceElement>> interruptibleSplitPredicate,
             Duration interruptSplitInterval,
             EmbedVersion embedVersion,
-            MultilevelSplitQueue splitQueue,
+            AbstractMultilevelSplitQueue splitQueue,
             Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
@@ -373,7 +373,11 @@ public class TaskExecutor
         }
 
         // replace blocked splits that were terminated
-        addNewEntrants();
+        List<PrioritizedSplitRunner> startedSplits = new ArrayList<>();
+        synchronized (this) {
+            addNewEntrants(startedSplits);
+        }
+        offerStartedSplits(startedSplits);
     }
 
     private void doRemoveTask(TaskHandle taskHandle)
@@ -405,6 +409,7 @@ public class TaskExecutor
     public List<ListenableFuture<?>> enqueueSplits(TaskHandle taskHandle, boolean intermediate, List<? extends SplitRunner> taskSplits)
     {
         List<PrioritizedSplitRunner> splitsToDestroy = new ArrayList<>();
+        List<PrioritizedSplitRunner> startedSplits = new ArrayList<>();
         List<ListenableFuture<?>> finishedFutures = new ArrayList<>(taskSplits.size());
         synchronized (this) {
             for (SplitRunner taskSplit : taskSplits) {
@@ -421,7 +426,7 @@ public class TaskExecutor
                     // add the runner to the handle so it can be destroyed if the task is canceled
                     if (taskHandle.recordIntermediateSplit(prioritizedSplitRunner)) {
                         // Note: we do not record queued time for intermediate splits
-                        startIntermediateSplit(prioritizedSplitRunner);
+                        startIntermediateSplit(prioritizedSplitRunner, startedSplits);
                     }
                     else {
                         splitsToDestroy.add(prioritizedSplitRunner);
@@ -431,9 +436,9 @@ public class TaskExecutor
                     // add this to the work queue for the task
                     if (taskHandle.enqueueSplit(prioritizedSplitRunner)) {
                         // if task is under the limit for guaranteed splits, start one
-                        scheduleTaskIfNecessary(taskHandle);
+                        scheduleTaskIfNecessary(taskHandle, startedSplits);
                         // if globally we have more resources, start more
-                        addNewEntrants();
+                        addNewEntrants(startedSplits);
                     }
                     else {
                         splitsToDestroy.add(prioritizedSplitRunner);
@@ -443,6 +448,7 @@ public class TaskExecutor
                 finishedFutures.add(prioritizedSplitRunner.getFinishedFuture());
             }
         }
+        offerStartedSplits(startedSplits);
         for (PrioritizedSplitRunner split : splitsToDestroy) {
             split.destroy();
         }
@@ -452,37 +458,41 @@ public class TaskExecutor
     private void splitFinished(PrioritizedSplitRunner split)
     {
         completedSplitsPerLevel.incrementAndGet(split.getPriority().getLevel());
+        boolean intermediate;
+        List<PrioritizedSplitRunner> startedSplits = new ArrayList<>();
         synchronized (this) {
             allSplits.remove(split);
-
-            long wallNanos = System.nanoTime() - split.getCreatedNanos();
-            splitWallTime.add(Duration.succinctNanos(wallNanos));
-
-            if (intermediateSplits.remove(split)) {
-                intermediateSplitWallTime.add(wallNanos);
-                intermediateSplitScheduledTime.add(split.getScheduledNanos());
-                intermediateSplitWaitTime.add(split.getWaitNanos());
-                intermediateSplitCpuTime.add(split.getCpuTimeNanos());
-            }
-            else {
-                leafSplitWallTime.add(wallNanos);
-                leafSplitScheduledTime.add(split.getScheduledNanos());
-                leafSplitWaitTime.add(split.getWaitNanos());
-                leafSplitCpuTime.add(split.getCpuTimeNanos());
-            }
+            intermediate = intermediateSplits.remove(split);
 
             TaskHandle taskHandle = split.getTaskHandle();
             taskHandle.splitComplete(split);
 
-            scheduleTaskIfNecessary(taskHandle);
+            scheduleTaskIfNecessary(taskHandle, startedSplits);
 
-            addNewEntrants();
+            addNewEntrants(startedSplits);
+        }
+        offerStartedSplits(startedSplits);
+
+        // the stats are thread safe, so record them outside of the synchronized block to keep it short
+        long wallNanos = System.nanoTime() - split.getCreatedNanos();
+        splitWallTime.add(Duration.succinctNanos(wallNanos));
+        if (intermediate) {
+            intermediateSplitWallTime.add(wallNanos);
+            intermediateSplitScheduledTime.add(split.getScheduledNanos());
+            intermediateSplitWaitTime.add(split.getWaitNanos());
+            intermediateSplitCpuTime.add(split.getCpuTimeNanos());
+        }
+        else {
+            leafSplitWallTime.add(wallNanos);
+            leafSplitScheduledTime.add(split.getScheduledNanos());
+            leafSplitWaitTime.add(split.getWaitNanos());
+            leafSplitCpuTime.add(split.getCpuTimeNanos());
         }
         // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
         split.destroy();
     }
 
-    private synchronized void scheduleTaskIfNecessary(TaskHandle taskHandle)
+    private synchronized void scheduleTaskIfNecessary(TaskHandle taskHandle, List<PrioritizedSplitRunner> startedSplits)
     {
         // Worker skip processing split if jvm heap usage crosses configured threshold
         // Helps reduce memory pressure on the worker and avoid OOMs
@@ -498,13 +508,13 @@ public class TaskExecutor
         if (taskHandle.getRunningLeafSplits() < min(guaranteedNumberOfDriversPerTask, taskHandle.getMaxDriversPerTask().orElse(Integer.MAX_VALUE))) {
             PrioritizedSplitRunner split = taskHandle.pollNextSplit();
             if (split != null) {
-                startSplit(split);
+                startSplit(split, startedSplits);
                 splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
             }
         }
     }
 
-    private synchronized void addNewEntrants()
+    private synchronized void addNewEntrants(List<PrioritizedSplitRunner> startedSplits)
     {
         // Worker skip processing split if jvm heap usage crosses configured threshold
         // Helps reduce memory pressure on the worker and avoid OOMs
@@ -528,20 +538,35 @@ public class TaskExecutor
             }
 
             splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
-            startSplit(split);
+            startSplit(split, startedSplits);
         }
     }
 
-    private synchronized void startIntermediateSplit(PrioritizedSplitRunner split)
+    private synchronized void startIntermediateSplit(PrioritizedSplitRunner split, List<PrioritizedSplitRunner> startedSplits)
     {
-        startSplit(split);
+        startSplit(split, startedSplits);
         intermediateSplits.add(split);
     }
 
-    private synchronized void startSplit(PrioritizedSplitRunner split)
+    private synchronized void startSplit(PrioritizedSplitRunner split, List<PrioritizedSplitRunner> startedSplits)
     {
         allSplits.add(split);
-        waitingSplits.offer(split);
+        startedSplits.add(split);
+    }
+
+    /**
+     * Offers the splits started while holding the executor monitor to the split queue. The split queue has
+     * its own locking, so this is done after the monitor is released, and runner threads taking splits from
+     * the queue do not wait for the monitor.
+     */
+    private void offerStartedSplits(List<PrioritizedSplitRunner> startedSplits)
+    {
+        for (PrioritizedSplitRunner split : startedSplits) {
+            // the task may have been removed since the split was started
+            if (!split.isDestroyed()) {
+                waitingSplits.offer(split);
+            }
+        }
     }
 
     private synchronized PrioritizedSplitRunner pollNextSplitWorker()
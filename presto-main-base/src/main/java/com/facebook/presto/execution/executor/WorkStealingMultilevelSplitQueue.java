@@ -0,0 +1,247 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.Collection;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A multilevel split queue that spreads the waiting splits of each level over several stripes,
+ * each with its own lock, instead of the single queue behind a single lock of
+ * {@link MultilevelSplitQueue}. Every thread is assigned a home stripe: it offers splits to the
+ * home stripe and takes splits from it, and only steals from the other stripes of the selected
+ * level when the home stripe is empty. A split that yields at the end of its quanta is therefore
+ * usually picked up again by the same runner thread, and runner threads only contend when they
+ * run out of local work.
+ * <p>
+ * Levels are selected and charged for their scheduled time from the waiting split counts of all
+ * stripes, so the time share of each level is the same as with {@link MultilevelSplitQueue}, up to
+ * the splits taken concurrently by other threads while a level is selected. Within a level, splits
+ * are only ordered by priority per stripe: a thread takes the split with the lowest priority of
+ * its home stripe, even if a split with a lower priority waits in another stripe of the level.
+ */
+@ThreadSafe
+public class WorkStealingMultilevelSplitQueue
+        extends AbstractMultilevelSplitQueue
+{
+    private final Stripe[][] levelStripes;
+    private final AtomicInteger[] levelWaitingSplitCounts = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
+    private final AtomicInteger waitingSplitCount = new AtomicInteger();
+
+    private final AtomicInteger nextHomeStripe = new AtomicInteger();
+    private final ThreadLocal<Integer> homeStripe;
+
+    // only used to park threads while there are no waiting splits
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition notEmpty = idleLock.newCondition();
+    private final AtomicInteger idleThreads = new AtomicInteger();
+
+    private final CounterStat stolenSplits = new CounterStat();
+
+    public WorkStealingMultilevelSplitQueue(double levelTimeMultiplier, int stripeCount)
+    {
+        super(levelTimeMultiplier);
+        checkArgument(stripeCount > 0, "stripeCount must be at least 1");
+
+        this.levelStripes = new Stripe[LEVEL_THRESHOLD_SECONDS.length][stripeCount];
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            levelWaitingSplitCounts[level] = new AtomicInteger();
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                levelStripes[level][stripe] = new Stripe();
+            }
+        }
+        this.homeStripe = ThreadLocal.withInitial(() -> Math.floorMod(nextHomeStripe.getAndIncrement(), stripeCount));
+    }
+
+    @Override
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        split.setReady();
+        int level = split.getPriority().getLevel();
+        if (levelWaitingSplitCounts[level].get() == 0) {
+            resetEmptyLevelTime(level);
+        }
+
+        levelStripes[level][homeStripe.get()].offer(split);
+        levelWaitingSplitCounts[level].incrementAndGet();
+        waitingSplitCount.incrementAndGet();
+
+        // the waiting split count is updated before the idle threads are checked, and an idle thread
+        // registers itself before it checks the waiting split count, so a wakeup cannot be missed
+        if (idleThreads.get() > 0) {
+            idleLock.lock();
+            try {
+                notEmpty.signal();
+            }
+            finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public PrioritizedSplitRunner take()
+            throws InterruptedException
+    {
+        while (true) {
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                awaitNotEmpty();
+                continue;
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            splitSelected(result);
+            return result;
+        }
+    }
+
+    /**
+     * Polls the split with the lowest priority from the home stripe of the level selected by
+     * {@link #selectLevel}, or steals one from another stripe of that level if the home stripe is
+     * empty. This may return null while other threads are concurrently taking splits of the level.
+     */
+    private PrioritizedSplitRunner pollSplit()
+    {
+        int selectedLevel = selectLevel(level -> levelWaitingSplitCounts[level].get() > 0);
+        if (selectedLevel == -1) {
+            return null;
+        }
+
+        Stripe[] stripes = levelStripes[selectedLevel];
+        int home = homeStripe.get();
+        PrioritizedSplitRunner result = stripes[home].poll();
+        for (int i = 1; result == null && i < stripes.length; i++) {
+            result = stripes[(home + i) % stripes.length].poll();
+            if (result != null) {
+                stolenSplits.update(1);
+            }
+        }
+
+        if (result != null) {
+            levelWaitingSplitCounts[selectedLevel].decrementAndGet();
+            waitingSplitCount.decrementAndGet();
+        }
+        return result;
+    }
+
+    private void awaitNotEmpty()
+            throws InterruptedException
+    {
+        idleLock.lockInterruptibly();
+        try {
+            idleThreads.incrementAndGet();
+            try {
+                while (waitingSplitCount.get() == 0) {
+                    notEmpty.await();
+                }
+            }
+            finally {
+                idleThreads.decrementAndGet();
+            }
+        }
+        finally {
+            idleLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            for (Stripe stripe : levelStripes[level]) {
+                if (stripe.remove(split)) {
+                    levelWaitingSplitCounts[level].decrementAndGet();
+                    waitingSplitCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            for (Stripe stripe : levelStripes[level]) {
+                int removed = stripe.removeAll(splits);
+                if (removed > 0) {
+                    levelWaitingSplitCounts[level].addAndGet(-removed);
+                    waitingSplitCount.addAndGet(-removed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return waitingSplitCount.get();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
+    private static class Stripe
+    {
+        @GuardedBy("this")
+        private final PriorityQueue<PrioritizedSplitRunner> splits = new PriorityQueue<>();
+
+        public synchronized void offer(PrioritizedSplitRunner split)
+        {
+            splits.offer(split);
+        }
+
+        public synchronized PrioritizedSplitRunner poll()
+        {
+            return splits.poll();
+        }
+
+        public synchronized boolean remove(PrioritizedSplitRunner split)
+        {
+            return splits.remove(split);
+        }
+
+        public synchronized int removeAll(Collection<PrioritizedSplitRunner> toRemove)
+        {
+            if (splits.isEmpty()) {
+                return 0;
+            }
+            int sizeBefore = splits.size();
+            splits.removeAll(toRemove);
+            return sizeBefore - splits.size();
+        }
+    }
+}
@@ -56,6 +56,19 @@ public class ClusterMemoryPool
     @GuardedBy("this")
     private int assignedQueries;
 
+    // nodes with no free memory left, including the revocable memory that could be spilled
+    @GuardedBy("this")
+    private int fullNodes;
+
+    @GuardedBy("this")
+    private long revocableBytesOnFullNodes;
+
+    @GuardedBy("this")
+    private long memoryRevokingRequests;
+
+    @GuardedBy("this")
+    private long outOfMemoryResolvedByRevoking;
+
     // Does not include queries with zero memory usage
     @GuardedBy("this")
     private final Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
@@ -144,6 +157,46 @@ public class ClusterMemoryPool
         return assignedQueries;
     }
 
+    @Managed
+    public synchronized int getFullNodes()
+    {
+        return fullNodes;
+    }
+
+    @Managed
+    public synchronized long getRevocableBytesOnFullNodes()
+    {
+        return revocableBytesOnFullNodes;
+    }
+
+    /**
+     * Number of times the coordinator started asking queries on full nodes to spill their revocable memory.
+     */
+    @Managed
+    public synchronized long getMemoryRevokingRequests()
+    {
+        return memoryRevokingRequests;
+    }
+
+    /**
+     * Number of times the pool got out of memory pressure by spilling alone, without killing a query.
+     */
+    @Managed
+    public synchronized long getOutOfMemoryResolvedByRevoking()
+    {
+        return outOfMemoryResolvedByRevoking;
+    }
+
+    public synchronized void recordMemoryRevokingRequest()
+    {
+        memoryRevokingRequests++;
+    }
+
+    public synchronized void recordOutOfMemoryResolvedByRevoking()
+    {
+        outOfMemoryResolvedByRevoking++;
+    }
+
     public synchronized Map<QueryId, Long> getQueryMemoryReservations()
     {
         return ImmutableMap.copyOf(queryMemoryReservations);
@@ -158,6 +211,8 @@ public class ClusterMemoryPool
     {
         nodes = 0;
         blockedNodes = 0;
+        fullNodes = 0;
+        revocableBytesOnFullNodes = 0;
         totalDistributedBytes = 0;
         reservedDistributedBytes = 0;
         reservedRevocableDistributedBytes = 0;
@@ -173,6 +228,10 @@ public class ClusterMemoryPool
                 if (poolInfo.getFreeBytes() + poolInfo.getReservedRevocableBytes() <= 0) {
                     blockedNodes++;
                 }
+                if (poolInfo.getFreeBytes() <= 0) {
+                    fullNodes++;
+                    revocableBytesOnFullNodes += poolInfo.getReservedRevocableBytes();
+                }
                 totalDistributedBytes += poolInfo.getMaxBytes();
                 reservedDistributedBytes += poolInfo.getReservedBytes();
                 reservedRevocableDistributedBytes += poolInfo.getReservedRevocableBytes();
@@ -241,6 +300,8 @@ public class ClusterMemoryPool
                 .add("nodes", nodes)
                 .add("blockedNodes", blockedNodes)
                 .add("assignedQueries", assignedQueries)
+                .add("fullNodes", fullNodes)
+                .add("revocableBytesOnFullNodes", revocableBytesOnFullNodes)
                 .add("queryMemoryReservations", queryMemoryReservations)
                 .add("queryMemoryAllocations", queryMemoryAllocations)
                 .add("queryMemoryRevocableReservations", queryMemoryRevocableReservations)
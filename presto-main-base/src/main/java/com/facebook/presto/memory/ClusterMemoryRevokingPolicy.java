@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Chooses the queries that should spill on nodes whose general pool has run out of memory.
+ * On each such node, the queries with the largest revocable reservations are picked until
+ * their revocable memory covers the overcommitted bytes of the pool.
+ */
+public final class ClusterMemoryRevokingPolicy
+{
+    private ClusterMemoryRevokingPolicy() {}
+
+    public static Map<String, List<QueryId>> chooseQueriesToRevoke(Map<String, MemoryInfo> nodes)
+    {
+        ImmutableMap.Builder<String, List<QueryId>> queriesToRevoke = ImmutableMap.builder();
+        nodes.forEach((nodeId, memoryInfo) -> {
+            List<QueryId> queries = chooseQueriesToRevoke(memoryInfo);
+            if (!queries.isEmpty()) {
+                queriesToRevoke.put(nodeId, queries);
+            }
+        });
+        return queriesToRevoke.build();
+    }
+
+    private static List<QueryId> chooseQueriesToRevoke(MemoryInfo memoryInfo)
+    {
+        MemoryPoolInfo generalPool = memoryInfo.getPools().get(GENERAL_POOL);
+        if (generalPool == null || generalPool.getFreeBytes() > 0 || generalPool.getReservedRevocableBytes() == 0) {
+            return ImmutableList.of();
+        }
+
+        // free bytes of a full pool are zero or negative, so always revoke at least one query
+        long remainingBytes = -generalPool.getFreeBytes();
+        ImmutableList.Builder<QueryId> queries = ImmutableList.builder();
+        List<Map.Entry<QueryId, Long>> revocableReservations = generalPool.getQueryMemoryRevocableReservations().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(comparingLong((Map.Entry<QueryId, Long> entry) -> entry.getValue()).reversed())
+                .collect(toImmutableList());
+        for (Map.Entry<QueryId, Long> entry : revocableReservations) {
+            queries.add(entry.getKey());
+            remainingBytes -= entry.getValue();
+            if (remainingBytes < 0) {
+                break;
+            }
+        }
+        return queries.build();
+    }
+}
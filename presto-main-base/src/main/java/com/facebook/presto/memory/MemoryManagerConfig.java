@@ -24,6 +24,7 @@ import jakarta.validation.constraints.NotNull;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @DefunctConfig({
         "experimental.cluster-memory-manager-enabled",
@@ -38,6 +39,8 @@ public class MemoryManagerConfig
     private DataSize softMaxQueryTotalMemory;
     private String lowMemoryKillerPolicy = LowMemoryKillerPolicy.NONE;
     private Duration killOnOutOfMemoryDelay = new Duration(5, MINUTES);
+    private boolean memoryRevokingBeforeKillEnabled;
+    private Duration memoryRevokingBeforeKillTimeout = new Duration(30, SECONDS);
     private boolean tableFinishOperatorMemoryTrackingEnabled;
 
     public String getLowMemoryKillerPolicy()
@@ -67,6 +70,33 @@ public class MemoryManagerConfig
         return this;
     }
 
+    public boolean isMemoryRevokingBeforeKillEnabled()
+    {
+        return memoryRevokingBeforeKillEnabled;
+    }
+
+    @Config("query.low-memory-killer.memory-revoking-enabled")
+    @ConfigDescription("Ask queries with revocable memory on nodes that ran out of memory to spill before invoking killer")
+    public MemoryManagerConfig setMemoryRevokingBeforeKillEnabled(boolean memoryRevokingBeforeKillEnabled)
+    {
+        this.memoryRevokingBeforeKillEnabled = memoryRevokingBeforeKillEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMemoryRevokingBeforeKillTimeout()
+    {
+        return memoryRevokingBeforeKillTimeout;
+    }
+
+    @Config("query.low-memory-killer.memory-revoking-timeout")
+    @ConfigDescription("How long killer waits for requested memory revoking to relieve the cluster")
+    public MemoryManagerConfig setMemoryRevokingBeforeKillTimeout(Duration memoryRevokingBeforeKillTimeout)
+    {
+        this.memoryRevokingBeforeKillTimeout = memoryRevokingBeforeKillTimeout;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxQueryMemory()
     {
@@ -20,6 +20,7 @@ import com.facebook.presto.spi.memory.MemoryAllocation;
 import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.memory.MemoryPoolInfo;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
@@ -30,8 +31,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static com.facebook.presto.memory.context.AbstractAggregatedMemoryContext.FORCE_FREE_TAG;
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
@@ -40,7 +44,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static java.util.Objects.requireNonNull;
-import static java.util.function.Function.identity;
 
 public class MemoryPool
 {
@@ -49,25 +52,20 @@ public class MemoryPool
     private final MemoryPoolId id;
     private final long maxBytes;
 
-    @GuardedBy("this")
-    private long reservedBytes;
-    @GuardedBy("this")
-    private long reservedRevocableBytes;
+    // The reservation counters are updated without holding the pool monitor, so that drivers of different
+    // queries do not contend on it. The monitor is only taken to block or unblock reservations once the pool
+    // is full, and the blocking decision is made on freeBytes alone, so it is as exact as with a lock.
+    private final AtomicLong freeBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong reservedRevocableBytes = new AtomicLong();
 
+    // only modified while holding the pool monitor
     @Nullable
-    @GuardedBy("this")
-    private NonCancellableMemoryFuture<?> future;
+    private volatile NonCancellableMemoryFuture<?> future;
 
-    @GuardedBy("this")
+    // Entries are only modified inside compute() calls, which serialize the updates of a query without a global lock.
     // TODO: It would be better if we just tracked QueryContexts, but their lifecycle is managed by a weak reference, so we can't do that
-    private final Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
-
-    // This map keeps track of all the tagged allocations, e.g., query-1 -> ['TableScanOperator': 10MB, 'LazyOutputBuffer': 5MB, ...]
-    @GuardedBy("this")
-    private final Map<QueryId, Map<String, Long>> taggedMemoryAllocations = new HashMap<>();
-
-    @GuardedBy("this")
-    private final Map<QueryId, Long> queryMemoryRevocableReservations = new HashMap<>();
+    private final ConcurrentMap<QueryId, QueryReservation> queryReservations = new ConcurrentHashMap<>();
 
     private final List<MemoryPoolListener> listeners = new CopyOnWriteArrayList<>();
 
@@ -78,6 +76,7 @@ public class MemoryPool
         this.id = requireNonNull(id, "name is null");
         requireNonNull(size, "size is null");
         maxBytes = size.toBytes();
+        freeBytes = new AtomicLong(maxBytes);
     }
 
     public MemoryPoolId getId()
@@ -85,17 +84,33 @@ public class MemoryPool
         return id;
     }
 
-    public synchronized MemoryPoolInfo getInfo()
+    /**
+     * The pool totals and the reservation of each query are read independently and without a global lock,
+     * so reservations made concurrently may be reflected in some of the values but not in the others.
+     * The returned info is not a consistent snapshot of the pool.
+     */
+    public MemoryPoolInfo getInfo()
     {
+        Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
         Map<QueryId, List<MemoryAllocation>> memoryAllocations = new HashMap<>();
-        for (Entry<QueryId, Map<String, Long>> entry : taggedMemoryAllocations.entrySet()) {
-            List<MemoryAllocation> allocations = new ArrayList<>();
-            if (entry.getValue() != null) {
-                entry.getValue().forEach((tag, allocation) -> allocations.add(new MemoryAllocation(tag, allocation)));
+        Map<QueryId, Long> queryMemoryRevocableReservations = new HashMap<>();
+        queryReservations.forEach((queryId, reservation) -> {
+            synchronized (reservation) {
+                if (reservation.getReservedBytes() != 0) {
+                    queryMemoryReservations.put(queryId, reservation.getReservedBytes());
+                }
+                Map<String, Long> taggedAllocations = reservation.getTaggedAllocations();
+                if (taggedAllocations != null) {
+                    List<MemoryAllocation> allocations = new ArrayList<>();
+                    taggedAllocations.forEach((tag, allocation) -> allocations.add(new MemoryAllocation(tag, allocation)));
+                    memoryAllocations.put(queryId, allocations);
+                }
+                if (reservation.getReservedRevocableBytes() != 0) {
+                    queryMemoryRevocableReservations.put(queryId, reservation.getReservedRevocableBytes());
+                }
             }
-            memoryAllocations.put(entry.getKey(), allocations);
-        }
-        return new MemoryPoolInfo(maxBytes, reservedBytes, reservedRevocableBytes, queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
+        });
+        return new MemoryPoolInfo(maxBytes, reservedBytes.get(), reservedRevocableBytes.get(), queryMemoryReservations, memoryAllocations, queryMemoryRevocableReservations);
     }
 
     public void addListener(MemoryPoolListener listener)
@@ -125,24 +140,11 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
-        synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
-            }
-            reservedBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
-                }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
-            }
-            else {
-                result = NOT_BLOCKED;
-            }
+        if (bytes != 0) {
+            updateQueryReservation(queryId, reservation -> reservation.reserve(allocationTag, bytes));
         }
+        reservedBytes.addAndGet(bytes);
+        ListenableFuture<?> result = getReservationResult(freeBytes.addAndGet(-bytes));
 
         onMemoryReserved(queryId);
         return result;
@@ -150,7 +152,8 @@ public class MemoryPool
 
     private void onMemoryReserved(QueryId queryId)
     {
-        long totalMemoryReservation = queryMemoryReservations.getOrDefault(queryId, 0L) + queryMemoryRevocableReservations.getOrDefault(queryId, 0L);
+        QueryReservation reservation = queryReservations.get(queryId);
+        long totalMemoryReservation = reservation == null ? 0 : reservation.getTotalBytes();
         listeners.forEach(listener -> listener.onMemoryReserved(this, queryId, totalMemoryReservation));
     }
 
@@ -163,128 +166,163 @@ public class MemoryPool
     {
         checkArgument(bytes >= 0, "bytes is negative");
 
-        ListenableFuture<?> result;
-        synchronized (this) {
-            if (bytes != 0) {
-                queryMemoryRevocableReservations.merge(queryId, bytes, Long::sum);
-            }
-            reservedRevocableBytes += bytes;
-            if (getFreeBytes() <= 0) {
-                if (future == null) {
-                    future = NonCancellableMemoryFuture.create();
-                }
-                checkState(!future.isDone(), "future is already completed");
-                result = future;
-            }
-            else {
-                result = NOT_BLOCKED;
-            }
+        if (bytes != 0) {
+            updateQueryReservation(queryId, reservation -> reservation.reserveRevocable(bytes));
         }
+        reservedRevocableBytes.addAndGet(bytes);
+        ListenableFuture<?> result = getReservationResult(freeBytes.addAndGet(-bytes));
 
         onMemoryReserved(queryId);
         return result;
     }
 
+    private ListenableFuture<?> getReservationResult(long freeBytesAfterReservation)
+    {
+        if (freeBytesAfterReservation > 0) {
+            return NOT_BLOCKED;
+        }
+        synchronized (this) {
+            // publish the future before checking the free bytes again, so that a concurrent free
+            // either makes room before the check, or finds the future and completes it
+            if (future == null) {
+                future = NonCancellableMemoryFuture.create();
+            }
+            if (freeBytes.get() > 0) {
+                unblock();
+                return NOT_BLOCKED;
+            }
+            checkState(!future.isDone(), "future is already completed");
+            return future;
+        }
+    }
+
     /**
      * Try to reserve the given number of bytes. Return value indicates whether the caller may use the requested memory.
      */
     public boolean tryReserve(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        synchronized (this) {
-            if (getFreeBytes() - bytes < 0) {
+        long free;
+        do {
+            free = freeBytes.get();
+            if (free - bytes < 0) {
                 return false;
             }
-            reservedBytes += bytes;
-            if (bytes != 0) {
-                queryMemoryReservations.merge(queryId, bytes, Long::sum);
-                updateTaggedMemoryAllocations(queryId, allocationTag, bytes);
-            }
+        }
+        while (!freeBytes.compareAndSet(free, free - bytes));
+        reservedBytes.addAndGet(bytes);
+        if (bytes != 0) {
+            updateQueryReservation(queryId, reservation -> reservation.reserve(allocationTag, bytes));
         }
 
         onMemoryReserved(queryId);
         return true;
     }
 
-    public synchronized void free(QueryId queryId, String allocationTag, long bytes)
+    public void free(QueryId queryId, String allocationTag, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedBytes >= bytes, "tried to free more memory than is reserved");
+        checkArgument(reservedBytes.get() >= bytes, "tried to free more memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryReservations.remove(queryId);
-            taggedMemoryAllocations.remove(queryId);
-        }
-        else {
-            queryMemoryReservations.put(queryId, queryReservation);
-            updateTaggedMemoryAllocations(queryId, allocationTag, -bytes);
-        }
-        reservedBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
-            future.set(null);
-            future = null;
-        }
+        queryReservations.compute(queryId, (id, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            reservation.free(allocationTag, bytes);
+            return reservation.isEmpty() ? null : reservation;
+        });
+        reservedBytes.addAndGet(-bytes);
+        onMemoryFreed(freeBytes.addAndGet(bytes));
     }
 
-    public synchronized void freeRevocable(QueryId queryId, long bytes)
+    public void freeRevocable(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(reservedRevocableBytes >= bytes, "tried to free more revocable memory than is reserved");
+        checkArgument(reservedRevocableBytes.get() >= bytes, "tried to free more revocable memory than is reserved");
         if (bytes == 0) {
             // Freeing zero bytes is a no-op
             return;
         }
 
-        Long queryReservation = queryMemoryRevocableReservations.get(queryId);
-        requireNonNull(queryReservation, "queryReservation is null");
-        checkArgument(queryReservation - bytes >= 0, "tried to free more revocable memory than is reserved by query");
-        queryReservation -= bytes;
-        if (queryReservation == 0) {
-            queryMemoryRevocableReservations.remove(queryId);
-        }
-        else {
-            queryMemoryRevocableReservations.put(queryId, queryReservation);
+        queryReservations.compute(queryId, (id, reservation) -> {
+            requireNonNull(reservation, "queryReservation is null");
+            reservation.freeRevocable(bytes);
+            return reservation.isEmpty() ? null : reservation;
+        });
+        reservedRevocableBytes.addAndGet(-bytes);
+        onMemoryFreed(freeBytes.addAndGet(bytes));
+    }
+
+    private void onMemoryFreed(long freeBytesAfterFree)
+    {
+        if (freeBytesAfterFree > 0 && future != null) {
+            synchronized (this) {
+                if (freeBytes.get() > 0) {
+                    unblock();
+                }
+            }
         }
-        reservedRevocableBytes -= bytes;
-        if (getFreeBytes() > 0 && future != null) {
+    }
+
+    @GuardedBy("this")
+    private void unblock()
+    {
+        if (future != null) {
             future.set(null);
             future = null;
         }
     }
 
+    private void updateQueryReservation(QueryId queryId, Consumer<QueryReservation> update)
+    {
+        queryReservations.compute(queryId, (id, reservation) -> {
+            if (reservation == null) {
+                reservation = new QueryReservation();
+            }
+            update.accept(reservation);
+            return reservation;
+        });
+    }
+
     // When this method returns the MOVE_QUERY_TAG won't be visible in the tagged memory allocations map.
     // Because, we remove the tagged allocations from this MemoryPool for queryId, and then we reserve
-    // N bytes with MOVE_QUERY_TAG in the targetMemoryPool, and then immediately overwrite it
-    // with a put() call.
+    // N bytes with MOVE_QUERY_TAG in the targetMemoryPool, and then immediately overwrite it.
     synchronized ListenableFuture<?> moveQuery(QueryId queryId, MemoryPool targetMemoryPool)
     {
         long originalReserved = getQueryMemoryReservation(queryId);
         long originalRevocableReserved = getQueryRevocableMemoryReservation(queryId);
         // Get the tags before we call free() as that would remove the tags and we will lose the tags.
-        Map<String, Long> taggedAllocations = taggedMemoryAllocations.remove(queryId);
+        QueryReservation reservation = queryReservations.get(queryId);
+        Map<String, Long> taggedAllocations = reservation == null ? null : reservation.getTaggedAllocations();
         ListenableFuture<?> future = targetMemoryPool.reserve(queryId, MOVE_QUERY_TAG, originalReserved);
         free(queryId, MOVE_QUERY_TAG, originalReserved);
         targetMemoryPool.reserveRevocable(queryId, originalRevocableReserved);
         freeRevocable(queryId, originalRevocableReserved);
-        targetMemoryPool.taggedMemoryAllocations.put(queryId, taggedAllocations);
+        targetMemoryPool.setTaggedMemoryAllocations(queryId, taggedAllocations);
         return future;
     }
 
+    private void setTaggedMemoryAllocations(QueryId queryId, @Nullable Map<String, Long> taggedAllocations)
+    {
+        // the query may have no reservation in this pool yet, e.g. when it is moved with nothing reserved
+        queryReservations.compute(queryId, (id, reservation) -> {
+            if (reservation == null) {
+                reservation = new QueryReservation();
+            }
+            reservation.setTaggedAllocations(taggedAllocations);
+            return reservation.isEmpty() ? null : reservation;
+        });
+    }
+
     /**
      * Returns the number of free bytes. This value may be negative, which indicates that the pool is over-committed.
      */
     @Managed
-    public synchronized long getFreeBytes()
+    public long getFreeBytes()
     {
-        return maxBytes - reservedBytes - reservedRevocableBytes;
+        return freeBytes.get();
     }
 
     @Managed
@@ -294,36 +332,38 @@ public class MemoryPool
     }
 
     @Managed
-    public synchronized long getReservedBytes()
+    public long getReservedBytes()
     {
-        return reservedBytes;
+        return reservedBytes.get();
     }
 
     @Managed
-    public synchronized long getReservedRevocableBytes()
+    public long getReservedRevocableBytes()
     {
-        return reservedRevocableBytes;
+        return reservedRevocableBytes.get();
     }
 
-    public synchronized long getQueryMemoryReservation(QueryId queryId)
+    public long getQueryMemoryReservation(QueryId queryId)
     {
-        return queryMemoryReservations.getOrDefault(queryId, 0L);
+        QueryReservation reservation = queryReservations.get(queryId);
+        return reservation == null ? 0 : reservation.getReservedBytes();
     }
 
-    public synchronized long getQueryRevocableMemoryReservation(QueryId queryId)
+    public long getQueryRevocableMemoryReservation(QueryId queryId)
     {
-        return queryMemoryRevocableReservations.getOrDefault(queryId, 0L);
+        QueryReservation reservation = queryReservations.get(queryId);
+        return reservation == null ? 0 : reservation.getReservedRevocableBytes();
     }
 
     @Override
-    public synchronized String toString()
+    public String toString()
     {
         return toStringHelper(this)
                 .add("id", id)
                 .add("maxBytes", maxBytes)
                 .add("freeBytes", getFreeBytes())
-                .add("reservedBytes", reservedBytes)
-                .add("reservedRevocableBytes", reservedRevocableBytes)
+                .add("reservedBytes", getReservedBytes())
+                .add("reservedRevocableBytes", getReservedRevocableBytes())
                 .add("future", future)
                 .toString();
     }
@@ -349,40 +389,122 @@ public class MemoryPool
         }
     }
 
-    private synchronized void updateTaggedMemoryAllocations(QueryId queryId, String allocationTag, long delta)
+    private static class QueryReservation
     {
-        if (delta == 0) {
-            return;
+        @GuardedBy("this")
+        private long reservedBytes;
+        @GuardedBy("this")
+        private long reservedRevocableBytes;
+        // This map keeps track of all the tagged allocations, e.g., ['TableScanOperator': 10MB, 'LazyOutputBuffer': 5MB, ...]
+        @Nullable
+        @GuardedBy("this")
+        private Map<String, Long> taggedAllocations;
+
+        public synchronized void reserve(String allocationTag, long bytes)
+        {
+            reservedBytes += bytes;
+            updateTaggedAllocations(allocationTag, bytes);
         }
 
-        Map<String, Long> allocations = taggedMemoryAllocations.computeIfAbsent(queryId, ignored -> new HashMap<>());
-        allocations.compute(allocationTag, (ignored, oldValue) -> {
-            if (oldValue == null) {
-                return delta;
+        public synchronized void reserveRevocable(long bytes)
+        {
+            reservedRevocableBytes += bytes;
+        }
+
+        public synchronized void free(String allocationTag, long bytes)
+        {
+            checkArgument(reservedBytes - bytes >= 0, "tried to free more memory than is reserved by query");
+            reservedBytes -= bytes;
+            if (reservedBytes == 0) {
+                taggedAllocations = null;
             }
-            long newValue = oldValue.longValue() + delta;
-            if (newValue == 0) {
-                return null;
+            else {
+                updateTaggedAllocations(allocationTag, -bytes);
             }
-            return newValue;
-        });
+        }
+
+        public synchronized void freeRevocable(long bytes)
+        {
+            checkArgument(reservedRevocableBytes - bytes >= 0, "tried to free more revocable memory than is reserved by query");
+            reservedRevocableBytes -= bytes;
+        }
+
+        public synchronized long getReservedBytes()
+        {
+            return reservedBytes;
+        }
+
+        public synchronized long getReservedRevocableBytes()
+        {
+            return reservedRevocableBytes;
+        }
+
+        public synchronized long getTotalBytes()
+        {
+            return reservedBytes + reservedRevocableBytes;
+        }
+
+        @Nullable
+        public synchronized Map<String, Long> getTaggedAllocations()
+        {
+            return taggedAllocations == null ? null : ImmutableMap.copyOf(taggedAllocations);
+        }
+
+        public synchronized void setTaggedAllocations(@Nullable Map<String, Long> taggedAllocations)
+        {
+            this.taggedAllocations = taggedAllocations == null ? null : new HashMap<>(taggedAllocations);
+        }
+
+        public synchronized boolean isEmpty()
+        {
+            return reservedBytes == 0 && reservedRevocableBytes == 0 && taggedAllocations == null;
+        }
+
+        @GuardedBy("this")
+        private void updateTaggedAllocations(String allocationTag, long delta)
+        {
+            if (delta == 0) {
+                return;
+            }
+
+            if (taggedAllocations == null) {
+                taggedAllocations = new HashMap<>();
+            }
+            taggedAllocations.compute(allocationTag, (ignored, oldValue) -> {
+                if (oldValue == null) {
+                    return delta;
+                }
+                long newValue = oldValue.longValue() + delta;
+                if (newValue == 0) {
+                    return null;
+                }
+                return newValue;
+            });
+        }
     }
 
     @VisibleForTesting
-    synchronized Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
+    Map<QueryId, Map<String, Long>> getTaggedMemoryAllocations()
     {
-        return taggedMemoryAllocations.keySet().stream()
-                .collect(toImmutableMap(identity(), this::getTaggedMemoryAllocations));
+        ImmutableMap.Builder<QueryId, Map<String, Long>> allocations = ImmutableMap.builder();
+        for (QueryId queryId : queryReservations.keySet()) {
+            Map<String, Long> queryAllocations = getTaggedMemoryAllocations(queryId);
+            if (queryAllocations != null) {
+                allocations.put(queryId, queryAllocations);
+            }
+        }
+        return allocations.build();
     }
 
     @VisibleForTesting
-    synchronized Map<String, Long> getTaggedMemoryAllocations(QueryId targetQueryId)
+    Map<String, Long> getTaggedMemoryAllocations(QueryId targetQueryId)
     {
-        if (taggedMemoryAllocations.get(targetQueryId) == null) {
+        QueryReservation reservation = queryReservations.get(targetQueryId);
+        Map<String, Long> allocations = reservation == null ? null : reservation.getTaggedAllocations();
+        if (allocations == null) {
             return null;
         }
-        return taggedMemoryAllocations.get(targetQueryId)
-                .entrySet().stream()
+        return allocations.entrySet().stream()
                 .filter(entry -> !entry.getKey().equals(FORCE_FREE_TAG))
                 .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
     }
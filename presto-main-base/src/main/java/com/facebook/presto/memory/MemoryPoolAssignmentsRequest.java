@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.spi.QueryId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
@@ -27,13 +28,25 @@ public class MemoryPoolAssignmentsRequest
     private final String coordinatorId;
     private final long version;
     private final List<MemoryPoolAssignment> assignments;
+    private final List<QueryId> queriesToRevoke;
+
+    public MemoryPoolAssignmentsRequest(String coordinatorId, long version, List<MemoryPoolAssignment> assignments)
+    {
+        this(coordinatorId, version, assignments, ImmutableList.of());
+    }
 
     @JsonCreator
-    public MemoryPoolAssignmentsRequest(@JsonProperty("coordinatorId") String coordinatorId, @JsonProperty("version") long version, @JsonProperty("assignments") List<MemoryPoolAssignment> assignments)
+    public MemoryPoolAssignmentsRequest(
+            @JsonProperty("coordinatorId") String coordinatorId,
+            @JsonProperty("version") long version,
+            @JsonProperty("assignments") List<MemoryPoolAssignment> assignments,
+            @JsonProperty("queriesToRevoke") List<QueryId> queriesToRevoke)
     {
         this.coordinatorId = requireNonNull(coordinatorId, "coordinatorId is null");
         this.version = version;
         this.assignments = ImmutableList.copyOf(requireNonNull(assignments, "assignments is null"));
+        // requests from coordinators that do not ask for memory revoking omit the field
+        this.queriesToRevoke = queriesToRevoke == null ? ImmutableList.of() : ImmutableList.copyOf(queriesToRevoke);
     }
 
     @JsonProperty
@@ -54,12 +67,22 @@ public class MemoryPoolAssignmentsRequest
         return assignments;
     }
 
+    /**
+     * Queries that should revoke all of their revocable memory on the receiving node.
+     */
+    @JsonProperty
+    public List<QueryId> getQueriesToRevoke()
+    {
+        return queriesToRevoke;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("version", version)
                 .add("assignments", assignments)
+                .add("queriesToRevoke", queriesToRevoke)
                 .toString();
     }
 }
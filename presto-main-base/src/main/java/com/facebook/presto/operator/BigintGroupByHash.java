@@ -28,6 +28,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -36,22 +37,42 @@ import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
 import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Group by hash for a single BIGINT key.
+ * <p>
+ * When direct indexing is enabled, the group ids are stored in an array indexed by the key minus the
+ * smallest key of the range, as long as the keys span at most {@link #MAX_DIRECT_RANGE} values. This is the
+ * common case for dates, enum-like codes and other low cardinality keys, and makes finding the group of a
+ * row a single array read. The first key that would widen the span beyond that limit switches the
+ * table to the open addressing hash for the rest of its life.
+ */
 public class BigintGroupByHash
         implements GroupByHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(BigintGroupByHash.class).instanceSize();
 
     private static final float FILL_RATIO = 0.75f;
+    @VisibleForTesting
+    static final int MAX_DIRECT_RANGE = 1 << 16;
+    private static final int INITIAL_DIRECT_RANGE = 1 << 10;
     private static final List<Type> TYPES = ImmutableList.of(BIGINT);
     private static final List<Type> TYPES_WITH_RAW_HASH = ImmutableList.of(BIGINT, BIGINT);
 
     private final int hashChannel;
     private final boolean outputRawHash;
+    private final int expectedSize;
+
+    // group ids indexed by the value minus directBase, null once the hash is used instead
+    private int[] groupIdsByValue;
+    private long directBase;
 
     private int hashCapacity;
     private int maxFill;
@@ -77,13 +98,35 @@ public class BigintGroupByHash
     private long currentPageSizeInBytes;
 
     public BigintGroupByHash(int hashChannel, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    {
+        this(hashChannel, outputRawHash, expectedSize, false, updateMemory);
+    }
+
+    public BigintGroupByHash(int hashChannel, boolean outputRawHash, int expectedSize, boolean directIndexEnabled, UpdateMemory updateMemory)
     {
         checkArgument(hashChannel >= 0, "hashChannel must be at least zero");
         checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
 
         this.hashChannel = hashChannel;
         this.outputRawHash = outputRawHash;
+        this.expectedSize = expectedSize;
 
+        valuesByGroupId = new LongBigArray();
+        if (directIndexEnabled) {
+            // the range is allocated on the first value
+            groupIdsByValue = new int[0];
+        }
+        else {
+            initializeHash(expectedSize);
+        }
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    private void initializeHash(int expectedSize)
+    {
         hashCapacity = arraySize(expectedSize, FILL_RATIO);
 
         maxFill = calculateMaxFill(hashCapacity);
@@ -93,17 +136,17 @@ public class BigintGroupByHash
         groupIds = new IntBigArray(-1);
         groupIds.ensureCapacity(hashCapacity);
 
-        valuesByGroupId = new LongBigArray();
         valuesByGroupId.ensureCapacity(hashCapacity);
-
-        // This interface is used for actively reserving memory (push model) for rehash.
-        // The caller can also query memory usage on this object (pull model)
-        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
     }
 
     @Override
     public long getEstimatedSize()
     {
+        if (groupIdsByValue != null) {
+            return INSTANCE_SIZE +
+                    sizeOf(groupIdsByValue) +
+                    valuesByGroupId.sizeOf();
+        }
         return INSTANCE_SIZE +
                 groupIds.sizeOf() +
                 values.sizeOf() +
@@ -120,6 +163,9 @@ public class BigintGroupByHash
     @Override
     public double getExpectedHashCollisions()
     {
+        if (groupIdsByValue != null) {
+            return expectedHashCollisions;
+        }
         return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
     }
 
@@ -189,6 +235,10 @@ public class BigintGroupByHash
         }
 
         long value = BIGINT.getLong(block, position);
+        if (groupIdsByValue != null) {
+            long index = value - directBase;
+            return index >= 0 && index < groupIdsByValue.length && groupIdsByValue[(int) index] != -1;
+        }
         long hashPosition = getHashPosition(value, mask);
 
         // look for an empty slot or a slot containing this key
@@ -219,6 +269,12 @@ public class BigintGroupByHash
         return hashCapacity;
     }
 
+    @VisibleForTesting
+    boolean isDirectIndexed()
+    {
+        return groupIdsByValue != null;
+    }
+
     private int putIfAbsent(int position, Block block)
     {
         if (block.isNull(position)) {
@@ -231,6 +287,29 @@ public class BigintGroupByHash
         }
 
         long value = BIGINT.getLong(block, position);
+        if (groupIdsByValue != null) {
+            long index = value - directBase;
+            if (index < 0 || index >= groupIdsByValue.length) {
+                if (!tryExtendDirectRange(value)) {
+                    convertToHash();
+                    return putIfAbsent(value);
+                }
+                index = value - directBase;
+            }
+            int groupId = groupIdsByValue[(int) index];
+            if (groupId == -1) {
+                groupId = nextGroupId++;
+                groupIdsByValue[(int) index] = groupId;
+                valuesByGroupId.ensureCapacity(nextGroupId);
+                valuesByGroupId.set(groupId, value);
+            }
+            return groupId;
+        }
+        return putIfAbsent(value);
+    }
+
+    private int putIfAbsent(long value)
+    {
         long hashPosition = getHashPosition(value, mask);
 
         // look for an empty slot or a slot containing this key
@@ -268,6 +347,73 @@ public class BigintGroupByHash
         return groupId;
     }
 
+    private boolean tryExtendDirectRange(long value)
+    {
+        int length = groupIdsByValue.length;
+        long low = length == 0 ? value : min(value, directBase);
+        long high = length == 0 ? value : max(value, directBase + length - 1);
+        long span = high - low + 1;
+        // a negative span is an overflow of the range
+        if (span <= 0 || span > MAX_DIRECT_RANGE) {
+            return false;
+        }
+
+        // grow geometrically, and leave the extra room on the side the range grows to
+        int newLength = toIntExact(min(MAX_DIRECT_RANGE, max(span, max(INITIAL_DIRECT_RANGE, length * 2L))));
+        long slack = newLength - span;
+        long newBase;
+        if (length == 0) {
+            newBase = subtractOrMin(low, slack / 2);
+        }
+        else if (value < directBase) {
+            newBase = subtractOrMin(low, slack);
+        }
+        else {
+            newBase = low;
+        }
+        // the range must not extend past the largest value, so that value - directBase cannot wrap around into it
+        if (newBase > Long.MAX_VALUE - (newLength - 1)) {
+            newBase = Long.MAX_VALUE - (newLength - 1);
+        }
+
+        int[] newGroupIdsByValue = new int[newLength];
+        Arrays.fill(newGroupIdsByValue, -1);
+        if (length > 0) {
+            System.arraycopy(groupIdsByValue, 0, newGroupIdsByValue, toIntExact(directBase - newBase), length);
+        }
+        groupIdsByValue = newGroupIdsByValue;
+        directBase = newBase;
+        return true;
+    }
+
+    private static long subtractOrMin(long value, long delta)
+    {
+        long result = value - delta;
+        return result <= value ? result : Long.MIN_VALUE;
+    }
+
+    private void convertToHash()
+    {
+        // the direct range bounds the number of groups, so the hash is small enough to be built without yielding for memory
+        groupIdsByValue = null;
+        initializeHash(max(expectedSize, nextGroupId * 2));
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            if (groupId == nullGroupId) {
+                continue;
+            }
+            long value = valuesByGroupId.get(groupId);
+
+            // find an empty slot for the address
+            long hashPosition = getHashPosition(value, mask);
+            while (groupIds.get(hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & mask;
+                hashCollisions++;
+            }
+            values.set(hashPosition, value);
+            groupIds.set(hashPosition, groupId);
+        }
+    }
+
     private boolean tryRehash()
     {
         long newCapacityLong = hashCapacity * 2L;
@@ -326,7 +472,7 @@ public class BigintGroupByHash
 
     private boolean needRehash()
     {
-        return nextGroupId >= maxFill;
+        return groupIdsByValue == null && nextGroupId >= maxFill;
     }
 
     private static long getHashPosition(long rawHash, int mask)
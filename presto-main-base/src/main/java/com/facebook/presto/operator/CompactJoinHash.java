@@ -0,0 +1,539 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.array.AdaptiveLongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.operator.scalar.CombineHashFunction;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.type.TypeUtils;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.sql.planner.PlannerUtils.INITIAL_HASH_VALUE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lookup source that copies the join keys, their raw hash and the output columns of every build position
+ * into a fixed width row in a single {@code long[]}, instead of resolving each match through
+ * {@link PagesHash} and {@link PositionLinks} into the blocks of the {@link PagesIndex}.
+ * <p>
+ * A row consists of the raw hash, the next row with the same keys, a null mask and one slot per column.
+ * Variable width columns take two slots, the address of the value in a chunked byte arena and its length.
+ * The directory is an open addressing table of the first row of every distinct key, with a byte of the
+ * raw hash per slot to skip most mismatches without touching the rows. Probing and producing the output
+ * of a match read a single row, and the rows of a key are chained through the row itself.
+ * <p>
+ * The join position of a row is its position in the {@link PagesIndex}, so that outer joins can still
+ * visit every build row. Rows with a null key are kept for that reason, but they are not added to the directory.
+ * The table is immutable once built and the same instance is handed out to all the probe drivers.
+ * <p>
+ * This implementation assumes arrays used in the hash are always a power of 2
+ */
+public final class CompactJoinHash
+        implements LookupSource
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(CompactJoinHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final int MAX_COLUMNS = Long.SIZE;
+    private static final int ARENA_CHUNK_SIZE = 64 * 1024;
+    // leave some headroom below Integer.MAX_VALUE for the array header
+    private static final int MAX_ROWS_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final int HASH_SLOT = 0;
+    private static final int NEXT_SLOT = 1;
+    private static final int NULL_MASK_SLOT = 2;
+    private static final int FIRST_COLUMN_SLOT = 3;
+
+    private static final Set<Type> KEY_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, TIMESTAMP, BOOLEAN);
+    // floating point values are not compared bitwise, so they can only be output columns
+    private static final Set<Type> OUTPUT_TYPES = ImmutableSet.<Type>builder().addAll(KEY_TYPES).add(REAL, DOUBLE).build();
+
+    private final Type[] columnTypes;
+    private final int[] columnOffsets;
+    private final boolean[] variableWidth;
+    // index of the columns holding the join keys and the output channels
+    private final int[] keyColumns;
+    private final int[] outputColumns;
+    private final int rowWidth;
+
+    private final int positionCount;
+    private final long[] rows;
+    private final int mask;
+    private final int[] rowsByHash;
+    private final byte[] rawHashByHashPosition;
+
+    private final List<Slice> arenaChunks = new ArrayList<>();
+    private final long arenaRetainedSizeInBytes;
+    // the pages stay in the PagesIndex of the build operator
+    private final long pagesSizeInBytes;
+
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+    private final long positionIsNullCount;
+    private final long checksum;
+
+    public CompactJoinHash(
+            List<Type> types,
+            List<Integer> joinChannels,
+            OptionalInt hashChannel,
+            List<Integer> outputChannels,
+            AdaptiveLongBigArray addresses,
+            int positionCount,
+            List<List<Block>> channels)
+    {
+        requireNonNull(types, "types is null");
+        requireNonNull(joinChannels, "joinChannels is null");
+        requireNonNull(hashChannel, "hashChannel is null");
+        requireNonNull(outputChannels, "outputChannels is null");
+        requireNonNull(addresses, "addresses is null");
+        requireNonNull(channels, "channels is null");
+        checkArgument(isSupported(types, joinChannels, outputChannels, positionCount), "Unsupported types for compact join hash: %s", types);
+
+        List<Integer> columnChannels = columnChannels(joinChannels, outputChannels);
+        this.columnTypes = new Type[columnChannels.size()];
+        this.columnOffsets = new int[columnChannels.size()];
+        this.variableWidth = new boolean[columnChannels.size()];
+        int offset = FIRST_COLUMN_SLOT;
+        for (int i = 0; i < columnChannels.size(); i++) {
+            columnTypes[i] = types.get(columnChannels.get(i));
+            columnOffsets[i] = offset;
+            variableWidth[i] = isVariableWidth(columnTypes[i]);
+            offset += variableWidth[i] ? 2 : 1;
+        }
+        this.rowWidth = offset;
+        this.keyColumns = joinChannels.stream().mapToInt(columnChannels::indexOf).toArray();
+        this.outputColumns = outputChannels.stream().mapToInt(columnChannels::indexOf).toArray();
+        long keyNullMask = 0;
+        for (int keyColumn : keyColumns) {
+            keyNullMask |= 1L << keyColumn;
+        }
+
+        this.positionCount = positionCount;
+        this.rows = new long[rowsSize(positionCount, rowWidth)];
+        Slice currentChunk = null;
+        int currentChunkOffset = 0;
+        long arenaRetainedSizeInBytes = 0;
+        for (int position = 0; position < positionCount; position++) {
+            long pageAddress = addresses.get(position);
+            int blockIndex = decodeSliceIndex(pageAddress);
+            int blockPosition = decodePosition(pageAddress);
+
+            int row = position * rowWidth;
+            long nullMask = 0;
+            for (int i = 0; i < columnTypes.length; i++) {
+                Block block = channels.get(columnChannels.get(i)).get(blockIndex);
+                if (block.isNull(blockPosition)) {
+                    nullMask |= 1L << i;
+                    continue;
+                }
+                int slot = row + columnOffsets[i];
+                if (variableWidth[i]) {
+                    int length = block.getSliceLength(blockPosition);
+                    if (currentChunk == null || currentChunkOffset + length > currentChunk.length()) {
+                        // values larger than a chunk get a chunk of their own
+                        currentChunk = Slices.allocate(max(ARENA_CHUNK_SIZE, length));
+                        currentChunkOffset = 0;
+                        arenaChunks.add(currentChunk);
+                        arenaRetainedSizeInBytes += currentChunk.getRetainedSize();
+                    }
+                    if (length > 0) {
+                        currentChunk.setBytes(currentChunkOffset, block.getSlice(blockPosition, 0, length));
+                    }
+                    rows[slot] = encodeSyntheticAddress(arenaChunks.size() - 1, currentChunkOffset);
+                    rows[slot + 1] = length;
+                    currentChunkOffset += length;
+                }
+                else {
+                    rows[slot] = getLong(columnTypes[i], block, blockPosition);
+                }
+            }
+            rows[row + NULL_MASK_SLOT] = nullMask;
+            rows[row + NEXT_SLOT] = -1;
+            if (hashChannel.isPresent()) {
+                rows[row + HASH_SLOT] = BIGINT.getLong(channels.get(hashChannel.getAsInt()).get(blockIndex), blockPosition);
+            }
+            else {
+                long rawHash = INITIAL_HASH_VALUE;
+                for (int joinChannel : joinChannels) {
+                    Block block = channels.get(joinChannel).get(blockIndex);
+                    rawHash = CombineHashFunction.getHash(rawHash, TypeUtils.hashPosition(types.get(joinChannel), block, blockPosition));
+                }
+                rows[row + HASH_SLOT] = rawHash;
+            }
+        }
+        this.arenaRetainedSizeInBytes = arenaRetainedSizeInBytes;
+
+        int hashSize = arraySize(positionCount, FILL_RATIO);
+        this.mask = hashSize - 1;
+        this.rowsByHash = new int[hashSize];
+        Arrays.fill(rowsByHash, -1);
+        this.rawHashByHashPosition = new byte[hashSize];
+
+        long hashCollisions = 0;
+        long positionIsNullCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            int row = position * rowWidth;
+            if ((rows[row + NULL_MASK_SLOT] & keyNullMask) != 0) {
+                positionIsNullCount++;
+                continue;
+            }
+
+            long rawHash = rows[row + HASH_SLOT];
+            byte tag = (byte) rawHash;
+            int hashPosition = getHashPosition(rawHash, mask);
+            // look for an empty slot or a slot containing this key
+            while (rowsByHash[hashPosition] != -1) {
+                int current = rowsByHash[hashPosition];
+                if (rawHashByHashPosition[hashPosition] == tag && rowEqualsRow(current, position)) {
+                    // the new row becomes the head of the rows with this key
+                    rows[row + NEXT_SLOT] = current;
+                    break;
+                }
+                // increment position and mask to handle wrap around
+                hashPosition = (hashPosition + 1) & mask;
+                hashCollisions++;
+            }
+            rowsByHash[hashPosition] = position;
+            rawHashByHashPosition[hashPosition] = tag;
+        }
+        this.hashCollisions = hashCollisions;
+        this.expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
+        this.positionIsNullCount = positionIsNullCount;
+
+        long checksum = 0;
+        for (int position = 0; position < positionCount; position++) {
+            checksum = checksum * 31 + rows[position * rowWidth + NEXT_SLOT];
+        }
+        this.checksum = checksum;
+
+        long pagesSizeInBytes = addresses.getRetainedSizeInBytes();
+        for (List<Block> channel : channels) {
+            for (Block block : channel) {
+                pagesSizeInBytes += block.getRetainedSizeInBytes();
+            }
+        }
+        this.pagesSizeInBytes = pagesSizeInBytes;
+    }
+
+    public static boolean isSupported(List<Type> types, List<Integer> joinChannels, List<Integer> outputChannels, int positionCount)
+    {
+        if (joinChannels.isEmpty()) {
+            return false;
+        }
+        for (int joinChannel : joinChannels) {
+            Type type = types.get(joinChannel);
+            if (!KEY_TYPES.contains(type) && !isVariableWidth(type)) {
+                return false;
+            }
+        }
+        for (int outputChannel : outputChannels) {
+            Type type = types.get(outputChannel);
+            if (!OUTPUT_TYPES.contains(type) && !isVariableWidth(type)) {
+                return false;
+            }
+        }
+
+        List<Integer> columnChannels = columnChannels(joinChannels, outputChannels);
+        if (columnChannels.size() > MAX_COLUMNS) {
+            return false;
+        }
+        int rowWidth = FIRST_COLUMN_SLOT;
+        for (int channel : columnChannels) {
+            rowWidth += isVariableWidth(types.get(channel)) ? 2 : 1;
+        }
+        return positionCount * (long) rowWidth <= MAX_ROWS_SIZE;
+    }
+
+    /**
+     * Returns an upper bound of the memory allocated by a table over the given build side,
+     * excluding the pages which stay in the {@link PagesIndex}. It is reserved before the
+     * table is built, since the build side holds both the pages and the table afterwards.
+     */
+    public static long estimateSizeInBytes(List<Type> types, List<Integer> joinChannels, List<Integer> outputChannels, int positionCount, List<List<Block>> channels)
+    {
+        long rowsSize = 0;
+        long arenaSize = 0;
+        for (int channel : columnChannels(joinChannels, outputChannels)) {
+            if (!isVariableWidth(types.get(channel))) {
+                rowsSize++;
+                continue;
+            }
+            rowsSize += 2;
+            for (Block block : channels.get(channel)) {
+                arenaSize += block.getSizeInBytes();
+            }
+        }
+        rowsSize = (rowsSize + FIRST_COLUMN_SLOT) * positionCount * Long.BYTES;
+        // the space left at the end of a chunk is smaller than the value starting the next chunk,
+        // so the chunks are at most twice the size of the values plus the last chunk
+        arenaSize = 2 * arenaSize + ARENA_CHUNK_SIZE;
+        long hashSize = arraySize(positionCount, FILL_RATIO) * (long) (Integer.BYTES + Byte.BYTES);
+        return INSTANCE_SIZE + rowsSize + hashSize + arenaSize;
+    }
+
+    private static List<Integer> columnChannels(List<Integer> joinChannels, List<Integer> outputChannels)
+    {
+        Set<Integer> channels = new LinkedHashSet<>(joinChannels);
+        channels.addAll(outputChannels);
+        return new ArrayList<>(channels);
+    }
+
+    private static boolean isVariableWidth(Type type)
+    {
+        return type instanceof VarcharType || type.equals(VARBINARY);
+    }
+
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    public long getPositionIsNullCount()
+    {
+        return positionIsNullCount;
+    }
+
+    public long checksum()
+    {
+        return checksum;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return positionCount == 0;
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return outputColumns.length;
+    }
+
+    @Override
+    public long getJoinPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(rows) +
+                sizeOf(rowsByHash) +
+                sizeOf(rawHashByHashPosition) +
+                arenaRetainedSizeInBytes +
+                pagesSizeInBytes;
+    }
+
+    @Override
+    public long joinPositionWithinPartition(long joinPosition)
+    {
+        return joinPosition;
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage)
+    {
+        long rawHash = INITIAL_HASH_VALUE;
+        for (int i = 0; i < keyColumns.length; i++) {
+            rawHash = CombineHashFunction.getHash(rawHash, TypeUtils.hashPosition(columnTypes[keyColumns[i]], hashChannelsPage.getBlock(i), position));
+        }
+        return getJoinPosition(position, hashChannelsPage, allChannelsPage, rawHash);
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage, long rawHash)
+    {
+        byte tag = (byte) rawHash;
+        int hashPosition = getHashPosition(rawHash, mask);
+        while (rowsByHash[hashPosition] != -1) {
+            if (rawHashByHashPosition[hashPosition] == tag && rowEqualsPosition(rowsByHash[hashPosition], rawHash, position, hashChannelsPage)) {
+                return rowsByHash[hashPosition];
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        return rows[toIntExact(currentJoinPosition) * rowWidth + NEXT_SLOT];
+    }
+
+    @Override
+    public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        return true;
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        int row = toIntExact(position) * rowWidth;
+        long nullMask = rows[row + NULL_MASK_SLOT];
+        for (int i = 0; i < outputColumns.length; i++) {
+            int column = outputColumns[i];
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if ((nullMask & (1L << column)) != 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            Type type = columnTypes[column];
+            int slot = row + columnOffsets[column];
+            if (variableWidth[column]) {
+                long address = rows[slot];
+                type.writeSlice(blockBuilder, arenaChunks.get(decodeSliceIndex(address)), decodePosition(address), toIntExact(rows[slot + 1]));
+            }
+            else if (type.equals(BOOLEAN)) {
+                BOOLEAN.writeBoolean(blockBuilder, rows[slot] != 0);
+            }
+            else if (type.equals(DOUBLE)) {
+                DOUBLE.writeDouble(blockBuilder, Double.longBitsToDouble(rows[slot]));
+            }
+            else {
+                type.writeLong(blockBuilder, rows[slot]);
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    private boolean rowEqualsPosition(int joinPosition, long rawHash, int position, Page hashChannelsPage)
+    {
+        int row = joinPosition * rowWidth;
+        if (rows[row + HASH_SLOT] != rawHash) {
+            return false;
+        }
+        // rows with null keys are not in the directory and the probe skips positions with null keys
+        for (int i = 0; i < keyColumns.length; i++) {
+            int column = keyColumns[i];
+            Block block = hashChannelsPage.getBlock(i);
+            int slot = row + columnOffsets[column];
+            if (variableWidth[column]) {
+                int length = block.getSliceLength(position);
+                if (length != rows[slot + 1]) {
+                    return false;
+                }
+                long address = rows[slot];
+                if (!block.bytesEqual(position, 0, arenaChunks.get(decodeSliceIndex(address)), decodePosition(address), length)) {
+                    return false;
+                }
+            }
+            else if (rows[slot] != getLong(columnTypes[column], block, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean rowEqualsRow(int leftPosition, int rightPosition)
+    {
+        int leftRow = leftPosition * rowWidth;
+        int rightRow = rightPosition * rowWidth;
+        if (rows[leftRow + HASH_SLOT] != rows[rightRow + HASH_SLOT]) {
+            return false;
+        }
+        for (int column : keyColumns) {
+            int offset = columnOffsets[column];
+            if (variableWidth[column]) {
+                int length = toIntExact(rows[leftRow + offset + 1]);
+                if (length != rows[rightRow + offset + 1]) {
+                    return false;
+                }
+                long leftAddress = rows[leftRow + offset];
+                long rightAddress = rows[rightRow + offset];
+                if (!arenaChunks.get(decodeSliceIndex(leftAddress)).equals(decodePosition(leftAddress), length, arenaChunks.get(decodeSliceIndex(rightAddress)), decodePosition(rightAddress), length)) {
+                    return false;
+                }
+            }
+            else if (rows[leftRow + offset] != rows[rightRow + offset]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getLong(Type type, Block block, int position)
+    {
+        if (type.equals(BOOLEAN)) {
+            return BOOLEAN.getBoolean(block, position) ? 1 : 0;
+        }
+        if (type.equals(DOUBLE)) {
+            return Double.doubleToRawLongBits(DOUBLE.getDouble(block, position));
+        }
+        return type.getLong(block, position);
+    }
+
+    private static int rowsSize(int positionCount, int rowWidth)
+    {
+        long size = positionCount * (long) rowWidth;
+        if (size > MAX_ROWS_SIZE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of compact join hash rows cannot exceed " + MAX_ROWS_SIZE + " slots");
+        }
+        return toIntExact(size);
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+}
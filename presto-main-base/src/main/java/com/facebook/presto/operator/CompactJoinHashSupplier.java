@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.array.AdaptiveLongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+public class CompactJoinHashSupplier
+        implements LookupSourceSupplier
+{
+    private final CompactJoinHash joinHash;
+
+    public CompactJoinHashSupplier(
+            List<Type> types,
+            List<Integer> joinChannels,
+            OptionalInt hashChannel,
+            List<Integer> outputChannels,
+            AdaptiveLongBigArray addresses,
+            int positionCount,
+            List<List<Block>> channels)
+    {
+        this.joinHash = new CompactJoinHash(types, joinChannels, hashChannel, outputChannels, addresses, positionCount, channels);
+    }
+
+    /**
+     * Returns whether the build side can use a {@link CompactJoinHash}. Joins with a filter
+     * function need the build pages to evaluate it, so they always use {@link JoinHash}.
+     */
+    public static boolean isSupported(
+            List<Type> types,
+            List<Integer> joinChannels,
+            List<Integer> outputChannels,
+            int positionCount,
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            Optional<Integer> sortChannel)
+    {
+        return !filterFunctionFactory.isPresent() &&
+                !sortChannel.isPresent() &&
+                CompactJoinHash.isSupported(types, joinChannels, outputChannels, positionCount);
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return joinHash.getHashCollisions();
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return joinHash.getExpectedHashCollisions();
+    }
+
+    @Override
+    public long checksum()
+    {
+        return joinHash.checksum();
+    }
+
+    @Override
+    public long getPositionIsNullCount()
+    {
+        return joinHash.getPositionIsNullCount();
+    }
+
+    @Override
+    public long getPositionCount()
+    {
+        return joinHash.getJoinPositionCount();
+    }
+
+    @Override
+    public CompactJoinHash get()
+    {
+        // the table is immutable, so it is shared by all the threads using it
+        return joinHash;
+    }
+}
@@ -138,6 +138,15 @@ public class DriverContext
         return ImmutableList.copyOf(operatorContexts);
     }
 
+    public long getAdditionalCpuNanos()
+    {
+        long additionalCpuNanos = 0;
+        for (OperatorContext operatorContext : operatorContexts) {
+            additionalCpuNanos += operatorContext.getAdditionalCpuNanos();
+        }
+        return additionalCpuNanos;
+    }
+
     public PipelineContext getPipelineContext()
     {
         return pipelineContext;
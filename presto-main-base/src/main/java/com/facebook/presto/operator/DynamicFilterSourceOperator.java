@@ -18,24 +18,36 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.common.predicate.Range.range;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.TypeUtils.isFloatingPointNaN;
 import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static java.util.Objects.requireNonNull;
@@ -46,11 +58,14 @@ import static java.util.stream.Collectors.toSet;
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
  * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * When enabled, a Bloom filter of the values of integral and varchar channels is also built for up to a configurable number of rows,
+ * so that selective readers can prune probe-side rows which the min/max range alone would keep.
  */
 public class DynamicFilterSourceOperator
         implements Operator
 {
     private static final int EXPECTED_BLOCK_BUILDER_SIZE = 8;
+    private static final Set<Type> BLOOM_FILTER_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, VARBINARY);
 
     public static class Channel
     {
@@ -87,10 +102,12 @@ public class DynamicFilterSourceOperator
         private final int operatorId;
         private final PlanNodeId planNodeId;
         private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final Consumer<Map<String, SplitBlockBloomFilter>> bloomFilterConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final int bloomFilterRowLimit;
         private final boolean useNewNanDefinition;
 
         private boolean closed;
@@ -104,10 +121,26 @@ public class DynamicFilterSourceOperator
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
                 boolean useNewNanDefinition)
+        {
+            this(operatorId, planNodeId, dynamicPredicateConsumer, bloomFilters -> {}, channels, maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, 0, useNewNanDefinition);
+        }
+
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+                Consumer<Map<String, SplitBlockBloomFilter>> bloomFilterConsumer,
+                List<Channel> channels,
+                int maxFilterPositionsCount,
+                DataSize maxFilterSize,
+                int minMaxCollectionLimit,
+                int bloomFilterRowLimit,
+                boolean useNewNanDefinition)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(
                     channels.stream().map(channel -> channel.getFilterId()).collect(toSet()).size() == channels.size(),
@@ -118,6 +151,7 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterRowLimit = bloomFilterRowLimit;
             this.useNewNanDefinition = useNewNanDefinition;
         }
 
@@ -128,11 +162,13 @@ public class DynamicFilterSourceOperator
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
                     dynamicPredicateConsumer,
+                    bloomFilterConsumer,
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterRowLimit,
                     useNewNanDefinition);
         }
 
@@ -152,6 +188,7 @@ public class DynamicFilterSourceOperator
 
     private final OperatorContext context;
     private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final Consumer<Map<String, SplitBlockBloomFilter>> bloomFilterConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
@@ -173,14 +210,21 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    private int bloomFilterRowLimit;
+    // Indexed by channel, null for channels of unsupported types. Dropped if there are too many rows.
+    @Nullable
+    private SplitBlockBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            Consumer<Map<String, SplitBlockBloomFilter>> bloomFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            int bloomFilterRowLimit,
             boolean useNewNanDefinition)
     {
         this.context = requireNonNull(context, "context is null");
@@ -188,6 +232,7 @@ public class DynamicFilterSourceOperator
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
 
         this.blockBuilders = new BlockBuilder[channels.size()];
@@ -214,9 +259,24 @@ public class DynamicFilterSourceOperator
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
         }
+        this.bloomFilterRowLimit = bloomFilterRowLimit;
+        if (bloomFilterRowLimit > 0) {
+            bloomFilters = new SplitBlockBloomFilter[channels.size()];
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                if (isBloomFilterSupported(channels.get(channelIndex).getType())) {
+                    // all drivers use the same size, so that the filters of the build-side partitions can be merged
+                    bloomFilters[channelIndex] = SplitBlockBloomFilter.create(bloomFilterRowLimit);
+                }
+            }
+        }
         this.useNewNanDefinition = useNewNanDefinition;
     }
 
+    private static boolean isBloomFilterSupported(Type type)
+    {
+        return BLOOM_FILTER_TYPES.contains(type) || type instanceof VarcharType;
+    }
+
     @Override
     public OperatorContext getOperatorContext()
     {
@@ -234,6 +294,7 @@ public class DynamicFilterSourceOperator
     {
         verify(!finished, "DynamicFilterSourceOperator: addInput() shouldn't not be called after finish()");
         current = page;
+        updateBloomFilters(page);
         if (valueSets == null) {
             // the exact predicate became too large.
             if (minValues == null) {
@@ -272,6 +333,45 @@ public class DynamicFilterSourceOperator
         }
     }
 
+    private void updateBloomFilters(Page page)
+    {
+        if (bloomFilters == null) {
+            return;
+        }
+        bloomFilterRowLimit -= page.getPositionCount();
+        if (bloomFilterRowLimit < 0) {
+            // the false positive rate would be too high, drop the Bloom filters
+            bloomFilters = null;
+            return;
+        }
+        for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+            SplitBlockBloomFilter bloomFilter = bloomFilters[channelIndex];
+            if (bloomFilter == null) {
+                continue;
+            }
+            Type type = channels.get(channelIndex).getType();
+            Block block = page.getBlock(channels.get(channelIndex).getIndex());
+            boolean integral = type.getJavaType() == long.class;
+            for (int position = 0; position < block.getPositionCount(); ++position) {
+                if (block.isNull(position)) {
+                    continue;
+                }
+                if (integral) {
+                    bloomFilter.putLong(type.getLong(block, position));
+                }
+                else {
+                    Slice slice = type.getSlice(block, position);
+                    if (slice.hasByteArray()) {
+                        bloomFilter.putBytes(slice.byteArray(), slice.byteArrayOffset(), slice.length());
+                    }
+                    else {
+                        bloomFilter.putBytes(slice.getBytes(), 0, slice.length());
+                    }
+                }
+            }
+        }
+    }
+
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
@@ -366,6 +466,7 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        finishBloomFilters();
         ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
         if (valueSets == null) {
             if (minValues == null) {
@@ -406,6 +507,21 @@ public class DynamicFilterSourceOperator
         dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
     }
 
+    private void finishBloomFilters()
+    {
+        // Bloom filters are only useful when the exact set of values became too large
+        ImmutableMap.Builder<String, SplitBlockBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        if (bloomFilters != null && valueSets == null) {
+            for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
+                if (bloomFilters[channelIndex] != null) {
+                    bloomFiltersBuilder.put(channels.get(channelIndex).getFilterId(), bloomFilters[channelIndex]);
+                }
+            }
+        }
+        bloomFilters = null;
+        bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+    }
+
     private Domain convertToDomain(Type type, Block block)
     {
         ImmutableList.Builder<Object> values = ImmutableList.builder();
@@ -96,6 +96,7 @@ public class FilterAndProjectOperator
                 operatorContext.getDriverContext().getYieldSignal(),
                 pageProcessorMemoryContext,
                 page));
+        processor.recordFilterStats(operatorContext.getRuntimeStats());
         outputMemoryContext.setBytes(mergingOutput.getRetainedSizeInBytes() + pageProcessorMemoryContext.getBytes());
     }
 
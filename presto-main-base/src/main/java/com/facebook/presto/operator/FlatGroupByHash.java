@@ -0,0 +1,595 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.operator.scalar.CombineHashFunction;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.facebook.presto.type.TypeUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.sql.planner.PlannerUtils.INITIAL_HASH_VALUE;
+import static com.facebook.presto.util.Failures.checkArgument;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash that stores the keys of every group as a fixed width row in a single {@code long[]},
+ * instead of appending them to per channel block builders like {@link MultiChannelGroupByHash}.
+ * <p>
+ * A row consists of the raw hash of the group, a null mask and one slot per fixed width key.
+ * Variable width keys take two slots, the address of the value in a chunked byte arena and its length.
+ * Probing compares the keys of a candidate group with a handful of array reads instead of virtual
+ * calls into the generated hash strategy, and rehashing never has to recompute hashes.
+ * <p>
+ * This implementation assumes arrays used in the hash are always a power of 2
+ */
+public class FlatGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FlatGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+    private static final int MAX_KEYS = Long.SIZE;
+    private static final int ARENA_CHUNK_SIZE = 64 * 1024;
+    // leave some headroom below Integer.MAX_VALUE for the array header
+    private static final int MAX_ROWS_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final int HASH_SLOT = 0;
+    private static final int NULL_MASK_SLOT = 1;
+    private static final int FIRST_KEY_SLOT = 2;
+
+    private static final Set<Type> FIXED_WIDTH_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE, TIMESTAMP, BOOLEAN);
+
+    private final List<Type> types;
+    private final Type[] hashTypes;
+    private final int[] channels;
+    private final Optional<Integer> inputHashChannel;
+    private final HashGenerator hashGenerator;
+
+    private final int rowWidth;
+    // offset of the first slot of each key within a row
+    private final int[] keyOffsets;
+    private final boolean[] variableWidth;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+    private int[] groupIdsByHash;
+    private byte[] rawHashByHashPosition;
+
+    // rows of all groups, ordered by group id
+    private long[] rows;
+
+    private final List<Slice> arenaChunks = new ArrayList<>();
+    private Slice currentChunk;
+    private int currentChunkOffset;
+    private long arenaRetainedSizeInBytes;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public FlatGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            UpdateMemory updateMemory)
+    {
+        requireNonNull(hashTypes, "hashTypes is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(isSupported(hashTypes), "Unsupported types for flat group by hash: %s", hashTypes);
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.hashTypes = hashTypes.toArray(new Type[0]);
+        this.channels = hashChannels.clone();
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.types = inputHashChannel.isPresent() ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : ImmutableList.copyOf(hashTypes);
+        this.hashGenerator = inputHashChannel.isPresent() ? new PrecomputedHashGenerator(inputHashChannel.get()) : new InterpretedHashGenerator(ImmutableList.copyOf(hashTypes), hashChannels);
+
+        this.keyOffsets = new int[this.hashTypes.length];
+        this.variableWidth = new boolean[this.hashTypes.length];
+        int offset = FIRST_KEY_SLOT;
+        for (int i = 0; i < this.hashTypes.length; i++) {
+            keyOffsets[i] = offset;
+            variableWidth[i] = isVariableWidth(this.hashTypes[i]);
+            offset += variableWidth[i] ? 2 : 1;
+        }
+        this.rowWidth = offset;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+        rawHashByHashPosition = new byte[hashCapacity];
+        rows = new long[rowsSize(maxFill)];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (hashTypes.isEmpty() || hashTypes.size() > MAX_KEYS) {
+            return false;
+        }
+        for (Type type : hashTypes) {
+            if (!FIXED_WIDTH_TYPES.contains(type) && !isVariableWidth(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVariableWidth(Type type)
+    {
+        return type instanceof VarcharType || type.equals(VARBINARY);
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(rows) +
+                sizeOf(groupIdsByHash) +
+                sizeOf(rawHashByHashPosition) +
+                arenaRetainedSizeInBytes +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        int row = groupId * rowWidth;
+        long nullMask = rows[row + NULL_MASK_SLOT];
+        for (int i = 0; i < hashTypes.length; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if ((nullMask & (1L << i)) != 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            int slot = row + keyOffsets[i];
+            if (variableWidth[i]) {
+                long address = rows[slot];
+                hashTypes[i].writeSlice(blockBuilder, arenaChunks.get(decodeSliceIndex(address)), decodePosition(address), toIntExact(rows[slot + 1]));
+            }
+            else if (hashTypes[i].equals(BOOLEAN)) {
+                BOOLEAN.writeBoolean(blockBuilder, rows[slot] != 0);
+            }
+            else {
+                hashTypes[i].writeLong(blockBuilder, rows[slot]);
+            }
+        }
+        if (inputHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + hashTypes.length), rows[row + HASH_SLOT]);
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(page);
+    }
+
+    @Override
+    public List<Page> getBufferedPages()
+    {
+        throw new UnsupportedOperationException("FlatGroupByHash does not support getBufferedPages");
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(page);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = INITIAL_HASH_VALUE;
+        for (int i = 0; i < hashTypes.length; i++) {
+            rawHash = CombineHashFunction.getHash(rawHash, TypeUtils.hashPosition(hashTypes[i], page.getBlock(hashChannels[i]), position));
+        }
+        return contains(position, page, hashChannels, rawHash);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+        byte tag = (byte) rawHash;
+
+        // look for a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (rawHashByHashPosition[hashPosition] == tag && rowEqualsPosition(groupIdsByHash[hashPosition], rawHash, position, page, hashChannels)) {
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rows[groupId * rowWidth + HASH_SLOT];
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(int position, Page page)
+    {
+        long rawHash = hashGenerator.hashPosition(position, page);
+        int hashPosition = getHashPosition(rawHash, mask);
+        byte tag = (byte) rawHash;
+
+        // look for an empty slot or a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (rawHashByHashPosition[hashPosition] == tag && rowEqualsPosition(groupId, rawHash, position, page, channels)) {
+                // found an existing slot for this key
+                return groupId;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, position, page, rawHash);
+    }
+
+    private boolean rowEqualsPosition(int groupId, long rawHash, int position, Page page, int[] hashChannels)
+    {
+        int row = groupId * rowWidth;
+        if (rows[row + HASH_SLOT] != rawHash) {
+            return false;
+        }
+        long nullMask = rows[row + NULL_MASK_SLOT];
+        for (int i = 0; i < hashTypes.length; i++) {
+            Block block = page.getBlock(hashChannels[i]);
+            boolean rowIsNull = (nullMask & (1L << i)) != 0;
+            if (block.isNull(position)) {
+                if (!rowIsNull) {
+                    return false;
+                }
+                continue;
+            }
+            if (rowIsNull) {
+                return false;
+            }
+
+            int slot = row + keyOffsets[i];
+            if (variableWidth[i]) {
+                int length = block.getSliceLength(position);
+                if (length != rows[slot + 1]) {
+                    return false;
+                }
+                long address = rows[slot];
+                if (!block.bytesEqual(position, 0, arenaChunks.get(decodeSliceIndex(address)), decodePosition(address), length)) {
+                    return false;
+                }
+            }
+            else if (rows[slot] != getLong(hashTypes[i], block, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int hashPosition, int position, Page page, long rawHash)
+    {
+        int groupId = nextGroupId++;
+
+        int row = groupId * rowWidth;
+        long nullMask = 0;
+        rows[row + HASH_SLOT] = rawHash;
+        for (int i = 0; i < hashTypes.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            if (block.isNull(position)) {
+                nullMask |= 1L << i;
+                continue;
+            }
+            int slot = row + keyOffsets[i];
+            if (variableWidth[i]) {
+                int length = block.getSliceLength(position);
+                rows[slot] = appendToArena(block, position, length);
+                rows[slot + 1] = length;
+            }
+            else {
+                rows[slot] = getLong(hashTypes[i], block, position);
+            }
+        }
+        rows[row + NULL_MASK_SLOT] = nullMask;
+
+        groupIdsByHash[hashPosition] = groupId;
+        rawHashByHashPosition[hashPosition] = (byte) rawHash;
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private long appendToArena(Block block, int position, int length)
+    {
+        if (currentChunk == null || currentChunkOffset + length > currentChunk.length()) {
+            // values larger than a chunk get a chunk of their own
+            currentChunk = Slices.allocate(max(ARENA_CHUNK_SIZE, length));
+            currentChunkOffset = 0;
+            arenaChunks.add(currentChunk);
+            arenaRetainedSizeInBytes += currentChunk.getRetainedSize();
+        }
+        long address = encodeSyntheticAddress(arenaChunks.size() - 1, currentChunkOffset);
+        if (length > 0) {
+            currentChunk.setBytes(currentChunkOffset, block.getSlice(position, 0, length));
+        }
+        currentChunkOffset += length;
+        return address;
+    }
+
+    private static long getLong(Type type, Block block, int position)
+    {
+        if (type.equals(BOOLEAN)) {
+            return BOOLEAN.getBoolean(block, position) ? 1 : 0;
+        }
+        return type.getLong(block, position);
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+        int newMaxFill = calculateMaxFill(newCapacity);
+        int newRowsSize = rowsSize(newMaxFill);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash, rawHashByHashPosition and rows as well as the size of the current page
+        preallocatedMemoryInBytes = newCapacity * (long) (Integer.BYTES + Byte.BYTES) +
+                newRowsSize * (long) Long.BYTES +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIds = new int[newCapacity];
+        Arrays.fill(newGroupIds, -1);
+        byte[] newRawHashes = new byte[newCapacity];
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // the raw hash is part of the row, so there is no need to hash the keys again
+            long rawHash = rows[groupId * rowWidth + HASH_SLOT];
+            int hashPosition = getHashPosition(rawHash, newMask);
+            while (newGroupIds[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+            newGroupIds[hashPosition] = groupId;
+            newRawHashes[hashPosition] = (byte) rawHash;
+        }
+
+        this.mask = newMask;
+        this.hashCapacity = newCapacity;
+        this.maxFill = newMaxFill;
+        this.groupIdsByHash = newGroupIds;
+        this.rawHashByHashPosition = newRawHashes;
+        this.rows = Arrays.copyOf(rows, newRowsSize);
+
+        preallocatedMemoryInBytes = 0;
+        // release temporary memory reservation
+        updateMemory.update();
+        return true;
+    }
+
+    private int rowsSize(int groupCount)
+    {
+        long size = groupCount * (long) rowWidth;
+        if (size > MAX_ROWS_SIZE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of flat group by hash rows cannot exceed " + MAX_ROWS_SIZE + " slots");
+        }
+        return toIntExact(size);
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                putIfAbsent(lastPosition, page);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final long[] groupIds;
+        private final Page page;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.groupIds = new long[page.getPositionCount()];
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                groupIds[lastPosition] = putIfAbsent(lastPosition, page);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, new LongArrayBlock(groupIds.length, Optional.empty(), groupIds));
+        }
+    }
+}
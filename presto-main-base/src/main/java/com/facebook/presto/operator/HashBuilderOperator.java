@@ -524,6 +524,14 @@ public class HashBuilderOperator
             return;
         }
 
+        // reserve the copy of the build side made by a compact lookup source before it is allocated
+        long reservedBytes = index.getEstimatedSize().toBytes() + estimateLookupSourceCopySizeInBytes();
+        if (spillEnabled) {
+            localRevocableMemoryContext.setBytes(reservedBytes);
+        }
+        else {
+            localUserMemoryContext.setBytes(reservedBytes, enforceBroadcastMemoryLimit);
+        }
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             localRevocableMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
@@ -615,6 +623,7 @@ public class HashBuilderOperator
             localUserMemoryContext.setBytes(retainedSizeOfUnSpilledPages + index.getEstimatedSize().toBytes(), enforceBroadcastMemoryLimit);
         }
 
+        localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes() + estimateLookupSourceCopySizeInBytes(), enforceBroadcastMemoryLimit);
         LookupSourceSupplier partition = buildLookupSource();
         lookupSourceChecksum.ifPresent(checksum ->
                 checkState(partition.checksum() == checksum, "Unspilled lookupSource checksum does not match original one"));
@@ -639,6 +648,11 @@ public class HashBuilderOperator
         spilledLookupSourceHandle.setDisposeCompleted();
     }
 
+    private long estimateLookupSourceCopySizeInBytes()
+    {
+        return index.estimateLookupSourceCopySizeInBytes(operatorContext.getSession(), hashChannels, filterFunctionFactory, sortChannel, Optional.of(outputChannels));
+    }
+
     private LookupSourceSupplier buildLookupSource()
     {
         LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels));
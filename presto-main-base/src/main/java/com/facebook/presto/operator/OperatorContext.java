@@ -40,6 +40,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.facebook.airlift.units.Duration.succinctNanos;
+import static com.facebook.presto.common.RuntimeMetricName.UNSPILL_PREFETCH_HIT;
+import static com.facebook.presto.common.RuntimeMetricName.UNSPILL_PREFETCH_MISS;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.operator.BlockedReason.WAITING_FOR_MEMORY;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -126,7 +129,7 @@ public class OperatorContext
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
         this.operatorType = requireNonNull(operatorType, "operatorType is null");
         this.driverContext = requireNonNull(driverContext, "driverContext is null");
-        this.spillContext = new OperatorSpillContext(this.driverContext);
+        this.spillContext = new OperatorSpillContext(this.driverContext, runtimeStats);
         this.executor = requireNonNull(executor, "executor is null");
         this.memoryFuture = new AtomicReference<>(SettableFuture.create());
         this.memoryFuture.get().set(null);
@@ -261,6 +264,11 @@ public class OperatorContext
         this.additionalCpuNanos.getAndAdd(cpuTimeNanos);
     }
 
+    public long getAdditionalCpuNanos()
+    {
+        return additionalCpuNanos.get();
+    }
+
     public void recordBlocked(ListenableFuture<?> blocked)
     {
         requireNonNull(blocked, "blocked is null");
@@ -626,12 +634,14 @@ public class OperatorContext
             implements SpillContext
     {
         private final DriverContext driverContext;
+        private final RuntimeStats runtimeStats;
         private final AtomicLong reservedBytes = new AtomicLong();
         private final AtomicLong spilledBytes = new AtomicLong();
 
-        public OperatorSpillContext(DriverContext driverContext)
+        public OperatorSpillContext(DriverContext driverContext, RuntimeStats runtimeStats)
         {
             this.driverContext = driverContext;
+            this.runtimeStats = runtimeStats;
         }
 
         @Override
@@ -654,6 +664,12 @@ public class OperatorContext
             return driverContext.getSession();
         }
 
+        @Override
+        public void recordUnspillPrefetch(boolean hit)
+        {
+            runtimeStats.addMetricValue(hit ? UNSPILL_PREFETCH_HIT : UNSPILL_PREFETCH_MISS, NONE, 1);
+        }
+
         public long getSpilledBytes()
         {
             return spilledBytes.longValue();
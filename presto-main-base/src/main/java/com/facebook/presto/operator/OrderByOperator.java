@@ -19,6 +19,7 @@ import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PrefetchingPageIterator;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.OrderingCompiler;
@@ -334,7 +335,7 @@ public class OrderByOperator
         }
 
         return spiller.get().getSpills().stream()
-                .map(WorkProcessor::fromIterator)
+                .map(PrefetchingPageIterator::toWorkProcessor)
                 .collect(toImmutableList());
     }
 
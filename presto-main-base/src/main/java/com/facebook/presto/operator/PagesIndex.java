@@ -54,6 +54,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.presto.SystemSessionProperties.isCompactJoinHashTableEnabled;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
@@ -482,6 +483,10 @@ public class PagesIndex
             Optional<List<Integer>> outputChannels)
     {
         List<List<Block>> channels = ImmutableList.copyOf(this.channels);
+        if (isCompactJoinHashSupported(session, joinChannels, filterFunctionFactory, sortChannel, outputChannels)) {
+            List<Integer> lookupOutputChannels = outputChannels.orElseGet(() -> rangeList(types.size()));
+            return new CompactJoinHashSupplier(types, joinChannels, hashChannel, lookupOutputChannels, valueAddresses, positionCount, channels);
+        }
         if (!joinChannels.isEmpty()) {
             // todo compiled implementation of lookup join does not support when we are joining with empty join channels.
             // This code path will trigger only for OUTER joins. To fix that we need to add support for
@@ -525,6 +530,35 @@ public class PagesIndex
                 searchFunctionFactories);
     }
 
+    /**
+     * Returns the memory that {@link #createLookupSourceSupplier} allocates on top of this index when it copies
+     * the build side into a compact table, so that it can be reserved before the table is built.
+     */
+    public long estimateLookupSourceCopySizeInBytes(
+            Session session,
+            List<Integer> joinChannels,
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            Optional<Integer> sortChannel,
+            Optional<List<Integer>> outputChannels)
+    {
+        if (!isCompactJoinHashSupported(session, joinChannels, filterFunctionFactory, sortChannel, outputChannels)) {
+            return 0;
+        }
+        List<Integer> lookupOutputChannels = outputChannels.orElseGet(() -> rangeList(types.size()));
+        return CompactJoinHash.estimateSizeInBytes(types, joinChannels, lookupOutputChannels, positionCount, ImmutableList.copyOf(channels));
+    }
+
+    private boolean isCompactJoinHashSupported(
+            Session session,
+            List<Integer> joinChannels,
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            Optional<Integer> sortChannel,
+            Optional<List<Integer>> outputChannels)
+    {
+        return isCompactJoinHashTableEnabled(session) &&
+                CompactJoinHashSupplier.isSupported(types, joinChannels, outputChannels.orElseGet(() -> rangeList(types.size())), positionCount, filterFunctionFactory, sortChannel);
+    }
+
     private List<Integer> rangeList(int endExclusive)
     {
         return IntStream.range(0, endExclusive)
@@ -37,6 +37,7 @@ import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.split.AsyncPageSource;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
@@ -93,6 +94,7 @@ public class ScanFilterAndProjectOperator
     private long completedBytes;
     private long completedPositions;
     private long readTimeNanos;
+    private long producerCpuNanos;
 
     protected ScanFilterAndProjectOperator(
             OperatorContext operatorContext,
@@ -302,6 +304,7 @@ public class ScanFilterAndProjectOperator
                 page = recordProcessedInput(page);
 
                 Iterator<Optional<Page>> output = pageProcessor.process(sqlFunctionProperties, yieldSignal, pageProcessorMemoryContext, page);
+                pageProcessor.recordFilterStats(operatorContext.getRuntimeStats());
                 mergingOutput.addInput(output);
             }
 
@@ -369,6 +372,12 @@ public class ScanFilterAndProjectOperator
             runtimeStats.addMetricValueIgnoreZero(STORAGE_READ_DATA_BYTES, BYTE, inputBytes);
             operatorContext.updateStats(runtimeStats);
         }
+        if (pageSource instanceof AsyncPageSource) {
+            // charge the CPU time spent reading the page source on the I/O thread to this operator
+            long endProducerCpuNanos = ((AsyncPageSource) pageSource).getProducerCpuNanos();
+            operatorContext.recordAdditionalCpu(endProducerCpuNanos - producerCpuNanos);
+            producerCpuNanos = endProducerCpuNanos;
+        }
         completedBytes = endCompletedBytes;
         completedPositions = endCompletedPositions;
         readTimeNanos = endReadTimeNanos;
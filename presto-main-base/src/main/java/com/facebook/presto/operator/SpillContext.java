@@ -25,6 +25,11 @@ public interface SpillContext
 
     Session getSession();
 
+    /**
+     * Records whether a page read back from spill was already prefetched when it was requested.
+     */
+    default void recordUnspillPrefetch(boolean hit) {}
+
     default SpillContext newLocalSpillContext()
     {
         return new LocalSpillContext(this);
@@ -17,6 +17,7 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.spiller.PrefetchingPageIterator;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.annotations.VisibleForTesting;
@@ -148,7 +149,7 @@ public class SpillableGroupedTopNBuilder
         // Collect all spill streams to merge-sort
         List<WorkProcessor<Page>> sortedPageStreams = ImmutableList.<WorkProcessor<Page>>builder()
                 .addAll(spiller.get().getSpills().stream()
-                        .map(WorkProcessor::fromIterator)
+                        .map(PrefetchingPageIterator::toWorkProcessor)
                         .collect(toImmutableList()))
                 .build();
 
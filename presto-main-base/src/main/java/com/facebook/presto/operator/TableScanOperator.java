@@ -23,6 +23,7 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.split.AsyncPageSource;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
@@ -117,6 +118,7 @@ public class TableScanOperator
     private long completedBytes;
     private long completedPositions;
     private long readTimeNanos;
+    private long producerCpuNanos;
 
     public TableScanOperator(
             OperatorContext operatorContext,
@@ -296,6 +298,12 @@ public class TableScanOperator
             runtimeStats.addMetricValueIgnoreZero(STORAGE_READ_DATA_BYTES, BYTE, inputBytes);
             operatorContext.updateStats(runtimeStats);
         }
+        if (source instanceof AsyncPageSource) {
+            // charge the CPU time spent reading the page source on the I/O thread to this operator
+            long endProducerCpuNanos = ((AsyncPageSource) source).getProducerCpuNanos();
+            operatorContext.recordAdditionalCpu(endProducerCpuNanos - producerCpuNanos);
+            producerCpuNanos = endProducerCpuNanos;
+        }
         completedBytes = endCompletedBytes;
         completedPositions = endCompletedPositions;
         readTimeNanos = endReadTimeNanos;
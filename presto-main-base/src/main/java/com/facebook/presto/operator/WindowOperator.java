@@ -21,10 +21,12 @@ import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.operator.WorkProcessor.Transformation;
 import com.facebook.presto.operator.WorkProcessor.TransformationState;
+import com.facebook.presto.operator.window.AggregateWindowFunction;
 import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.operator.window.FramedWindowFunction;
 import com.facebook.presto.operator.window.WindowPartition;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PrefetchingPageIterator;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.OrderingCompiler;
@@ -606,10 +608,13 @@ public class WindowOperator
             implements Transformation<WindowPartition, Page>
     {
         final PageBuilder pageBuilder;
+        // segment trees built by aggregate window functions for the current partition
+        final LocalMemoryContext windowFunctionsMemoryContext;
 
         WindowPartitionsToOutputPages()
         {
             pageBuilder = new PageBuilder(outputTypes);
+            windowFunctionsMemoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(WindowPartitionsToOutputPages.class.getSimpleName());
         }
 
         @Override
@@ -617,6 +622,7 @@ public class WindowOperator
         {
             boolean finishing = !partitionOptional.isPresent();
             if (finishing) {
+                windowFunctionsMemoryContext.close();
                 if (pageBuilder.isEmpty()) {
                     return TransformationState.finished();
                 }
@@ -631,6 +637,7 @@ public class WindowOperator
             while (!pageBuilder.isFull() && partition.hasNext()) {
                 partition.processNextRow(pageBuilder);
             }
+            updateWindowFunctionsMemoryUsage();
             if (!pageBuilder.isFull()) {
                 return needsMoreData();
             }
@@ -639,6 +646,17 @@ public class WindowOperator
             pageBuilder.reset();
             return TransformationState.ofResult(page, !partition.hasNext());
         }
+
+        void updateWindowFunctionsMemoryUsage()
+        {
+            long bytes = 0;
+            for (FramedWindowFunction windowFunction : windowFunctions) {
+                if (windowFunction.getFunction() instanceof AggregateWindowFunction) {
+                    bytes += ((AggregateWindowFunction) windowFunction.getFunction()).getRetainedSizeInBytes();
+                }
+            }
+            windowFunctionsMemoryContext.setBytes(bytes);
+        }
     }
 
     private class SpillablePagesToPagesIndexes
@@ -813,7 +831,7 @@ public class WindowOperator
 
             List<WorkProcessor<Page>> sortedStreams = ImmutableList.<WorkProcessor<Page>>builder()
                     .addAll(spiller.get().getSpills().stream()
-                            .map(WorkProcessor::fromIterator)
+                            .map(PrefetchingPageIterator::toWorkProcessor)
                             .collect(toImmutableList()))
                     .add(WorkProcessor.fromIterator(inMemoryPagesIndexWithHashStrategies.pagesIndex.getSortedPages()))
                     .build();
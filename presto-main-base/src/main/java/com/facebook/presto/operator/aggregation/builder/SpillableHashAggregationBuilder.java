@@ -24,6 +24,7 @@ import com.facebook.presto.operator.Work;
 import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.spi.plan.AggregationNode;
+import com.facebook.presto.spiller.PrefetchingPageIterator;
 import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
@@ -276,7 +277,7 @@ public class SpillableHashAggregationBuilder
                 hashAggregationBuilder.buildIntermediateTypes(),
                 ImmutableList.<WorkProcessor<Page>>builder()
                         .addAll(spiller.get().getSpills().stream()
-                                .map(WorkProcessor::fromIterator)
+                                .map(PrefetchingPageIterator::toWorkProcessor)
                                 .collect(toImmutableList()))
                         .add(hashAggregationBuilder.buildHashSortedResult())
                         .build(),
@@ -295,7 +296,7 @@ public class SpillableHashAggregationBuilder
                 groupByTypes,
                 hashAggregationBuilder.buildIntermediateTypes(),
                 spiller.get().getSpills().stream()
-                        .map(WorkProcessor::fromIterator)
+                        .map(PrefetchingPageIterator::toWorkProcessor)
                         .collect(toImmutableList()),
                 operatorContext.getDriverContext().getYieldSignal());
 
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.common.RuntimeMetricName.ADAPTIVE_FILTER_REORDER_COUNT;
+import static com.facebook.presto.common.RuntimeMetricName.FILTER_CONJUNCT_INPUT_POSITIONS;
+import static com.facebook.presto.common.RuntimeMetricName.FILTER_CONJUNCT_SELECTED_POSITIONS;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
+import static com.facebook.presto.operator.project.SelectedPositions.positionsRange;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Verify.verify;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a conjunction one conjunct at a time, where every conjunct only sees the positions
+ * selected by the conjuncts evaluated before it. The cost and selectivity of each conjunct are
+ * measured over a few pages, and then the conjuncts are reordered so that the ones removing the
+ * most positions per unit of cost run first. The conjuncts are profiled again periodically, so the
+ * order follows changes in the data.
+ * <p>
+ * A conjunct evaluated out of planner order may fail on a position that an earlier conjunct
+ * would have removed. If any conjunct fails, the page and all following pages are evaluated by
+ * the filter compiled for the whole conjunction, so errors are reported exactly as without
+ * reordering.
+ */
+public class AdaptiveConjunctionPageFilter
+        implements PageFilter
+{
+    private static final int PROFILED_PAGES = 8;
+    private static final int REPROFILE_INTERVAL_PAGES = 1024;
+
+    private final PageFilter filter;
+    private final List<PageFilter> conjuncts;
+    // channels of the filter input page read by each conjunct
+    private final int[][] conjunctChannels;
+    private final String[] inputPositionsMetricNames;
+    private final String[] selectedPositionsMetricNames;
+
+    private final int[] order;
+    private final long[] profiledPositions;
+    private final long[] profiledSelectedPositions;
+    private final long[] profiledNanos;
+    // pages filtered since the conjuncts were last profiled
+    private int pages;
+
+    // collected since the last call to recordRuntimeStats
+    private final long[] inputPositions;
+    private final long[] selectedPositions;
+    private int reorderCount;
+
+    private boolean failed;
+
+    public AdaptiveConjunctionPageFilter(PageFilter filter, List<PageFilter> conjuncts)
+    {
+        this.filter = requireNonNull(filter, "filter is null");
+        requireNonNull(conjuncts, "conjuncts is null");
+        checkArgument(conjuncts.size() > 1, "conjunction must have at least two conjuncts");
+        verify(filter.isDeterministic(), "filter must be deterministic");
+
+        List<Integer> filterChannels = filter.getInputChannels().getInputChannels();
+        this.conjunctChannels = new int[conjuncts.size()][];
+        this.inputPositionsMetricNames = new String[conjuncts.size()];
+        this.selectedPositionsMetricNames = new String[conjuncts.size()];
+        for (int i = 0; i < conjuncts.size(); i++) {
+            conjunctChannels[i] = conjuncts.get(i).getInputChannels().getInputChannels().stream()
+                    .mapToInt(filterChannels::indexOf)
+                    .toArray();
+            checkArgument(Arrays.stream(conjunctChannels[i]).allMatch(channel -> channel >= 0), "conjunct reads a channel that is not an input of the filter");
+            inputPositionsMetricNames[i] = FILTER_CONJUNCT_INPUT_POSITIONS + "." + i;
+            selectedPositionsMetricNames[i] = FILTER_CONJUNCT_SELECTED_POSITIONS + "." + i;
+        }
+        this.conjuncts = ImmutableList.copyOf(conjuncts);
+
+        this.order = IntStream.range(0, conjuncts.size()).toArray();
+        this.profiledPositions = new long[conjuncts.size()];
+        this.profiledSelectedPositions = new long[conjuncts.size()];
+        this.profiledNanos = new long[conjuncts.size()];
+        this.inputPositions = new long[conjuncts.size()];
+        this.selectedPositions = new long[conjuncts.size()];
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return filter.getInputChannels();
+    }
+
+    @Override
+    public SelectedPositions filter(SqlFunctionProperties properties, Page page)
+    {
+        if (!failed) {
+            try {
+                return filterConjuncts(properties, page);
+            }
+            catch (RuntimeException ignored) {
+                failed = true;
+            }
+        }
+        return filter.filter(properties, page);
+    }
+
+    private SelectedPositions filterConjuncts(SqlFunctionProperties properties, Page page)
+    {
+        boolean profiling = pages < PROFILED_PAGES;
+        SelectedPositions selected = positionsRange(0, page.getPositionCount());
+        for (int i = 0; i < order.length && !selected.isEmpty(); i++) {
+            int conjunct = order[i];
+            long start = profiling ? System.nanoTime() : 0;
+            // evaluate the selected positions in place, rather than on a copy or a dictionary view of the page
+            SelectedPositions conjunctSelected = conjuncts.get(conjunct).filter(properties, page.extractChannels(conjunctChannels[conjunct]), selected);
+            if (profiling) {
+                profiledNanos[conjunct] += System.nanoTime() - start;
+                profiledPositions[conjunct] += selected.size();
+                profiledSelectedPositions[conjunct] += conjunctSelected.size();
+            }
+            inputPositions[conjunct] += selected.size();
+            selectedPositions[conjunct] += conjunctSelected.size();
+
+            selected = conjunctSelected;
+        }
+
+        pages++;
+        if (pages == PROFILED_PAGES) {
+            reorder();
+        }
+        else if (pages == REPROFILE_INTERVAL_PAGES) {
+            pages = 0;
+            Arrays.fill(profiledPositions, 0);
+            Arrays.fill(profiledSelectedPositions, 0);
+            Arrays.fill(profiledNanos, 0);
+        }
+        return selected;
+    }
+
+    /**
+     * Orders the conjuncts by their cost per removed position, which minimizes the expected cost of the
+     * conjunction if the conjuncts are independent. Conjuncts that removed no positions, or that were
+     * not evaluated at all, keep their relative order at the end.
+     */
+    private void reorder()
+    {
+        double[] ranks = new double[order.length];
+        for (int conjunct = 0; conjunct < order.length; conjunct++) {
+            long removedPositions = profiledPositions[conjunct] - profiledSelectedPositions[conjunct];
+            ranks[conjunct] = removedPositions == 0 ? Double.POSITIVE_INFINITY : (double) profiledNanos[conjunct] / removedPositions;
+        }
+
+        // stable sort, so ties keep the current order
+        Integer[] newOrder = Arrays.stream(order).boxed().toArray(Integer[]::new);
+        Arrays.sort(newOrder, Comparator.comparingDouble(conjunct -> ranks[conjunct]));
+        boolean changed = false;
+        for (int i = 0; i < order.length; i++) {
+            changed |= order[i] != newOrder[i];
+            order[i] = newOrder[i];
+        }
+        if (changed) {
+            reorderCount++;
+        }
+    }
+
+    @Override
+    public void recordRuntimeStats(RuntimeStats runtimeStats)
+    {
+        for (int conjunct = 0; conjunct < conjuncts.size(); conjunct++) {
+            runtimeStats.addMetricValueIgnoreZero(inputPositionsMetricNames[conjunct], NONE, inputPositions[conjunct]);
+            runtimeStats.addMetricValueIgnoreZero(selectedPositionsMetricNames[conjunct], NONE, selectedPositions[conjunct]);
+        }
+        runtimeStats.addMetricValueIgnoreZero(ADAPTIVE_FILTER_REORDER_COUNT, NONE, reorderCount);
+        Arrays.fill(inputPositions, 0);
+        Arrays.fill(selectedPositions, 0);
+        reorderCount = 0;
+    }
+
+    @VisibleForTesting
+    List<Integer> getConjunctOrder()
+    {
+        return ImmutableList.copyOf(Ints.asList(order));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("conjuncts", conjuncts)
+                .add("order", Arrays.toString(order))
+                .add("failed", failed)
+                .toString();
+    }
+}
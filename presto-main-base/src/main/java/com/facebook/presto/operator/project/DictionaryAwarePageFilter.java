@@ -14,6 +14,7 @@
 package com.facebook.presto.operator.project;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.DictionaryBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
@@ -83,6 +84,12 @@ public class DictionaryAwarePageFilter
         return filter.filter(properties, new Page(block));
     }
 
+    @Override
+    public void recordRuntimeStats(RuntimeStats runtimeStats)
+    {
+        filter.recordRuntimeStats(runtimeStats);
+    }
+
     private Optional<boolean[]> processDictionary(SqlFunctionProperties properties, Block dictionary)
     {
         if (lastInputDictionary == dictionary) {
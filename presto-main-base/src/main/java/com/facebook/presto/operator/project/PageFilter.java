@@ -14,6 +14,7 @@
 package com.facebook.presto.operator.project;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 
 public interface PageFilter
@@ -24,6 +25,37 @@ public interface PageFilter
 
     SelectedPositions filter(SqlFunctionProperties properties, Page page);
 
+    /**
+     * Filters only the given positions of the page, and returns the selected positions of the page.
+     * Generated filters evaluate the positions in place. The default implementation filters a page
+     * that only contains the given positions.
+     */
+    default SelectedPositions filter(SqlFunctionProperties properties, Page page, SelectedPositions positions)
+    {
+        if (!positions.isList() && positions.getOffset() == 0 && positions.size() == page.getPositionCount()) {
+            return filter(properties, page);
+        }
+
+        int[] positionsList = new int[positions.size()];
+        for (int i = 0; i < positionsList.length; i++) {
+            positionsList[i] = positions.isList() ? positions.getPositions()[positions.getOffset() + i] : positions.getOffset() + i;
+        }
+        SelectedPositions selected = filter(properties, page.getPositions(positionsList, 0, positionsList.length));
+
+        boolean[] selectedPositions = new boolean[positionsList.length];
+        for (int i = 0; i < selected.size(); i++) {
+            selectedPositions[selected.isList() ? selected.getPositions()[selected.getOffset() + i] : selected.getOffset() + i] = true;
+        }
+        return selectPositions(positions, selectedPositions);
+    }
+
+    /**
+     * Adds the metrics collected since the last call to the given runtime stats.
+     */
+    default void recordRuntimeStats(RuntimeStats runtimeStats)
+    {
+    }
+
     static SelectedPositions positionsArrayToSelectedPositions(boolean[] selectedPositions, int size)
     {
         int selectedCount = 0;
@@ -48,4 +80,35 @@ public interface PageFilter
         }
         return SelectedPositions.positionsList(positions, 0, selectedCount);
     }
+
+    /**
+     * Returns the {@code positions} for which the element of {@code selectedPositions} at the same index is true.
+     */
+    static SelectedPositions selectPositions(SelectedPositions positions, boolean[] selectedPositions)
+    {
+        int size = positions.size();
+        int selectedCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (selectedPositions[i]) {
+                selectedCount++;
+            }
+        }
+
+        if (selectedCount == size) {
+            return positions;
+        }
+        if (selectedCount == 0) {
+            return SelectedPositions.positionsRange(0, 0);
+        }
+
+        int[] result = new int[selectedCount];
+        int index = 0;
+        for (int i = 0; i < size; i++) {
+            if (selectedPositions[i]) {
+                result[index] = positions.isList() ? positions.getPositions()[positions.getOffset() + i] : positions.getOffset() + i;
+                index++;
+            }
+        }
+        return SelectedPositions.positionsList(result, 0, selectedCount);
+    }
 }
@@ -15,6 +15,7 @@ package com.facebook.presto.operator.project;
 
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.array.ReferenceCountMap;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.DictionaryBlock;
@@ -109,6 +110,14 @@ public class PageProcessor
         this(filter, projections, OptionalInt.of(1));
     }
 
+    /**
+     * Adds the metrics collected by the filter since the last call to the given runtime stats.
+     */
+    public void recordFilterStats(RuntimeStats runtimeStats)
+    {
+        filter.ifPresent(pageFilter -> pageFilter.recordRuntimeStats(runtimeStats));
+    }
+
     public Iterator<Optional<Page>> process(SqlFunctionProperties properties, DriverYieldSignal yieldSignal, LocalMemoryContext memoryContext, Page page)
     {
         WorkProcessor<Page> processor = createWorkProcessor(properties, yieldSignal, memoryContext, page);
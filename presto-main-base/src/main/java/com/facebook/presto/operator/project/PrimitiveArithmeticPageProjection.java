@@ -0,0 +1,288 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.CompletedWork;
+import com.facebook.presto.operator.DriverYieldSignal;
+import com.facebook.presto.operator.Work;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates {@code column op column} or {@code column op constant} for BIGINT and INTEGER
+ * addition, subtraction and multiplication over flat primitive blocks, with one loop per
+ * operation. Overflow is detected with bit arithmetic and checked once per page instead of
+ * per row. Pages with any other block encoding, and pages on which the operation overflows,
+ * are evaluated by the generated projection so that errors are reported exactly as before.
+ */
+public class PrimitiveArithmeticPageProjection
+        implements PageProjection
+{
+    public enum Operation
+    {
+        ADD,
+        SUBTRACT,
+        MULTIPLY
+    }
+
+    private final Operation operation;
+    private final Type type;
+    private final int leftChannel;
+    private final int rightChannel;
+    private final long rightConstant;
+    private final PageProjection fallbackProjection;
+
+    private long[] leftValues = new long[0];
+    private long[] rightValues = new long[0];
+
+    public static PrimitiveArithmeticPageProjection columnOperation(Operation operation, Type type, int leftChannel, int rightChannel, PageProjection fallbackProjection)
+    {
+        checkArgument(rightChannel >= 0, "rightChannel is negative");
+        return new PrimitiveArithmeticPageProjection(operation, type, leftChannel, rightChannel, 0, fallbackProjection);
+    }
+
+    public static PrimitiveArithmeticPageProjection constantOperation(Operation operation, Type type, int leftChannel, long rightConstant, PageProjection fallbackProjection)
+    {
+        return new PrimitiveArithmeticPageProjection(operation, type, leftChannel, -1, rightConstant, fallbackProjection);
+    }
+
+    private PrimitiveArithmeticPageProjection(Operation operation, Type type, int leftChannel, int rightChannel, long rightConstant, PageProjection fallbackProjection)
+    {
+        this.operation = requireNonNull(operation, "operation is null");
+        this.type = requireNonNull(type, "type is null");
+        checkArgument(type.equals(BIGINT) || type.equals(INTEGER), "unsupported type: %s", type);
+        checkArgument(leftChannel >= 0, "leftChannel is negative");
+        this.leftChannel = leftChannel;
+        this.rightChannel = rightChannel;
+        this.rightConstant = rightConstant;
+        this.fallbackProjection = requireNonNull(fallbackProjection, "fallbackProjection is null");
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return fallbackProjection.getInputChannels();
+    }
+
+    @Override
+    public Work<List<Block>> project(SqlFunctionProperties properties, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions)
+    {
+        Block leftBlock = page.getBlock(leftChannel).getLoadedBlock();
+        Block rightBlock = rightChannel < 0 ? null : page.getBlock(rightChannel).getLoadedBlock();
+        if (!PrimitiveValues.isFlatPrimitive(leftBlock) || (rightBlock != null && !PrimitiveValues.isFlatPrimitive(rightBlock))) {
+            return fallbackProjection.project(properties, yieldSignal, page, selectedPositions);
+        }
+
+        int positionCount = page.getPositionCount();
+        if (leftValues.length < positionCount) {
+            leftValues = new long[positionCount];
+            rightValues = new long[positionCount];
+        }
+        PrimitiveValues.load(leftBlock, positionCount, leftValues);
+        if (rightBlock != null) {
+            PrimitiveValues.load(rightBlock, positionCount, rightValues);
+        }
+
+        int size = selectedPositions.size();
+        int offset = selectedPositions.getOffset();
+        if (selectedPositions.isList()) {
+            // compact the selected values, so that the kernels below run over contiguous values
+            int[] positions = selectedPositions.getPositions();
+            gather(leftValues, positions, offset, size);
+            if (rightBlock != null) {
+                gather(rightValues, positions, offset, size);
+            }
+            offset = 0;
+        }
+
+        long[] result = new long[size];
+        boolean overflow;
+        switch (operation) {
+            case ADD:
+                overflow = rightBlock == null ? addConstant(leftValues, rightConstant, offset, result, size) : add(leftValues, rightValues, offset, result, size);
+                break;
+            case SUBTRACT:
+                overflow = rightBlock == null ? subtractConstant(leftValues, rightConstant, offset, result, size) : subtract(leftValues, rightValues, offset, result, size);
+                break;
+            case MULTIPLY:
+                overflow = rightBlock == null ? multiplyConstant(leftValues, rightConstant, offset, result, size) : multiply(leftValues, rightValues, offset, result, size);
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported operation: " + operation);
+        }
+        if (!overflow && type.equals(INTEGER)) {
+            // INTEGER operands cannot overflow a long, but the result can overflow an int
+            overflow = !fitInInteger(result, size);
+        }
+        if (overflow) {
+            // let the generated code raise the overflow error (or discover the overflow happened on a null position)
+            return fallbackProjection.project(properties, yieldSignal, page, selectedPositions);
+        }
+
+        Optional<boolean[]> valueIsNull = getNulls(leftBlock, rightBlock, selectedPositions);
+        if (type.equals(BIGINT)) {
+            return new CompletedWork<>(ImmutableList.of(new LongArrayBlock(size, valueIsNull, result)));
+        }
+        int[] intResult = new int[size];
+        for (int i = 0; i < size; i++) {
+            intResult[i] = (int) result[i];
+        }
+        return new CompletedWork<>(ImmutableList.of(new IntArrayBlock(size, valueIsNull, intResult)));
+    }
+
+    private static void gather(long[] values, int[] positions, int offset, int size)
+    {
+        // positions are increasing, so values are never overwritten before they are read
+        for (int i = 0; i < size; i++) {
+            values[i] = values[positions[offset + i]];
+        }
+    }
+
+    // The kernels below accumulate the overflow bits of every row and check them once per batch,
+    // so that the loops have no branches and can be vectorized by the JIT
+
+    private static boolean add(long[] left, long[] right, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long b = right[offset + i];
+            long r = a + b;
+            // the sign of the result differs from the sign of both operands
+            overflow |= (a ^ r) & (b ^ r);
+            result[i] = r;
+        }
+        return overflow < 0;
+    }
+
+    private static boolean addConstant(long[] left, long b, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long r = a + b;
+            overflow |= (a ^ r) & (b ^ r);
+            result[i] = r;
+        }
+        return overflow < 0;
+    }
+
+    private static boolean subtract(long[] left, long[] right, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long b = right[offset + i];
+            long r = a - b;
+            // the operands have different signs, and the sign of the result differs from the minuend
+            overflow |= (a ^ b) & (a ^ r);
+            result[i] = r;
+        }
+        return overflow < 0;
+    }
+
+    private static boolean subtractConstant(long[] left, long b, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long r = a - b;
+            overflow |= (a ^ b) & (a ^ r);
+            result[i] = r;
+        }
+        return overflow < 0;
+    }
+
+    private static boolean multiply(long[] left, long[] right, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long b = right[offset + i];
+            long r = a * b;
+            // the high half of the 128 bit product is not the sign extension of the result
+            overflow |= Math.multiplyHigh(a, b) ^ (r >> 63);
+            result[i] = r;
+        }
+        return overflow != 0;
+    }
+
+    private static boolean multiplyConstant(long[] left, long b, int offset, long[] result, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            long a = left[offset + i];
+            long r = a * b;
+            overflow |= Math.multiplyHigh(a, b) ^ (r >> 63);
+            result[i] = r;
+        }
+        return overflow != 0;
+    }
+
+    private static boolean fitInInteger(long[] values, int size)
+    {
+        long overflow = 0;
+        for (int i = 0; i < size; i++) {
+            overflow |= values[i] ^ (int) values[i];
+        }
+        return overflow == 0;
+    }
+
+    private static Optional<boolean[]> getNulls(Block leftBlock, Block rightBlock, SelectedPositions selectedPositions)
+    {
+        if (!leftBlock.mayHaveNull() && (rightBlock == null || !rightBlock.mayHaveNull())) {
+            return Optional.empty();
+        }
+        int size = selectedPositions.size();
+        int offset = selectedPositions.getOffset();
+        boolean[] valueIsNull = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int position = selectedPositions.isList() ? selectedPositions.getPositions()[offset + i] : offset + i;
+            valueIsNull[i] = leftBlock.isNull(position) || (rightBlock != null && rightBlock.isNull(position));
+        }
+        return Optional.of(valueIsNull);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("operation", operation)
+                .add("type", type)
+                .add("leftChannel", leftChannel)
+                .add("rightChannel", rightChannel)
+                .add("rightConstant", rightConstant)
+                .toString();
+    }
+}
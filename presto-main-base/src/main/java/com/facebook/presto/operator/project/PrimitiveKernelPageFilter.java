@@ -0,0 +1,269 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.facebook.presto.operator.project.SelectedPositions.positionsList;
+import static com.facebook.presto.operator.project.SelectedPositions.positionsRange;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a conjunction of simple predicates (comparisons with constants, BETWEEN and IN lists)
+ * over flat primitive blocks with tight branch-free loops instead of the per-position generated code.
+ * The first term scans the whole page and every following term only inspects the positions selected
+ * so far. Pages containing any other block encoding are evaluated by the generated filter.
+ */
+public class PrimitiveKernelPageFilter
+        implements PageFilter
+{
+    private final List<Term> terms;
+    private final PageFilter fallbackFilter;
+
+    private long[][] values = new long[0][];
+
+    public PrimitiveKernelPageFilter(List<Term> terms, PageFilter fallbackFilter)
+    {
+        checkArgument(!requireNonNull(terms, "terms is null").isEmpty(), "terms is empty");
+        this.terms = ImmutableList.copyOf(terms);
+        this.fallbackFilter = requireNonNull(fallbackFilter, "fallbackFilter is null");
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return fallbackFilter.isDeterministic();
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return fallbackFilter.getInputChannels();
+    }
+
+    @Override
+    public SelectedPositions filter(SqlFunctionProperties properties, Page page)
+    {
+        int positionCount = page.getPositionCount();
+        for (Term term : terms) {
+            if (!PrimitiveValues.isFlatPrimitive(page.getBlock(term.getChannel()).getLoadedBlock())) {
+                return fallbackFilter.filter(properties, page);
+            }
+        }
+        loadValues(page);
+
+        int[] positions = new int[positionCount];
+        Term first = terms.get(0);
+        int count = first.filterRange(values[first.getChannel()], positionCount, positions);
+        count = PrimitiveValues.removeNulls(page.getBlock(first.getChannel()), positions, count);
+        for (int i = 1; i < terms.size() && count > 0; i++) {
+            Term term = terms.get(i);
+            count = term.filterPositions(values[term.getChannel()], positions, count);
+            count = PrimitiveValues.removeNulls(page.getBlock(term.getChannel()), positions, count);
+        }
+
+        if (count == 0 || count == positionCount) {
+            return positionsRange(0, count);
+        }
+        return positionsList(positions, 0, count);
+    }
+
+    @Override
+    public SelectedPositions filter(SqlFunctionProperties properties, Page page, SelectedPositions positions)
+    {
+        if (!positions.isList() && positions.getOffset() == 0 && positions.size() == page.getPositionCount()) {
+            return filter(properties, page);
+        }
+        // the kernels load the values of whole blocks, so only the selected positions are evaluated by the generated filter
+        return fallbackFilter.filter(properties, page, positions);
+    }
+
+    private void loadValues(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        if (values.length < page.getChannelCount()) {
+            values = new long[page.getChannelCount()][];
+        }
+        boolean[] loaded = new boolean[page.getChannelCount()];
+        for (Term term : terms) {
+            int channel = term.getChannel();
+            if (loaded[channel]) {
+                continue;
+            }
+            if (values[channel] == null || values[channel].length < positionCount) {
+                values[channel] = new long[positionCount];
+            }
+            PrimitiveValues.load(page.getBlock(channel).getLoadedBlock(), positionCount, values[channel]);
+            loaded[channel] = true;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("terms", terms)
+                .toString();
+    }
+
+    public static Term range(int channel, long low, long high)
+    {
+        return new RangeTerm(channel, low, high, false);
+    }
+
+    public static Term notEqual(int channel, long value)
+    {
+        return new RangeTerm(channel, value, value, true);
+    }
+
+    public static Term in(int channel, Collection<Long> values)
+    {
+        return new InTerm(channel, values);
+    }
+
+    public abstract static class Term
+    {
+        private final int channel;
+
+        private Term(int channel)
+        {
+            checkArgument(channel >= 0, "channel is negative");
+            this.channel = channel;
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        /**
+         * Writes the matching positions of {@code values[0..positionCount)} to {@code output} and returns their count.
+         */
+        abstract int filterRange(long[] values, int positionCount, int[] output);
+
+        /**
+         * Compacts {@code positions[0..count)} in place to the matching positions and returns their count.
+         */
+        abstract int filterPositions(long[] values, int[] positions, int count);
+    }
+
+    private static final class RangeTerm
+            extends Term
+    {
+        private final long low;
+        private final long width;
+        private final boolean negated;
+
+        private RangeTerm(int channel, long low, long high, boolean negated)
+        {
+            super(channel);
+            checkArgument(low <= high, "low is greater than high");
+            this.low = low;
+            this.width = high - low;
+            this.negated = negated;
+        }
+
+        // low <= value <= high as a single unsigned comparison, which avoids a branch per bound
+        private boolean matches(long value)
+        {
+            return Long.compareUnsigned(value - low, width) <= 0 != negated;
+        }
+
+        @Override
+        int filterRange(long[] values, int positionCount, int[] output)
+        {
+            int count = 0;
+            for (int position = 0; position < positionCount; position++) {
+                output[count] = position;
+                count += matches(values[position]) ? 1 : 0;
+            }
+            return count;
+        }
+
+        @Override
+        int filterPositions(long[] values, int[] positions, int count)
+        {
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int position = positions[i];
+                positions[selected] = position;
+                selected += matches(values[position]) ? 1 : 0;
+            }
+            return selected;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("channel", getChannel())
+                    .add("low", low)
+                    .add("high", low + width)
+                    .add("negated", negated)
+                    .toString();
+        }
+    }
+
+    private static final class InTerm
+            extends Term
+    {
+        private final LongOpenHashSet set;
+
+        private InTerm(int channel, Collection<Long> values)
+        {
+            super(channel);
+            this.set = new LongOpenHashSet(requireNonNull(values, "values is null"));
+        }
+
+        @Override
+        int filterRange(long[] values, int positionCount, int[] output)
+        {
+            int count = 0;
+            for (int position = 0; position < positionCount; position++) {
+                output[count] = position;
+                count += set.contains(values[position]) ? 1 : 0;
+            }
+            return count;
+        }
+
+        @Override
+        int filterPositions(long[] values, int[] positions, int count)
+        {
+            int selected = 0;
+            for (int i = 0; i < count; i++) {
+                int position = positions[i];
+                positions[selected] = position;
+                selected += set.contains(values[position]) ? 1 : 0;
+            }
+            return selected;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("channel", getChannel())
+                    .add("values", set.size())
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.ByteArrayBlock;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.ShortArrayBlock;
+
+/**
+ * Widens the values of flat primitive blocks into a {@code long[]}, so the
+ * primitive kernels can run a single straight loop per operation regardless
+ * of the storage width of the column.
+ */
+final class PrimitiveValues
+{
+    private PrimitiveValues() {}
+
+    public static boolean isFlatPrimitive(Block block)
+    {
+        return block instanceof LongArrayBlock
+                || block instanceof IntArrayBlock
+                || block instanceof ShortArrayBlock
+                || block instanceof ByteArrayBlock;
+    }
+
+    /**
+     * Copies the first {@code positionCount} values of {@code block} into {@code values}.
+     * Values at null positions are undefined. Returns false if the block is not a flat primitive block.
+     */
+    public static boolean load(Block block, int positionCount, long[] values)
+    {
+        if (block instanceof LongArrayBlock) {
+            LongArrayBlock longBlock = (LongArrayBlock) block;
+            int offset = longBlock.getOffsetBase();
+            for (int position = 0; position < positionCount; position++) {
+                values[position] = longBlock.getLongUnchecked(offset + position);
+            }
+            return true;
+        }
+        if (block instanceof IntArrayBlock) {
+            IntArrayBlock intBlock = (IntArrayBlock) block;
+            int offset = intBlock.getOffsetBase();
+            for (int position = 0; position < positionCount; position++) {
+                values[position] = intBlock.getIntUnchecked(offset + position);
+            }
+            return true;
+        }
+        if (block instanceof ShortArrayBlock) {
+            ShortArrayBlock shortBlock = (ShortArrayBlock) block;
+            int offset = shortBlock.getOffsetBase();
+            for (int position = 0; position < positionCount; position++) {
+                values[position] = shortBlock.getShortUnchecked(offset + position);
+            }
+            return true;
+        }
+        if (block instanceof ByteArrayBlock) {
+            ByteArrayBlock byteBlock = (ByteArrayBlock) block;
+            int offset = byteBlock.getOffsetBase();
+            for (int position = 0; position < positionCount; position++) {
+                values[position] = byteBlock.getByteUnchecked(offset + position);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the positions that are null in {@code block} from {@code positions[0..count)}
+     * and returns the number of remaining positions.
+     */
+    public static int removeNulls(Block block, int[] positions, int count)
+    {
+        if (!block.mayHaveNull()) {
+            return count;
+        }
+        int remaining = 0;
+        for (int i = 0; i < count; i++) {
+            int position = positions[i];
+            positions[remaining] = position;
+            remaining += block.isNull(position) ? 0 : 1;
+        }
+        return remaining;
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.operator.UpdateMemory;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.BuiltInAggregationFunctionImplementation;
@@ -34,11 +35,17 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames smaller than this are cheaper to re-accumulate than to combine from the segment tree
+    private static final int MIN_SEGMENT_TREE_FRAME_SIZE = 4 * WindowSegmentTree.FANOUT;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final Type intermediateType;
+    private final boolean decomposable;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
+    private WindowSegmentTree segmentTree;
     private int currentStart;
     private int currentEnd;
 
@@ -48,15 +55,26 @@ public class AggregateWindowFunction
         BuiltInAggregationFunctionImplementation builtinFunction = (BuiltInAggregationFunctionImplementation) function;
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = generateAccumulatorFactory(builtinFunction, createArgs(builtinFunction), Optional.empty());
+        this.intermediateType = builtinFunction.getIntermediateType();
+        this.decomposable = builtinFunction.isDecomposable();
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
+    /**
+     * Returns the memory retained by the segment tree of the current partition, if one was built.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return segmentTree == null ? 0 : segmentTree.getRetainedSizeInBytes();
+    }
+
     @Override
     public void processRow(BlockBuilder output, int peerGroupStart, int peerGroupEnd, int frameStart, int frameEnd)
     {
@@ -69,6 +87,15 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (decomposable && (frameEnd - frameStart + 1) >= MIN_SEGMENT_TREE_FRAME_SIZE) {
+            // sliding frame: combine partial states from the segment tree instead of re-accumulating the whole frame
+            if (segmentTree == null) {
+                segmentTree = WindowSegmentTree.build(accumulatorFactory, intermediateType, windowIndex, argumentChannels);
+            }
+            accumulator = segmentTree.aggregate(frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
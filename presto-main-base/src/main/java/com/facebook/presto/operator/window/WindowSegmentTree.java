@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.function.aggregation.Accumulator;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of intermediate aggregation states over a window partition.
+ * <p>
+ * Level 0 holds the intermediate state of every {@link #FANOUT} consecutive rows,
+ * and every following level combines {@link #FANOUT} consecutive nodes of the level
+ * below it. An arbitrary frame can then be aggregated by combining O(FANOUT * log(rows))
+ * raw rows and partial states instead of re-accumulating every row of the frame. The
+ * frame is always combined from left to right, so order sensitive aggregations still
+ * observe their input in frame order. The grouping of the input does change though, so
+ * floating point sums may differ from re-accumulating the frame in the last bits.
+ * <p>
+ * Every level stores the states of all rows below it, so states that grow with their
+ * input (e.g. array_agg) make the tree O(rows * log(rows)) in size. Callers must account
+ * for {@link #getRetainedSizeInBytes()}.
+ */
+final class WindowSegmentTree
+{
+    static final int FANOUT = 16;
+
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(WindowSegmentTree.class).instanceSize();
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    // levels.get(i) contains the intermediate states of the nodes at level i
+    private final List<Block> levels;
+    private final long retainedSizeInBytes;
+
+    private WindowSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels, List<Block> levels)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.levels = ImmutableList.copyOf(requireNonNull(levels, "levels is null"));
+        this.retainedSizeInBytes = INSTANCE_SIZE + this.levels.stream()
+                .mapToLong(Block::getRetainedSizeInBytes)
+                .sum();
+    }
+
+    public static WindowSegmentTree build(AccumulatorFactory accumulatorFactory, Type intermediateType, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+
+        int rowCount = windowIndex.size();
+        int nodeCount = nodeCount(rowCount);
+        BlockBuilder leaves = intermediateType.createBlockBuilder(null, nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            Accumulator accumulator = createAccumulator(accumulatorFactory);
+            int start = node * FANOUT;
+            accumulator.addInput(windowIndex, argumentChannels, start, min(start + FANOUT, rowCount) - 1);
+            accumulator.evaluateIntermediate(leaves);
+        }
+        Block level = leaves.build();
+        levels.add(level);
+
+        while (level.getPositionCount() > FANOUT) {
+            int childCount = level.getPositionCount();
+            nodeCount = nodeCount(childCount);
+            BlockBuilder parents = intermediateType.createBlockBuilder(null, nodeCount);
+            for (int node = 0; node < nodeCount; node++) {
+                Accumulator accumulator = createAccumulator(accumulatorFactory);
+                int start = node * FANOUT;
+                accumulator.addIntermediate(level.getRegion(start, min(FANOUT, childCount - start)));
+                accumulator.evaluateIntermediate(parents);
+            }
+            level = parents.build();
+            levels.add(level);
+        }
+
+        return new WindowSegmentTree(accumulatorFactory, windowIndex, argumentChannels, levels.build());
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Returns a new accumulator containing the rows from {@code start} to {@code end} (inclusive).
+     */
+    public Accumulator aggregate(int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < windowIndex.size(), "invalid frame [%s, %s]", start, end);
+
+        Accumulator accumulator = createAccumulator(accumulatorFactory);
+
+        // the right hand side fragments are collected while walking up the tree,
+        // and combined top-down once the left hand side and middle are done
+        int[] rightLevels = new int[levels.size() + 1];
+        int[] rightStarts = new int[levels.size() + 1];
+        int[] rightEnds = new int[levels.size() + 1];
+        int rightCount = 0;
+
+        // level -1 refers to the rows of the partition; bounds are [low, high)
+        int level = -1;
+        int low = start;
+        int high = end + 1;
+        while (low < high) {
+            if (level + 1 == levels.size()) {
+                add(accumulator, level, low, high);
+                break;
+            }
+
+            int parentLow = (low + FANOUT - 1) / FANOUT;
+            int parentHigh = high == levelSize(level) ? levelSize(level + 1) : high / FANOUT;
+            if (parentLow >= parentHigh) {
+                add(accumulator, level, low, high);
+                break;
+            }
+
+            add(accumulator, level, low, parentLow * FANOUT);
+            int rightStart = min(parentHigh * FANOUT, high);
+            if (rightStart < high) {
+                rightLevels[rightCount] = level;
+                rightStarts[rightCount] = rightStart;
+                rightEnds[rightCount] = high;
+                rightCount++;
+            }
+
+            level++;
+            low = parentLow;
+            high = parentHigh;
+        }
+
+        for (int i = rightCount - 1; i >= 0; i--) {
+            add(accumulator, rightLevels[i], rightStarts[i], rightEnds[i]);
+        }
+        return accumulator;
+    }
+
+    private void add(Accumulator accumulator, int level, int low, int high)
+    {
+        if (low >= high) {
+            return;
+        }
+        if (level < 0) {
+            accumulator.addInput(windowIndex, argumentChannels, low, high - 1);
+        }
+        else {
+            accumulator.addIntermediate(levels.get(level).getRegion(low, high - low));
+        }
+    }
+
+    private int levelSize(int level)
+    {
+        if (level < 0) {
+            return windowIndex.size();
+        }
+        return levels.get(level).getPositionCount();
+    }
+
+    private static int nodeCount(int childCount)
+    {
+        return (childCount + FANOUT - 1) / FANOUT;
+    }
+
+    private static Accumulator createAccumulator(AccumulatorFactory accumulatorFactory)
+    {
+        // window functions do not support distinct and ordering accumulators, so no memory callback is needed
+        return accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+    }
+}
@@ -31,11 +31,13 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
+import jakarta.annotation.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
@@ -48,10 +50,12 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterators.transform;
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -68,6 +72,7 @@ public class FileSingleStreamSpiller
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
     private final Optional<SpillCipher> spillCipher;
+    private final int readPrefetchPages;
 
     private final ListeningExecutorService executor;
 
@@ -75,6 +80,8 @@ public class FileSingleStreamSpiller
     private boolean committed;
     private volatile long spilledPagesInMemorySize;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+    @Nullable
+    private PrefetchingPageIterator prefetchingPages;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -84,6 +91,19 @@ public class FileSingleStreamSpiller
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
             Optional<SpillCipher> spillCipher)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, 0);
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            int readPrefetchPages)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -93,6 +113,8 @@ public class FileSingleStreamSpiller
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
+        checkArgument(readPrefetchPages >= 0, "readPrefetchPages is negative");
+        this.readPrefetchPages = readPrefetchPages;
         // HACK!
         // The writePages() method is called in a separate thread pool and it's possible that
         // these spiller thread can run concurrently with the close() method.
@@ -131,13 +153,23 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        Iterator<Page> pages = readPages();
+        if (readPrefetchPages == 0) {
+            return pages;
+        }
+        // the pages read ahead are held by the spiller until the consumer takes them
+        prefetchingPages = new PrefetchingPageIterator(pages, executor, readPrefetchPages, localSpillContext, bufferedBytes -> memoryContext.setBytes(BUFFER_SIZE + bufferedBytes));
+        return prefetchingPages;
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        // read on the executor directly, prefetching there could wait for the very same threads
+        return executor.submit(() -> {
+            checkNoSpillInProgress();
+            return ImmutableList.copyOf(readPages());
+        });
     }
 
     @Override
@@ -181,20 +213,46 @@ public class FileSingleStreamSpiller
             }
 
             checkState(committed, "Cannot read pages since spill file is not committed");
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            Closeable resource;
+            Iterator<Page> deserializedPages;
+            Optional<MappedSpillFile> mappedFile = readPrefetchPages > 0 ? mapSpillFile() : Optional.empty();
+            if (mappedFile.isPresent()) {
+                // release the mapping on close, instead of when the garbage collector gets to it
+                resource = closer.register(mappedFile.get());
+                deserializedPages = mappedFile.get();
+            }
+            else {
+                InputStream input = closer.register(targetFile.newInputStream());
+                resource = input;
+                deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            }
             Iterator<Page> compactPages = transform(deserializedPages, Page::compact);
             spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
-            return closeWhenExhausted(compactPages, input);
+            return closeWhenExhausted(compactPages, resource);
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to read spilled pages: %s", e.getMessage()), e);
         }
     }
 
+    /**
+     * Maps the spill file into memory. Files too large to be mapped at once are read through a stream.
+     */
+    private Optional<MappedSpillFile> mapSpillFile()
+            throws IOException
+    {
+        try (FileChannel channel = targetFile.newFileChannel(READ)) {
+            return MappedSpillFile.map(serde, channel);
+        }
+    }
+
     @Override
     public void close()
     {
+        if (prefetchingPages != null) {
+            // stop reading ahead before the memory reservation is released
+            prefetchingPages.close();
+        }
         closer.register(localSpillContext);
         closer.register(() -> memoryContext.setBytes(0));
         try {
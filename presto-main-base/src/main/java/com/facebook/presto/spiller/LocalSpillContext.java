@@ -46,6 +46,12 @@ public final class LocalSpillContext
         return parentSpillContext.getSession();
     }
 
+    @Override
+    public void recordUnspillPrefetch(boolean hit)
+    {
+        parentSpillContext.recordUnspillPrefetch(hit);
+    }
+
     @Override
     public synchronized void close()
     {
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.BasicSliceInput;
+import sun.misc.Unsafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
+import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static io.airlift.slice.Slices.copyOf;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pages of a spill file mapped into memory. Reading them back neither copies the file through
+ * a stream buffer nor issues a read system call per buffer.
+ * <p>
+ * The mapping is released by {@link #close()} rather than by the garbage collector. The pages
+ * returned never reference the mapping, as accessing it once released would crash the JVM: pages
+ * that are decompressed or decrypted are decoded into new buffers, and other pages are copied out
+ * of the mapping before they are decoded. Reads and {@link #close()} are serialized, so a read
+ * in progress on another thread finishes before the mapping is released.
+ */
+@ThreadSafe
+final class MappedSpillFile
+        implements Iterator<Page>, Closeable
+{
+    private static final Unsafe UNSAFE;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final PagesSerde serde;
+    @GuardedBy("this")
+    private final MappedByteBuffer buffer;
+    @GuardedBy("this")
+    private final Iterator<SerializedPage> serializedPages;
+    @GuardedBy("this")
+    private boolean closed;
+
+    private MappedSpillFile(PagesSerde serde, MappedByteBuffer buffer)
+    {
+        this.serde = requireNonNull(serde, "serde is null");
+        this.buffer = requireNonNull(buffer, "buffer is null");
+        this.serializedPages = readSerializedPages(new BasicSliceInput(wrappedBuffer(buffer)));
+    }
+
+    /**
+     * Maps the file of the given channel. Empty files, and files too large to be mapped at once, are not mapped.
+     */
+    public static Optional<MappedSpillFile> map(PagesSerde serde, FileChannel channel)
+            throws IOException
+    {
+        long size = channel.size();
+        if (size == 0 || size > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        // the mapping stays valid after the channel is closed
+        return Optional.of(new MappedSpillFile(serde, channel.map(READ_ONLY, 0, size)));
+    }
+
+    @Override
+    public synchronized boolean hasNext()
+    {
+        return !closed && serializedPages.hasNext();
+    }
+
+    @Override
+    public synchronized Page next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SerializedPage page = serializedPages.next();
+        byte markers = page.getPageCodecMarkers();
+        if (COMPRESSED.isSet(markers) || ENCRYPTED.isSet(markers)) {
+            return serde.deserialize(page);
+        }
+        return serde.deserialize(new SerializedPage(
+                copyOf(page.getSlice()),
+                markers,
+                page.getPositionCount(),
+                page.getUncompressedSizeInBytes(),
+                page.getChecksum()));
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        UNSAFE.invokeCleaner(buffer);
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.spiller;
 import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.CompressionCodec;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 public class NodeSpillConfig
@@ -27,6 +28,7 @@ public class NodeSpillConfig
 
     private CompressionCodec spillCompressionCodec = CompressionCodec.NONE;
     private boolean spillEncryptionEnabled;
+    private int spillReadPrefetchPages;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -103,4 +105,17 @@ public class NodeSpillConfig
         this.tempStorageBufferSize = tempStorageBufferSize;
         return this;
     }
+
+    @Min(0)
+    public int getSpillReadPrefetchPages()
+    {
+        return spillReadPrefetchPages;
+    }
+
+    @Config("experimental.spill-read-prefetch-pages")
+    public NodeSpillConfig setSpillReadPrefetchPages(int spillReadPrefetchPages)
+    {
+        this.spillReadPrefetchPages = spillReadPrefetchPages;
+        return this;
+    }
 }
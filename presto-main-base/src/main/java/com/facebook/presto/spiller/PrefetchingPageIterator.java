@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.operator.WorkProcessor;
+import com.facebook.presto.operator.WorkProcessor.ProcessState;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads up to {@code prefetchPages} pages of a spilled stream ahead of the consumer on the spiller executor.
+ * <p>
+ * The background read never waits for the consumer: it stops when the buffer is full and is resubmitted
+ * once the consumer takes a page, so a slow consumer does not hold an executor thread.
+ * {@link #toWorkProcessor(Iterator)} consumes the buffer without blocking the driver, whereas the
+ * {@link Iterator} methods wait for the next page. Whether the consumer found its next page already
+ * buffered is reported to the {@link SpillContext}, and the size of the buffered pages to the given listener,
+ * so that the spiller can account for it.
+ */
+@ThreadSafe
+public class PrefetchingPageIterator
+        implements Iterator<Page>, Closeable
+{
+    private final Iterator<Page> source;
+    private final Executor executor;
+    private final int prefetchPages;
+    private final SpillContext spillContext;
+    private final LongConsumer bufferedBytesListener;
+
+    @GuardedBy("this")
+    private final Queue<Page> buffer = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private SettableFuture<?> notEmpty = SettableFuture.create();
+    @GuardedBy("this")
+    private boolean running;
+    @GuardedBy("this")
+    private boolean sourceFinished;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private boolean closed;
+    // the consumer had to wait for the page it is about to take
+    @GuardedBy("this")
+    private boolean waited;
+
+    public PrefetchingPageIterator(Iterator<Page> source, Executor executor, int prefetchPages, SpillContext spillContext, LongConsumer bufferedBytesListener)
+    {
+        this.source = requireNonNull(source, "source is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(prefetchPages > 0, "prefetchPages must be positive");
+        this.prefetchPages = prefetchPages;
+        this.spillContext = requireNonNull(spillContext, "spillContext is null");
+        this.bufferedBytesListener = requireNonNull(bufferedBytesListener, "bufferedBytesListener is null");
+        scheduleIfNeeded();
+    }
+
+    /**
+     * Returns a processor over the given spilled pages, which does not block the caller
+     * when the pages are read ahead in the background.
+     */
+    public static WorkProcessor<Page> toWorkProcessor(Iterator<Page> pages)
+    {
+        if (!(pages instanceof PrefetchingPageIterator)) {
+            return WorkProcessor.fromIterator(pages);
+        }
+        PrefetchingPageIterator iterator = (PrefetchingPageIterator) pages;
+        return WorkProcessor.create(() -> {
+            Page page = iterator.poll();
+            if (page != null) {
+                return ProcessState.ofResult(page);
+            }
+            if (iterator.isFinished()) {
+                return ProcessState.finished();
+            }
+            return ProcessState.blocked(iterator.waitForPage());
+        });
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (true) {
+            synchronized (this) {
+                throwIfFailed();
+                if (!buffer.isEmpty()) {
+                    return true;
+                }
+                if (sourceFinished || closed) {
+                    return false;
+                }
+            }
+            getFutureValue(waitForPage());
+        }
+    }
+
+    @Override
+    public Page next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return poll();
+    }
+
+    private Page poll()
+    {
+        Page page;
+        boolean hit;
+        synchronized (this) {
+            throwIfFailed();
+            page = buffer.poll();
+            if (page == null) {
+                return null;
+            }
+            updateBufferedBytes(-page.getRetainedSizeInBytes());
+            hit = !waited;
+            waited = false;
+        }
+        spillContext.recordUnspillPrefetch(hit);
+        scheduleIfNeeded();
+        return page;
+    }
+
+    private synchronized boolean isFinished()
+    {
+        throwIfFailed();
+        return buffer.isEmpty() && (sourceFinished || closed);
+    }
+
+    private synchronized ListenableFuture<?> waitForPage()
+    {
+        if (!buffer.isEmpty() || sourceFinished || closed || failure != null) {
+            return immediateFuture(null);
+        }
+        waited = true;
+        if (notEmpty.isDone()) {
+            notEmpty = SettableFuture.create();
+        }
+        return notEmpty;
+    }
+
+    private void scheduleIfNeeded()
+    {
+        synchronized (this) {
+            if (running || sourceFinished || closed || buffer.size() >= prefetchPages) {
+                return;
+            }
+            running = true;
+        }
+        try {
+            executor.execute(this::prefetch);
+        }
+        catch (RejectedExecutionException e) {
+            finish(e);
+        }
+    }
+
+    private void prefetch()
+    {
+        while (true) {
+            synchronized (this) {
+                if (closed || buffer.size() >= prefetchPages) {
+                    running = false;
+                    return;
+                }
+            }
+
+            Page page;
+            try {
+                page = source.hasNext() ? source.next() : null;
+            }
+            catch (Throwable t) {
+                finish(t);
+                return;
+            }
+            if (page == null) {
+                finish(null);
+                return;
+            }
+
+            SettableFuture<?> unblocked;
+            try {
+                synchronized (this) {
+                    if (closed) {
+                        running = false;
+                        return;
+                    }
+                    // reserve the page before buffering it, so that exceeding the memory limit fails the read
+                    updateBufferedBytes(page.getRetainedSizeInBytes());
+                    buffer.add(page);
+                    unblocked = notEmpty;
+                }
+            }
+            catch (Throwable t) {
+                finish(t);
+                return;
+            }
+            // complete outside of the lock, as it runs the driver callbacks
+            unblocked.set(null);
+        }
+    }
+
+    private void finish(Throwable t)
+    {
+        SettableFuture<?> unblocked;
+        synchronized (this) {
+            sourceFinished = true;
+            running = false;
+            failure = t;
+            unblocked = notEmpty;
+        }
+        unblocked.set(null);
+    }
+
+    @GuardedBy("this")
+    private void updateBufferedBytes(long delta)
+    {
+        bufferedBytesListener.accept(bufferedBytes + delta);
+        bufferedBytes += delta;
+    }
+
+    @GuardedBy("this")
+    private void throwIfFailed()
+    {
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        SettableFuture<?> unblocked;
+        synchronized (this) {
+            closed = true;
+            buffer.clear();
+            if (bufferedBytes != 0) {
+                updateBufferedBytes(-bufferedBytes);
+            }
+            unblocked = notEmpty;
+        }
+        unblocked.set(null);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a page source that blocks in {@link ConnectorPageSource#getNextPage()} (e.g. on network reads)
+ * on a dedicated I/O thread. Loaded pages are handed over to the driver through a bounded buffer, so the
+ * driver thread never blocks on the connector: it is only ever offered ready pages, and it is
+ * descheduled through {@link #isBlocked()} while the buffer is empty.
+ * <p>
+ * The producer only holds an I/O thread while it can make progress. It gives the thread back when the
+ * buffer is full or the delegate is blocked, and is submitted again once the driver consumes a page or the
+ * delegate unblocks. The delegate is only ever used by one thread at a time: the producer while it is
+ * scheduled, and {@link #close()} otherwise. Its stats are copied by the producer after each page.
+ * <p>
+ * The CPU time spent by the I/O thread is reported through {@link #getProducerCpuNanos()},
+ * so it can be charged to the split like the time spent on the driver thread.
+ */
+@ThreadSafe
+public class AsyncPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(AsyncPageSource.class);
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final ConnectorPageSource delegate;
+    private final Executor executor;
+    private final int maxBufferedPages;
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private CompletableFuture<?> notEmpty = new CompletableFuture<>();
+    // the producer is queued or running on the executor, and owns the delegate
+    @GuardedBy("this")
+    private boolean producerScheduled;
+    @GuardedBy("this")
+    private boolean producerFinished;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private boolean delegateClosed;
+
+    // snapshots of the delegate stats, which must not be read concurrently with getNextPage()
+    private volatile long completedBytes;
+    private volatile long completedPositions;
+    private volatile long readTimeNanos;
+    private volatile long delegateMemoryUsage;
+    private volatile RuntimeStats runtimeStats = new RuntimeStats();
+    private final AtomicLong producerCpuNanos = new AtomicLong();
+
+    private AsyncPageSource(ConnectorPageSource delegate, Executor executor, int maxBufferedPages)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxBufferedPages > 0, "maxBufferedPages must be positive");
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    public static AsyncPageSource create(ConnectorPageSource delegate, Executor executor, int maxBufferedPages)
+    {
+        AsyncPageSource pageSource = new AsyncPageSource(delegate, executor, maxBufferedPages);
+        pageSource.scheduleProducer();
+        return pageSource;
+    }
+
+    private void scheduleProducer()
+    {
+        synchronized (this) {
+            if (closed || producerScheduled || producerFinished || pages.size() >= maxBufferedPages) {
+                return;
+            }
+            producerScheduled = true;
+        }
+        try {
+            executor.execute(this::produce);
+        }
+        catch (RejectedExecutionException e) {
+            synchronized (this) {
+                producerScheduled = false;
+            }
+            finish(e);
+        }
+    }
+
+    private void produce()
+    {
+        long start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        try {
+            while (true) {
+                synchronized (this) {
+                    // decide to stop under the lock, so that a consumer freeing buffer space reschedules the producer
+                    if (closed || producerFinished || pages.size() >= maxBufferedPages) {
+                        producerScheduled = false;
+                        break;
+                    }
+                }
+                if (delegate.isFinished()) {
+                    finish(null);
+                    continue;
+                }
+                CompletableFuture<?> blocked = delegate.isBlocked();
+                if (!blocked.isDone()) {
+                    // give the thread back until the connector can make progress
+                    synchronized (this) {
+                        producerScheduled = false;
+                    }
+                    blocked.whenComplete((ignored, throwable) -> scheduleProducer());
+                    break;
+                }
+
+                Page page = delegate.getNextPage();
+                if (page != null) {
+                    // load lazy blocks here, so that the driver never performs the I/O
+                    page = page.getLoadedPage();
+                }
+
+                completedBytes = delegate.getCompletedBytes();
+                completedPositions = delegate.getCompletedPositions();
+                readTimeNanos = delegate.getReadTimeNanos();
+                delegateMemoryUsage = delegate.getSystemMemoryUsage();
+                RuntimeStats delegateStats = delegate.getRuntimeStats();
+                if (delegateStats != null) {
+                    runtimeStats = RuntimeStats.copyOf(delegateStats);
+                }
+
+                if (page != null) {
+                    addPage(page);
+                }
+            }
+        }
+        catch (Throwable t) {
+            finish(t);
+            synchronized (this) {
+                producerScheduled = false;
+            }
+        }
+        finally {
+            long end = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            // CPU time is not available for virtual threads on all JVMs
+            if (start >= 0 && end >= start) {
+                producerCpuNanos.addAndGet(end - start);
+            }
+        }
+        closeDelegateIfClosed();
+    }
+
+    /**
+     * Closes the delegate on behalf of {@link #close()} once the producer no longer uses it.
+     * Must be called after the producer gave up ownership of the delegate.
+     */
+    private void closeDelegateIfClosed()
+    {
+        synchronized (this) {
+            // close() closes the delegate itself when the producer was not scheduled,
+            // and a producer that got scheduled again after this one owns the delegate
+            if (!closed || producerScheduled || delegateClosed) {
+                return;
+            }
+            delegateClosed = true;
+        }
+        try {
+            delegate.close();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Error closing page source %s", delegate);
+        }
+    }
+
+    private void addPage(Page page)
+    {
+        CompletableFuture<?> unblocked;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            pages.add(page);
+            bufferedBytes += page.getRetainedSizeInBytes();
+            unblocked = notEmpty;
+        }
+        // complete outside of the lock, as it runs the driver callbacks
+        unblocked.complete(null);
+    }
+
+    private void finish(Throwable t)
+    {
+        CompletableFuture<?> unblocked;
+        synchronized (this) {
+            producerFinished = true;
+            if (!closed && failure == null) {
+                failure = t;
+            }
+            unblocked = notEmpty;
+        }
+        unblocked.complete(null);
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        Page page;
+        synchronized (this) {
+            throwIfFailed();
+            page = pages.poll();
+            if (page != null) {
+                bufferedBytes -= page.getRetainedSizeInBytes();
+            }
+            if (pages.isEmpty() && !producerFinished && notEmpty.isDone()) {
+                notEmpty = new CompletableFuture<>();
+            }
+        }
+        if (page != null) {
+            // there is room in the buffer again
+            scheduleProducer();
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        if (!pages.isEmpty() || producerFinished || closed) {
+            return NOT_BLOCKED;
+        }
+        return notEmpty.thenApplyAsync(ignored -> null, directExecutor());
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        throwIfFailed();
+        return closed || (producerFinished && pages.isEmpty());
+    }
+
+    @GuardedBy("this")
+    private void throwIfFailed()
+    {
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return completedPositions;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public synchronized long getSystemMemoryUsage()
+    {
+        return delegateMemoryUsage + bufferedBytes;
+    }
+
+    @Override
+    public RuntimeStats getRuntimeStats()
+    {
+        return runtimeStats;
+    }
+
+    /**
+     * Returns the CPU time spent by the I/O thread reading the delegate so far.
+     */
+    public long getProducerCpuNanos()
+    {
+        return producerCpuNanos.get();
+    }
+
+    /**
+     * Closes the page source without waiting for an in-flight read. If the producer is reading the delegate,
+     * the delegate is closed by the producer once the read returns, so it is never closed while in use.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        boolean closeDelegate;
+        CompletableFuture<?> unblocked;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pages.clear();
+            bufferedBytes = 0;
+            closeDelegate = !producerScheduled;
+            delegateClosed = closeDelegate;
+            unblocked = notEmpty;
+        }
+        unblocked.complete(null);
+        if (closeDelegate) {
+            delegate.close();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("delegate", delegate)
+                .add("maxBufferedPages", maxBufferedPages)
+                .toString();
+    }
+}
@@ -25,33 +25,81 @@ import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.SystemSessionProperties.getBlockingPageSourceMaxBufferedPages;
+import static com.facebook.presto.SystemSessionProperties.isOffloadBlockingPageSources;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class PageSourceManager
         implements PageSourceProvider
 {
     private final ConcurrentMap<ConnectorId, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final Set<ConnectorId> blockingPageSourceConnectors = ConcurrentHashMap.newKeySet();
+    private final ExecutorService blockingPageSourceExecutor;
+    private final boolean ownsBlockingPageSourceExecutor;
+
+    public PageSourceManager()
+    {
+        this(newFixedThreadPool(new FeaturesConfig().getBlockingPageSourceThreads(), daemonThreadsNamed("page-source-io-%s")), true);
+    }
+
+    @Inject
+    public PageSourceManager(@ForBlockingPageSources ExecutorService blockingPageSourceExecutor)
+    {
+        this(blockingPageSourceExecutor, false);
+    }
+
+    private PageSourceManager(ExecutorService blockingPageSourceExecutor, boolean ownsBlockingPageSourceExecutor)
+    {
+        this.blockingPageSourceExecutor = requireNonNull(blockingPageSourceExecutor, "blockingPageSourceExecutor is null");
+        this.ownsBlockingPageSourceExecutor = ownsBlockingPageSourceExecutor;
+    }
 
     public void addConnectorPageSourceProvider(ConnectorId connectorId, ConnectorPageSourceProvider pageSourceProvider)
+    {
+        addConnectorPageSourceProvider(connectorId, pageSourceProvider, false);
+    }
+
+    public void addConnectorPageSourceProvider(ConnectorId connectorId, ConnectorPageSourceProvider pageSourceProvider, boolean blockingPageSource)
     {
         requireNonNull(connectorId, "connectorId is null");
         requireNonNull(pageSourceProvider, "pageSourceProvider is null");
         checkState(pageSourceProviders.put(connectorId, pageSourceProvider) == null, "PageSourceProvider for connector '%s' is already registered", connectorId);
+        if (blockingPageSource) {
+            blockingPageSourceConnectors.add(connectorId);
+        }
     }
 
     public void removeConnectorPageSourceProvider(ConnectorId connectorId)
     {
         pageSourceProviders.remove(connectorId);
+        blockingPageSourceConnectors.remove(connectorId);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        // an injected executor is shut down by its module
+        if (ownsBlockingPageSourceExecutor) {
+            blockingPageSourceExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -73,12 +121,16 @@ public class PageSourceManager
                     split.getTransactionHandle(),
                     split.getConnectorSplit(),
                     split.getLifespan(),
-                    new SplitContext(split.getSplitContext().isCacheable(), dynamicFilter.get().get()));
+                    new SplitContext(
+                            split.getSplitContext().isCacheable(),
+                            dynamicFilter.get().get(),
+                            table.getDynamicFilterBloomFilters().map(Supplier::get).orElse(ImmutableMap.of())));
         }
 
         ConnectorSession connectorSession = session.toConnectorSession(split.getConnectorId());
+        ConnectorPageSource pageSource;
         if (table.getLayout().isPresent()) {
-            return getPageSourceProvider(split).createPageSource(
+            pageSource = getPageSourceProvider(split).createPageSource(
                     split.getTransactionHandle(),
                     connectorSession,
                     split.getConnectorSplit(),
@@ -87,7 +139,15 @@ public class PageSourceManager
                     split.getSplitContext(),
                     runtimeStats);
         }
-        return getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
+        else {
+            pageSource = getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
+        }
+
+        // move the blocking reads of the connector off the driver threads
+        if (isOffloadBlockingPageSources(session) && blockingPageSourceConnectors.contains(split.getConnectorId())) {
+            return AsyncPageSource.create(pageSource, blockingPageSourceExecutor, getBlockingPageSourceMaxBufferedPages(session));
+        }
+        return pageSource;
     }
 
     private ConnectorPageSourceProvider getPageSourceProvider(Split split)
@@ -103,6 +103,7 @@ public class FeaturesConfig
     private boolean cteFilterAndProjectionPushdownEnabled = true;
     private int cteHeuristicReplicationThreshold = 4;
     private int maxReorderedJoins = 9;
+    private int maxExhaustiveReorderedJoins = 9;
     private int maxPrefixesCount = 100;
     private boolean useHistoryBasedPlanStatistics;
     private boolean trackHistoryBasedPlanStatistics;
@@ -168,6 +169,10 @@ public class FeaturesConfig
     private double partialAggregationByteReductionThreshold = 0.5;
     private boolean adaptivePartialAggregationEnabled;
     private double adaptivePartialAggregationRowsReductionRatioThreshold = 0.8;
+    private boolean flatGroupByHashEnabled;
+    private boolean compactJoinHashTableEnabled;
+    private boolean bigintGroupByDirectIndexEnabled;
+    private boolean historyBasedGroupByHashSizingEnabled;
     private boolean optimizeTopNRowNumber = true;
 
     private boolean optimizeTopNRank;
@@ -180,6 +185,10 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private int dynamicFilteringBloomFilterRowLimitPerDriver;
+    private boolean offloadBlockingPageSources;
+    private int blockingPageSourceMaxBufferedPages = 4;
+    private int blockingPageSourceThreads = 32;
 
     private boolean fragmentResultCachingEnabled;
 
@@ -847,6 +856,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(2)
+    public int getMaxExhaustiveReorderedJoins()
+    {
+        return maxExhaustiveReorderedJoins;
+    }
+
+    @Config("optimizer.max-exhaustive-reordered-joins")
+    @ConfigDescription("The maximum number of tables to reorder by enumerating all join orders; larger join graphs are reordered greedily")
+    public FeaturesConfig setMaxExhaustiveReorderedJoins(int maxExhaustiveReorderedJoins)
+    {
+        this.maxExhaustiveReorderedJoins = maxExhaustiveReorderedJoins;
+        return this;
+    }
+
     public boolean isUseHistoryBasedPlanStatistics()
     {
         return useHistoryBasedPlanStatistics;
@@ -1195,6 +1218,58 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFlatGroupByHashEnabled()
+    {
+        return flatGroupByHashEnabled;
+    }
+
+    @Config("experimental.flat-group-by-hash-enabled")
+    @ConfigDescription("Store the keys of multi-column hash aggregations as flat rows in a single array")
+    public FeaturesConfig setFlatGroupByHashEnabled(boolean flatGroupByHashEnabled)
+    {
+        this.flatGroupByHashEnabled = flatGroupByHashEnabled;
+        return this;
+    }
+
+    public boolean isCompactJoinHashTableEnabled()
+    {
+        return compactJoinHashTableEnabled;
+    }
+
+    @Config("experimental.compact-join-hash-table-enabled")
+    @ConfigDescription("Store the keys and output columns of hash join build sides as rows in a single array")
+    public FeaturesConfig setCompactJoinHashTableEnabled(boolean compactJoinHashTableEnabled)
+    {
+        this.compactJoinHashTableEnabled = compactJoinHashTableEnabled;
+        return this;
+    }
+
+    public boolean isBigintGroupByDirectIndexEnabled()
+    {
+        return bigintGroupByDirectIndexEnabled;
+    }
+
+    @Config("experimental.bigint-group-by-direct-index-enabled")
+    @ConfigDescription("Index the groups of single BIGINT key aggregations directly by value while the keys span a small range")
+    public FeaturesConfig setBigintGroupByDirectIndexEnabled(boolean bigintGroupByDirectIndexEnabled)
+    {
+        this.bigintGroupByDirectIndexEnabled = bigintGroupByDirectIndexEnabled;
+        return this;
+    }
+
+    public boolean isHistoryBasedGroupByHashSizingEnabled()
+    {
+        return historyBasedGroupByHashSizingEnabled;
+    }
+
+    @Config("experimental.history-based-group-by-hash-sizing-enabled")
+    @ConfigDescription("Size the hash tables of aggregations from the number of groups of previous runs, when history based statistics are available")
+    public FeaturesConfig setHistoryBasedGroupByHashSizingEnabled(boolean historyBasedGroupByHashSizingEnabled)
+    {
+        this.historyBasedGroupByHashSizingEnabled = historyBasedGroupByHashSizingEnabled;
+        return this;
+    }
+
     public boolean isOptimizeTopNRowNumber()
     {
         return optimizeTopNRowNumber;
@@ -1605,6 +1680,60 @@ public class FeaturesConfig
         return this;
     }
 
+    public int getDynamicFilteringBloomFilterRowLimitPerDriver()
+    {
+        return dynamicFilteringBloomFilterRowLimitPerDriver;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-row-limit-per-driver")
+    @ConfigDescription("Maximum number of build-side rows per driver up to which a Bloom filter of the values will be collected for dynamic filtering")
+    public FeaturesConfig setDynamicFilteringBloomFilterRowLimitPerDriver(int dynamicFilteringBloomFilterRowLimitPerDriver)
+    {
+        this.dynamicFilteringBloomFilterRowLimitPerDriver = dynamicFilteringBloomFilterRowLimitPerDriver;
+        return this;
+    }
+
+    public boolean isOffloadBlockingPageSources()
+    {
+        return offloadBlockingPageSources;
+    }
+
+    @Config("experimental.offload-blocking-page-sources")
+    @ConfigDescription("Read page sources of connectors doing blocking I/O on dedicated threads instead of the driver threads")
+    public FeaturesConfig setOffloadBlockingPageSources(boolean offloadBlockingPageSources)
+    {
+        this.offloadBlockingPageSources = offloadBlockingPageSources;
+        return this;
+    }
+
+    @Min(1)
+    public int getBlockingPageSourceMaxBufferedPages()
+    {
+        return blockingPageSourceMaxBufferedPages;
+    }
+
+    @Config("experimental.blocking-page-source-max-buffered-pages")
+    @ConfigDescription("Maximum number of pages read ahead by an offloaded blocking page source")
+    public FeaturesConfig setBlockingPageSourceMaxBufferedPages(int blockingPageSourceMaxBufferedPages)
+    {
+        this.blockingPageSourceMaxBufferedPages = blockingPageSourceMaxBufferedPages;
+        return this;
+    }
+
+    @Min(1)
+    public int getBlockingPageSourceThreads()
+    {
+        return blockingPageSourceThreads;
+    }
+
+    @Config("experimental.blocking-page-source-threads")
+    @ConfigDescription("Number of threads reading offloaded blocking page sources")
+    public FeaturesConfig setBlockingPageSourceThreads(int blockingPageSourceThreads)
+    {
+        this.blockingPageSourceThreads = blockingPageSourceThreads;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -83,7 +83,6 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.notEqu
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.sql.gen.InputReferenceCompiler.generateInputReference;
 import static com.facebook.presto.sql.gen.SqlTypeBytecodeExpression.constantType;
-import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
@@ -91,6 +90,7 @@ import static java.util.Objects.requireNonNull;
 public class JoinCompiler
 {
     private final FunctionAndTypeManager functionAndTypeManager;
+    private final PersistentClassCache classCache;
 
     private final LoadingCache<CacheKey, LookupSourceSupplierFactory> lookupSourceFactories = CacheBuilder.newBuilder()
             .recordStats()
@@ -109,10 +109,16 @@ public class JoinCompiler
         return compileLookupSourceFactory(types, joinChannels, sortChannel, Optional.empty());
     }
 
-    @Inject
     public JoinCompiler(Metadata metadata)
+    {
+        this(metadata, PersistentClassCache.disabled());
+    }
+
+    @Inject
+    public JoinCompiler(Metadata metadata, PersistentClassCache classCache)
     {
         this.functionAndTypeManager = requireNonNull(metadata, "metadata is null").getFunctionAndTypeManager();
+        this.classCache = requireNonNull(classCache, "classCache is null");
     }
 
     @Managed
@@ -235,7 +241,7 @@ public class JoinCompiler
         generateCompareSortChannelPositionsMethod(classDefinition, callSiteBinder, types, channelFields, sortChannel);
         generateIsSortChannelPositionNull(classDefinition, channelFields, sortChannel);
 
-        return defineClass(classDefinition, PagesHashStrategy.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        return classCache.defineClass(classDefinition, PagesHashStrategy.class, callSiteBinder.getBindings(), getClass().getClassLoader());
     }
 
     private static void generateConstructor(ClassDefinition classDefinition,
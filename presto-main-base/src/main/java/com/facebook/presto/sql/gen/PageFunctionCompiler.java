@@ -32,6 +32,7 @@ import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.AdaptiveConjunctionPageFilter;
 import com.facebook.presto.operator.project.ConstantPageProjection;
 import com.facebook.presto.operator.project.GeneratedPageProjection;
 import com.facebook.presto.operator.project.InputChannels;
@@ -40,6 +41,8 @@ import com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
+import com.facebook.presto.operator.project.PrimitiveKernelPageFilter;
+import com.facebook.presto.operator.project.PrimitiveKernelPageFilter.Term;
 import com.facebook.presto.operator.project.SelectedPositions;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.function.SqlFunctionId;
@@ -79,6 +82,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -98,6 +102,7 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.invoke
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.lessThan;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newArray;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.not;
+import static com.facebook.presto.expressions.LogicalRowExpressions.extractConjuncts;
 import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
 import static com.facebook.presto.sql.gen.BytecodeUtils.boxPrimitiveIfNecessary;
@@ -111,7 +116,6 @@ import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.getExpress
 import static com.facebook.presto.sql.gen.CommonSubExpressionRewriter.rewriteExpressionWithCSE;
 import static com.facebook.presto.sql.gen.LambdaBytecodeGenerator.generateMethodsForLambda;
 import static com.facebook.presto.sql.relational.Expressions.subExpressions;
-import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
 import static com.facebook.presto.util.Reflection.constructorMethodHandle;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -130,9 +134,14 @@ public class PageFunctionCompiler
     // spent in evaluate. The root cause is not well understood. Maybe when the function is too large JIT has problem optimizing it. Empirical evidence shows that when there
     // are less than 10 projections performance is generally better with common sub-expressions. So we set an upper limit on how many projections we would compile together here.
     private static final int MAX_PROJECTION_GROUP_SIZE = 10;
+    // conjunctions with more conjuncts are not reordered, as every conjunct is compiled into a separate class
+    private static final int MAX_ADAPTIVE_FILTER_CONJUNCTS = 16;
 
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final Optional<PrimitiveKernelCompiler> primitiveKernelCompiler;
+    private final boolean adaptiveFilterReorderingEnabled;
+    private final PersistentClassCache classCache;
 
     private final LoadingCache<CacheKey, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<CacheKey, Supplier<PageFilter>> filterCache;
@@ -141,15 +150,33 @@ public class PageFunctionCompiler
     private final CacheStatsMBean filterCacheStats;
 
     @Inject
-    public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
+    public PageFunctionCompiler(Metadata metadata, CompilerConfig config, PersistentClassCache classCache)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), config.isPrimitiveKernelsEnabled(), config.isAdaptiveFilterReorderingEnabled(), classCache);
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, false);
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, boolean primitiveKernelsEnabled)
+    {
+        this(metadata, expressionCacheSize, primitiveKernelsEnabled, false);
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, boolean primitiveKernelsEnabled, boolean adaptiveFilterReorderingEnabled)
+    {
+        this(metadata, expressionCacheSize, primitiveKernelsEnabled, adaptiveFilterReorderingEnabled, PersistentClassCache.disabled());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, boolean primitiveKernelsEnabled, boolean adaptiveFilterReorderingEnabled, PersistentClassCache classCache)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata.getFunctionAndTypeManager());
+        this.primitiveKernelCompiler = primitiveKernelsEnabled ? Optional.of(new PrimitiveKernelCompiler(metadata.getFunctionAndTypeManager())) : Optional.empty();
+        this.adaptiveFilterReorderingEnabled = adaptiveFilterReorderingEnabled;
+        this.classCache = requireNonNull(classCache, "classCache is null");
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -167,7 +194,7 @@ public class PageFunctionCompiler
             filterCache = CacheBuilder.newBuilder()
                     .recordStats()
                     .maximumSize(expressionCacheSize)
-                    .build(CacheLoader.from(cacheKey -> compileFilterInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions.get(0), cacheKey.isOptimizeCommonSubExpression, Optional.empty())));
+                    .build(CacheLoader.from(cacheKey -> compileFilterInternal(cacheKey.sqlFunctionProperties, cacheKey.sessionFunctions, cacheKey.rowExpressions.get(0), cacheKey.isOptimizeCommonSubExpression, Optional.empty(), adaptiveFilterReorderingEnabled)));
             filterCacheStats = new CacheStatsMBean(filterCache);
         }
         else {
@@ -279,7 +306,15 @@ public class PageFunctionCompiler
             return () -> projectionFunction;
         }
 
-        return compileProjectionCached(sqlFunctionProperties, sessionFunctions, ImmutableList.of(projection), false, classNameSuffix);
+        Supplier<PageProjection> generatedProjection = compileProjectionCached(sqlFunctionProperties, sessionFunctions, ImmutableList.of(projection), false, classNameSuffix);
+        if (primitiveKernelCompiler.isPresent()) {
+            Optional<Function<PageProjection, PageProjection>> kernel = primitiveKernelCompiler.get()
+                    .compileArithmeticProjection(rewritePageFieldsToInputParameters(projection).getRewrittenExpression());
+            if (kernel.isPresent()) {
+                return () -> kernel.get().apply(generatedProjection.get());
+            }
+        }
+        return generatedProjection;
     }
 
     private Supplier<PageProjection> compileProjectionCached(
@@ -332,7 +367,7 @@ public class PageFunctionCompiler
 
         Class<? extends Work> pageProjectionWorkClass;
         try {
-            pageProjectionWorkClass = defineClass(pageProjectionWorkDefinition, Work.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            pageProjectionWorkClass = classCache.defineClass(pageProjectionWorkDefinition, Work.class, callSiteBinder.getBindings(), getClass().getClassLoader());
         }
         catch (PrestoException prestoException) {
             throw prestoException;
@@ -652,7 +687,7 @@ public class PageFunctionCompiler
             Optional<String> classNameSuffix)
     {
         if (filterCache == null) {
-            return compileFilterInternal(sqlFunctionProperties, sessionFunctions, filter, isOptimizeCommonSubExpression, classNameSuffix);
+            return compileFilterInternal(sqlFunctionProperties, sessionFunctions, filter, isOptimizeCommonSubExpression, classNameSuffix, adaptiveFilterReorderingEnabled);
         }
         try {
             return filterCache.getUnchecked(new CacheKey(sqlFunctionProperties, sessionFunctions, ImmutableList.of(filter), isOptimizeCommonSubExpression));
@@ -668,7 +703,8 @@ public class PageFunctionCompiler
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
             RowExpression filter,
             boolean isOptimizeCommonSubExpression,
-            Optional<String> classNameSuffix)
+            Optional<String> classNameSuffix,
+            boolean adaptiveReordering)
     {
         requireNonNull(filter, "filter is null");
 
@@ -686,7 +722,7 @@ public class PageFunctionCompiler
 
         Class<? extends PageFilter> functionClass;
         try {
-            functionClass = defineClass(classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+            functionClass = classCache.defineClass(classDefinition, PageFilter.class, callSiteBinder.getBindings(), getClass().getClassLoader());
         }
         catch (PrestoException prestoException) {
             throw prestoException;
@@ -695,7 +731,7 @@ public class PageFunctionCompiler
             throw new PrestoException(COMPILER_ERROR, filter.toString(), e.getCause());
         }
 
-        return () -> {
+        Supplier<PageFilter> generatedFilter = () -> {
             try {
                 return functionClass.getConstructor().newInstance();
             }
@@ -703,6 +739,28 @@ public class PageFunctionCompiler
                 throw new PrestoException(COMPILER_ERROR, e);
             }
         };
+
+        if (primitiveKernelCompiler.isPresent()) {
+            Optional<List<Term>> terms = primitiveKernelCompiler.get().compileFilterTerms(result.getRewrittenExpression());
+            if (terms.isPresent()) {
+                return () -> new PrimitiveKernelPageFilter(terms.get(), generatedFilter.get());
+            }
+        }
+
+        if (adaptiveReordering && determinismEvaluator.isDeterministic(filter)) {
+            List<RowExpression> conjuncts = extractConjuncts(filter);
+            if (conjuncts.size() > 1 && conjuncts.size() <= MAX_ADAPTIVE_FILTER_CONJUNCTS) {
+                List<Supplier<PageFilter>> conjunctFilters = conjuncts.stream()
+                        .map(conjunct -> compileFilterInternal(sqlFunctionProperties, sessionFunctions, conjunct, isOptimizeCommonSubExpression, classNameSuffix, false))
+                        .collect(toImmutableList());
+                return () -> new AdaptiveConjunctionPageFilter(
+                        generatedFilter.get(),
+                        conjunctFilters.stream()
+                                .map(Supplier::get)
+                                .collect(toImmutableList()));
+            }
+        }
+        return generatedFilter;
     }
 
     private static ParameterizedType generateFilterClassName(Optional<String> classNameSuffix)
@@ -773,6 +831,7 @@ public class PageFunctionCompiler
 
         FieldDefinition selectedPositions = classDefinition.declareField(a(PRIVATE), "selectedPositions", boolean[].class);
         generatePageFilterMethod(classDefinition, selectedPositions);
+        generatePositionsFilterMethod(classDefinition, selectedPositions);
 
         // isDeterministic
         classDefinition.declareMethod(a(PUBLIC), "isDeterministic", type(boolean.class))
@@ -858,6 +917,62 @@ public class PageFunctionCompiler
         return method;
     }
 
+    private static MethodDefinition generatePositionsFilterMethod(ClassDefinition classDefinition, FieldDefinition selectedPositionsField)
+    {
+        Parameter properties = arg("properties", SqlFunctionProperties.class);
+        Parameter page = arg("page", Page.class);
+        Parameter positions = arg("positions", SelectedPositions.class);
+
+        MethodDefinition method = classDefinition.declareMethod(
+                a(PUBLIC),
+                "filter",
+                type(SelectedPositions.class),
+                ImmutableList.<Parameter>builder()
+                        .add(properties)
+                        .add(page)
+                        .add(positions)
+                        .build());
+
+        Scope scope = method.getScope();
+        Variable thisVariable = method.getThis();
+        BytecodeBlock body = method.getBody();
+
+        Variable size = scope.declareVariable("size", body, positions.invoke("size", int.class));
+        Variable offset = scope.declareVariable("offset", body, positions.invoke("getOffset", int.class));
+
+        body.append(new IfStatement("grow selectedPositions if necessary")
+                .condition(lessThan(thisVariable.getField(selectedPositionsField).length(), size))
+                .ifTrue(thisVariable.setField(selectedPositionsField, newArray(type(boolean[].class), size))));
+
+        Variable selectedPositions = scope.declareVariable("selectedPositions", body, thisVariable.getField(selectedPositionsField));
+        Variable positionsList = scope.declareVariable(int[].class, "positionsList");
+        Variable index = scope.declareVariable(int.class, "index");
+        body.append(new IfStatement()
+                .condition(positions.invoke("isList", boolean.class))
+                .ifTrue(new BytecodeBlock()
+                        .append(positionsList.set(positions.invoke("getPositions", int[].class)))
+                        .append(new ForLoop()
+                                .initialize(index.set(constantInt(0)))
+                                .condition(lessThan(index, size))
+                                .update(index.increment())
+                                .body(selectedPositions.setElement(index, thisVariable.invoke("filter", boolean.class, properties, page, positionsList.getElement(add(offset, index)))))))
+                .ifFalse(new ForLoop()
+                        .initialize(index.set(constantInt(0)))
+                        .condition(lessThan(index, size))
+                        .update(index.increment())
+                        .body(selectedPositions.setElement(index, thisVariable.invoke("filter", boolean.class, properties, page, add(offset, index))))));
+
+        body.append(invokeStatic(
+                PageFilter.class,
+                "selectPositions",
+                SelectedPositions.class,
+                positions,
+                selectedPositions)
+                .ret());
+
+        return method;
+    }
+
     private MethodDefinition generateFilterMethod(
             ClassDefinition classDefinition,
             RowExpressionCompiler compiler,
@@ -0,0 +1,390 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.presto.bytecode.ByteCodeTooLargeException;
+import com.facebook.presto.bytecode.ClassDefinition;
+import com.facebook.presto.bytecode.ClassGenerator;
+import com.facebook.presto.bytecode.DynamicClassLoader;
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.facebook.presto.util.CompilerUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.annotations.ThreadSafe;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.airlift.units.Duration.succinctNanos;
+import static com.facebook.presto.bytecode.ClassGenerator.classGenerator;
+import static com.facebook.presto.spi.StandardErrorCode.GENERATED_BYTECODE_TOO_LARGE;
+import static com.facebook.presto.util.CompilerUtils.ERROR_LARGE_BYTECODE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.MoreCollectors.onlyElement;
+import static com.google.common.hash.Hashing.sha256;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Keeps the bytecode of generated classes in a local directory, so a restarted worker does not
+ * have to run the bytecode writer again for the expressions, joins and orderings it already
+ * compiled before. The code generators still build the {@link ClassDefinition} and the call site
+ * bindings of every class; the cache skips computing the stack map frames and writing the class
+ * file, which is the most expensive part of the compilation.
+ * <p>
+ * An entry is keyed by a digest of the class definition written without frames and with its
+ * generated class renamed to a fixed name. The digest covers the instructions and the ids of the
+ * call site bindings, so an entry is only reused for a class that binds the same method handles in
+ * the same order. Entries are kept in a separate directory for every Presto version. The number of times
+ * each entry was used is saved when the server shuts down, and the most used entries are read
+ * into memory when it starts again.
+ */
+@ThreadSafe
+public class PersistentClassCache
+{
+    private static final Logger log = Logger.get(PersistentClassCache.class);
+
+    private static final int ENTRY_MAGIC = 0x50434331;
+    private static final String ENTRY_SUFFIX = ".class";
+    private static final String USAGE_FILE_NAME = "usage";
+    private static final String KEY_CLASS_NAME = "com/facebook/presto/$gen/CachedClass";
+
+    private final Optional<File> directory;
+    private final Cache<String, CachedClass> preloadedClasses;
+    private final ConcurrentMap<String, Long> usageCounts = new ConcurrentHashMap<>();
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat failures = new CounterStat();
+    private final AtomicLong savedCompileNanos = new AtomicLong();
+
+    @Inject
+    public PersistentClassCache(CompilerConfig config, NodeVersion nodeVersion)
+    {
+        this(
+                Optional.ofNullable(requireNonNull(config, "config is null").getCodeCacheDirectory())
+                        .map(directory -> new File(directory, requireNonNull(nodeVersion, "nodeVersion is null").getVersion().replaceAll("[^A-Za-z0-9._-]", "_"))),
+                config.getCodeCachePreloadCount());
+    }
+
+    @VisibleForTesting
+    PersistentClassCache(Optional<File> directory, int preloadCount)
+    {
+        checkArgument(preloadCount >= 0, "preloadCount is negative");
+        this.directory = requireNonNull(directory, "directory is null");
+        this.preloadedClasses = CacheBuilder.newBuilder()
+                .maximumSize(preloadCount)
+                .build();
+        directory.ifPresent(cacheDirectory -> preload(cacheDirectory, preloadCount));
+    }
+
+    public static PersistentClassCache disabled()
+    {
+        return new PersistentClassCache(Optional.empty(), 0);
+    }
+
+    public <T> Class<? extends T> defineClass(ClassDefinition classDefinition, Class<T> superType, Map<Long, MethodHandle> callSiteBindings, ClassLoader parentClassLoader)
+    {
+        if (!directory.isPresent()) {
+            return CompilerUtils.defineClass(classDefinition, superType, callSiteBindings, parentClassLoader);
+        }
+
+        long start = System.nanoTime();
+        String key = computeKey(classDefinition);
+        Optional<CachedClass> cachedClass = getCachedClass(key);
+        if (cachedClass.isPresent()) {
+            long lookupNanos = System.nanoTime() - start;
+            try {
+                Class<?> clazz = classGenerator(new DynamicClassLoader(parentClassLoader, callSiteBindings))
+                        .defineClasses(ImmutableMap.of(cachedClass.get().getClassName(), cachedClass.get().getBytecode()))
+                        .values().stream()
+                        .collect(onlyElement());
+                hits.update(1);
+                usageCounts.merge(key, 1L, Long::sum);
+                savedCompileNanos.addAndGet(max(cachedClass.get().getCompileNanos() - lookupNanos, 0));
+                return clazz.asSubclass(superType);
+            }
+            catch (RuntimeException | LinkageError e) {
+                // an unusable entry is replaced by the class compiled below
+                log.warn(e, "Failed to define cached class %s", cachedClass.get().getClassName());
+                failures.update(1);
+                preloadedClasses.invalidate(key);
+            }
+        }
+
+        misses.update(1);
+        ClassGenerator classGenerator = classGenerator(new DynamicClassLoader(parentClassLoader, callSiteBindings));
+        Map<String, byte[]> bytecodes;
+        try {
+            bytecodes = classGenerator.generateBytecode(ImmutableList.of(classDefinition));
+        }
+        catch (ByteCodeTooLargeException byteCodeTooLargeException) {
+            throw new PrestoException(GENERATED_BYTECODE_TOO_LARGE, ERROR_LARGE_BYTECODE);
+        }
+        long compileNanos = System.nanoTime() - start;
+
+        Class<?> clazz = classGenerator.defineClasses(bytecodes).values().stream().collect(onlyElement());
+        Entry<String, byte[]> bytecode = bytecodes.entrySet().stream().collect(onlyElement());
+        store(key, new CachedClass(bytecode.getKey(), bytecode.getValue(), compileNanos));
+        return clazz.asSubclass(superType);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (!directory.isPresent()) {
+            return;
+        }
+        log.info("Code cache saved %s of bytecode generation with %s hits and %s misses", succinctNanos(savedCompileNanos.get()), hits.getTotalCount(), misses.getTotalCount());
+        try {
+            writeUsageCounts(directory.get());
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write code cache usage counts to %s", directory.get());
+        }
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailures()
+    {
+        return failures;
+    }
+
+    @Managed
+    public long getSavedCompileTimeMillis()
+    {
+        return NANOSECONDS.toMillis(savedCompileNanos.get());
+    }
+
+    @Managed
+    public long getPreloadedClassCount()
+    {
+        return preloadedClasses.size();
+    }
+
+    private static String computeKey(ClassDefinition classDefinition)
+    {
+        // generated class names are unique and their lengths vary with the class id, so the class is
+        // renamed to a fixed name for equal classes to share an entry
+        ClassWriter writer = new ClassWriter(0);
+        classDefinition.visit(new ClassRemapper(writer, new SimpleRemapper(classDefinition.getType().getClassName(), KEY_CLASS_NAME)));
+        try {
+            return sha256().hashBytes(writer.toByteArray()).toString();
+        }
+        catch (ClassTooLargeException | MethodTooLargeException e) {
+            throw new PrestoException(GENERATED_BYTECODE_TOO_LARGE, ERROR_LARGE_BYTECODE);
+        }
+    }
+
+    private Optional<CachedClass> getCachedClass(String key)
+    {
+        CachedClass cachedClass = preloadedClasses.getIfPresent(key);
+        if (cachedClass != null) {
+            return Optional.of(cachedClass);
+        }
+
+        File file = entryFile(directory.get(), key);
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try {
+            cachedClass = readEntry(file);
+            preloadedClasses.put(key, cachedClass);
+            return Optional.of(cachedClass);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read code cache entry %s", file);
+            failures.update(1);
+            return Optional.empty();
+        }
+    }
+
+    private void store(String key, CachedClass cachedClass)
+    {
+        File file = entryFile(directory.get(), key);
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            File temporaryFile = File.createTempFile(key, ".tmp", file.getParentFile());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                output.writeInt(ENTRY_MAGIC);
+                output.writeUTF(cachedClass.getClassName());
+                output.writeLong(cachedClass.getCompileNanos());
+                output.writeInt(cachedClass.getBytecode().length);
+                output.write(cachedClass.getBytecode());
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+            preloadedClasses.put(key, cachedClass);
+            usageCounts.merge(key, 1L, Long::sum);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write code cache entry %s", file);
+            failures.update(1);
+        }
+    }
+
+    private void preload(File cacheDirectory, int preloadCount)
+    {
+        File usageFile = new File(cacheDirectory, USAGE_FILE_NAME);
+        if (!usageFile.exists()) {
+            return;
+        }
+
+        try {
+            for (String line : Files.readAllLines(usageFile.toPath(), UTF_8)) {
+                List<String> fields = Arrays.asList(line.split("\t"));
+                if (fields.size() == 2) {
+                    usageCounts.merge(fields.get(0), Long.parseLong(fields.get(1)), Long::sum);
+                }
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            log.warn(e, "Failed to read code cache usage counts from %s", usageFile);
+            return;
+        }
+
+        List<String> mostUsedKeys = usageCounts.entrySet().stream()
+                .sorted(Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(preloadCount)
+                .map(Entry::getKey)
+                .collect(toImmutableList());
+        for (String key : mostUsedKeys) {
+            File file = entryFile(cacheDirectory, key);
+            try {
+                preloadedClasses.put(key, readEntry(file));
+            }
+            catch (IOException e) {
+                log.debug(e, "Failed to preload code cache entry %s", file);
+                usageCounts.remove(key);
+            }
+        }
+        log.info("Preloaded %s of %s code cache entries from %s", preloadedClasses.size(), usageCounts.size(), cacheDirectory);
+    }
+
+    private void writeUsageCounts(File cacheDirectory)
+            throws IOException
+    {
+        Files.createDirectories(cacheDirectory.toPath());
+        File usageFile = new File(cacheDirectory, USAGE_FILE_NAME);
+        File temporaryFile = new File(cacheDirectory, USAGE_FILE_NAME + ".tmp");
+        Files.write(
+                temporaryFile.toPath(),
+                usageCounts.entrySet().stream()
+                        .map(entry -> entry.getKey() + "\t" + entry.getValue())
+                        .collect(toImmutableList()),
+                UTF_8);
+        Files.move(temporaryFile.toPath(), usageFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    private static CachedClass readEntry(File file)
+            throws IOException
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != ENTRY_MAGIC) {
+                throw new IOException("Invalid code cache entry " + file);
+            }
+            String className = input.readUTF();
+            long compileNanos = input.readLong();
+            byte[] bytecode = new byte[input.readInt()];
+            input.readFully(bytecode);
+            return new CachedClass(className, bytecode, compileNanos);
+        }
+    }
+
+    private static File entryFile(File cacheDirectory, String key)
+    {
+        return new File(cacheDirectory, key + ENTRY_SUFFIX);
+    }
+
+    private static class CachedClass
+    {
+        private final String className;
+        private final byte[] bytecode;
+        private final long compileNanos;
+
+        public CachedClass(String className, byte[] bytecode, long compileNanos)
+        {
+            this.className = requireNonNull(className, "className is null");
+            this.bytecode = requireNonNull(bytecode, "bytecode is null");
+            this.compileNanos = compileNanos;
+        }
+
+        public String getClassName()
+        {
+            return className;
+        }
+
+        public byte[] getBytecode()
+        {
+            return bytecode;
+        }
+
+        public long getCompileNanos()
+        {
+            return compileNanos;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.common.function.OperatorType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.operator.project.PageProjection;
+import com.facebook.presto.operator.project.PrimitiveArithmeticPageProjection;
+import com.facebook.presto.operator.project.PrimitiveArithmeticPageProjection.Operation;
+import com.facebook.presto.operator.project.PrimitiveKernelPageFilter.Term;
+import com.facebook.presto.spi.relation.CallExpression;
+import com.facebook.presto.spi.relation.ConstantExpression;
+import com.facebook.presto.spi.relation.InputReferenceExpression;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.SpecialFormExpression;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.operator.project.PrimitiveKernelPageFilter.in;
+import static com.facebook.presto.operator.project.PrimitiveKernelPageFilter.notEqual;
+import static com.facebook.presto.operator.project.PrimitiveKernelPageFilter.range;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.AND;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Recognizes the filters and projections that can be evaluated by the primitive kernels
+ * ({@link com.facebook.presto.operator.project.PrimitiveKernelPageFilter} and
+ * {@link PrimitiveArithmeticPageProjection}). Expressions are expected to be rewritten by
+ * {@link com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter} first.
+ */
+public class PrimitiveKernelCompiler
+{
+    private static final Set<Type> FILTER_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+    private static final Set<Type> ARITHMETIC_TYPES = ImmutableSet.of(BIGINT, INTEGER);
+
+    private final FunctionAndTypeManager functionAndTypeManager;
+
+    public PrimitiveKernelCompiler(FunctionAndTypeManager functionAndTypeManager)
+    {
+        this.functionAndTypeManager = requireNonNull(functionAndTypeManager, "functionAndTypeManager is null");
+    }
+
+    /**
+     * Returns the terms of the filter if every conjunct is a supported predicate.
+     */
+    public Optional<List<Term>> compileFilterTerms(RowExpression filter)
+    {
+        ImmutableList.Builder<Term> terms = ImmutableList.builder();
+        if (!addTerms(filter, terms)) {
+            return Optional.empty();
+        }
+        return Optional.of(terms.build());
+    }
+
+    /**
+     * Returns a factory wrapping the generated projection in a primitive kernel if the projection is a supported arithmetic expression.
+     */
+    public Optional<Function<PageProjection, PageProjection>> compileArithmeticProjection(RowExpression projection)
+    {
+        if (!(projection instanceof CallExpression) || !ARITHMETIC_TYPES.contains(projection.getType())) {
+            return Optional.empty();
+        }
+        CallExpression call = (CallExpression) projection;
+        Optional<Operation> operation = getOperatorType(call).flatMap(PrimitiveKernelCompiler::toOperation);
+        if (!operation.isPresent() || call.getArguments().size() != 2) {
+            return Optional.empty();
+        }
+
+        Type type = call.getType();
+        RowExpression left = call.getArguments().get(0);
+        RowExpression right = call.getArguments().get(1);
+        if (!isColumn(left, type)) {
+            return Optional.empty();
+        }
+        int leftChannel = ((InputReferenceExpression) left).getField();
+        if (isColumn(right, type)) {
+            int rightChannel = ((InputReferenceExpression) right).getField();
+            return Optional.of(fallback -> PrimitiveArithmeticPageProjection.columnOperation(operation.get(), type, leftChannel, rightChannel, fallback));
+        }
+        if (isConstant(right, type)) {
+            long constant = (long) ((ConstantExpression) right).getValue();
+            return Optional.of(fallback -> PrimitiveArithmeticPageProjection.constantOperation(operation.get(), type, leftChannel, constant, fallback));
+        }
+        return Optional.empty();
+    }
+
+    private boolean addTerms(RowExpression expression, ImmutableList.Builder<Term> terms)
+    {
+        if (expression instanceof SpecialFormExpression) {
+            SpecialFormExpression specialForm = (SpecialFormExpression) expression;
+            if (specialForm.getForm() == AND) {
+                for (RowExpression argument : specialForm.getArguments()) {
+                    if (!addTerms(argument, terms)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (specialForm.getForm() == IN) {
+                return addInTerm(specialForm.getArguments(), terms);
+            }
+            return false;
+        }
+        if (expression instanceof CallExpression) {
+            return addComparisonTerm((CallExpression) expression, terms);
+        }
+        return false;
+    }
+
+    private static boolean addInTerm(List<RowExpression> arguments, ImmutableList.Builder<Term> terms)
+    {
+        RowExpression value = arguments.get(0);
+        if (!FILTER_TYPES.contains(value.getType()) || !isColumn(value, value.getType())) {
+            return false;
+        }
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        for (RowExpression argument : arguments.subList(1, arguments.size())) {
+            if (!isConstant(argument, value.getType())) {
+                return false;
+            }
+            values.add((Long) ((ConstantExpression) argument).getValue());
+        }
+        terms.add(in(((InputReferenceExpression) value).getField(), values.build()));
+        return true;
+    }
+
+    private boolean addComparisonTerm(CallExpression call, ImmutableList.Builder<Term> terms)
+    {
+        Optional<OperatorType> operatorType = getOperatorType(call);
+        if (!operatorType.isPresent() || call.getArguments().isEmpty()) {
+            return false;
+        }
+        Type type = call.getArguments().get(0).getType();
+        if (!FILTER_TYPES.contains(type)) {
+            return false;
+        }
+
+        if (operatorType.get() == OperatorType.BETWEEN) {
+            List<RowExpression> arguments = call.getArguments();
+            if (arguments.size() != 3 || !isColumn(arguments.get(0), type) || !isConstant(arguments.get(1), type) || !isConstant(arguments.get(2), type)) {
+                return false;
+            }
+            long low = (long) ((ConstantExpression) arguments.get(1)).getValue();
+            long high = (long) ((ConstantExpression) arguments.get(2)).getValue();
+            if (low > high) {
+                return false;
+            }
+            terms.add(range(((InputReferenceExpression) arguments.get(0)).getField(), low, high));
+            return true;
+        }
+
+        if (call.getArguments().size() != 2) {
+            return false;
+        }
+        RowExpression left = call.getArguments().get(0);
+        RowExpression right = call.getArguments().get(1);
+        OperatorType comparison = operatorType.get();
+        if (isConstant(left, type) && isColumn(right, type)) {
+            // constant op column => column flipped(op) constant
+            RowExpression swap = left;
+            left = right;
+            right = swap;
+            comparison = flip(comparison);
+        }
+        if (!isColumn(left, type) || !isConstant(right, type)) {
+            return false;
+        }
+
+        int channel = ((InputReferenceExpression) left).getField();
+        long constant = (long) ((ConstantExpression) right).getValue();
+        switch (comparison) {
+            case EQUAL:
+                terms.add(range(channel, constant, constant));
+                return true;
+            case NOT_EQUAL:
+                terms.add(notEqual(channel, constant));
+                return true;
+            case LESS_THAN:
+                if (constant == Long.MIN_VALUE) {
+                    return false;
+                }
+                terms.add(range(channel, Long.MIN_VALUE, constant - 1));
+                return true;
+            case LESS_THAN_OR_EQUAL:
+                terms.add(range(channel, Long.MIN_VALUE, constant));
+                return true;
+            case GREATER_THAN:
+                if (constant == Long.MAX_VALUE) {
+                    return false;
+                }
+                terms.add(range(channel, constant + 1, Long.MAX_VALUE));
+                return true;
+            case GREATER_THAN_OR_EQUAL:
+                terms.add(range(channel, constant, Long.MAX_VALUE));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private Optional<OperatorType> getOperatorType(CallExpression call)
+    {
+        return functionAndTypeManager.getFunctionMetadata(call.getFunctionHandle()).getOperatorType();
+    }
+
+    private static Optional<Operation> toOperation(OperatorType operatorType)
+    {
+        switch (operatorType) {
+            case ADD:
+                return Optional.of(Operation.ADD);
+            case SUBTRACT:
+                return Optional.of(Operation.SUBTRACT);
+            case MULTIPLY:
+                return Optional.of(Operation.MULTIPLY);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static OperatorType flip(OperatorType operatorType)
+    {
+        switch (operatorType) {
+            case LESS_THAN:
+                return OperatorType.GREATER_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return OperatorType.GREATER_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return OperatorType.LESS_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return OperatorType.LESS_THAN_OR_EQUAL;
+            default:
+                return operatorType;
+        }
+    }
+
+    private static boolean isColumn(RowExpression expression, Type type)
+    {
+        return expression instanceof InputReferenceExpression && expression.getType().equals(type);
+    }
+
+    private static boolean isConstant(RowExpression expression, Type type)
+    {
+        return expression instanceof ConstantExpression
+                && expression.getType().equals(type)
+                && ((ConstantExpression) expression).getValue() instanceof Long;
+    }
+}
@@ -19,12 +19,18 @@ import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.presto.spi.function.Description;
 import jakarta.validation.constraints.Min;
 
+import java.io.File;
+
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
     private int leafNodeLimit = 10_000;
     private boolean leafNodeLimitEnabled;
+    private boolean primitiveKernelsEnabled;
+    private boolean adaptiveFilterReorderingEnabled;
+    private File codeCacheDirectory;
+    private int codeCachePreloadCount = 1_000;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -65,4 +71,57 @@ public class CompilerConfig
         this.leafNodeLimitEnabled = enabled;
         return this;
     }
+
+    public boolean isPrimitiveKernelsEnabled()
+    {
+        return primitiveKernelsEnabled;
+    }
+
+    @Config("compiler.primitive-kernels-enabled")
+    @ConfigDescription("Evaluate simple comparison, BETWEEN and IN filters and integer arithmetic projections over flat primitive blocks with specialized loops instead of generated code")
+    public CompilerConfig setPrimitiveKernelsEnabled(boolean primitiveKernelsEnabled)
+    {
+        this.primitiveKernelsEnabled = primitiveKernelsEnabled;
+        return this;
+    }
+
+    public boolean isAdaptiveFilterReorderingEnabled()
+    {
+        return adaptiveFilterReorderingEnabled;
+    }
+
+    @Config("compiler.adaptive-filter-reordering-enabled")
+    @ConfigDescription("Evaluate the conjuncts of deterministic filters separately, and reorder them by the cost and selectivity observed on the first pages of each split")
+    public CompilerConfig setAdaptiveFilterReorderingEnabled(boolean adaptiveFilterReorderingEnabled)
+    {
+        this.adaptiveFilterReorderingEnabled = adaptiveFilterReorderingEnabled;
+        return this;
+    }
+
+    public File getCodeCacheDirectory()
+    {
+        return codeCacheDirectory;
+    }
+
+    @Config("compiler.code-cache-directory")
+    @ConfigDescription("Local directory where the bytecode of generated classes is kept across restarts. The cache is disabled when not set")
+    public CompilerConfig setCodeCacheDirectory(File codeCacheDirectory)
+    {
+        this.codeCacheDirectory = codeCacheDirectory;
+        return this;
+    }
+
+    @Min(0)
+    public int getCodeCachePreloadCount()
+    {
+        return codeCachePreloadCount;
+    }
+
+    @Config("compiler.code-cache-preload-count")
+    @ConfigDescription("Number of the most used code cache entries read into memory at startup")
+    public CompilerConfig setCodeCachePreloadCount(int codeCachePreloadCount)
+    {
+        this.codeCachePreloadCount = codeCachePreloadCount;
+        return this;
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
@@ -29,12 +30,14 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
@@ -50,6 +53,7 @@ public class LocalDynamicFilter
     private final Map<String, Integer> buildChannels;
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
+    private final SettableFuture<Map<VariableReferenceExpression, SplitBlockBloomFilter>> bloomFilterResultFuture;
 
     // Number of build-side partitions to be collected.
     private final int partitionCount;
@@ -57,6 +61,9 @@ public class LocalDynamicFilter
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<String>> partitions;
 
+    // The Bloom filters from each build-side partition.
+    private final List<Map<String, SplitBlockBloomFilter>> bloomFilterPartitions;
+
     public LocalDynamicFilter(Multimap<String, DynamicFilterPlaceholder> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
     {
         this.probeVariables = requireNonNull(probeVariables, "probeVariables is null");
@@ -64,9 +71,11 @@ public class LocalDynamicFilter
         verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
+        this.bloomFilterPartitions = new ArrayList<>(partitionCount);
     }
 
     private synchronized void addPartition(TupleDomain<String> tupleDomain)
@@ -83,6 +92,47 @@ public class LocalDynamicFilter
         }
     }
 
+    private synchronized void addBloomFilterPartition(Map<String, SplitBlockBloomFilter> bloomFilters)
+    {
+        // Called concurrently by each DynamicFilterSourceOperator instance (when collection is over).
+        verify(bloomFilterPartitions.size() < partitionCount);
+        bloomFilterPartitions.add(bloomFilters);
+        if (bloomFilterPartitions.size() == partitionCount) {
+            Map<VariableReferenceExpression, SplitBlockBloomFilter> result = convertBloomFilters(unionBloomFilters(bloomFilterPartitions));
+            bloomFilterPartitions.clear();
+            verify(bloomFilterResultFuture.set(result), "dynamic filter Bloom filters are provided more than once");
+        }
+    }
+
+    private static Map<String, SplitBlockBloomFilter> unionBloomFilters(List<Map<String, SplitBlockBloomFilter>> partitions)
+    {
+        // A filter can only be used if every partition provided it.
+        Map<String, SplitBlockBloomFilter> result = new HashMap<>(partitions.get(0));
+        for (Map<String, SplitBlockBloomFilter> partition : partitions.subList(1, partitions.size())) {
+            result.keySet().retainAll(partition.keySet());
+            result.replaceAll((filterId, bloomFilter) -> {
+                SplitBlockBloomFilter union = bloomFilter.copy();
+                union.merge(partition.get(filterId));
+                return union;
+            });
+        }
+        return result;
+    }
+
+    private Map<VariableReferenceExpression, SplitBlockBloomFilter> convertBloomFilters(Map<String, SplitBlockBloomFilter> bloomFilters)
+    {
+        Map<VariableReferenceExpression, SplitBlockBloomFilter> result = new HashMap<>();
+        for (Map.Entry<String, SplitBlockBloomFilter> entry : bloomFilters.entrySet()) {
+            // A Bloom filter only answers membership, so it can't be applied to range comparisons.
+            for (DynamicFilterPlaceholder placeholder : probeVariables.get(entry.getKey())) {
+                if (placeholder.getOperator() == EQUAL) {
+                    result.putIfAbsent((VariableReferenceExpression) placeholder.getInput(), entry.getValue());
+                }
+            }
+        }
+        return ImmutableMap.copyOf(result);
+    }
+
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
     {
         if (result.isNone()) {
@@ -156,11 +206,21 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    public ListenableFuture<Map<VariableReferenceExpression, SplitBlockBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
     {
         return this::addPartition;
     }
 
+    public Consumer<Map<String, SplitBlockBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilterPartition;
+    }
+
     @Override
     public String toString()
     {
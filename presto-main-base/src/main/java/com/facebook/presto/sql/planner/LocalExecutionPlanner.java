@@ -27,6 +27,7 @@ import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.cost.PlanNodeStatsEstimate;
 import com.facebook.presto.execution.ExplainAnalyzeContext;
 import com.facebook.presto.execution.FragmentResultCacheContext;
 import com.facebook.presto.execution.StageExecutionId;
@@ -270,6 +271,7 @@ import java.util.stream.IntStream;
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationRowsReductionRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterRowLimitPerDriver;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
@@ -283,6 +285,7 @@ import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
 import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static com.facebook.presto.SystemSessionProperties.isEnableDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
+import static com.facebook.presto.SystemSessionProperties.isHistoryBasedGroupByHashSizingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isJoinSpillingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isNativeExecutionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isOptimizeCommonSubExpressions;
@@ -338,6 +341,7 @@ import static com.facebook.presto.spi.plan.JoinType.RIGHT;
 import static com.facebook.presto.spi.plan.ProjectNode.Locality.LOCAL;
 import static com.facebook.presto.spi.plan.ProjectNode.Locality.REMOTE;
 import static com.facebook.presto.spi.relation.ExpressionOptimizer.Level.OPTIMIZED;
+import static com.facebook.presto.spi.statistics.SourceInfo.ConfidenceLevel.LOW;
 import static com.facebook.presto.sql.analyzer.ExpressionTreeUtils.createSymbolReference;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.sql.gen.CursorProcessorCompiler.HIGH_PROJECTION_WARNING_THRESHOLD;
@@ -369,6 +373,8 @@ import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -408,6 +414,9 @@ public class LocalExecutionPlanner
     private final boolean useNewNanDefinition;
 
     private static final TypeSignature SPHERICAL_GEOGRAPHY_TYPE_SIGNATURE = parseTypeSignature("SphericalGeography");
+    private static final int DEFAULT_EXPECTED_GROUPS = 10_000;
+    // bounds the memory allocated upfront when the statistics are off
+    private static final int MAX_HISTORY_BASED_EXPECTED_GROUPS = 100_000;
 
     @Inject
     public LocalExecutionPlanner(
@@ -1605,6 +1614,11 @@ public class LocalExecutionPlanner
                     TupleDomain<VariableReferenceExpression> predicate = collector.getPredicate();
                     return predicate.transform(tableScanNode.getAssignments()::get);
                 });
+                if (table != null) {
+                    table = table.withDynamicFilterBloomFilters(() -> collector.getBloomFilters().entrySet().stream()
+                            .filter(entry -> tableScanNode.getAssignments().containsKey(entry.getKey()))
+                            .collect(toImmutableMap(entry -> tableScanNode.getAssignments().get(entry.getKey()), Map.Entry::getValue, (first, second) -> first)));
+                }
             }
 
             // compiler uses inputs instead of variables, so rewrite the expressions first
@@ -2573,10 +2587,12 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     planNodeId,
                     dynamicFilter.getTupleDomainConsumer(),
+                    dynamicFilter.getBloomFilterConsumer(),
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
                     getDynamicFilteringMaxPerDriverSize(context.getSession()),
                     getDynamicFilteringRangeRowLimitPerDriver(context.getSession()),
+                    getDynamicFilteringBloomFilterRowLimitPerDriver(context.getSession()),
                     useNewNanDefinition);
         }
 
@@ -2598,6 +2614,7 @@ public class LocalExecutionPlanner
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
                         addSuccessCallback(filter.getResultFuture(), collector::intersect);
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::addBloomFilters);
                         return filter;
                     });
         }
@@ -3528,12 +3545,27 @@ public class LocalExecutionPlanner
                     context,
                     0,
                     mappings,
-                    10_000,
+                    getExpectedGroups(node),
                     Optional.of(maxPartialAggregationMemorySize),
                     node.getStep().isOutputPartial());
             return new PhysicalOperation(operatorFactory, mappings.build(), context, source);
         }
 
+        private int getExpectedGroups(AggregationNode node)
+        {
+            if (!isHistoryBasedGroupByHashSizingEnabled(session)) {
+                return DEFAULT_EXPECTED_GROUPS;
+            }
+            // Only the confidence of the estimates survives sending the fragment to the workers. History based
+            // statistics are high confidence, while estimates derived from the connector statistics are low confidence.
+            Optional<PlanNodeStatsEstimate> stats = fragment.getStatsAndCosts().map(statsAndCosts -> statsAndCosts.getStats().get(node.getId()));
+            if (!stats.isPresent() || stats.get().confidenceLevel() == LOW || stats.get().isOutputRowCountUnknown()) {
+                return DEFAULT_EXPECTED_GROUPS;
+            }
+            // the output of the aggregation in previous runs bounds the number of groups of any single driver
+            return (int) max(1, min(stats.get().getOutputRowCount(), MAX_HISTORY_BASED_EXPECTED_GROUPS));
+        }
+
         private OperatorFactory createHashAggregationOperatorFactory(
                 PlanNodeId planNodeId,
                 Map<VariableReferenceExpression, Aggregation> aggregations,
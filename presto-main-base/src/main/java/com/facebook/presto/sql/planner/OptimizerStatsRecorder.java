@@ -22,39 +22,55 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Verify.verify;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class OptimizerStatsRecorder
 {
-    private final Map<Class<?>, OptimizerStats> stats = new HashMap<>();
+    private final Map<String, OptimizerStats> stats = new HashMap<>();
 
     public void register(PlanOptimizer optimizer)
     {
         requireNonNull(optimizer, "optimizer is null");
         checkArgument(!optimizer.getClass().isAnonymousClass());
-        stats.put(optimizer.getClass(), new OptimizerStats());
+        register(optimizer.getClass().getSimpleName());
+    }
+
+    /**
+     * Registers stats for a part of the optimizer that is not a {@link PlanOptimizer} itself,
+     * such as one of the strategies of a rule.
+     */
+    public void register(String name)
+    {
+        checkArgument(!requireNonNull(name, "name is null").isEmpty(), "name is empty");
+        stats.put(name, new OptimizerStats());
     }
 
     public void record(PlanOptimizer optimizer, long nanos)
     {
         requireNonNull(optimizer, "optimizer is null");
-        OptimizerStats optimizerStats = requireNonNull(stats.get(optimizer.getClass()), "optimizer is not registered");
-        optimizerStats.record(nanos);
+        record(optimizer.getClass().getSimpleName(), nanos);
+    }
+
+    public void record(String name, long nanos)
+    {
+        getStats(name).record(nanos);
     }
 
     public void recordFailure(PlanOptimizer optimizer)
     {
         requireNonNull(optimizer, "optimizer is null");
-        OptimizerStats optimizerStats = requireNonNull(stats.get(optimizer.getClass()), "optimizer is not registered");
-        optimizerStats.recordFailure();
+        recordFailure(optimizer.getClass().getSimpleName());
+    }
+
+    public void recordFailure(String name)
+    {
+        getStats(name).recordFailure();
     }
 
     public void export(MBeanExporter exporter)
     {
-        for (Map.Entry<Class<?>, OptimizerStats> entry : stats.entrySet()) {
-            verify(!entry.getKey().getSimpleName().isEmpty());
+        for (Map.Entry<String, OptimizerStats> entry : stats.entrySet()) {
             try {
                 exporter.export(getName(entry.getKey()), entry.getValue());
             }
@@ -66,15 +82,20 @@ public class OptimizerStatsRecorder
 
     public void unexport(MBeanExporter exporter)
     {
-        for (Class<?> rule : stats.keySet()) {
-            exporter.unexport(getName(rule));
+        for (String name : stats.keySet()) {
+            exporter.unexport(getName(name));
         }
     }
 
-    private String getName(Class<?> key)
+    private OptimizerStats getStats(String name)
+    {
+        return requireNonNull(stats.get(name), "optimizer is not registered");
+    }
+
+    private String getName(String name)
     {
         return ObjectNames.builder(PlanOptimizer.class)
-                .withProperty("optimizer", key.getSimpleName())
+                .withProperty("optimizer", name)
                 .build();
     }
 }
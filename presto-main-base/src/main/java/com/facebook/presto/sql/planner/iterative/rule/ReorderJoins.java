@@ -37,6 +37,7 @@ import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.analyzer.FeaturesConfig.JoinDistributionType;
 import com.facebook.presto.sql.planner.EqualityInference;
+import com.facebook.presto.sql.planner.OptimizerStatsRecorder;
 import com.facebook.presto.sql.planner.iterative.Lookup;
 import com.facebook.presto.sql.planner.iterative.Rule;
 import com.facebook.presto.sql.planner.plan.MultiJoinNode;
@@ -67,6 +68,7 @@ import java.util.stream.StreamSupport;
 import static com.facebook.presto.SystemSessionProperties.confidenceBasedBroadcastEnabled;
 import static com.facebook.presto.SystemSessionProperties.getJoinDistributionType;
 import static com.facebook.presto.SystemSessionProperties.getJoinReorderingStrategy;
+import static com.facebook.presto.SystemSessionProperties.getMaxExhaustiveReorderedJoins;
 import static com.facebook.presto.SystemSessionProperties.getMaxReorderedJoins;
 import static com.facebook.presto.SystemSessionProperties.shouldHandleComplexEquiJoins;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
@@ -105,6 +107,9 @@ public class ReorderJoins
 {
     private static final Logger log = Logger.get(ReorderJoins.class);
 
+    private static final String EXHAUSTIVE_JOIN_REORDERING = "ExhaustiveJoinReordering";
+    private static final String GREEDY_JOIN_REORDERING = "GreedyJoinReordering";
+
     // We check that join distribution type is absent because we only want
     // to do this transformation once (reordered joins will have distribution type already set).
     private final Pattern<JoinNode> joinNodePattern;
@@ -113,14 +118,23 @@ public class ReorderJoins
     private final Metadata metadata;
     private final FunctionResolution functionResolution;
     private final DeterminismEvaluator determinismEvaluator;
+    private final OptimizerStatsRecorder optimizerStats;
     private String statsSource;
 
     public ReorderJoins(CostComparator costComparator, Metadata metadata)
+    {
+        this(costComparator, metadata, new OptimizerStatsRecorder());
+    }
+
+    public ReorderJoins(CostComparator costComparator, Metadata metadata, OptimizerStatsRecorder optimizerStats)
     {
         this.costComparator = requireNonNull(costComparator, "costComparator is null");
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.functionResolution = new FunctionResolution(metadata.getFunctionAndTypeManager().getFunctionAndTypeResolver());
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata.getFunctionAndTypeManager());
+        this.optimizerStats = requireNonNull(optimizerStats, "optimizerStats is null");
+        optimizerStats.register(EXHAUSTIVE_JOIN_REORDERING);
+        optimizerStats.register(GREEDY_JOIN_REORDERING);
 
         this.joinNodePattern = join().matching(
                 joinNode -> !joinNode.getDistributionType().isPresent()
@@ -165,7 +179,24 @@ public class ReorderJoins
                 functionResolution,
                 metadata);
 
-        JoinEnumerationResult result = joinEnumerator.chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+        // the number of sources is the number of joins + 1
+        boolean greedy = multiJoinNode.getSources().size() > getMaxExhaustiveReorderedJoins(context.getSession()) + 1;
+        String strategy = greedy ? GREEDY_JOIN_REORDERING : EXHAUSTIVE_JOIN_REORDERING;
+        long start = System.nanoTime();
+        JoinEnumerationResult result;
+        try {
+            if (greedy) {
+                result = joinEnumerator.chooseJoinOrderGreedily(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+            }
+            else {
+                result = joinEnumerator.chooseJoinOrder(multiJoinNode.getSources(), multiJoinNode.getOutputVariables());
+            }
+        }
+        catch (RuntimeException e) {
+            optimizerStats.recordFailure(strategy);
+            throw e;
+        }
+        optimizerStats.record(strategy, System.nanoTime() - start);
 
         if (!result.getPlanNode().isPresent()) {
             return Result.empty();
@@ -256,6 +287,72 @@ public class ReorderJoins
             return bestResult;
         }
 
+        /**
+         * Builds the join order bottom up, by repeatedly joining the pair of relations whose join has
+         * the least cost, until a single relation is left. Each step only costs the joins of the
+         * relation built in the previous step, so this grows polynomially with the number of sources,
+         * while {@link #chooseJoinOrder} grows exponentially.
+         */
+        @VisibleForTesting
+        JoinEnumerationResult chooseJoinOrderGreedily(LinkedHashSet<PlanNode> sources, List<VariableReferenceExpression> outputVariables)
+        {
+            checkState(sources.size() > 1, "sources size is less than or equal to one");
+
+            // intermediate relations keep all the variables that a later join may refer to
+            List<VariableReferenceExpression> intermediateOutputVariables = ImmutableSet.<VariableReferenceExpression>builder()
+                    .addAll(outputVariables)
+                    .addAll(extractUnique(allFilter))
+                    .build()
+                    .asList();
+
+            List<LinkedHashSet<PlanNode>> relations = new ArrayList<>();
+            for (PlanNode source : sources) {
+                relations.add(new LinkedHashSet<>(ImmutableList.of(source)));
+            }
+
+            // candidate joins stay valid until one of their sides is joined with another relation
+            Map<Set<PlanNode>, JoinEnumerationResult> candidates = new HashMap<>();
+            while (relations.size() > 2) {
+                context.checkTimeoutNotExhausted();
+
+                JoinEnumerationResult bestResult = null;
+                int bestLeft = -1;
+                int bestRight = -1;
+                for (int left = 0; left < relations.size(); left++) {
+                    for (int right = left + 1; right < relations.size(); right++) {
+                        LinkedHashSet<PlanNode> leftSources = relations.get(left);
+                        LinkedHashSet<PlanNode> rightSources = relations.get(right);
+                        JoinEnumerationResult result = candidates.computeIfAbsent(
+                                Sets.union(leftSources, rightSources).immutableCopy(),
+                                key -> createJoin(leftSources, rightSources, intermediateOutputVariables));
+                        if (result.equals(UNKNOWN_COST_RESULT)) {
+                            return UNKNOWN_COST_RESULT;
+                        }
+                        if (!result.equals(INFINITE_COST_RESULT) && (bestResult == null || resultComparator.compare(result, bestResult) < 0)) {
+                            bestResult = result;
+                            bestLeft = left;
+                            bestRight = right;
+                        }
+                    }
+                }
+                if (bestResult == null) {
+                    // the remaining relations can only be joined with cross joins
+                    return INFINITE_COST_RESULT;
+                }
+
+                LinkedHashSet<PlanNode> joined = new LinkedHashSet<>(relations.get(bestLeft));
+                joined.addAll(relations.get(bestRight));
+                // joins of the new relation look up its plan by its sources
+                memo.put(ImmutableSet.copyOf(joined), bestResult);
+                relations.remove(bestRight);
+                relations.set(bestLeft, joined);
+            }
+
+            JoinEnumerationResult result = createJoin(relations.get(0), relations.get(1), outputVariables);
+            result.planNode.ifPresent(planNode -> log.debug("Greedy join order was: %s", planNode));
+            return result;
+        }
+
         /**
          * This method generates all the ways of dividing totalNodes into two sets
          * each containing at least one node. It will generate one set for each
@@ -33,11 +33,14 @@ import com.facebook.presto.memory.MemoryPoolAssignmentsRequest;
 import com.facebook.presto.memory.NodeMemoryConfig;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.metadata.InternalNode;
+import com.facebook.presto.operator.DriverContext;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeClientSupplier;
 import com.facebook.presto.operator.NoOpFragmentResultCacheManager;
+import com.facebook.presto.operator.OperatorContext;
 import com.facebook.presto.operator.TaskMemoryReservationSummary;
 import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spiller.LocalSpillManager;
 import com.facebook.presto.spiller.NodeSpillConfig;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
@@ -68,6 +71,7 @@ import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -318,6 +322,41 @@ public class TestSqlTaskManager
         }
     }
 
+    @Test
+    public void testMemoryRevokingRequestedByCoordinator()
+    {
+        try (SqlTaskManager sqlTaskManager = createSqlTaskManager(new TaskManagerConfig())) {
+            TaskId taskId = TASK_ID;
+            createTask(sqlTaskManager, taskId, createInitialEmptyOutputBuffers(PARTITIONED).withNoMoreBufferIds());
+
+            DriverContext driverContext = sqlTaskManager.getQueryContext(taskId.getQueryId())
+                    .getTaskContextByTaskId(taskId)
+                    .addPipelineContext(0, false, false, false)
+                    .addDriverContext();
+            OperatorContext revocableOperatorContext = driverContext.addOperatorContext(1, new PlanNodeId("revocable"), "revocable");
+            OperatorContext operatorContext = driverContext.addOperatorContext(2, new PlanNodeId("non-revocable"), "non-revocable");
+            revocableOperatorContext.localRevocableMemoryContext().setBytes(1000);
+            operatorContext.localUserMemoryContext().setBytes(1000);
+
+            // requests for other queries do not revoke anything
+            sqlTaskManager.updateMemoryPoolAssignments(new MemoryPoolAssignmentsRequest(
+                    "coordinator",
+                    1,
+                    ImmutableList.of(),
+                    ImmutableList.of(new QueryId("other"))));
+            assertFalse(revocableOperatorContext.isMemoryRevokingRequested());
+
+            // revoking requests are honored even if the assignments are stale
+            sqlTaskManager.updateMemoryPoolAssignments(new MemoryPoolAssignmentsRequest(
+                    "coordinator",
+                    1,
+                    ImmutableList.of(),
+                    ImmutableList.of(taskId.getQueryId())));
+            assertTrue(revocableOperatorContext.isMemoryRevokingRequested());
+            assertFalse(operatorContext.isMemoryRevokingRequested());
+        }
+    }
+
     public SqlTaskManager createSqlTaskManager(TaskManagerConfig config)
     {
         return new SqlTaskManager(
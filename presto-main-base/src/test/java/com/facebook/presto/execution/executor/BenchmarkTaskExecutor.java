@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.execution.SplitRunner;
+import com.facebook.presto.execution.TaskId;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures how fast the task executor dispatches short quanta of many splits to its runner threads.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskExecutor
+{
+    private static final int SPLITS = 1000;
+
+    @Benchmark
+    public Object dispatchSplits(BenchmarkData data)
+            throws Exception
+    {
+        TaskExecutor taskExecutor = data.getTaskExecutor();
+        TaskHandle taskHandle = taskExecutor.addTask(data.nextTaskId(), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+        try {
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int i = 0; i < SPLITS; i++) {
+                splits.add(new CountingSplitRunner(data.getQuantaPerSplit()));
+            }
+            List<ListenableFuture<?>> futures = taskExecutor.enqueueSplits(taskHandle, false, splits.build());
+            return Futures.allAsList(futures).get();
+        }
+        finally {
+            taskExecutor.removeTask(taskHandle);
+        }
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"MULTILEVEL", "WORK_STEALING"})
+        private String splitQueue = "MULTILEVEL";
+
+        @Param({"8", "64"})
+        private int runnerThreads = 8;
+
+        @Param({"1", "100"})
+        private int quantaPerSplit = 100;
+
+        private final AtomicInteger nextTaskId = new AtomicInteger();
+        private TaskExecutor taskExecutor;
+
+        @Setup
+        public void setup()
+        {
+            AbstractMultilevelSplitQueue queue;
+            switch (splitQueue) {
+                case "MULTILEVEL":
+                    queue = new MultilevelSplitQueue(2);
+                    break;
+                case "WORK_STEALING":
+                    queue = new WorkStealingMultilevelSplitQueue(2, runnerThreads);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected split queue: " + splitQueue);
+            }
+            taskExecutor = new TaskExecutor(runnerThreads, 4 * runnerThreads, 3, Integer.MAX_VALUE, TASK_FAIR, queue, Ticker.systemTicker());
+            taskExecutor.start();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+
+        public TaskId nextTaskId()
+        {
+            return new TaskId("benchmark", 0, 0, nextTaskId.getAndIncrement(), 0);
+        }
+
+        public int getQuantaPerSplit()
+        {
+            return quantaPerSplit;
+        }
+    }
+
+    private static class CountingSplitRunner
+            implements SplitRunner
+    {
+        private final int requiredQuanta;
+        private final AtomicInteger processedQuanta = new AtomicInteger();
+
+        public CountingSplitRunner(int requiredQuanta)
+        {
+            this.requiredQuanta = requiredQuanta;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return processedQuanta.get() >= requiredQuanta;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            processedQuanta.incrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "benchmark-split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
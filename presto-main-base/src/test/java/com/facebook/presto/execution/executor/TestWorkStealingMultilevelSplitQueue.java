@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
+import com.facebook.airlift.testing.TestingTicker;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.execution.SplitRunner;
+import com.facebook.presto.execution.TaskId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestWorkStealingMultilevelSplitQueue
+{
+    @Test
+    public void testTakeFromOtherStripes()
+            throws Exception
+    {
+        WorkStealingMultilevelSplitQueue splitQueue = new WorkStealingMultilevelSplitQueue(2, 2);
+        TaskHandle taskHandle = createTaskHandle(splitQueue);
+        List<PrioritizedSplitRunner> splits = ImmutableList.of(createSplit(taskHandle), createSplit(taskHandle), createSplit(taskHandle));
+
+        // this thread takes splits from the stripe it offers them to
+        splitQueue.offer(splits.get(0));
+        assertSame(splitQueue.take(), splits.get(0));
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 0);
+
+        splits.forEach(splitQueue::offer);
+        assertEquals(splitQueue.size(), 3);
+
+        // another thread steals the splits in priority order
+        ExecutorService executor = newSingleThreadExecutor(daemonThreadsNamed("test-executor-%s"));
+        try {
+            for (PrioritizedSplitRunner split : splits) {
+                assertSame(executor.submit(splitQueue::take).get(10, SECONDS), split);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(splitQueue.size(), 0);
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 3);
+    }
+
+    @Test
+    public void testRemove()
+            throws Exception
+    {
+        WorkStealingMultilevelSplitQueue splitQueue = new WorkStealingMultilevelSplitQueue(2, 4);
+        TaskHandle taskHandle = createTaskHandle(splitQueue);
+        List<PrioritizedSplitRunner> splits = ImmutableList.of(createSplit(taskHandle), createSplit(taskHandle), createSplit(taskHandle), createSplit(taskHandle));
+        splits.forEach(splitQueue::offer);
+
+        splitQueue.remove(splits.get(0));
+        assertEquals(splitQueue.size(), 3);
+        splitQueue.removeAll(splits.subList(1, 3));
+        assertEquals(splitQueue.size(), 1);
+
+        assertSame(splitQueue.take(), splits.get(3));
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    @Test
+    public void testLevelSelectionAcrossStripes()
+            throws Exception
+    {
+        WorkStealingMultilevelSplitQueue splitQueue = new WorkStealingMultilevelSplitQueue(2, 2);
+        TaskHandle level0Task = createTaskHandle(splitQueue);
+        TaskHandle level1Task = createTaskHandle(splitQueue);
+        level1Task.addScheduledNanos(SECONDS.toNanos(2));
+        assertEquals(level1Task.getPriority().getLevel(), 1);
+
+        // the level 1 splits wait in the stripe of this thread, and the level 0 splits in the stripe of another thread
+        for (int i = 0; i < 30; i++) {
+            splitQueue.offer(createSplit(level1Task));
+        }
+        ExecutorService executor = newSingleThreadExecutor(daemonThreadsNamed("test-executor-%s"));
+        try {
+            executor.submit(() -> {
+                for (int i = 0; i < 30; i++) {
+                    splitQueue.offer(createSplit(level0Task));
+                }
+            }).get(10, SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // level 0 gets twice the scheduled time of level 1, although this thread has to steal the level 0 splits
+        int[] selectedSplits = new int[2];
+        for (int i = 0; i < 30; i++) {
+            Priority priority = splitQueue.take().getPriority();
+            selectedSplits[priority.getLevel()]++;
+            long scheduledNanos = priority.getLevel() == 0 ? 0 : SECONDS.toNanos(2);
+            splitQueue.updatePriority(priority, MILLISECONDS.toNanos(100), scheduledNanos);
+        }
+        assertEquals(selectedSplits[0] + selectedSplits[1], 30);
+        assertTrue(Math.abs(selectedSplits[0] - 2 * selectedSplits[1]) <= 3, format("level 0 selected %s times and level 1 %s times", selectedSplits[0], selectedSplits[1]));
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), selectedSplits[0]);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testTaskExecutor()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, TASK_FAIR, new WorkStealingMultilevelSplitQueue(2, 4), ticker);
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            ImmutableList.Builder<CountingSplitRunner> splits = ImmutableList.builder();
+            for (int i = 0; i < 100; i++) {
+                splits.add(new CountingSplitRunner(10));
+            }
+            List<CountingSplitRunner> leafSplits = splits.build();
+            List<CountingSplitRunner> intermediateSplits = ImmutableList.of(new CountingSplitRunner(10), new CountingSplitRunner(10));
+
+            ImmutableList.Builder<ListenableFuture<?>> futures = ImmutableList.builder();
+            futures.addAll(taskExecutor.enqueueSplits(taskHandle, false, leafSplits));
+            futures.addAll(taskExecutor.enqueueSplits(taskHandle, true, intermediateSplits));
+            Futures.allAsList(futures.build()).get(10, SECONDS);
+
+            for (CountingSplitRunner split : leafSplits) {
+                assertEquals(split.getProcessedQuanta(), 10);
+            }
+            for (CountingSplitRunner split : intermediateSplits) {
+                assertEquals(split.getProcessedQuanta(), 10);
+            }
+            assertEquals(taskExecutor.getWaitingSplits(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    private static TaskHandle createTaskHandle(AbstractMultilevelSplitQueue splitQueue)
+    {
+        return new TaskHandle(new TaskId("test", 0, 0, 0, 0), new TaskPriorityTracker(splitQueue), () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+    }
+
+    private static PrioritizedSplitRunner createSplit(TaskHandle taskHandle)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new CountingSplitRunner(1),
+                new TestingTicker(),
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
+    private static class CountingSplitRunner
+            implements SplitRunner
+    {
+        private final int requiredQuanta;
+        private final AtomicInteger processedQuanta = new AtomicInteger();
+
+        public CountingSplitRunner(int requiredQuanta)
+        {
+            this.requiredQuanta = requiredQuanta;
+        }
+
+        public int getProcessedQuanta()
+        {
+            return processedQuanta.get();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return processedQuanta.get() >= requiredQuanta;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            processedQuanta.incrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "counting-split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures the reservation throughput of a shared memory pool. Every benchmark thread reserves memory
+ * for its own query, so the threads only contend on the pool itself. Run the main method to compare
+ * the throughput for different thread counts.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Benchmark)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkMemoryPool
+{
+    private static final int RESERVATIONS = 1000;
+    private static final String ALLOCATION_TAG = "BenchmarkOperator";
+    private static final long RESERVATION_BYTES = 4096;
+
+    @Benchmark
+    @OperationsPerInvocation(RESERVATIONS)
+    public void reserveAndFree(BenchmarkData data, QueryData query)
+    {
+        for (int i = 0; i < RESERVATIONS; i++) {
+            data.pool.reserve(query.queryId, ALLOCATION_TAG, RESERVATION_BYTES);
+            data.pool.free(query.queryId, ALLOCATION_TAG, RESERVATION_BYTES);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESERVATIONS)
+    public void reserveAndFreeRevocable(BenchmarkData data, QueryData query)
+    {
+        for (int i = 0; i < RESERVATIONS; i++) {
+            data.pool.reserveRevocable(query.queryId, RESERVATION_BYTES);
+            data.pool.freeRevocable(query.queryId, RESERVATION_BYTES);
+        }
+    }
+
+    @Test
+    public void verifyReserveAndFree()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        QueryData query = new QueryData();
+        query.setup(data);
+
+        reserveAndFree(data, query);
+        reserveAndFreeRevocable(data, query);
+        assertEquals(data.pool.getQueryMemoryReservation(query.queryId), QueryData.BASELINE_BYTES);
+        assertEquals(data.pool.getQueryRevocableMemoryReservation(query.queryId), 0);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkData
+    {
+        private final AtomicInteger nextQueryId = new AtomicInteger();
+        private MemoryPool pool;
+
+        @Setup
+        public void setup()
+        {
+            // large enough to never block, which is the common case on a worker
+            pool = new MemoryPool(new MemoryPoolId("benchmark"), new DataSize(100, GIGABYTE));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryData
+    {
+        private static final long BASELINE_BYTES = 1024 * 1024;
+
+        private QueryId queryId;
+
+        @Setup
+        public void setup(BenchmarkData data)
+        {
+            queryId = new QueryId("query_" + data.nextQueryId.getAndIncrement());
+            // the query keeps holding memory between the reservations, as a running query does
+            data.pool.reserve(queryId, ALLOCATION_TAG, BASELINE_BYTES);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        for (int threads : new int[] {1, 2, 4, 8, 16}) {
+            Options options = new OptionsBuilder()
+                    .verbosity(VerboseMode.NORMAL)
+                    .threads(threads)
+                    .include(".*" + BenchmarkMemoryPool.class.getSimpleName() + ".*")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.presto.memory.ClusterMemoryRevokingPolicy.chooseQueriesToRevoke;
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static org.testng.Assert.assertEquals;
+
+public class TestClusterMemoryRevokingPolicy
+{
+    private static final QueryId QUERY_1 = new QueryId("q_1");
+    private static final QueryId QUERY_2 = new QueryId("q_2");
+    private static final QueryId QUERY_3 = new QueryId("q_3");
+
+    @Test
+    public void testNodeWithFreeMemory()
+    {
+        Map<String, MemoryInfo> nodes = ImmutableMap.of(
+                "n1", memoryInfo(100, 50, ImmutableMap.of(QUERY_1, 40L)));
+        assertEquals(chooseQueriesToRevoke(nodes), ImmutableMap.of());
+    }
+
+    @Test
+    public void testFullNodeWithoutRevocableMemory()
+    {
+        Map<String, MemoryInfo> nodes = ImmutableMap.of(
+                "n1", memoryInfo(100, 100, ImmutableMap.of()));
+        assertEquals(chooseQueriesToRevoke(nodes), ImmutableMap.of());
+    }
+
+    @Test
+    public void testLargestRevocableConsumersCoverOvercommit()
+    {
+        // n1 is 10 bytes overcommitted, which the largest consumer covers alone
+        // n2 is 30 bytes overcommitted, which needs the two largest consumers
+        Map<String, MemoryInfo> nodes = ImmutableMap.of(
+                "n1", memoryInfo(100, 60, ImmutableMap.of(QUERY_1, 5L, QUERY_2, 15L, QUERY_3, 30L)),
+                "n2", memoryInfo(100, 85, ImmutableMap.of(QUERY_1, 25L, QUERY_2, 0L, QUERY_3, 20L)),
+                "n3", memoryInfo(100, 20, ImmutableMap.of(QUERY_1, 70L)));
+        assertEquals(
+                chooseQueriesToRevoke(nodes),
+                ImmutableMap.of(
+                        "n1", ImmutableList.of(QUERY_3),
+                        "n2", ImmutableList.of(QUERY_1, QUERY_3)));
+    }
+
+    @Test
+    public void testFullNodeRevokesAtLeastOneQuery()
+    {
+        Map<String, MemoryInfo> nodes = ImmutableMap.of(
+                "n1", memoryInfo(100, 70, ImmutableMap.of(QUERY_1, 10L, QUERY_2, 20L)));
+        assertEquals(chooseQueriesToRevoke(nodes), ImmutableMap.of("n1", ImmutableList.of(QUERY_2)));
+    }
+
+    private static MemoryInfo memoryInfo(long maxBytes, long reservedBytes, Map<QueryId, Long> revocableReservations)
+    {
+        long reservedRevocableBytes = revocableReservations.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        MemoryPoolInfo generalPool = new MemoryPoolInfo(maxBytes, reservedBytes, reservedRevocableBytes, ImmutableMap.of(), ImmutableMap.of(), revocableReservations);
+        return new MemoryInfo(new DataSize(maxBytes, BYTE), ImmutableMap.of(GENERAL_POOL, generalPool));
+    }
+}
@@ -37,6 +37,8 @@ public class TestMemoryManagerConfig
         assertRecordedDefaults(ConfigAssertions.recordDefaults(MemoryManagerConfig.class)
                 .setLowMemoryKillerPolicy(NONE)
                 .setKillOnOutOfMemoryDelay(new Duration(5, MINUTES))
+                .setMemoryRevokingBeforeKillEnabled(false)
+                .setMemoryRevokingBeforeKillTimeout(new Duration(30, SECONDS))
                 .setMaxQueryMemory(new DataSize(20, GIGABYTE))
                 .setSoftMaxQueryMemory(new DataSize(20, GIGABYTE))
                 .setMaxQueryTotalMemory(new DataSize(40, GIGABYTE))
@@ -50,6 +52,8 @@ public class TestMemoryManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("query.low-memory-killer.policy", "total-reservation-on-blocked-nodes")
                 .put("query.low-memory-killer.delay", "20s")
+                .put("query.low-memory-killer.memory-revoking-enabled", "true")
+                .put("query.low-memory-killer.memory-revoking-timeout", "1m")
                 .put("query.max-memory", "2GB")
                 .put("query.soft-max-memory", "1GB")
                 .put("query.max-total-memory", "3GB")
@@ -60,6 +64,8 @@ public class TestMemoryManagerConfig
         MemoryManagerConfig expected = new MemoryManagerConfig()
                 .setLowMemoryKillerPolicy(TOTAL_RESERVATION_ON_BLOCKED_NODES)
                 .setKillOnOutOfMemoryDelay(new Duration(20, SECONDS))
+                .setMemoryRevokingBeforeKillEnabled(true)
+                .setMemoryRevokingBeforeKillTimeout(new Duration(1, MINUTES))
                 .setMaxQueryMemory(new DataSize(2, GIGABYTE))
                 .setSoftMaxQueryMemory(new DataSize(1, GIGABYTE))
                 .setMaxQueryTotalMemory(new DataSize(3, GIGABYTE))
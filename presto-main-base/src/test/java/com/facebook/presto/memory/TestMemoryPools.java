@@ -44,13 +44,17 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.json.JsonCodec.listJsonCodec;
 import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
@@ -60,6 +64,8 @@ import static com.facebook.presto.testing.LocalQueryRunner.queryRunnerWithInitia
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
@@ -291,6 +297,50 @@ public class TestMemoryPools
         assertEquals(pool2.getFreeBytes(), 1000);
     }
 
+    @Test
+    public void testConcurrentReservations()
+            throws Exception
+    {
+        int threads = 8;
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(200, BYTE));
+        ExecutorService executor = newFixedThreadPool(threads, daemonThreadsNamed("test-memory-pool-%s"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                QueryId queryId = new QueryId("test_query_" + thread);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        boolean revocable = i % 2 == 0;
+                        long bytes = 1 + i % 50;
+                        ListenableFuture<?> future = revocable ? pool.reserveRevocable(queryId, bytes) : pool.reserve(queryId, "test_tag", bytes);
+                        if (revocable) {
+                            pool.freeRevocable(queryId, bytes);
+                        }
+                        else {
+                            pool.free(queryId, "test_tag", bytes);
+                        }
+                        // every thread frees what it reserves, so a blocked reservation is always unblocked eventually
+                        future.get(10, SECONDS);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(pool.getFreeBytes(), 200);
+        assertEquals(pool.getReservedBytes(), 0);
+        assertEquals(pool.getReservedRevocableBytes(), 0);
+        assertEquals(pool.getTaggedMemoryAllocations().size(), 0);
+        assertEquals(pool.getInfo().getQueryMemoryReservations().size(), 0);
+        assertEquals(pool.getInfo().getQueryMemoryRevocableReservations().size(), 0);
+    }
+
     private long runDriversUntilBlocked(Predicate<OperatorContext> reason)
     {
         long iterationsCount = 0;
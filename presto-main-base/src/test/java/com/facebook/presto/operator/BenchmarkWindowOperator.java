@@ -19,6 +19,8 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.block.SortOrder;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.operator.window.FrameInfo;
 import com.facebook.presto.testing.TestingTaskContext;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
@@ -41,18 +43,26 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.metadata.FunctionAndTypeManager.createTestFunctionAndTypeManager;
 import static com.facebook.presto.operator.BenchmarkWindowOperator.Context.ROWS_PER_PAGE;
 import static com.facebook.presto.operator.BenchmarkWindowOperator.Context.TOTAL_PAGES;
 import static com.facebook.presto.operator.TestWindowOperator.ROW_NUMBER;
 import static com.facebook.presto.operator.TestWindowOperator.createFactoryUnbounded;
+import static com.facebook.presto.operator.WindowFunctionDefinition.window;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.CURRENT_ROW;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.PRECEDING;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.ROWS;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -219,13 +229,92 @@ public class BenchmarkWindowOperator
         }
     }
 
+    @State(Thread)
+    public static class SlidingFrameContext
+    {
+        public static final int ROWS_PER_PARTITION = 100_000;
+
+        @Param({"10", "100", "1000", "10000"})
+        public int framePrecedingRows;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory operatorFactory;
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            // sum(value) OVER (PARTITION BY partition ORDER BY key ROWS BETWEEN framePrecedingRows PRECEDING AND CURRENT ROW)
+            FunctionAndTypeManager functionAndTypeManager = createTestFunctionAndTypeManager();
+            FrameInfo slidingFrame = new FrameInfo(ROWS, PRECEDING, Optional.of(3), Optional.empty(), CURRENT_ROW, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+            List<WindowFunctionDefinition> sum = ImmutableList.of(window(
+                    functionAndTypeManager.getWindowFunctionImplementation(functionAndTypeManager.lookupFunction("sum", fromTypes(BIGINT))),
+                    BIGINT,
+                    slidingFrame,
+                    2));
+
+            operatorFactory = createFactoryUnbounded(
+                    ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT),
+                    Ints.asList(0, 1, 2, 3),
+                    sum,
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    new DummySpillerFactory(),
+                    false);
+
+            RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(ImmutableList.of(BIGINT, BIGINT, BIGINT, BIGINT));
+            for (int i = 0; i < TOTAL_PAGES; i++) {
+                pagesBuilder.addBlocksPage(
+                        createLongRepeatBlock((i * ROWS_PER_PAGE) / ROWS_PER_PARTITION, ROWS_PER_PAGE),
+                        createLongSequenceBlock(i * ROWS_PER_PAGE, (i + 1) * ROWS_PER_PAGE),
+                        createLongSequenceBlock(0, ROWS_PER_PAGE),
+                        createLongRepeatBlock(framePrecedingRows, ROWS_PER_PAGE));
+            }
+            pages = pagesBuilder.build();
+        }
+
+        public TaskContext createTaskContext()
+        {
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE));
+        }
+
+        public OperatorFactory getOperatorFactory()
+        {
+            return operatorFactory;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+    }
+
     @Benchmark
     public List<Page> benchmark(BenchmarkWindowOperator.Context context)
     {
-        DriverContext driverContext = context.createTaskContext().addPipelineContext(0, true, true, false).addDriverContext();
-        Operator operator = context.getOperatorFactory().createOperator(driverContext);
+        return execute(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
 
-        Iterator<Page> input = context.getPages().iterator();
+    @Benchmark
+    public List<Page> benchmarkSlidingFrame(SlidingFrameContext context)
+    {
+        return execute(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
+
+    private static List<Page> execute(TaskContext taskContext, OperatorFactory operatorFactory, List<Page> pages)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        Iterator<Page> input = pages.iterator();
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
 
         boolean finishing = false;
@@ -323,6 +412,17 @@ public class BenchmarkWindowOperator
         benchmark(context);
     }
 
+    @Test
+    public void verifySlidingFrame()
+    {
+        SlidingFrameContext context = new SlidingFrameContext();
+        context.framePrecedingRows = 1000;
+        context.setup();
+
+        List<Page> outputPages = benchmarkSlidingFrame(context);
+        assertEquals(outputPages.stream().mapToInt(Page::getPositionCount).sum(), TOTAL_PAGES * ROWS_PER_PAGE);
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.Session;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.type.Type;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.COMPACT_JOIN_HASH_TABLE_ENABLED;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCompactJoinHash
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE);
+    private static final List<Integer> JOIN_CHANNELS = ImmutableList.of(0, 1);
+    private static final List<Integer> OUTPUT_CHANNELS = ImmutableList.of(2, 1);
+    private static final Session COMPACT_SESSION = Session.builder(TEST_SESSION)
+            .setSystemProperty(COMPACT_JOIN_HASH_TABLE_ENABLED, "true")
+            .build();
+
+    @Test
+    public void testMatchesJoinHash()
+    {
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(1L, "a", 1.5)
+                .row(2L, "b", 2.5)
+                .row(1L, "a", -0.0)
+                .row(null, "a", 3.5)
+                .row(3L, null, 4.5)
+                .pageBreak()
+                .row(1L, "a", null)
+                .row(4L, "long enough to not be inlined", Double.NaN)
+                .row(2L, "c", 5.5)
+                .build();
+        List<Page> probePages = rowPagesBuilder(ImmutableList.of(BIGINT, VARCHAR))
+                .row(1L, "a")
+                .row(2L, "b")
+                .row(2L, "c")
+                .row(3L, "a")
+                .row(4L, "long enough to not be inlined")
+                .row(5L, "z")
+                .build();
+
+        LookupSourceSupplier expectedSupplier = createLookupSourceSupplier(TEST_SESSION, buildPages);
+        LookupSourceSupplier actualSupplier = createLookupSourceSupplier(COMPACT_SESSION, buildPages);
+        assertFalse(expectedSupplier instanceof CompactJoinHashSupplier);
+        assertTrue(actualSupplier instanceof CompactJoinHashSupplier);
+        assertEquals(actualSupplier.getPositionCount(), expectedSupplier.getPositionCount());
+        assertEquals(actualSupplier.getPositionIsNullCount(), 2);
+
+        LookupSource expected = expectedSupplier.get();
+        LookupSource actual = actualSupplier.get();
+        assertEquals(actual.getChannelCount(), OUTPUT_CHANNELS.size());
+        assertFalse(actual.isEmpty());
+        for (Page probePage : probePages) {
+            for (int position = 0; position < probePage.getPositionCount(); position++) {
+                assertPageEquals(outputTypes(), probe(actual, probePage, position), probe(expected, probePage, position));
+            }
+        }
+
+        // outer joins output every build row through its join position
+        for (int position = 0; position < actual.getJoinPositionCount(); position++) {
+            assertPageEquals(outputTypes(), append(actual, position), append(expected, position));
+        }
+    }
+
+    @Test
+    public void testFallback()
+    {
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(1L, "a", 1.5)
+                .build();
+        PagesIndex pagesIndex = createPagesIndex(buildPages);
+
+        // floating point keys are not compared bitwise
+        assertFalse(pagesIndex.createLookupSourceSupplier(COMPACT_SESSION, ImmutableList.of(2), OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of(), Optional.of(OUTPUT_CHANNELS)) instanceof CompactJoinHashSupplier);
+        // outer joins without join criteria
+        assertFalse(pagesIndex.createLookupSourceSupplier(COMPACT_SESSION, ImmutableList.of(), OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of(), Optional.of(OUTPUT_CHANNELS)) instanceof CompactJoinHashSupplier);
+    }
+
+    @Test
+    public void testCopySizeIsReservedUpFront()
+    {
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(TYPES);
+        for (int i = 0; i < 1000; i++) {
+            pagesBuilder.row((long) i, "value " + i, (double) i);
+            if (i % 100 == 99) {
+                pagesBuilder.pageBreak();
+            }
+        }
+        // a value larger than an arena chunk
+        pagesBuilder.row(-1L, Strings.repeat("x", 100_000), 0.0);
+        PagesIndex pagesIndex = createPagesIndex(pagesBuilder.build());
+
+        assertEquals(pagesIndex.estimateLookupSourceCopySizeInBytes(TEST_SESSION, JOIN_CHANNELS, Optional.empty(), Optional.empty(), Optional.of(OUTPUT_CHANNELS)), 0);
+        long copySize = pagesIndex.estimateLookupSourceCopySizeInBytes(COMPACT_SESSION, JOIN_CHANNELS, Optional.empty(), Optional.empty(), Optional.of(OUTPUT_CHANNELS));
+        // the build operator reserves the index and the copy before the table is built
+        long reservedBytes = pagesIndex.getEstimatedSize().toBytes() + copySize;
+
+        LookupSourceSupplier supplier = pagesIndex.createLookupSourceSupplier(COMPACT_SESSION, JOIN_CHANNELS, OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of(), Optional.of(OUTPUT_CHANNELS));
+        assertTrue(supplier instanceof CompactJoinHashSupplier);
+        long actualBytes = supplier.get().getInMemorySizeInBytes();
+        assertTrue(copySize > 0);
+        assertTrue(reservedBytes >= actualBytes, format("reserved %s bytes, but the table holds %s bytes", reservedBytes, actualBytes));
+    }
+
+    @Test
+    public void testChecksumIsDeterministic()
+    {
+        List<Page> buildPages = rowPagesBuilder(TYPES)
+                .row(1L, "a", 1.5)
+                .row(1L, "a", 2.5)
+                .row(2L, "a", 3.5)
+                .row(1L, "a", 4.5)
+                .build();
+        assertEquals(createLookupSourceSupplier(COMPACT_SESSION, buildPages).checksum(), createLookupSourceSupplier(COMPACT_SESSION, buildPages).checksum());
+    }
+
+    private static Page probe(LookupSource lookupSource, Page probePage, int position)
+    {
+        PageBuilder pageBuilder = new PageBuilder(outputTypes());
+        for (long joinPosition = lookupSource.getJoinPosition(position, probePage, probePage);
+                joinPosition >= 0;
+                joinPosition = lookupSource.getNextJoinPosition(joinPosition, position, probePage)) {
+            pageBuilder.declarePosition();
+            lookupSource.appendTo(joinPosition, pageBuilder, 0);
+        }
+        return sortByOutput(pageBuilder.build());
+    }
+
+    private static Page append(LookupSource lookupSource, long joinPosition)
+    {
+        PageBuilder pageBuilder = new PageBuilder(outputTypes());
+        pageBuilder.declarePosition();
+        lookupSource.appendTo(joinPosition, pageBuilder, 0);
+        return pageBuilder.build();
+    }
+
+    private static Page sortByOutput(Page page)
+    {
+        // the order of the matches of a key is not specified
+        List<Integer> positions = new ArrayList<>();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            positions.add(position);
+        }
+        positions.sort((left, right) -> Double.compare(
+                page.getBlock(0).isNull(left) ? Double.NEGATIVE_INFINITY : DOUBLE.getDouble(page.getBlock(0), left),
+                page.getBlock(0).isNull(right) ? Double.NEGATIVE_INFINITY : DOUBLE.getDouble(page.getBlock(0), right)));
+        return page.getPositions(positions.stream().mapToInt(Integer::intValue).toArray(), 0, positions.size());
+    }
+
+    private static List<Type> outputTypes()
+    {
+        return ImmutableList.of(DOUBLE, VARCHAR);
+    }
+
+    private static LookupSourceSupplier createLookupSourceSupplier(Session session, List<Page> buildPages)
+    {
+        return createPagesIndex(buildPages).createLookupSourceSupplier(session, JOIN_CHANNELS, OptionalInt.empty(), Optional.empty(), Optional.empty(), ImmutableList.of(), Optional.of(OUTPUT_CHANNELS));
+    }
+
+    private static PagesIndex createPagesIndex(List<Page> buildPages)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(TYPES, 10);
+        buildPages.forEach(pagesIndex::addPage);
+        return pagesIndex;
+    }
+}
@@ -18,6 +18,7 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
@@ -25,6 +26,7 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -32,6 +34,7 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
@@ -69,8 +72,11 @@ import static com.google.common.base.Strings.repeat;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -582,4 +588,90 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxPositionsCount + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        ImmutableList.Builder<Map<String, SplitBlockBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                bloomFilters::add,
+                ImmutableList.of(channel(0, BIGINT), channel(1, VARCHAR), channel(2, DOUBLE)),
+                10,
+                new DataSize(10, KILOBYTE),
+                0,
+                1_000,
+                true);
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, DOUBLE);
+        verifyPassthrough(createOperator(operatorFactory), types,
+                new Page(createLongSequenceBlock(0, 100), createStringsBlock(Collections.nCopies(100, "abc")), createDoubleSequenceBlock(0, 100)),
+                new Page(createLongsBlock(1000L, null), createStringsBlock("xyz", null), createDoublesBlock(1.0, null)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        List<Map<String, SplitBlockBloomFilter>> collected = bloomFilters.build();
+        assertEquals(collected.size(), 1);
+        assertEquals(collected.get(0).keySet(), ImmutableSet.of("0", "1"));
+
+        SplitBlockBloomFilter bigintFilter = collected.get(0).get("0");
+        for (long value = 0; value < 100; value++) {
+            assertTrue(bigintFilter.mightContainLong(value));
+        }
+        assertTrue(bigintFilter.mightContainLong(1000));
+        assertFalse(bigintFilter.mightContainLong(-1));
+
+        SplitBlockBloomFilter varcharFilter = collected.get(0).get("1");
+        assertTrue(varcharFilter.mightContainBytes("abc".getBytes(UTF_8), 0, 3));
+        assertTrue(varcharFilter.mightContainBytes("xyz".getBytes(UTF_8), 0, 3));
+        assertFalse(varcharFilter.mightContainBytes("def".getBytes(UTF_8), 0, 3));
+    }
+
+    @Test
+    public void testDropBloomFilterWhenTooManyRows()
+    {
+        ImmutableList.Builder<Map<String, SplitBlockBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                bloomFilters::add,
+                ImmutableList.of(channel(0, BIGINT)),
+                10,
+                new DataSize(10, KILOBYTE),
+                0,
+                100,
+                true);
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT),
+                new Page(createLongSequenceBlock(0, 100)),
+                new Page(createLongSequenceBlock(100, 101)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        assertEquals(bloomFilters.build(), ImmutableList.of(ImmutableMap.of()));
+    }
+
+    @Test
+    public void testNoBloomFilterForExactValues()
+    {
+        ImmutableList.Builder<Map<String, SplitBlockBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                this::consumePredicate,
+                bloomFilters::add,
+                ImmutableList.of(channel(0, BIGINT)),
+                10,
+                new DataSize(10, KILOBYTE),
+                0,
+                100,
+                true);
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT), new Page(createLongsBlock(1, 2)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "0", Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L))))));
+        assertEquals(bloomFilters.build(), ImmutableList.of(ImmutableMap.of()));
+    }
 }
@@ -37,14 +37,18 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
 import static com.google.common.math.DoubleMath.log2;
 import static org.testng.Assert.assertEquals;
@@ -474,4 +478,124 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10 * 2);
         assertEquals(currentQuota.get() / 3 / 2, yields);
     }
+
+    @Test
+    public void testFlatGroupByHash()
+    {
+        int positionCount = 5_000;
+        List<Long> longs = new ArrayList<>();
+        List<Integer> ints = new ArrayList<>();
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < positionCount; i++) {
+            longs.add(i % 13 == 0 ? null : (long) (i % 37));
+            ints.add(i % 5);
+            strings.add(i % 17 == 0 ? null : "value_" + (i % 11));
+        }
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, VARCHAR);
+        Block[] blocks = {createLongsBlock(longs), createIntsBlock(ints), createStringsBlock(strings)};
+        Page page = new Page(blocks[0], blocks[1], blocks[2], getHashBlock(types, blocks));
+        int[] hashChannels = {0, 1, 2};
+
+        for (Optional<Integer> hashChannel : ImmutableList.of(Optional.<Integer>empty(), Optional.of(3))) {
+            GroupByHash flatGroupByHash = createGroupByHash(types, hashChannels, hashChannel, 4, false, true, JOIN_COMPILER, UpdateMemory.NOOP);
+            GroupByHash expectedGroupByHash = new MultiChannelGroupByHash(types, hashChannels, hashChannel, 4, false, JOIN_COMPILER, UpdateMemory.NOOP);
+            assertTrue(flatGroupByHash instanceof FlatGroupByHash);
+
+            Work<GroupByIdBlock> work = flatGroupByHash.getGroupIds(page);
+            assertTrue(work.process());
+            Work<GroupByIdBlock> expectedWork = expectedGroupByHash.getGroupIds(page);
+            assertTrue(expectedWork.process());
+            GroupByIdBlock groupIds = work.getResult();
+            GroupByIdBlock expectedGroupIds = expectedWork.getResult();
+            assertEquals(groupIds.getGroupCount(), expectedGroupIds.getGroupCount());
+            for (int position = 0; position < positionCount; position++) {
+                assertEquals(groupIds.getGroupId(position), expectedGroupIds.getGroupId(position));
+                assertTrue(flatGroupByHash.contains(position, page, hashChannels));
+            }
+
+            PageBuilder pageBuilder = new PageBuilder(flatGroupByHash.getTypes());
+            PageBuilder expectedPageBuilder = new PageBuilder(expectedGroupByHash.getTypes());
+            for (int groupId = 0; groupId < flatGroupByHash.getGroupCount(); groupId++) {
+                assertEquals(flatGroupByHash.getRawHash(groupId), expectedGroupByHash.getRawHash(groupId));
+                pageBuilder.declarePosition();
+                flatGroupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                expectedPageBuilder.declarePosition();
+                expectedGroupByHash.appendValuesTo(groupId, expectedPageBuilder, 0);
+            }
+            assertPageEquals(flatGroupByHash.getTypes(), pageBuilder.build(), expectedPageBuilder.build());
+
+            Page missing = new Page(createLongsBlock(1L), createIntsBlock(1), createStringsBlock("missing"));
+            assertFalse(flatGroupByHash.contains(0, missing, hashChannels));
+        }
+    }
+
+    @Test
+    public void testBigintGroupByDirectIndex()
+    {
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // dates around the epoch, which grow the direct range downwards and upwards
+            values.add(i % 19 == 0 ? null : (long) ((i * 7919) % 4_001) - 2_000);
+        }
+        // a wide span switches to the hash, which must keep the existing groups
+        values.add(Long.MAX_VALUE);
+        values.add(Long.MIN_VALUE);
+        values.add(-2_000L);
+        Block block = createLongsBlock(values);
+        Page page = new Page(block, getHashBlock(ImmutableList.of(BIGINT), block));
+
+        BigintGroupByHash groupByHash = new BigintGroupByHash(0, true, 100, true, UpdateMemory.NOOP);
+        GroupByHash expectedGroupByHash = new BigintGroupByHash(0, true, 100, UpdateMemory.NOOP);
+        assertTrue(groupByHash.isDirectIndexed());
+
+        Page directPage = page.getRegion(0, values.size() - 3);
+        assertTrue(groupByHash.getGroupIds(directPage).process());
+        assertTrue(groupByHash.isDirectIndexed());
+        assertTrue(groupByHash.getGroupIds(page).process());
+        assertFalse(groupByHash.isDirectIndexed());
+
+        assertTrue(expectedGroupByHash.getGroupIds(directPage).process());
+        Work<GroupByIdBlock> expectedWork = expectedGroupByHash.getGroupIds(page);
+        assertTrue(expectedWork.process());
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        GroupByIdBlock expectedGroupIds = expectedWork.getResult();
+        assertEquals(groupIds.getGroupCount(), expectedGroupIds.getGroupCount());
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds.getGroupId(position));
+            assertTrue(groupByHash.contains(position, page, CONTAINS_CHANNELS));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        PageBuilder expectedPageBuilder = new PageBuilder(expectedGroupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            expectedPageBuilder.declarePosition();
+            expectedGroupByHash.appendValuesTo(groupId, expectedPageBuilder, 0);
+        }
+        assertPageEquals(groupByHash.getTypes(), pageBuilder.build(), expectedPageBuilder.build());
+        assertFalse(groupByHash.contains(0, new Page(createLongsBlock(5_000L)), CONTAINS_CHANNELS));
+    }
+
+    @Test
+    public void testBigintGroupByDirectIndexContains()
+    {
+        BigintGroupByHash groupByHash = new BigintGroupByHash(0, false, 100, true, UpdateMemory.NOOP);
+        assertTrue(groupByHash.addPage(new Page(createLongsBlock(Long.MAX_VALUE - 1, Long.MAX_VALUE))).process());
+        assertTrue(groupByHash.isDirectIndexed());
+        assertTrue(groupByHash.contains(0, new Page(createLongsBlock(Long.MAX_VALUE)), CONTAINS_CHANNELS));
+        // must not wrap around into the range
+        assertFalse(groupByHash.contains(0, new Page(createLongsBlock(Long.MIN_VALUE)), CONTAINS_CHANNELS));
+        assertFalse(groupByHash.contains(0, new Page(createLongsBlock(Long.MAX_VALUE - BigintGroupByHash.MAX_DIRECT_RANGE)), CONTAINS_CHANNELS));
+        assertEquals(groupByHash.getGroupCount(), 2);
+    }
+
+    @Test
+    public void testFlatGroupByHashUnsupportedTypes()
+    {
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(DOUBLE, VARCHAR), new int[] {0, 1}, Optional.empty(), 100, false, true, JOIN_COMPILER, UpdateMemory.NOOP);
+        assertTrue(groupByHash instanceof MultiChannelGroupByHash);
+    }
 }
@@ -18,7 +18,9 @@ import com.facebook.airlift.units.DataSize.Unit;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.SortOrder;
+import com.facebook.presto.common.type.ArrayType;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.window.FirstValueFunction;
 import com.facebook.presto.operator.window.FrameInfo;
@@ -50,18 +52,25 @@ import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.airlift.units.DataSize.succinctBytes;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.metadata.FunctionAndTypeManager.createTestFunctionAndTypeManager;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.operator.WindowFunctionDefinition.window;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.CURRENT_ROW;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.PRECEDING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.UNBOUNDED_FOLLOWING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.BoundType.UNBOUNDED_PRECEDING;
 import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.RANGE;
+import static com.facebook.presto.spi.plan.WindowNode.Frame.WindowType.ROWS;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static java.lang.String.format;
@@ -700,6 +709,49 @@ public class TestWindowOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected, revokeMemoryWhenAddingPages);
     }
 
+    @Test
+    public void testSegmentTreeMemoryIsReserved()
+    {
+        int rows = 4000;
+        long narrowFramePeak = getSlidingArrayAggPeakUserMemory(rows, 1);
+        long wideFramePeak = getSlidingArrayAggPeakUserMemory(rows, 200);
+
+        // the segment tree is only built for wide frames, and both of its levels hold the array states of every row
+        assertGreaterThan(wideFramePeak - narrowFramePeak, 2L * rows * Long.BYTES);
+    }
+
+    private long getSlidingArrayAggPeakUserMemory(int rows, int precedingRows)
+    {
+        // array_agg(value) OVER (ORDER BY key ROWS BETWEEN precedingRows PRECEDING AND CURRENT ROW)
+        FunctionAndTypeManager functionAndTypeManager = createTestFunctionAndTypeManager();
+        FrameInfo slidingFrame = new FrameInfo(ROWS, PRECEDING, Optional.of(2), Optional.empty(), CURRENT_ROW, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        List<WindowFunctionDefinition> arrayAgg = ImmutableList.of(window(
+                functionAndTypeManager.getWindowFunctionImplementation(functionAndTypeManager.lookupFunction("array_agg", fromTypes(BIGINT))),
+                new ArrayType(BIGINT),
+                slidingFrame,
+                1));
+
+        WindowOperatorFactory operatorFactory = createFactoryUnbounded(
+                ImmutableList.of(BIGINT, BIGINT, BIGINT),
+                Ints.asList(0),
+                arrayAgg,
+                Ints.asList(),
+                Ints.asList(0),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                false);
+
+        List<Page> input = rowPagesBuilder(BIGINT, BIGINT, BIGINT)
+                .addBlocksPage(
+                        createLongSequenceBlock(0, rows),
+                        createLongSequenceBlock(0, rows),
+                        createLongRepeatBlock(precedingRows, rows))
+                .build();
+
+        DriverContext driverContext = createDriverContext();
+        toPages(operatorFactory, driverContext, input);
+        return driverContext.getOperatorContexts().get(0).getOperatorStats().getPeakUserMemoryReservationInBytes();
+    }
+
     @Test
     public void testFindEndPosition()
     {
@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.function.LongPredicate;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.common.RuntimeMetricName.ADAPTIVE_FILTER_REORDER_COUNT;
+import static com.facebook.presto.common.RuntimeMetricName.FILTER_CONJUNCT_INPUT_POSITIONS;
+import static com.facebook.presto.common.RuntimeMetricName.FILTER_CONJUNCT_SELECTED_POSITIONS;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestAdaptiveConjunctionPageFilter
+{
+    private static final int PROFILED_PAGES = 8;
+    private static final int REPROFILE_INTERVAL_PAGES = 1024;
+
+    @Test
+    public void testReorderSelectiveConjunctFirst()
+    {
+        // x >= 0 AND y < 10
+        TestingPageFilter nonSelective = new TestingPageFilter(new InputChannels(3), value -> value >= 0);
+        TestingPageFilter selective = new TestingPageFilter(new InputChannels(5), value -> value < 10);
+        AdaptiveConjunctionPageFilter filter = new AdaptiveConjunctionPageFilter(
+                new TestingConjunctionFilter(nonSelective, selective),
+                ImmutableList.of(nonSelective, selective));
+        assertEquals(filter.getInputChannels().getInputChannels(), ImmutableList.of(3, 5));
+
+        Page page = createPage(0, 100);
+        for (int i = 0; i < PROFILED_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 0, 10);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(1, 0));
+        assertEquals(nonSelective.getEvaluatedPositions(), PROFILED_PAGES * 100);
+        assertEquals(selective.getEvaluatedPositions(), PROFILED_PAGES * 100);
+
+        // the non selective conjunct is only evaluated on the positions selected by the selective one
+        assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 0, 10);
+        assertEquals(nonSelective.getEvaluatedPositions(), PROFILED_PAGES * 100 + 10);
+        assertEquals(selective.getEvaluatedPositions(), PROFILED_PAGES * 100 + 100);
+
+        RuntimeStats runtimeStats = new RuntimeStats();
+        filter.recordRuntimeStats(runtimeStats);
+        assertEquals(runtimeStats.getMetric(FILTER_CONJUNCT_INPUT_POSITIONS + ".0").getSum(), (PROFILED_PAGES + 1) * 100 - 90);
+        assertEquals(runtimeStats.getMetric(FILTER_CONJUNCT_SELECTED_POSITIONS + ".0").getSum(), (PROFILED_PAGES + 1) * 100 - 90);
+        assertEquals(runtimeStats.getMetric(FILTER_CONJUNCT_INPUT_POSITIONS + ".1").getSum(), (PROFILED_PAGES + 1) * 100);
+        assertEquals(runtimeStats.getMetric(FILTER_CONJUNCT_SELECTED_POSITIONS + ".1").getSum(), (PROFILED_PAGES + 1) * 10);
+        assertEquals(runtimeStats.getMetric(ADAPTIVE_FILTER_REORDER_COUNT).getSum(), 1);
+
+        // only the metrics collected since the last call are recorded
+        runtimeStats = new RuntimeStats();
+        filter.recordRuntimeStats(runtimeStats);
+        assertNull(runtimeStats.getMetric(FILTER_CONJUNCT_INPUT_POSITIONS + ".0"));
+    }
+
+    @Test
+    public void testKeepOrderOfEquallySelectiveConjuncts()
+    {
+        TestingPageFilter first = new TestingPageFilter(new InputChannels(0), value -> value >= 0);
+        TestingPageFilter second = new TestingPageFilter(new InputChannels(1), value -> value >= 0);
+        AdaptiveConjunctionPageFilter filter = new AdaptiveConjunctionPageFilter(
+                new TestingConjunctionFilter(first, second),
+                ImmutableList.of(first, second));
+
+        Page page = createPage(0, 100);
+        for (int i = 0; i < PROFILED_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 0, 100);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(0, 1));
+    }
+
+    @Test
+    public void testReprofileWhenDataChanges()
+    {
+        // x >= 0 AND y < 10
+        TestingPageFilter nonNegative = new TestingPageFilter(new InputChannels(0), value -> value >= 0);
+        TestingPageFilter lessThanTen = new TestingPageFilter(new InputChannels(1), value -> value < 10);
+        AdaptiveConjunctionPageFilter filter = new AdaptiveConjunctionPageFilter(
+                new TestingConjunctionFilter(nonNegative, lessThanTen),
+                ImmutableList.of(nonNegative, lessThanTen));
+
+        Page page = createPage(0, 100);
+        for (int i = 0; i < PROFILED_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 0, 10);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(1, 0));
+
+        // the order is kept until the conjuncts are profiled again
+        for (int i = PROFILED_PAGES; i < REPROFILE_INTERVAL_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 0, 10);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(1, 0));
+
+        // only the pages since the last profile decide the new order
+        Page negativePage = createPage(-100, 0);
+        for (int i = 0; i < PROFILED_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), negativePage), 0, 0);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(0, 1));
+
+        RuntimeStats runtimeStats = new RuntimeStats();
+        filter.recordRuntimeStats(runtimeStats);
+        assertEquals(runtimeStats.getMetric(ADAPTIVE_FILTER_REORDER_COUNT).getSum(), 2);
+    }
+
+    @Test
+    public void testFailedConjunctFallsBackToFilter()
+    {
+        // x <> 0 AND 100 / x < 10, where the second conjunct fails for x = 0
+        TestingPageFilter nonZero = new TestingPageFilter(new InputChannels(0), value -> value != 0);
+        TestingPageFilter divide = new TestingPageFilter(new InputChannels(1), value -> 100 / value < 10);
+        AdaptiveConjunctionPageFilter filter = new AdaptiveConjunctionPageFilter(
+                new TestingConjunctionFilter(nonZero, divide),
+                ImmutableList.of(nonZero, divide));
+
+        Page page = createPage(1, 101);
+        for (int i = 0; i < PROFILED_PAGES; i++) {
+            assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 10, 90);
+        }
+        assertEquals(filter.getConjunctOrder(), ImmutableList.of(1, 0));
+
+        // evaluating the reordered conjuncts fails, but the conjunction in planner order does not
+        assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), createPage(0, 100)), 11, 89);
+        assertSelectedPositions(filter.filter(SESSION.getSqlFunctionProperties(), page), 10, 90);
+    }
+
+    private static Page createPage(int start, int end)
+    {
+        Block block = createLongSequenceBlock(start, end);
+        return new Page(block, block);
+    }
+
+    private static void assertSelectedPositions(SelectedPositions selectedPositions, int offset, int size)
+    {
+        assertEquals(selectedPositions.size(), size);
+        for (int i = 0; i < size; i++) {
+            int position = selectedPositions.isList() ? selectedPositions.getPositions()[selectedPositions.getOffset() + i] : selectedPositions.getOffset() + i;
+            assertEquals(position, offset + i);
+        }
+    }
+
+    private static class TestingPageFilter
+            implements PageFilter
+    {
+        private final InputChannels inputChannels;
+        private final LongPredicate predicate;
+        private long evaluatedPositions;
+
+        public TestingPageFilter(InputChannels inputChannels, LongPredicate predicate)
+        {
+            this.inputChannels = inputChannels;
+            this.predicate = predicate;
+        }
+
+        public long getEvaluatedPositions()
+        {
+            return evaluatedPositions;
+        }
+
+        public boolean test(Block block, int position)
+        {
+            evaluatedPositions++;
+            return predicate.test(block.getLong(position));
+        }
+
+        @Override
+        public boolean isDeterministic()
+        {
+            return true;
+        }
+
+        @Override
+        public InputChannels getInputChannels()
+        {
+            return inputChannels;
+        }
+
+        @Override
+        public SelectedPositions filter(SqlFunctionProperties properties, Page page)
+        {
+            assertEquals(page.getChannelCount(), 1);
+            boolean[] selected = new boolean[page.getPositionCount()];
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                selected[position] = test(page.getBlock(0), position);
+            }
+            return PageFilter.positionsArrayToSelectedPositions(selected, page.getPositionCount());
+        }
+    }
+
+    private static class TestingConjunctionFilter
+            implements PageFilter
+    {
+        private final TestingPageFilter left;
+        private final TestingPageFilter right;
+
+        public TestingConjunctionFilter(TestingPageFilter left, TestingPageFilter right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean isDeterministic()
+        {
+            return true;
+        }
+
+        @Override
+        public InputChannels getInputChannels()
+        {
+            return new InputChannels(left.getInputChannels().getInputChannels().get(0), right.getInputChannels().getInputChannels().get(0));
+        }
+
+        @Override
+        public SelectedPositions filter(SqlFunctionProperties properties, Page page)
+        {
+            assertEquals(page.getChannelCount(), 2);
+            boolean[] selected = new boolean[page.getPositionCount()];
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                selected[position] = left.test(page.getBlock(0), position) && right.test(page.getBlock(1), position);
+            }
+            return PageFilter.positionsArrayToSelectedPositions(selected, page.getPositionCount());
+        }
+    }
+}
@@ -14,14 +14,21 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
+import com.google.common.collect.ImmutableList;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +537,34 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testWideSlidingFrame()
+    {
+        // frames are wide enough to be evaluated from the segment tree
+        int rowCount = 5000;
+        int preceding = 300;
+        int following = 100;
+        MaterializedResult actual = queryRunner.execute(
+                "SELECT x, " +
+                        "sum(x) OVER (ORDER BY x ROWS BETWEEN " + preceding + " PRECEDING AND " + following + " FOLLOWING), " +
+                        "array_agg(x) OVER (ORDER BY x ROWS BETWEEN " + preceding + " PRECEDING AND " + following + " FOLLOWING) " +
+                        "FROM UNNEST(sequence(1, " + rowCount + ")) t(x) " +
+                        "ORDER BY x");
+
+        List<MaterializedRow> rows = actual.getMaterializedRows();
+        assertEquals(rows.size(), rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            int frameStart = max(0, row - preceding);
+            int frameEnd = min(rowCount - 1, row + following);
+            long sum = 0;
+            ImmutableList.Builder<Long> values = ImmutableList.builder();
+            for (int i = frameStart; i <= frameEnd; i++) {
+                sum += i + 1;
+                values.add((long) i + 1);
+            }
+            assertEquals(rows.get(row).getField(1), sum);
+            assertEquals(rows.get(row).getField(2), values.build());
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.facebook.presto.common.block.BlockEncodingManager;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.PageAssertions;
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.spi.page.PageCodecMarker;
 import com.facebook.presto.spi.page.PagesSerdeUtil;
 import com.facebook.presto.spi.page.SerializedPage;
@@ -37,6 +39,7 @@ import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
@@ -49,6 +52,7 @@ import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator
 import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -85,17 +89,82 @@ public class TestFileSingleStreamSpiller
     public void testSpillCompression(CompressionCodec codec)
             throws Exception
     {
-        assertSpill(codec, false);
+        assertSpill(codec, false, 0);
     }
 
     @Test(dataProvider = "testCompressionCodec")
     public void testSpillEncryptionWithCompression(CompressionCodec codec)
             throws Exception
     {
-        assertSpill(codec, true);
+        assertSpill(codec, true, 0);
     }
 
-    private void assertSpill(CompressionCodec compressionCodec, boolean encryption)
+    @Test(dataProvider = "testCompressionCodec")
+    public void testSpillWithReadPrefetch(CompressionCodec codec)
+            throws Exception
+    {
+        assertSpill(codec, false, 2);
+        assertSpill(codec, true, 2);
+    }
+
+    @Test
+    public void testReadPrefetchWorkProcessor()
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                new BlockEncodingManager(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                CompressionCodec.NONE,
+                false,
+                3);
+        AtomicLong hits = new AtomicLong();
+        AtomicLong misses = new AtomicLong();
+        SpillContext spillContext = new TestingSpillContext()
+        {
+            @Override
+            public void recordUnspillPrefetch(boolean hit)
+            {
+                (hit ? hits : misses).incrementAndGet();
+            }
+        };
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        try (SingleStreamSpiller spiller = spillerFactory.create(TYPES, spillContext, memoryContext)) {
+            Page page = buildPage();
+            spiller.spill(Iterators.limit(Iterators.cycle(page), 20)).get();
+
+            Iterator<Page> spilledPages = spiller.getSpilledPages();
+            assertTrue(spilledPages instanceof PrefetchingPageIterator);
+            // the pages read ahead are charged to the spiller
+            long deadline = System.nanoTime() + SECONDS.toNanos(10);
+            while (memoryContext.getBytes() <= FileSingleStreamSpiller.BUFFER_SIZE) {
+                assertTrue(System.nanoTime() < deadline, "read ahead pages are not reserved");
+                Thread.sleep(10);
+            }
+            WorkProcessor<Page> processor = PrefetchingPageIterator.toWorkProcessor(spilledPages);
+            int pageCount = 0;
+            while (!processor.isFinished()) {
+                if (processor.process()) {
+                    if (!processor.isFinished()) {
+                        PageAssertions.assertPageEquals(TYPES, page, processor.getResult());
+                        pageCount++;
+                    }
+                }
+                else if (processor.isBlocked()) {
+                    processor.getBlockedFuture().get(10, SECONDS);
+                }
+            }
+            assertEquals(pageCount, 20);
+            assertEquals(hits.get() + misses.get(), 20);
+            assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        }
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    private void assertSpill(CompressionCodec compressionCodec, boolean encryption, int readPrefetchPages)
             throws Exception
     {
         File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
@@ -106,7 +175,8 @@ public class TestFileSingleStreamSpiller
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compressionCodec,
-                encryption);
+                encryption,
+                readPrefetchPages);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -134,20 +204,22 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
+        // pages read ahead are no longer charged once they are consumed
+        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
         // assertEquals(memoryContext.getBytes(), 0);
 
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+
+        // the pages stay valid once the spill file is closed (and unmapped)
         assertEquals(4, spilledPages.size());
         for (int i = 0; i < 4; ++i) {
             PageAssertions.assertPageEquals(TYPES, page, spilledPages.get(i));
         }
-
-        spiller.close();
-        assertEquals(listFiles(spillPath.toPath()).size(), 0);
-        assertEquals(memoryContext.getBytes(), 0);
     }
 
     private Page buildPage()
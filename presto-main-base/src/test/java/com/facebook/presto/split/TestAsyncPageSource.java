@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestAsyncPageSource
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newFixedThreadPool(4, daemonThreadsNamed("test-async-page-source-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadsAllPages()
+            throws Exception
+    {
+        List<Page> pages = createPages(10);
+        try (AsyncPageSource pageSource = AsyncPageSource.create(new FixedPageSource(pages), executor, 2)) {
+            List<Page> actual = drain(pageSource);
+            assertEquals(actual.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                assertEquals(actual.get(i).getBlock(0).getLong(0), pages.get(i).getBlock(0).getLong(0));
+            }
+            assertTrue(pageSource.getProducerCpuNanos() >= 0);
+        }
+    }
+
+    @Test
+    public void testBufferIsBounded()
+            throws Exception
+    {
+        AtomicInteger reads = new AtomicInteger();
+        ConnectorPageSource delegate = new FixedPageSource(createPages(20))
+        {
+            @Override
+            public Page getNextPage()
+            {
+                reads.incrementAndGet();
+                return super.getNextPage();
+            }
+        };
+        try (AsyncPageSource pageSource = AsyncPageSource.create(delegate, executor, 3)) {
+            pageSource.isBlocked().get(10, SECONDS);
+            // give the producer a chance to run ahead of the consumer
+            Thread.sleep(100);
+            assertEquals(reads.get(), 3);
+            assertTrue(pageSource.getSystemMemoryUsage() > 0);
+
+            assertEquals(drain(pageSource).size(), 20);
+            assertEquals(reads.get(), 20);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "read failed")
+    public void testFailure()
+            throws Exception
+    {
+        ConnectorPageSource delegate = new FixedPageSource(createPages(1))
+        {
+            @Override
+            public Page getNextPage()
+            {
+                throw new IllegalStateException("read failed");
+            }
+        };
+        try (AsyncPageSource pageSource = AsyncPageSource.create(delegate, executor, 1)) {
+            drain(pageSource);
+        }
+    }
+
+    @Test
+    public void testWaitsForBlockedDelegate()
+            throws Exception
+    {
+        CompletableFuture<?> delegateBlocked = new CompletableFuture<>();
+        AtomicInteger reads = new AtomicInteger();
+        ConnectorPageSource delegate = new FixedPageSource(createPages(2))
+        {
+            @Override
+            public CompletableFuture<?> isBlocked()
+            {
+                return delegateBlocked;
+            }
+
+            @Override
+            public Page getNextPage()
+            {
+                reads.incrementAndGet();
+                return super.getNextPage();
+            }
+        };
+        try (AsyncPageSource pageSource = AsyncPageSource.create(delegate, executor, 1)) {
+            Thread.sleep(100);
+            assertEquals(reads.get(), 0);
+            assertFalse(pageSource.isBlocked().isDone());
+
+            delegateBlocked.complete(null);
+            assertEquals(drain(pageSource).size(), 2);
+        }
+    }
+
+    @Test
+    public void testCloseWaitsForInFlightRead()
+            throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicBoolean readInFlight = new AtomicBoolean();
+        AtomicBoolean closedWhileReading = new AtomicBoolean();
+        ConnectorPageSource delegate = new FixedPageSource(createPages(1))
+        {
+            @Override
+            public Page getNextPage()
+            {
+                readInFlight.set(true);
+                started.countDown();
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                readInFlight.set(false);
+                return null;
+            }
+
+            @Override
+            public void close()
+            {
+                closedWhileReading.set(readInFlight.get());
+                closed.countDown();
+            }
+        };
+        AsyncPageSource pageSource = AsyncPageSource.create(delegate, executor, 1);
+        assertTrue(started.await(10, SECONDS));
+        assertFalse(pageSource.isBlocked().isDone());
+        assertFalse(pageSource.isFinished());
+
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        assertTrue(pageSource.isBlocked().isDone());
+        // the delegate is closed by the producer once the read returns
+        assertEquals(closed.getCount(), 1);
+
+        release.countDown();
+        assertTrue(closed.await(10, SECONDS));
+        assertFalse(closedWhileReading.get());
+    }
+
+    @Test
+    public void testCloseIdleDelegate()
+            throws Exception
+    {
+        CountDownLatch closed = new CountDownLatch(1);
+        ConnectorPageSource delegate = new FixedPageSource(createPages(5))
+        {
+            @Override
+            public void close()
+            {
+                closed.countDown();
+            }
+        };
+        AsyncPageSource pageSource = AsyncPageSource.create(delegate, executor, 1);
+        pageSource.isBlocked().get(10, SECONDS);
+        pageSource.close();
+        assertTrue(closed.await(10, SECONDS));
+    }
+
+    private static List<Page> drain(ConnectorPageSource pageSource)
+            throws Exception
+    {
+        List<Page> pages = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get(10, SECONDS);
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+
+    private static List<Page> createPages(int count)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            pages.add(new Page(createLongSequenceBlock(i, i + 10)));
+        }
+        return pages.build();
+    }
+}
@@ -79,6 +79,7 @@ public class TestFeaturesConfig
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
                 .setPartialMergePushdownStrategy(FeaturesConfig.PartialMergePushdownStrategy.NONE)
                 .setMaxReorderedJoins(9)
+                .setMaxExhaustiveReorderedJoins(9)
                 .setUseHistoryBasedPlanStatistics(false)
                 .setTrackHistoryBasedPlanStatistics(false)
                 .setTrackHistoryStatsFromFailedQuery(true)
@@ -126,6 +127,10 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(0)
+                .setDynamicFilteringBloomFilterRowLimitPerDriver(0)
+                .setOffloadBlockingPageSources(false)
+                .setBlockingPageSourceMaxBufferedPages(4)
+                .setBlockingPageSourceThreads(32)
                 .setFragmentResultCachingEnabled(false)
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
@@ -150,6 +155,10 @@ public class TestFeaturesConfig
                 .setPartialAggregationByteReductionThreshold(0.5)
                 .setAdaptivePartialAggregationEnabled(false)
                 .setAdaptivePartialAggregationRowsReductionRatioThreshold(0.8)
+                .setFlatGroupByHashEnabled(false)
+                .setCompactJoinHashTableEnabled(false)
+                .setBigintGroupByDirectIndexEnabled(false)
+                .setHistoryBasedGroupByHashSizingEnabled(false)
                 .setLocalExchangeParentPreferenceStrategy(LocalExchangeParentPreferenceStrategy.ALWAYS)
                 .setOptimizeTopNRowNumber(true)
                 .setOptimizeTopNRank(false)
@@ -311,6 +320,10 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-max-per-driver-row-count", "256")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-range-row-limit-per-driver", "1000")
+                .put("dynamic-filtering-bloom-filter-row-limit-per-driver", "100000")
+                .put("experimental.offload-blocking-page-sources", "true")
+                .put("experimental.blocking-page-source-max-buffered-pages", "16")
+                .put("experimental.blocking-page-source-threads", "8")
                 .put("fragment-result-cache.enabled", "true")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
@@ -331,6 +344,7 @@ public class TestFeaturesConfig
                 .put("optimizer.join-reordering-strategy", "NONE")
                 .put("experimental.optimizer.partial-merge-pushdown-strategy", PUSH_THROUGH_LOW_MEMORY_OPERATORS.name())
                 .put("optimizer.max-reordered-joins", "5")
+                .put("optimizer.max-exhaustive-reordered-joins", "4")
                 .put("optimizer.use-history-based-plan-statistics", "true")
                 .put("optimizer.track-history-based-plan-statistics", "true")
                 .put("optimizer.track-history-stats-from-failed-queries", "false")
@@ -390,6 +404,10 @@ public class TestFeaturesConfig
                 .put("optimizer.partial-aggregation-byte-reduction-threshold", "0.8")
                 .put("experimental.adaptive-partial-aggregation", "true")
                 .put("experimental.adaptive-partial-aggregation-rows-reduction-ratio-threshold", "0.9")
+                .put("experimental.flat-group-by-hash-enabled", "true")
+                .put("experimental.compact-join-hash-table-enabled", "true")
+                .put("experimental.bigint-group-by-direct-index-enabled", "true")
+                .put("experimental.history-based-group-by-hash-sizing-enabled", "true")
                 .put("optimizer.optimize-top-n-row-number", "false")
                 .put("optimizer.optimize-top-n-rank", "true")
                 .put("optimizer.optimize-case-expression-predicate", "true")
@@ -546,6 +564,10 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(1000)
+                .setDynamicFilteringBloomFilterRowLimitPerDriver(100000)
+                .setOffloadBlockingPageSources(true)
+                .setBlockingPageSourceMaxBufferedPages(16)
+                .setBlockingPageSourceThreads(8)
                 .setFragmentResultCachingEnabled(true)
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
@@ -565,6 +587,7 @@ public class TestFeaturesConfig
                 .setJoinReorderingStrategy(NONE)
                 .setPartialMergePushdownStrategy(PUSH_THROUGH_LOW_MEMORY_OPERATORS)
                 .setMaxReorderedJoins(5)
+                .setMaxExhaustiveReorderedJoins(4)
                 .setUseHistoryBasedPlanStatistics(true)
                 .setTrackHistoryBasedPlanStatistics(true)
                 .setTrackHistoryStatsFromFailedQuery(false)
@@ -623,6 +646,10 @@ public class TestFeaturesConfig
                 .setPartialAggregationByteReductionThreshold(0.8)
                 .setAdaptivePartialAggregationEnabled(true)
                 .setAdaptivePartialAggregationRowsReductionRatioThreshold(0.9)
+                .setFlatGroupByHashEnabled(true)
+                .setCompactJoinHashTableEnabled(true)
+                .setBigintGroupByDirectIndexEnabled(true)
+                .setHistoryBasedGroupByHashSizingEnabled(true)
                 .setLocalExchangeParentPreferenceStrategy(LocalExchangeParentPreferenceStrategy.AUTOMATIC)
                 .setOptimizeTopNRowNumber(false)
                 .setOptimizeTopNRank(true)
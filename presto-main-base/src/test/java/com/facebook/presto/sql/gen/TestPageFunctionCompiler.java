@@ -16,12 +16,16 @@ package com.facebook.presto.sql.gen;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.AdaptiveConjunctionPageFilter;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
+import com.facebook.presto.operator.project.PrimitiveArithmeticPageProjection;
+import com.facebook.presto.operator.project.PrimitiveKernelPageFilter;
 import com.facebook.presto.operator.project.SelectedPositions;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.relation.CallExpression;
@@ -30,20 +34,24 @@ import com.facebook.presto.spi.relation.SpecialFormExpression;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.common.function.OperatorType.ADD;
+import static com.facebook.presto.common.function.OperatorType.BETWEEN;
 import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
 import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
+import static com.facebook.presto.common.function.OperatorType.NOT_EQUAL;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
 import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.AND;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IF;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IN;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.constant;
@@ -51,6 +59,7 @@ import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -239,6 +248,106 @@ public class TestPageFunctionCompiler
         assertEquals(positions.getPositions(), new int[] {2, 3, 4});
     }
 
+    @Test
+    public void testFilterSelectedPositions()
+    {
+        PageFilter pageFilter = new PageFunctionCompiler(createTestMetadataManager(), 0).compileFilter(SESSION.getSqlFunctionProperties(), ADD_X_Y_GREATER_THAN_2, true, Optional.empty()).get();
+        Page input = pageFilter.getInputChannels().getInputChannels(createLongBlockPage(2, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        // only the given positions are evaluated, and the selected positions are positions of the input page
+        assertEquals(selectedPositions(pageFilter.filter(SESSION.getSqlFunctionProperties(), input, SelectedPositions.positionsList(new int[] {9, 0, 1, 4, 8}, 1, 4))), new int[] {4, 8});
+        assertEquals(selectedPositions(pageFilter.filter(SESSION.getSqlFunctionProperties(), input, SelectedPositions.positionsRange(1, 3))), new int[] {2, 3});
+    }
+
+    @Test
+    public void testAdaptiveFilterReordering()
+    {
+        PageFunctionCompiler functionCompiler = new PageFunctionCompiler(createTestMetadataManager(), 0, false, true);
+
+        PageFilter pageFilter = functionCompiler.compileFilter(SESSION.getSqlFunctionProperties(), new SpecialFormExpression(AND, BOOLEAN, ADD_X_Y_GREATER_THAN_2, ADD_X_Y_LESS_THAN_10), true, Optional.empty()).get();
+        assertTrue(pageFilter instanceof AdaptiveConjunctionPageFilter);
+
+        Page input = createLongBlockPage(2, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(selectedPositions(filter(pageFilter, input)), new int[] {2, 3, 4});
+        }
+    }
+
+    @Test
+    public void testPrimitiveKernelFilter()
+    {
+        // x BETWEEN 2 AND 8 AND x IN (1, 3, 5, 7, 9) AND x <> 5 AND x < 100
+        RowExpression filter = new SpecialFormExpression(
+                AND,
+                BOOLEAN,
+                new SpecialFormExpression(
+                        AND,
+                        BOOLEAN,
+                        call(BETWEEN.name(), FUNCTION_MANAGER.resolveOperator(BETWEEN, fromTypes(BIGINT, BIGINT, BIGINT)), BOOLEAN, field(0, BIGINT), constant(2L, BIGINT), constant(8L, BIGINT)),
+                        new SpecialFormExpression(IN, BOOLEAN, field(0, BIGINT), constant(1L, BIGINT), constant(3L, BIGINT), constant(5L, BIGINT), constant(7L, BIGINT), constant(9L, BIGINT))),
+                new SpecialFormExpression(
+                        AND,
+                        BOOLEAN,
+                        call(NOT_EQUAL.name(), FUNCTION_MANAGER.resolveOperator(NOT_EQUAL, fromTypes(BIGINT, BIGINT)), BOOLEAN, field(0, BIGINT), constant(5L, BIGINT)),
+                        call(LESS_THAN.name(), FUNCTION_MANAGER.resolveOperator(LESS_THAN, fromTypes(BIGINT, BIGINT)), BOOLEAN, field(0, BIGINT), constant(100L, BIGINT))));
+
+        PageFilter kernelFilter = new PageFunctionCompiler(createTestMetadataManager(), 0, true).compileFilter(SESSION.getSqlFunctionProperties(), filter, false, Optional.empty()).get();
+        PageFilter generatedFilter = new PageFunctionCompiler(createTestMetadataManager(), 0).compileFilter(SESSION.getSqlFunctionProperties(), filter, false, Optional.empty()).get();
+        assertTrue(kernelFilter instanceof PrimitiveKernelPageFilter);
+        assertFalse(generatedFilter instanceof PrimitiveKernelPageFilter);
+
+        Page input = createLongBlockPage(1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertEquals(selectedPositions(filter(kernelFilter, input)), new int[] {3, 7});
+        assertEquals(selectedPositions(filter(generatedFilter, input)), new int[] {3, 7});
+
+        // null positions are never selected
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, 4);
+        BIGINT.writeLong(builder, 3);
+        builder.appendNull();
+        BIGINT.writeLong(builder, 7);
+        builder.appendNull();
+        Page inputWithNulls = new Page(builder.build());
+        assertEquals(selectedPositions(filter(kernelFilter, inputWithNulls)), new int[] {0, 2});
+
+        // dictionaries are evaluated by the generated filter
+        Page dictionaryInput = new Page(new DictionaryBlock(input.getBlock(0), new int[] {7, 7, 0, 3}));
+        assertEquals(selectedPositions(filter(kernelFilter, dictionaryInput)), new int[] {0, 1, 3});
+        assertEquals(selectedPositions(filter(generatedFilter, dictionaryInput)), new int[] {0, 1, 3});
+    }
+
+    @Test
+    public void testPrimitiveKernelProjection()
+    {
+        PageFunctionCompiler functionCompiler = new PageFunctionCompiler(createTestMetadataManager(), 0, true);
+        PageProjection constantProjection = functionCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_10_EXPRESSION, Optional.empty()).get();
+        PageProjection columnProjection = functionCompiler.compileProjection(SESSION.getSqlFunctionProperties(), ADD_X_Y, Optional.empty()).get();
+        assertTrue(constantProjection instanceof PrimitiveArithmeticPageProjection);
+        assertTrue(columnProjection instanceof PrimitiveArithmeticPageProjection);
+
+        Page input = createLongBlockPage(2, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Block result = project(constantProjection, input, SelectedPositions.positionsList(new int[] {1, 4, 9}, 0, 3)).get(0);
+        assertEquals(result.getPositionCount(), 3);
+        assertEquals(BIGINT.getLong(result, 0), 11);
+        assertEquals(BIGINT.getLong(result, 1), 14);
+        assertEquals(BIGINT.getLong(result, 2), 19);
+
+        result = project(columnProjection, input, SelectedPositions.positionsRange(2, 3)).get(0);
+        assertEquals(result.getPositionCount(), 3);
+        assertEquals(BIGINT.getLong(result, 0), 4);
+        assertEquals(BIGINT.getLong(result, 1), 6);
+        assertEquals(BIGINT.getLong(result, 2), 8);
+
+        // overflow is still reported by the generated code
+        Page badPage = createLongBlockPage(1, 0, 1, Long.MAX_VALUE);
+        try {
+            project(constantProjection, badPage, SelectedPositions.positionsRange(0, badPage.getPositionCount()));
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), NUMERIC_VALUE_OUT_OF_RANGE.toErrorCode());
+        }
+    }
+
     private void checkBlockEqual(Block a, Block b)
     {
         assertEquals(a.getPositionCount(), b.getPositionCount());
@@ -259,6 +368,12 @@ public class TestPageFunctionCompiler
         return filter.filter(SESSION.getSqlFunctionProperties(), filter.getInputChannels().getInputChannels(page));
     }
 
+    private static int[] selectedPositions(SelectedPositions positions)
+    {
+        assertTrue(positions.isList());
+        return Arrays.copyOfRange(positions.getPositions(), positions.getOffset(), positions.getOffset() + positions.size());
+    }
+
     private static Page createLongBlockPage(int blockCount, long... values)
     {
         Block[] blocks = new Block[blockCount];
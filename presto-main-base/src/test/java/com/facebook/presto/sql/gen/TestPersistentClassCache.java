@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.bytecode.ClassDefinition;
+import com.facebook.presto.bytecode.FieldDefinition;
+import com.facebook.presto.bytecode.MethodDefinition;
+import com.facebook.presto.bytecode.Variable;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.operator.PagesHashStrategy;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
+import static com.facebook.presto.bytecode.Access.FINAL;
+import static com.facebook.presto.bytecode.Access.PRIVATE;
+import static com.facebook.presto.bytecode.Access.PUBLIC;
+import static com.facebook.presto.bytecode.Access.a;
+import static com.facebook.presto.bytecode.ParameterizedType.type;
+import static com.facebook.presto.bytecode.ParameterizedType.typeFromJavaClassName;
+import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantString;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.type.TypeUtils.hashPosition;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPersistentClassCache
+{
+    private static final Metadata METADATA = createTestMetadataManager();
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final List<Block> BIGINT_CHANNEL = ImmutableList.of(createLongSequenceBlock(0, 10));
+    private static final List<Block> VARCHAR_CHANNEL = ImmutableList.of(createStringSequenceBlock(0, 10));
+
+    private File directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("test-code-cache").toFile();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReuseCompiledClass()
+    {
+        PersistentClassCache classCache = new PersistentClassCache(Optional.of(directory), 10);
+        assertHashStrategy(compileHashStrategy(classCache));
+        assertEquals(classCache.getMisses().getTotalCount(), 1);
+        assertEquals(classCache.getHits().getTotalCount(), 0);
+
+        // a separate compiler generates a class with a different name for the same join
+        assertHashStrategy(compileHashStrategy(classCache));
+        assertEquals(classCache.getMisses().getTotalCount(), 1);
+        assertEquals(classCache.getHits().getTotalCount(), 1);
+        assertEquals(classCache.getFailures().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testPreloadAfterRestart()
+    {
+        PersistentClassCache classCache = new PersistentClassCache(Optional.of(directory), 10);
+        assertHashStrategy(compileHashStrategy(classCache));
+        classCache.stop();
+
+        PersistentClassCache restartedClassCache = new PersistentClassCache(Optional.of(directory), 10);
+        assertEquals(restartedClassCache.getPreloadedClassCount(), 1);
+        assertHashStrategy(compileHashStrategy(restartedClassCache));
+        assertEquals(restartedClassCache.getMisses().getTotalCount(), 0);
+        assertEquals(restartedClassCache.getHits().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testReuseClassWithLongerClassId()
+    {
+        PersistentClassCache classCache = new PersistentClassCache(Optional.of(directory), 10);
+        assertEquals(defineSupplier(classCache, "TestSupplier_9").get(), "value");
+        classCache.stop();
+
+        // the restarted server numbers its generated classes from the start again
+        PersistentClassCache restartedClassCache = new PersistentClassCache(Optional.of(directory), 10);
+        assertEquals(defineSupplier(restartedClassCache, "TestSupplier_10").get(), "value");
+        assertEquals(defineSupplier(restartedClassCache, "TestSupplier_100").get(), "value");
+        assertEquals(restartedClassCache.getMisses().getTotalCount(), 0);
+        assertEquals(restartedClassCache.getHits().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testCorruptedEntryIsReplaced()
+            throws IOException
+    {
+        assertHashStrategy(compileHashStrategy(new PersistentClassCache(Optional.of(directory), 0)));
+        File[] entries = directory.listFiles((dir, name) -> name.endsWith(".class"));
+        assertEquals(entries.length, 1);
+        Files.write(entries[0].toPath(), new byte[] {1, 2, 3});
+
+        PersistentClassCache classCache = new PersistentClassCache(Optional.of(directory), 0);
+        assertHashStrategy(compileHashStrategy(classCache));
+        assertEquals(classCache.getFailures().getTotalCount(), 1);
+        assertEquals(classCache.getMisses().getTotalCount(), 1);
+
+        PersistentClassCache repairedClassCache = new PersistentClassCache(Optional.of(directory), 0);
+        assertHashStrategy(compileHashStrategy(repairedClassCache));
+        assertEquals(repairedClassCache.getHits().getTotalCount(), 1);
+    }
+
+    private static PagesHashStrategy compileHashStrategy(PersistentClassCache classCache)
+    {
+        return new JoinCompiler(METADATA, classCache)
+                .compilePagesHashStrategyFactory(TYPES, ImmutableList.of(0, 1))
+                .createPagesHashStrategy(ImmutableList.of(BIGINT_CHANNEL, VARCHAR_CHANNEL), OptionalInt.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> defineSupplier(PersistentClassCache classCache, String className)
+    {
+        ClassDefinition classDefinition = new ClassDefinition(
+                a(PUBLIC, FINAL),
+                typeFromJavaClassName("com.facebook.presto.$gen." + className),
+                type(Object.class),
+                type(Supplier.class));
+        FieldDefinition valueField = classDefinition.declareField(a(PRIVATE, FINAL), "value", Object.class);
+
+        MethodDefinition constructor = classDefinition.declareConstructor(a(PUBLIC));
+        Variable thisVariable = constructor.getThis();
+        constructor.getBody()
+                .append(thisVariable)
+                .invokeConstructor(Object.class)
+                .append(thisVariable.setField(valueField, constantString("value")))
+                .ret();
+
+        MethodDefinition getMethod = classDefinition.declareMethod(a(PUBLIC), "get", type(Object.class));
+        getMethod.getBody()
+                .append(getMethod.getThis().getField(valueField))
+                .retObject();
+
+        try {
+            return classCache.defineClass(classDefinition, Supplier.class, ImmutableMap.of(), TestPersistentClassCache.class.getClassLoader())
+                    .getConstructor()
+                    .newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertHashStrategy(PagesHashStrategy hashStrategy)
+    {
+        assertEquals(hashStrategy.getChannelCount(), 2);
+        for (int position = 0; position < 10; position++) {
+            long expectedHash = 31 * hashPosition(BIGINT, BIGINT_CHANNEL.get(0), position) + hashPosition(VARCHAR, VARCHAR_CHANNEL.get(0), position);
+            assertEquals(hashStrategy.hashPosition(0, position), expectedHash);
+            assertTrue(hashStrategy.positionEqualsPosition(0, position, 0, position));
+            assertFalse(hashStrategy.positionEqualsPosition(0, position, 0, (position + 1) % 10));
+        }
+    }
+}
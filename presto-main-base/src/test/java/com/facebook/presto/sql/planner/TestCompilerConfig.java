@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Map;
 
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
@@ -30,7 +31,11 @@ public class TestCompilerConfig
         assertRecordedDefaults(recordDefaults(CompilerConfig.class)
                 .setExpressionCacheSize(10_000)
                 .setLeafNodeLimitEnabled(false)
-                .setLeafNodeLimit(10_000));
+                .setLeafNodeLimit(10_000)
+                .setPrimitiveKernelsEnabled(false)
+                .setAdaptiveFilterReorderingEnabled(false)
+                .setCodeCacheDirectory(null)
+                .setCodeCachePreloadCount(1_000));
     }
 
     @Test
@@ -40,12 +45,20 @@ public class TestCompilerConfig
                 .put("compiler.expression-cache-size", "52")
                 .put("planner.max-leaf-nodes-in-plan", "100")
                 .put("planner.leaf-node-limit-enabled", "true")
+                .put("compiler.primitive-kernels-enabled", "true")
+                .put("compiler.adaptive-filter-reordering-enabled", "true")
+                .put("compiler.code-cache-directory", "/tmp/code-cache")
+                .put("compiler.code-cache-preload-count", "10")
                 .build();
 
         CompilerConfig expected = new CompilerConfig()
                 .setExpressionCacheSize(52)
                 .setLeafNodeLimit(100)
-                .setLeafNodeLimitEnabled(true);
+                .setLeafNodeLimitEnabled(true)
+                .setPrimitiveKernelsEnabled(true)
+                .setAdaptiveFilterReorderingEnabled(true)
+                .setCodeCacheDirectory(new File("/tmp/code-cache"))
+                .setCodeCachePreloadCount(10);
 
         assertFullMapping(properties, expected);
     }
@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.SplitBlockBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
 import com.facebook.presto.spi.plan.JoinNode;
@@ -26,6 +27,7 @@ import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.testng.annotations.Test;
@@ -41,11 +43,13 @@ import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERI
 import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
+import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -123,6 +127,42 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression(Optional.empty(), "a", INTEGER), Domain.multipleValues(INTEGER, ImmutableList.of(10L, 20L)))));
     }
 
+    @Test
+    public void testBloomFilterMultiplePartitions()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression a = new VariableReferenceExpression(Optional.empty(), "a", BIGINT);
+        VariableReferenceExpression b = new VariableReferenceExpression(Optional.empty(), "b", BIGINT);
+        VariableReferenceExpression c = new VariableReferenceExpression(Optional.empty(), "c", BIGINT);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of(
+                        "123", new DynamicFilterPlaceholder("123", a, EQUAL),
+                        "123", new DynamicFilterPlaceholder("123", b, LESS_THAN),
+                        "456", new DynamicFilterPlaceholder("456", c, EQUAL)),
+                ImmutableMap.of("123", 0, "456", 1),
+                2);
+        Consumer<Map<String, SplitBlockBloomFilter>> consumer = filter.getBloomFilterConsumer();
+        ListenableFuture<Map<VariableReferenceExpression, SplitBlockBloomFilter>> result = filter.getBloomFilterResultFuture();
+
+        SplitBlockBloomFilter first = SplitBlockBloomFilter.create(100);
+        first.putLong(10);
+        SplitBlockBloomFilter second = SplitBlockBloomFilter.create(100);
+        second.putLong(20);
+
+        assertFalse(result.isDone());
+        consumer.accept(ImmutableMap.of("123", first, "456", SplitBlockBloomFilter.create(100)));
+        assertFalse(result.isDone());
+        // the second partition dropped the filter of "456", so it can't be used
+        consumer.accept(ImmutableMap.of("123", second));
+
+        // range comparisons can't use Bloom filters
+        Map<VariableReferenceExpression, SplitBlockBloomFilter> bloomFilters = result.get();
+        assertEquals(bloomFilters.keySet(), ImmutableSet.of(a));
+        assertTrue(bloomFilters.get(a).mightContainLong(10));
+        assertTrue(bloomFilters.get(a).mightContainLong(20));
+        assertFalse(bloomFilters.get(a).mightContainLong(30));
+    }
+
     @Test
     public void testNone()
             throws ExecutionException, InterruptedException
@@ -68,6 +68,10 @@ public class BenchmarkReorderChainedJoins
         @Param({"ELIMINATE_CROSS_JOINS", "AUTOMATIC"})
         private String joinReorderingStrategy;
 
+        // the query joins 8 tables, so a limit of 2 joins makes them be reordered greedily
+        @Param({"9", "2"})
+        private String maxExhaustiveReorderedJoins;
+
         private LocalQueryRunner queryRunner;
 
         @Setup
@@ -76,6 +80,7 @@ public class BenchmarkReorderChainedJoins
             Session session = testSessionBuilder()
                     .setSystemProperty("join_reordering_strategy", joinReorderingStrategy)
                     .setSystemProperty("join_distribution_type", "AUTOMATIC")
+                    .setSystemProperty("max_exhaustive_reordered_joins", maxExhaustiveReorderedJoins)
                     .setCatalog("tpch")
                     .setSchema("tiny")
                     .build();
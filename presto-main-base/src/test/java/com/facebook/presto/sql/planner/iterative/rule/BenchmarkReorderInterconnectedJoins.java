@@ -37,6 +37,7 @@ import org.openjdk.jmh.runner.options.VerboseMode;
 
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.openjdk.jmh.annotations.Mode.AverageTime;
@@ -67,9 +68,13 @@ public class BenchmarkReorderInterconnectedJoins
         @Param({"ELIMINATE_CROSS_JOINS", "AUTOMATIC"})
         private String joinReorderingStrategy;
 
-        @Param({"2", "4", "6", "8", "10"})
+        @Param({"2", "4", "6", "8", "10", "16", "24"})
         private int numberOfTables;
 
+        // EXHAUSTIVE reorders groups of up to 10 tables, GREEDY reorders all the tables at once
+        @Param({"EXHAUSTIVE", "GREEDY"})
+        private String joinEnumeration;
+
         private String query;
         private LocalQueryRunner queryRunner;
 
@@ -77,12 +82,17 @@ public class BenchmarkReorderInterconnectedJoins
         public void setup()
         {
             checkState(numberOfTables >= 2, "numberOfTables must be >= 2");
-            Session session = testSessionBuilder()
+            Session.SessionBuilder sessionBuilder = testSessionBuilder()
                     .setSystemProperty("join_reordering_strategy", joinReorderingStrategy)
                     .setSystemProperty("join_distribution_type", "AUTOMATIC")
                     .setCatalog("tpch")
-                    .setSchema("tiny")
-                    .build();
+                    .setSchema("tiny");
+            if (joinEnumeration.equals("GREEDY")) {
+                sessionBuilder
+                        .setSystemProperty("max_reordered_joins", String.valueOf(max(numberOfTables - 1, 2)))
+                        .setSystemProperty("max_exhaustive_reordered_joins", "2");
+            }
+            Session session = sessionBuilder.build();
             queryRunner = new LocalQueryRunner(session);
             queryRunner.createCatalog("tpch", new TpchConnectorFactory(1), ImmutableMap.of());
             StringBuilder stringBuilder = new StringBuilder();
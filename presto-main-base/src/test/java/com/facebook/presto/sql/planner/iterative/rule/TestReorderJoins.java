@@ -19,6 +19,8 @@ import com.facebook.presto.cost.CostComparator;
 import com.facebook.presto.cost.PlanNodeStatsEstimate;
 import com.facebook.presto.cost.VariableStatsEstimate;
 import com.facebook.presto.spi.plan.EquiJoinClause;
+import com.facebook.presto.spi.plan.JoinNode;
+import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
@@ -46,6 +48,7 @@ import static com.facebook.presto.SystemSessionProperties.HANDLE_COMPLEX_EQUI_JO
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
 import static com.facebook.presto.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static com.facebook.presto.SystemSessionProperties.MAX_EXHAUSTIVE_REORDERED_JOINS;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
@@ -67,8 +70,11 @@ import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.project;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.tableScan;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.values;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.variable;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestReorderJoins
         extends BasePlanTest
@@ -676,6 +682,105 @@ public class TestReorderJoins
                                         values("B1", "B2"))));
     }
 
+    @Test
+    public void testGreedyReorderingOfChainedJoins()
+    {
+        PlanNode result = assertReorderJoins()
+                .setSystemProperty(MAX_EXHAUSTIVE_REORDERED_JOINS, "2")
+                .on(p ->
+                        p.join(
+                                INNER,
+                                p.join(
+                                        INNER,
+                                        p.join(
+                                                INNER,
+                                                p.values(new PlanNodeId("valuesA"), ImmutableList.of(p.variable("A1")), TWO_ROWS),
+                                                p.values(new PlanNodeId("valuesB"), ImmutableList.of(p.variable("B1"), p.variable("B2")), TWO_ROWS),
+                                                ImmutableList.of(new EquiJoinClause(p.variable("A1"), p.variable("B1"))),
+                                                ImmutableList.of(p.variable("A1"), p.variable("B2")),
+                                                Optional.empty()),
+                                        p.values(new PlanNodeId("valuesC"), ImmutableList.of(p.variable("C1"), p.variable("C2")), TWO_ROWS),
+                                        ImmutableList.of(new EquiJoinClause(p.variable("B2"), p.variable("C1"))),
+                                        ImmutableList.of(p.variable("A1"), p.variable("C2")),
+                                        Optional.empty()),
+                                p.values(new PlanNodeId("valuesD"), ImmutableList.of(p.variable("D1")), TWO_ROWS),
+                                ImmutableList.of(new EquiJoinClause(p.variable("C2"), p.variable("D1"))),
+                                ImmutableList.of(p.variable("A1")),
+                                Optional.empty()))
+                .overrideStats("valuesA", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(10000)
+                        .addVariableStatistics(ImmutableMap.of(variable("A1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100)))
+                        .build())
+                .overrideStats("valuesB", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addVariableStatistics(ImmutableMap.of(
+                                variable("B1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100),
+                                variable("B2", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 10)))
+                        .build())
+                .overrideStats("valuesC", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(10)
+                        .addVariableStatistics(ImmutableMap.of(
+                                variable("C1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 10),
+                                variable("C2", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 10)))
+                        .build())
+                .overrideStats("valuesD", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(1000)
+                        .addVariableStatistics(ImmutableMap.of(variable("D1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 10)))
+                        .build())
+                .get();
+
+        List<JoinNode> joins = searchFrom(result)
+                .where(JoinNode.class::isInstance)
+                .findAll();
+        assertEquals(joins.size(), 3);
+        assertTrue(joins.stream().noneMatch(JoinNode::isCrossJoin));
+        assertEquals(result.getOutputVariables(), ImmutableList.of(variable("A1", BIGINT)));
+    }
+
+    @Test
+    public void testGreedyReorderingDoesNotFireForCrossJoin()
+    {
+        assertReorderJoins()
+                .setSystemProperty(MAX_EXHAUSTIVE_REORDERED_JOINS, "2")
+                .on(p ->
+                        p.join(
+                                INNER,
+                                p.join(
+                                        INNER,
+                                        p.values(new PlanNodeId("valuesA"), ImmutableList.of(p.variable("A1")), TWO_ROWS),
+                                        p.values(new PlanNodeId("valuesB"), ImmutableList.of(p.variable("B1")), TWO_ROWS),
+                                        ImmutableList.of(new EquiJoinClause(p.variable("A1"), p.variable("B1"))),
+                                        ImmutableList.of(p.variable("A1")),
+                                        Optional.empty()),
+                                p.join(
+                                        INNER,
+                                        p.values(new PlanNodeId("valuesC"), ImmutableList.of(p.variable("C1")), TWO_ROWS),
+                                        p.values(new PlanNodeId("valuesD"), ImmutableList.of(p.variable("D1")), TWO_ROWS),
+                                        ImmutableList.of(new EquiJoinClause(p.variable("C1"), p.variable("D1"))),
+                                        ImmutableList.of(p.variable("C1")),
+                                        Optional.empty()),
+                                ImmutableList.of(),
+                                ImmutableList.of(p.variable("A1"), p.variable("C1")),
+                                Optional.empty()))
+                .overrideStats("valuesA", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addVariableStatistics(ImmutableMap.of(variable("A1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100)))
+                        .build())
+                .overrideStats("valuesB", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addVariableStatistics(ImmutableMap.of(variable("B1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100)))
+                        .build())
+                .overrideStats("valuesC", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addVariableStatistics(ImmutableMap.of(variable("C1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100)))
+                        .build())
+                .overrideStats("valuesD", PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addVariableStatistics(ImmutableMap.of(variable("D1", BIGINT), new VariableStatsEstimate(0, 100, 0, 640000, 100)))
+                        .build())
+                .doesNotFire();
+    }
+
     @Test
     public void testReplicatesWhenNotRestricted()
     {
@@ -56,6 +56,7 @@ import org.weakref.jmx.Managed;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -84,6 +85,7 @@ import static com.facebook.presto.execution.QueryLimit.Source.RESOURCE_GROUP;
 import static com.facebook.presto.execution.QueryLimit.Source.SYSTEM;
 import static com.facebook.presto.execution.QueryLimit.createDataSizeLimit;
 import static com.facebook.presto.execution.QueryLimit.getMinimum;
+import static com.facebook.presto.memory.ClusterMemoryRevokingPolicy.chooseQueriesToRevoke;
 import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
 import static com.facebook.presto.spi.NodeState.ACTIVE;
@@ -122,6 +124,8 @@ public class ClusterMemoryManager
     private final boolean enabled;
     private final LowMemoryKiller lowMemoryKiller;
     private final Duration killOnOutOfMemoryDelay;
+    private final boolean memoryRevokingBeforeKillEnabled;
+    private final Duration memoryRevokingBeforeKillTimeout;
     private final String coordinatorId;
     private final AtomicLong memoryPoolAssignmentsVersion = new AtomicLong();
     private final AtomicLong clusterUserMemoryReservation = new AtomicLong();
@@ -146,6 +150,19 @@ public class ClusterMemoryManager
     @GuardedBy("this")
     private QueryId lastKilledQuery;
 
+    // queries the nodes are asked to revoke memory of, keyed by node identifier
+    @GuardedBy("this")
+    private Map<String, List<QueryId>> queriesToRevoke = ImmutableMap.of();
+
+    @GuardedBy("this")
+    private boolean memoryRevokingRequested;
+
+    @GuardedBy("this")
+    private long memoryRevokingStartNanos;
+
+    @GuardedBy("this")
+    private boolean queryKilledWhileRevoking;
+
     @Inject
     public ClusterMemoryManager(
             @ForMemoryManager HttpClient httpClient,
@@ -181,6 +198,8 @@ public class ClusterMemoryManager
         this.coordinatorId = queryIdGenerator.getCoordinatorId();
         this.enabled = serverConfig.isCoordinator();
         this.killOnOutOfMemoryDelay = config.getKillOnOutOfMemoryDelay();
+        this.memoryRevokingBeforeKillEnabled = config.isMemoryRevokingBeforeKillEnabled();
+        this.memoryRevokingBeforeKillTimeout = config.getMemoryRevokingBeforeKillTimeout();
         this.isWorkScheduledOnCoordinator = schedulerConfig.isIncludeCoordinator();
         this.isBinaryTransportEnabled = communicationConfig.isBinaryTransportEnabled();
         if (this.isBinaryTransportEnabled) {
@@ -290,11 +309,13 @@ public class ClusterMemoryManager
 
         boolean killOnOomDelayPassed = nanosSince(lastTimeNotOutOfMemory).compareTo(killOnOutOfMemoryDelay) > 0;
         boolean lastKilledQueryGone = isLastKilledQueryGone();
+        boolean waitingForMemoryRevoking = updateMemoryRevoking();
         boolean shouldCallOomKiller = !(lowMemoryKiller instanceof NoneLowMemoryKiller) &&
                 outOfMemory &&
                 !queryKilled &&
                 killOnOomDelayPassed &&
-                lastKilledQueryGone;
+                lastKilledQueryGone &&
+                !waitingForMemoryRevoking;
 
         if (shouldCallOomKiller) {
             callOomKiller(runningQueries);
@@ -302,10 +323,11 @@ public class ClusterMemoryManager
         else {
             // if the cluster is out of memory and we didn't trigger the oom killer we log the state to make debugging easier
             if (outOfMemory) {
-                log.debug("The cluster is out of memory and the OOM killer is not called (query killed: %s, kill on OOM delay passed: %s, last killed query gone: %s).",
+                log.debug("The cluster is out of memory and the OOM killer is not called (query killed: %s, kill on OOM delay passed: %s, last killed query gone: %s, waiting for memory revoking: %s).",
                         queryKilled,
                         killOnOomDelayPassed,
-                        lastKilledQueryGone);
+                        lastKilledQueryGone,
+                        waitingForMemoryRevoking);
             }
         }
 
@@ -376,11 +398,59 @@ public class ClusterMemoryManager
                 chosenQuery.get().fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "Query killed because the cluster is out of memory. Please try again in a few minutes."));
                 queriesKilledDueToOutOfMemory.incrementAndGet();
                 lastKilledQuery = chosenQueryId.get();
+                if (memoryRevokingRequested) {
+                    queryKilledWhileRevoking = true;
+                    // give the remaining revocable memory a full timeout to spill before the next kill
+                    memoryRevokingStartNanos = System.nanoTime();
+                }
                 logQueryKill(chosenQueryId.get(), nodeMemoryInfos);
             }
         }
     }
 
+    /**
+     * Asks the queries with the largest revocable reservations on full nodes to spill, and returns
+     * whether the OOM killer should wait for that spilling to free memory.
+     */
+    @GuardedBy("this")
+    private boolean updateMemoryRevoking()
+    {
+        if (!memoryRevokingBeforeKillEnabled) {
+            return false;
+        }
+
+        Map<String, MemoryInfo> nodeMemoryInfos = new HashMap<>();
+        nodes.forEach((nodeId, node) -> node.getInfo().ifPresent(info -> nodeMemoryInfos.put(nodeId, info)));
+        queriesToRevoke = chooseQueriesToRevoke(nodeMemoryInfos);
+
+        ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
+        if (memoryRevokingRequested && !hasFullNodes(nodeMemoryInfos.values())) {
+            if (!queryKilledWhileRevoking) {
+                generalPool.recordOutOfMemoryResolvedByRevoking();
+            }
+            memoryRevokingRequested = false;
+        }
+        if (queriesToRevoke.isEmpty()) {
+            // either no node is full or the full nodes have nothing left to spill
+            return false;
+        }
+        if (!memoryRevokingRequested) {
+            memoryRevokingRequested = true;
+            memoryRevokingStartNanos = System.nanoTime();
+            queryKilledWhileRevoking = false;
+            generalPool.recordMemoryRevokingRequest();
+            log.debug("Requesting memory revoking on full nodes: %s", queriesToRevoke);
+        }
+        return nanosSince(memoryRevokingStartNanos).compareTo(memoryRevokingBeforeKillTimeout) < 0;
+    }
+
+    private static boolean hasFullNodes(Collection<MemoryInfo> nodeMemoryInfos)
+    {
+        return nodeMemoryInfos.stream()
+                .map(info -> info.getPools().get(GENERAL_POOL))
+                .anyMatch(poolInfo -> poolInfo != null && poolInfo.getFreeBytes() <= 0);
+    }
+
     @GuardedBy("this")
     private boolean isLastKilledQueryGone()
     {
@@ -585,8 +655,14 @@ public class ClusterMemoryManager
         }
 
         // Schedule refresh
-        for (RemoteNodeMemory node : nodes.values()) {
-            node.asyncRefresh(assignments);
+        for (Entry<String, RemoteNodeMemory> entry : nodes.entrySet()) {
+            List<QueryId> nodeQueriesToRevoke = queriesToRevoke.getOrDefault(entry.getKey(), ImmutableList.of());
+            if (nodeQueriesToRevoke.isEmpty()) {
+                entry.getValue().asyncRefresh(assignments);
+            }
+            else {
+                entry.getValue().asyncRefresh(new MemoryPoolAssignmentsRequest(assignments.getCoordinatorId(), assignments.getVersion(), assignments.getAssignments(), nodeQueriesToRevoke));
+            }
         }
     }
 
@@ -75,8 +75,10 @@ import com.facebook.presto.execution.TaskSource;
 import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.execution.TaskThresholdMemoryRevokingScheduler;
 import com.facebook.presto.execution.buffer.SpoolingOutputBufferFactory;
+import com.facebook.presto.execution.executor.AbstractMultilevelSplitQueue;
 import com.facebook.presto.execution.executor.MultilevelSplitQueue;
 import com.facebook.presto.execution.executor.TaskExecutor;
+import com.facebook.presto.execution.executor.WorkStealingMultilevelSplitQueue;
 import com.facebook.presto.execution.scheduler.FlatNetworkTopology;
 import com.facebook.presto.execution.scheduler.LegacyNetworkTopology;
 import com.facebook.presto.execution.scheduler.NetworkTopology;
@@ -196,6 +198,7 @@ import com.facebook.presto.spiller.SpillerStats;
 import com.facebook.presto.spiller.StandaloneSpillerFactory;
 import com.facebook.presto.spiller.TempStorageSingleStreamSpillerFactory;
 import com.facebook.presto.spiller.TempStorageStandaloneSpillerFactory;
+import com.facebook.presto.split.ForBlockingPageSources;
 import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSinkProvider;
 import com.facebook.presto.split.PageSourceManager;
@@ -228,6 +231,7 @@ import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler;
 import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
+import com.facebook.presto.sql.gen.PersistentClassCache;
 import com.facebook.presto.sql.gen.RowExpressionPredicateCompiler;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.parser.SqlParserOptions;
@@ -567,13 +571,14 @@ public class ServerMainModule
         newExporter(binder).export(TaskManager.class).withGeneratedName();
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
-        newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
+        newExporter(binder).export(AbstractMultilevelSplitQueue.class).as(generatedNameOf(MultilevelSplitQueue.class));
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(FileFragmentResultCacheConfig.class);
         binder.bind(FragmentCacheStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FragmentCacheStats.class).withGeneratedName();
         configBinder(binder).bindConfig(CompilerConfig.class);
+        binder.bind(PersistentClassCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(PersistentClassCache.class).withGeneratedName();
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(ExpressionCompiler.class).withGeneratedName();
         binder.bind(PageFunctionCompiler.class).in(Scopes.SINGLETON);
@@ -925,6 +930,24 @@ public class ServerMainModule
         return createConcurrentScheduledExecutor("async-http-timeout", config.getHttpTimeoutConcurrency(), config.getHttpTimeoutThreads());
     }
 
+    @Provides
+    @Singleton
+    @ForBlockingPageSources
+    public static ExecutorService createBlockingPageSourceExecutor(FeaturesConfig config)
+    {
+        return newFixedThreadPool(config.getBlockingPageSourceThreads(), daemonThreadsNamed("page-source-io-%s"));
+    }
+
+    @Provides
+    @Singleton
+    public static AbstractMultilevelSplitQueue createMultilevelSplitQueue(TaskManagerConfig config)
+    {
+        if (config.isWorkStealingSplitQueueEnabled()) {
+            return new WorkStealingMultilevelSplitQueue(config.getLevelTimeMultiplier().doubleValue(), config.getMaxWorkerThreads());
+        }
+        return new MultilevelSplitQueue(config);
+    }
+
     @Provides
     @Singleton
     public static FragmentResultCacheManager createFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, FragmentCacheStats fragmentCacheStats)
@@ -970,12 +993,14 @@ public class ServerMainModule
         public ExecutorCleanup(
                 @ForExchange ScheduledExecutorService exchangeExecutor,
                 @ForAsyncRpc ExecutorService httpResponseExecutor,
-                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor)
+                @ForAsyncRpc ScheduledExecutorService httpTimeoutExecutor,
+                @ForBlockingPageSources ExecutorService blockingPageSourceExecutor)
         {
             executors = ImmutableList.of(
                     exchangeExecutor,
                     httpResponseExecutor,
-                    httpTimeoutExecutor);
+                    httpTimeoutExecutor,
+                    blockingPageSourceExecutor);
         }
 
         @PreDestroy
@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
 import jakarta.validation.constraints.NotNull;
 
@@ -21,6 +22,7 @@ public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private boolean compressedStorageEnabled;
 
     @NotNull
     public int getSplitsPerNode()
@@ -47,4 +49,17 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    public boolean isCompressedStorageEnabled()
+    {
+        return compressedStorageEnabled;
+    }
+
+    @Config("memory.compressed-storage-enabled")
+    @ConfigDescription("Store the columns of the tables dictionary or run length encoded, and skip pages based on the range of their values")
+    public MemoryConfig setCompressedStorageEnabled(boolean compressedStorageEnabled)
+    {
+        this.compressedStorageEnabled = compressedStorageEnabled;
+        return this;
+    }
 }
@@ -405,7 +405,8 @@ public class MemoryMetadata
         List<MemoryDataFragment> expectedFragments = ImmutableList.copyOf(
                 tableDataFragments.get(memoryTableHandle.getTableId()).values());
 
-        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments);
+        // the predicate is used to skip stored pages, but is not guaranteed to be enforced for every row
+        MemoryTableLayoutHandle layoutHandle = new MemoryTableLayoutHandle(memoryTableHandle, expectedFragments, constraint.getSummary());
         return new ConnectorTableLayoutResult(getTableLayout(session, layoutHandle), constraint.getSummary());
     }
 
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.AbstractVariableWidthBlock;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.type.FixedWidthType;
+import com.facebook.presto.common.type.Type;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Integer.highestOneBit;
+
+/**
+ * Re-encodes the columns of a stored page as run length encoded or dictionary blocks,
+ * whichever retains less memory than the original block.
+ * <p>
+ * Positions are merged only when their stored bytes are identical. Type equality is not
+ * enough, as it treats some distinct values as equal, e.g. {@code 0.0} and {@code -0.0},
+ * or timestamps with time zone of the same instant in different zones.
+ */
+final class MemoryPageCompressor
+{
+    // a dictionary with more entries than this fraction of the positions is not worth building
+    private static final double MAX_DICTIONARY_RATIO = 0.5;
+
+    private MemoryPageCompressor() {}
+
+    public static Page compress(Page page, List<Type> types)
+    {
+        checkArgument(page.getChannelCount() == types.size(), "Expected %s columns, but page has %s", types.size(), page.getChannelCount());
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = compress(page.getBlock(channel), types.get(channel));
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
+    private static Block compress(Block block, Type type)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount < 2 || block instanceof DictionaryBlock || block instanceof RunLengthEncodedBlock) {
+            return block;
+        }
+        int fixedSize = getRawValueSize(block, type);
+        if (fixedSize < 0) {
+            return block;
+        }
+
+        int maxDictionarySize = (int) (positionCount * MAX_DICTIONARY_RATIO);
+        int[] ids = new int[positionCount];
+        int[] dictionaryPositions = new int[maxDictionarySize];
+        int dictionarySize = 0;
+        int nullId = -1;
+
+        // open addressing table of dictionary ids, keyed by the value at their first position
+        int[] table = new int[highestOneBit(maxDictionarySize) * 4];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+
+        for (int position = 0; position < positionCount; position++) {
+            int id;
+            if (block.isNull(position)) {
+                if (nullId == -1) {
+                    if (dictionarySize == maxDictionarySize) {
+                        return block;
+                    }
+                    nullId = dictionarySize;
+                    dictionaryPositions[dictionarySize++] = position;
+                }
+                id = nullId;
+            }
+            else {
+                int slot = (int) mix(rawHash(block, fixedSize, position)) & mask;
+                while (table[slot] != -1 && !rawEqual(block, fixedSize, dictionaryPositions[table[slot]], position)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (table[slot] == -1) {
+                    if (dictionarySize == maxDictionarySize) {
+                        return block;
+                    }
+                    table[slot] = dictionarySize;
+                    dictionaryPositions[dictionarySize++] = position;
+                }
+                id = table[slot];
+            }
+            ids[position] = id;
+        }
+
+        if (dictionarySize == 1) {
+            return new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount);
+        }
+        Block dictionaryBlock = new DictionaryBlock(positionCount, block.copyPositions(dictionaryPositions, 0, dictionarySize), ids, true);
+        if (dictionaryBlock.getRetainedSizeInBytes() >= block.getRetainedSizeInBytes()) {
+            return block;
+        }
+        return dictionaryBlock;
+    }
+
+    /**
+     * Returns the size of the fixed width values of the block, 0 for variable width values,
+     * or -1 if the stored values cannot be compared directly.
+     */
+    private static int getRawValueSize(Block block, Type type)
+    {
+        if (block instanceof AbstractVariableWidthBlock) {
+            return 0;
+        }
+        if (type instanceof FixedWidthType) {
+            int fixedSize = ((FixedWidthType) type).getFixedSize();
+            switch (fixedSize) {
+                case Byte.BYTES:
+                case Short.BYTES:
+                case Integer.BYTES:
+                case Long.BYTES:
+                case Long.BYTES * 2:
+                    return fixedSize;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static long rawHash(Block block, int fixedSize, int position)
+    {
+        switch (fixedSize) {
+            case 0:
+                return block.hash(position, 0, block.getSliceLength(position));
+            case Byte.BYTES:
+                return block.getByte(position);
+            case Short.BYTES:
+                return block.getShort(position);
+            case Integer.BYTES:
+                return block.getInt(position);
+            case Long.BYTES:
+                return block.getLong(position);
+            default:
+                return block.getLong(position, 0) * 31 + block.getLong(position, Long.BYTES);
+        }
+    }
+
+    private static boolean rawEqual(Block block, int fixedSize, int left, int right)
+    {
+        switch (fixedSize) {
+            case 0:
+                int length = block.getSliceLength(left);
+                return length == block.getSliceLength(right) && block.equals(left, 0, block, right, 0, length);
+            case Byte.BYTES:
+                return block.getByte(left) == block.getByte(right);
+            case Short.BYTES:
+                return block.getShort(left) == block.getShort(right);
+            case Integer.BYTES:
+                return block.getInt(left) == block.getInt(right);
+            case Long.BYTES:
+                return block.getLong(left) == block.getLong(right);
+            default:
+                return block.getLong(left, 0) == block.getLong(right, 0) && block.getLong(left, Long.BYTES) == block.getLong(right, Long.BYTES);
+        }
+    }
+
+    private static long mix(long hash)
+    {
+        // spread the hash, as some types hash small values to themselves
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -29,10 +30,12 @@ import io.airlift.slice.Slice;
 import jakarta.inject.Inject;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -66,7 +69,7 @@ public class MemoryPageSinkProvider
         checkState(memoryOutputTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
+        pagesStore.initialize(tableId, getColumnTypes(tableHandle));
         return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
     }
 
@@ -84,10 +87,17 @@ public class MemoryPageSinkProvider
         if (memoryInsertTableHandle.isInsertOverwrite()) {
             pagesStore.clearTable(tableId);
         }
-        pagesStore.initialize(tableId);
+        pagesStore.initialize(tableId, getColumnTypes(tableHandle));
         return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
     }
 
+    private static List<Type> getColumnTypes(MemoryTableHandle tableHandle)
+    {
+        return tableHandle.getColumnHandles().stream()
+                .map(MemoryColumnHandle::getColumnType)
+                .collect(toImmutableList());
+    }
+
     private static class MemoryPageSink
             implements ConnectorPageSink
     {
@@ -62,6 +62,7 @@ public final class MemoryPageSourceProvider
                 partNumber,
                 totalParts,
                 columnIndexes,
+                memorySplit.getPredicate(),
                 expectedRows);
 
         return new FixedPageSource(pages);
@@ -15,6 +15,9 @@ package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.ThreadSafe;
@@ -31,12 +34,15 @@ import java.util.Set;
 
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean compressedStorageEnabled;
 
     @GuardedBy("this")
     private long currentBytes;
@@ -47,31 +53,49 @@ public class MemoryPagesStore
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.compressedStorageEnabled = config.isCompressedStorageEnabled();
     }
 
-    public synchronized void initialize(long tableId)
+    public synchronized void initialize(long tableId, List<Type> types)
     {
         if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
+            tables.put(tableId, new TableData(types));
         }
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void add(Long tableId, Page page)
     {
-        if (!contains(tableId)) {
-            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+        // compress and index the page before taking the store-wide lock, so that concurrent writers only serialize on the bookkeeping
+        MemoryZoneMap zoneMap = MemoryZoneMap.ALL;
+        if (compressedStorageEnabled) {
+            List<Type> types = getTypes(tableId);
+            checkState(types.size() == page.getChannelCount(), "Expected page with %s channels, but got %s", types.size(), page.getChannelCount());
+            page = MemoryPageCompressor.compress(page, types);
+            zoneMap = MemoryZoneMap.create(page, types);
         }
-
         page.compact();
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
-        if (maxBytes < newSize) {
-            throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+        synchronized (this) {
+            if (!contains(tableId)) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+
+            long newSize = currentBytes + page.getRetainedSizeInBytes();
+            if (maxBytes < newSize) {
+                throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
+            }
+            currentBytes = newSize;
+
+            tables.get(tableId).add(page, zoneMap);
         }
-        currentBytes = newSize;
+    }
 
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
+    private synchronized List<Type> getTypes(Long tableId)
+    {
+        if (!contains(tableId)) {
+            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+        }
+        return tables.get(tableId).getTypes();
     }
 
     public synchronized List<Page> getPages(
@@ -79,6 +103,7 @@ public class MemoryPagesStore
             int partNumber,
             int totalParts,
             List<Integer> columnIndexes,
+            TupleDomain<ColumnHandle> predicate,
             long expectedRows)
     {
         if (!contains(tableId)) {
@@ -93,7 +118,9 @@ public class MemoryPagesStore
         ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
         for (int i = partNumber; i < tableData.getPages().size(); i += totalParts) {
-            partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
+            if (tableData.getZoneMaps().get(i).mayMatch(predicate)) {
+                partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
+            }
         }
 
         return partitionedPages.build();
@@ -111,7 +138,7 @@ public class MemoryPagesStore
             for (Page page : tableData.getPages()) {
                 currentBytes -= page.getRetainedSizeInBytes();
             }
-            tables.put(tableId, new TableData());
+            tables.put(tableId, new TableData(tableData.getTypes()));
         }
     }
 
@@ -156,20 +183,38 @@ public class MemoryPagesStore
 
     private static final class TableData
     {
+        private final List<Type> types;
         private final List<Page> pages = new ArrayList<>();
+        private final List<MemoryZoneMap> zoneMaps = new ArrayList<>();
         private long rows;
 
-        public void add(Page page)
+        public TableData(List<Type> types)
+        {
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        }
+
+        public void add(Page page, MemoryZoneMap zoneMap)
         {
             pages.add(page);
+            zoneMaps.add(zoneMap);
             rows += page.getPositionCount();
         }
 
+        private List<Type> getTypes()
+        {
+            return types;
+        }
+
         private List<Page> getPages()
         {
             return pages;
         }
 
+        private List<MemoryZoneMap> getZoneMaps()
+        {
+            return zoneMaps;
+        }
+
         private long getRows()
         {
             return rows;
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.ColumnHandle;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The range of values of each column of a stored page, used to skip pages that cannot match the predicate of a scan.
+ */
+final class MemoryZoneMap
+{
+    public static final MemoryZoneMap ALL = new MemoryZoneMap(ImmutableList.of());
+
+    // indexed by column index, empty when the values of the column are not tracked
+    private final List<Optional<Domain>> columnDomains;
+
+    private MemoryZoneMap(List<Optional<Domain>> columnDomains)
+    {
+        this.columnDomains = ImmutableList.copyOf(requireNonNull(columnDomains, "columnDomains is null"));
+    }
+
+    public static MemoryZoneMap create(Page page, List<Type> types)
+    {
+        checkArgument(page.getChannelCount() == types.size(), "Expected %s columns, but page has %s", types.size(), page.getChannelCount());
+
+        ImmutableList.Builder<Optional<Domain>> columnDomains = ImmutableList.builder();
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            columnDomains.add(getDomain(page.getBlock(channel), types.get(channel)));
+        }
+        return new MemoryZoneMap(columnDomains.build());
+    }
+
+    /**
+     * Returns false if no row of the page can satisfy the predicate.
+     */
+    public boolean mayMatch(TupleDomain<ColumnHandle> predicate)
+    {
+        Optional<Map<ColumnHandle, Domain>> domains = predicate.getDomains();
+        if (!domains.isPresent()) {
+            return false;
+        }
+        for (Map.Entry<ColumnHandle, Domain> entry : domains.get().entrySet()) {
+            int columnIndex = ((MemoryColumnHandle) entry.getKey()).getColumnIndex();
+            if (columnIndex >= columnDomains.size()) {
+                continue;
+            }
+            Optional<Domain> columnDomain = columnDomains.get(columnIndex);
+            if (columnDomain.isPresent() && !columnDomain.get().overlaps(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Optional<Domain> getDomain(Block block, Type type)
+    {
+        if (!isSupported(type)) {
+            return Optional.empty();
+        }
+
+        int minPosition = -1;
+        int maxPosition = -1;
+        boolean hasNull = false;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                hasNull = true;
+                continue;
+            }
+            if (minPosition == -1) {
+                minPosition = position;
+                maxPosition = position;
+                continue;
+            }
+            if (type.compareTo(block, position, block, minPosition) < 0) {
+                minPosition = position;
+            }
+            else if (type.compareTo(block, position, block, maxPosition) > 0) {
+                maxPosition = position;
+            }
+        }
+
+        if (minPosition == -1) {
+            return Optional.of(hasNull ? Domain.onlyNull(type) : Domain.none(type));
+        }
+        Range range = Range.range(type, readNativeValue(type, block, minPosition), true, readNativeValue(type, block, maxPosition), true);
+        return Optional.of(Domain.create(ValueSet.ofRanges(range), hasNull));
+    }
+
+    private static boolean isSupported(Type type)
+    {
+        // floating point columns are not tracked, as NaN does not fit in a range
+        Class<?> javaType = type.getJavaType();
+        return type.isOrderable() &&
+                !type.equals(REAL) &&
+                (javaType == long.class || javaType == boolean.class || javaType == Slice.class);
+    }
+}
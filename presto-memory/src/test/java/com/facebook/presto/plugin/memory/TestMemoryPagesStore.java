@@ -16,6 +16,10 @@ package com.facebook.presto.plugin.memory;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -25,11 +29,18 @@ import com.facebook.presto.spi.PageSinkContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
+
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateTimeEncoding.packDateTimeWithZone;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIME_ZONE;
+import static java.lang.Double.doubleToRawLongBits;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -55,7 +66,7 @@ public class TestMemoryPagesStore
     public void testCreateEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0), ImmutableList.of());
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0), ImmutableList.of());
     }
 
     @Test
@@ -63,28 +74,28 @@ public class TestMemoryPagesStore
     {
         createTable(0L, 0L);
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), POSITIONS_PER_PAGE).size(), 1);
     }
 
     @Test
     public void testInsertPageWithoutCreate()
     {
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), POSITIONS_PER_PAGE).size(), 1);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testReadFromUnknownTable()
     {
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0);
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testTryToReadFromEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0), ImmutableList.of());
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), 0), ImmutableList.of());
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), 42);
     }
 
     @Test
@@ -119,6 +130,74 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testCompressedStorage()
+    {
+        MemoryPagesStore compressedPagesStore = new MemoryPagesStore(new MemoryConfig().setCompressedStorageEnabled(true));
+        MemoryPageSinkProvider compressedPageSinkProvider = new MemoryPageSinkProvider(compressedPagesStore, HostAddress.fromString("localhost:8080"));
+        MemoryColumnHandle column = new MemoryColumnHandle("value", BIGINT, 0);
+        MemoryTableHandle tableHandle = new MemoryTableHandle("test", "schema", "table_0", 0L, ImmutableList.of(column));
+
+        ConnectorPageSink pageSink = compressedPageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryOutputTableHandle(tableHandle, ImmutableSet.of(0L)),
+                PageSinkContext.defaultContext());
+        pageSink.appendPage(createRepeatingPage(0, 1000));
+        pageSink.appendPage(createRepeatingPage(100, 1000));
+        pageSink.finish();
+
+        List<Page> pages = compressedPagesStore.getPages(0L, 0, 1, ImmutableList.of(0), TupleDomain.all(), 2000);
+        assertEquals(pages.size(), 2);
+        assertTrue(pages.get(0).getBlock(0) instanceof DictionaryBlock);
+        assertEquals(BIGINT.getLong(pages.get(1).getBlock(0), 7), 107L);
+
+        TupleDomain<ColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(BIGINT, 105L)));
+        pages = compressedPagesStore.getPages(0L, 0, 1, ImmutableList.of(0), predicate, 2000);
+        assertEquals(pages.size(), 1);
+        assertEquals(BIGINT.getLong(pages.get(0).getBlock(0), 0), 100L);
+
+        predicate = TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(BIGINT, 500L)));
+        assertEquals(compressedPagesStore.getPages(0L, 0, 1, ImmutableList.of(0), predicate, 2000), ImmutableList.of());
+    }
+
+    @Test
+    public void testCompressedStoragePreservesStoredValues()
+    {
+        MemoryPagesStore compressedPagesStore = new MemoryPagesStore(new MemoryConfig().setCompressedStorageEnabled(true));
+        compressedPagesStore.initialize(0L, ImmutableList.of(TIMESTAMP_WITH_TIME_ZONE, DOUBLE));
+
+        // values that are equal by their types, but stored differently
+        long[] timestamps = {packDateTimeWithZone(1000, "UTC"), packDateTimeWithZone(1000, "America/New_York")};
+        double[] doubles = {0.0, -0.0};
+        int positionCount = 100;
+        BlockBuilder timestampBlockBuilder = TIMESTAMP_WITH_TIME_ZONE.createFixedSizeBlockBuilder(positionCount);
+        BlockBuilder doubleBlockBuilder = DOUBLE.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            TIMESTAMP_WITH_TIME_ZONE.writeLong(timestampBlockBuilder, timestamps[position % 2]);
+            DOUBLE.writeDouble(doubleBlockBuilder, doubles[position % 2]);
+        }
+        compressedPagesStore.add(0L, new Page(positionCount, timestampBlockBuilder.build(), doubleBlockBuilder.build()));
+
+        List<Page> pages = compressedPagesStore.getPages(0L, 0, 1, ImmutableList.of(0, 1), TupleDomain.all(), positionCount);
+        assertEquals(pages.size(), 1);
+        Page page = pages.get(0);
+        assertTrue(page.getBlock(0) instanceof DictionaryBlock);
+        assertTrue(page.getBlock(1) instanceof DictionaryBlock);
+        for (int position = 0; position < positionCount; position++) {
+            assertEquals(TIMESTAMP_WITH_TIME_ZONE.getLong(page.getBlock(0), position), timestamps[position % 2]);
+            assertEquals(doubleToRawLongBits(DOUBLE.getDouble(page.getBlock(1), position)), doubleToRawLongBits(doubles[position % 2]));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Expected page with 0 channels, but got 1")
+    public void testCompressedStorageRejectsMismatchedPage()
+    {
+        MemoryPagesStore compressedPagesStore = new MemoryPagesStore(new MemoryConfig().setCompressedStorageEnabled(true));
+        compressedPagesStore.initialize(0L, ImmutableList.of());
+        compressedPagesStore.add(0L, createPage());
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -176,6 +255,15 @@ public class TestMemoryPagesStore
         return new Page(0, blockBuilder.build());
     }
 
+    private static Page createRepeatingPage(long firstValue, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, firstValue + position % 10);
+        }
+        return new Page(positionCount, blockBuilder.build());
+    }
+
     private static Page createOneMegaBytePage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
@@ -20,9 +20,11 @@ import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.FixedWidthType;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.orc.StripeReader.StripeId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.StripeInformation;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
@@ -54,8 +56,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
+import static com.facebook.presto.common.RuntimeUnit.NANO;
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
 import static com.facebook.presto.orc.DwrfEncryptionInfo.createDwrfEncryptionInfo;
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
@@ -101,6 +106,10 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     private OrcAggregatedMemoryContext currentStripeSystemMemoryContext;
     private Optional<DwrfEncryptionInfo> dwrfEncryptionInfo = Optional.empty();
 
+    private final Optional<ReadAheadOrcDataSource> readAheadDataSource;
+    // the stripe whose footer is being read ahead, until the read-ahead of its streams is started
+    private Optional<StripeInformation> readAheadStripe = Optional.empty();
+
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
     private long filePosition;
@@ -148,6 +157,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
             DataSize maxBlockSize,
+            DataSize maxStripeReadAheadSize,
+            Optional<Executor> stripeReadAheadExecutor,
             Map<String, Slice> userMetadata,
             OrcAggregatedMemoryContext systemMemoryUsage,
             Optional<OrcWriteValidation> writeValidation,
@@ -231,6 +242,22 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.stripeFilePositions = stripeFilePositions.build();
 
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, tinyStripeThreshold, systemMemoryUsage);
+        // tiny stripes are already read together with their neighbors by the caching data source
+        requireNonNull(maxStripeReadAheadSize, "maxStripeReadAheadSize is null");
+        requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
+        if (maxStripeReadAheadSize.toBytes() > 0 && stripeReadAheadExecutor.isPresent() && this.stripes.size() > 1 && !(orcDataSource instanceof CachingOrcDataSource)) {
+            ReadAheadOrcDataSource readAheadDataSource = new ReadAheadOrcDataSource(
+                    orcDataSource,
+                    stripeReadAheadExecutor.get(),
+                    maxMergeDistance,
+                    maxStripeReadAheadSize,
+                    systemMemoryUsage.newOrcLocalMemoryContext(ReadAheadOrcDataSource.class.getSimpleName()));
+            this.readAheadDataSource = Optional.of(readAheadDataSource);
+            orcDataSource = readAheadDataSource;
+        }
+        else {
+            this.readAheadDataSource = Optional.empty();
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -503,6 +530,10 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     public void close()
             throws IOException
     {
+        if (readAheadDataSource.isPresent()) {
+            runtimeStats.addMetricValue("OrcStripeReadStallTimeNanos", NANO, readAheadDataSource.get().getStallTimeNanos());
+            runtimeStats.addMetricValue("OrcStripeReadAheadBytes", BYTE, readAheadDataSource.get().getReadAheadBytes());
+        }
         try (Closer closer = Closer.create()) {
             closer.register(orcDataSource);
             for (StreamReader column : streamReaders) {
@@ -562,6 +593,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             return false;
         }
 
+        readAheadNextStripeStreams();
+
         currentRowGroup++;
         RowGroup currentRowGroup = rowGroups.next();
         currentGroupRowCount = toIntExact(currentRowGroup.getRowCount());
@@ -680,6 +713,50 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             rowGroups = stripe.getRowGroups().iterator();
         }
         fileIntrospector.ifPresent(introspector -> introspector.onStripe(stripeInformation, stripe));
+
+        readAheadNextStripeFooter();
+    }
+
+    /**
+     * Starts reading the footer of the next stripe in the background. The buffers of the
+     * current stripe are dropped, as the stripe has been read completely at this point.
+     */
+    private void readAheadNextStripeFooter()
+    {
+        if (!readAheadDataSource.isPresent()) {
+            return;
+        }
+        readAheadDataSource.get().clearReadAhead();
+        readAheadStripe = Optional.empty();
+
+        if (currentStripe + 1 < stripes.size()) {
+            StripeInformation nextStripe = stripes.get(currentStripe + 1);
+            readAheadDataSource.get().readAhead(ImmutableList.of(getStripeFooterDiskRange(nextStripe)));
+            readAheadStripe = Optional.of(nextStripe);
+        }
+    }
+
+    /**
+     * Starts reading the streams of the next stripe in the background once its footer has
+     * arrived. The footer is decoded on the reader thread, as the decompressor is not thread
+     * safe, and this is only attempted when the footer is available, so it never blocks.
+     */
+    private void readAheadNextStripeStreams()
+            throws IOException
+    {
+        if (!readAheadStripe.isPresent() || !readAheadDataSource.get().isReadAheadDone(getStripeFooterDiskRange(readAheadStripe.get()))) {
+            return;
+        }
+        StripeInformation nextStripe = readAheadStripe.get();
+        readAheadStripe = Optional.empty();
+
+        StripeFooter stripeFooter = stripeReader.readStripeFooter(new StripeId(orcDataSource.getId(), nextStripe.getOffset()), nextStripe, currentStripeSystemMemoryContext);
+        readAheadDataSource.get().readAhead(stripeReader.getIncludedStreamDiskRanges(nextStripe, stripeFooter));
+    }
+
+    private static DiskRange getStripeFooterDiskRange(StripeInformation stripe)
+    {
+        return new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength()));
     }
 
     @VisibleForTesting
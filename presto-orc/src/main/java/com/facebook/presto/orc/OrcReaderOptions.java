@@ -15,6 +15,10 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -22,6 +26,7 @@ import static java.util.Objects.requireNonNull;
 public class OrcReaderOptions
 {
     private static final DataSize DEFAULT_MAX_SLICE_SIZE = new DataSize(1, GIGABYTE);
+    private static final DataSize DEFAULT_MAX_STRIPE_READ_AHEAD_SIZE = new DataSize(0, BYTE);
     private final DataSize maxMergeDistance;
     private final DataSize tinyStripeThreshold;
     private final DataSize maxBlockSize;
@@ -32,6 +37,9 @@ public class OrcReaderOptions
     // slice reader will throw if the slice size is larger than this value
     private final DataSize maxSliceSize;
     private final boolean resetAllReaders;
+    // the next stripe is read on the executor while the current one is decoded, if this is not zero
+    private final DataSize maxStripeReadAheadSize;
+    private final Optional<Executor> stripeReadAheadExecutor;
 
     /**
      * Read column statistics for flat map columns. Usually there are quite a
@@ -48,7 +56,9 @@ public class OrcReaderOptions
             boolean appendRowNumber,
             boolean readMapStatistics,
             DataSize maxSliceSize,
-            boolean resetAllReaders)
+            boolean resetAllReaders,
+            DataSize maxStripeReadAheadSize,
+            Optional<Executor> stripeReadAheadExecutor)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -59,6 +69,8 @@ public class OrcReaderOptions
         this.readMapStatistics = readMapStatistics;
         this.maxSliceSize = maxSliceSize;
         this.resetAllReaders = resetAllReaders;
+        this.maxStripeReadAheadSize = requireNonNull(maxStripeReadAheadSize, "maxStripeReadAheadSize is null");
+        this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -106,6 +118,16 @@ public class OrcReaderOptions
         return resetAllReaders;
     }
 
+    public DataSize getMaxStripeReadAheadSize()
+    {
+        return maxStripeReadAheadSize;
+    }
+
+    public Optional<Executor> getStripeReadAheadExecutor()
+    {
+        return stripeReadAheadExecutor;
+    }
+
     @Override
     public String toString()
     {
@@ -119,6 +141,7 @@ public class OrcReaderOptions
                 .add("readMapStatistics", readMapStatistics)
                 .add("maxSliceSize", maxSliceSize)
                 .add("resetAllReaders", resetAllReaders)
+                .add("maxStripeReadAheadSize", maxStripeReadAheadSize)
                 .toString();
     }
 
@@ -138,6 +161,8 @@ public class OrcReaderOptions
         private boolean readMapStatistics;
         private DataSize maxSliceSize = DEFAULT_MAX_SLICE_SIZE;
         private boolean resetAllReaders;
+        private DataSize maxStripeReadAheadSize = DEFAULT_MAX_STRIPE_READ_AHEAD_SIZE;
+        private Optional<Executor> stripeReadAheadExecutor = Optional.empty();
 
         private Builder() {}
 
@@ -195,6 +220,18 @@ public class OrcReaderOptions
             return this;
         }
 
+        public Builder withMaxStripeReadAheadSize(DataSize maxStripeReadAheadSize)
+        {
+            this.maxStripeReadAheadSize = maxStripeReadAheadSize;
+            return this;
+        }
+
+        public Builder withStripeReadAheadExecutor(Optional<Executor> stripeReadAheadExecutor)
+        {
+            this.stripeReadAheadExecutor = requireNonNull(stripeReadAheadExecutor, "stripeReadAheadExecutor is null");
+            return this;
+        }
+
         public OrcReaderOptions build()
         {
             return new OrcReaderOptions(
@@ -206,7 +243,9 @@ public class OrcReaderOptions
                     appendRowNumber,
                     readMapStatistics,
                     maxSliceSize,
-                    resetAllReaders);
+                    resetAllReaders,
+                    maxStripeReadAheadSize,
+                    stripeReadAheadExecutor);
         }
     }
 }
@@ -224,6 +224,8 @@ public class OrcSelectiveRecordReader
                 options.getMaxMergeDistance(),
                 options.getTinyStripeThreshold(),
                 options.getMaxBlockSize(),
+                options.getMaxStripeReadAheadSize(),
+                options.getStripeReadAheadExecutor(),
                 userMetadata,
                 systemMemoryUsage,
                 writeValidation,
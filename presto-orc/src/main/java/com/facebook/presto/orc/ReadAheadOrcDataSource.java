@@ -0,0 +1,417 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.ChunkedSliceInput;
+import io.airlift.slice.ChunkedSliceInput.BufferReference;
+import io.airlift.slice.ChunkedSliceInput.SliceLoader;
+import io.airlift.slice.Slice;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.base.Suppliers.memoize;
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads ranges of the file ahead of time on a background executor, so the next stripe can
+ * be fetched from storage while the current one is decoded. Reads that are fully contained
+ * in a range read ahead are served from its buffer, waiting for it if it is still in flight;
+ * all other reads go to the underlying data source.
+ * <p>
+ * Only the read-ahead itself runs on the executor. All other methods must be called from the
+ * thread reading the file. The underlying data source is only ever used by one thread at a time:
+ * all reads from it, including the lazy reads of the inputs returned by this data source, are
+ * serialized on a lock, and closing waits for a read that is in flight.
+ */
+public class ReadAheadOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Executor executor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxReadAheadSize;
+    private final OrcLocalMemoryContext systemMemoryContext;
+
+    private final Object readLock = new Object();
+    @GuardedBy("readLock")
+    private boolean closed;
+    // copied from the underlying data source after each read, so that they can be read without waiting for the lock
+    private volatile long readBytes;
+    private volatile long readTimeNanos;
+
+    private final Map<DiskRange, ListenableFuture<byte[]>> buffers = new HashMap<>();
+    private long bufferedBytes;
+    private long readAheadBytes;
+    private long stallTimeNanos;
+
+    public ReadAheadOrcDataSource(OrcDataSource dataSource, Executor executor, DataSize maxMergeDistance, DataSize maxReadAheadSize, OrcLocalMemoryContext systemMemoryContext)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxReadAheadSize = requireNonNull(maxReadAheadSize, "maxReadAheadSize is null");
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return readBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return dataSource.getSize();
+    }
+
+    /**
+     * Returns the number of bytes that were read ahead.
+     */
+    public long getReadAheadBytes()
+    {
+        return readAheadBytes;
+    }
+
+    /**
+     * Returns the time the reading thread spent waiting for data, both on ranges that
+     * were still being read ahead and on ranges that had to be read on demand.
+     */
+    public long getStallTimeNanos()
+    {
+        return stallTimeNanos;
+    }
+
+    /**
+     * Starts reading the disk ranges in the background. Ranges closer than the max merge
+     * distance are read together, and ranges that would grow the buffered data past the
+     * max read-ahead size are left to be read on demand.
+     */
+    public void readAhead(Collection<DiskRange> diskRanges)
+    {
+        if (diskRanges.isEmpty()) {
+            return;
+        }
+
+        long maxReadAheadBytes = maxReadAheadSize.toBytes();
+        for (DiskRange diskRange : mergeAdjacentDiskRanges(diskRanges, maxMergeDistance, maxReadAheadSize)) {
+            if (bufferedBytes + diskRange.getLength() > maxReadAheadBytes) {
+                break;
+            }
+            ListenableFutureTask<byte[]> task = ListenableFutureTask.create(() -> {
+                byte[] buffer = new byte[diskRange.getLength()];
+                readFromDataSource(diskRange.getOffset(), buffer, 0, buffer.length);
+                return buffer;
+            });
+            buffers.put(diskRange, task);
+            bufferedBytes += diskRange.getLength();
+            readAheadBytes += diskRange.getLength();
+            executor.execute(task);
+        }
+        systemMemoryContext.setBytes(bufferedBytes);
+    }
+
+    /**
+     * Returns true if the disk range was read ahead and its data is available without waiting.
+     */
+    public boolean isReadAheadDone(DiskRange diskRange)
+    {
+        for (Entry<DiskRange, ListenableFuture<byte[]>> entry : buffers.entrySet()) {
+            if (entry.getKey().contains(diskRange)) {
+                return entry.getValue().isDone();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops all buffers read ahead, cancelling the reads that have not started yet.
+     */
+    public void clearReadAhead()
+    {
+        for (ListenableFuture<byte[]> buffer : buffers.values()) {
+            buffer.cancel(false);
+        }
+        buffers.clear();
+        bufferedBytes = 0;
+        systemMemoryContext.setBytes(0);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int bufferOffset, int length)
+            throws IOException
+    {
+        Optional<Slice> slice = getReadAheadSlice(new DiskRange(position, length));
+        if (slice.isPresent()) {
+            slice.get().getBytes(0, buffer, bufferOffset, length);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            readFromDataSource(position, buffer, bufferOffset, length);
+        }
+        finally {
+            stallTimeNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        requireNonNull(diskRanges, "diskRanges is null");
+
+        if (diskRanges.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        ImmutableMap.Builder<K, OrcDataSourceInput> result = ImmutableMap.builder();
+        ImmutableMap.Builder<K, DiskRange> remainingRanges = ImmutableMap.builder();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            Optional<Slice> slice = getReadAheadSlice(entry.getValue());
+            if (slice.isPresent()) {
+                result.put(entry.getKey(), new OrcDataSourceInput(slice.get().getInput(), slice.get().length()));
+            }
+            else {
+                remainingRanges.put(entry);
+            }
+        }
+
+        result.putAll(readOnDemand(remainingRanges.build()));
+        return result.build();
+    }
+
+    /**
+     * Returns inputs that read the disk ranges when they are first used. Ranges closer than the
+     * max merge distance are read together, and ranges larger than the max read-ahead size are
+     * read in chunks of that size.
+     */
+    private <K> Map<K, OrcDataSourceInput> readOnDemand(Map<K, DiskRange> diskRanges)
+    {
+        if (diskRanges.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        ImmutableMap.Builder<K, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        for (DiskRange mergedRange : mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxReadAheadSize)) {
+            Supplier<Slice> mergedBuffer = memoize(() -> readOnDemand(mergedRange));
+            for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+                DiskRange diskRange = entry.getValue();
+                if (!mergedRange.contains(diskRange)) {
+                    continue;
+                }
+                if (diskRange.getLength() == 0) {
+                    inputs.put(entry.getKey(), new OrcDataSourceInput(EMPTY_SLICE.getInput(), 0));
+                }
+                else if (diskRange.getLength() > maxReadAheadSize.toBytes()) {
+                    int chunkSize = toIntExact(maxReadAheadSize.toBytes());
+                    inputs.put(entry.getKey(), new OrcDataSourceInput(new LazySliceInput(diskRange.getLength(), () -> new ChunkedSliceInput(new ChunkLoader(diskRange), chunkSize)), chunkSize));
+                }
+                else {
+                    int offset = toIntExact(diskRange.getOffset() - mergedRange.getOffset());
+                    inputs.put(entry.getKey(), new OrcDataSourceInput(new LazySliceInput(diskRange.getLength(), () -> new BasicSliceInput(mergedBuffer.get().slice(offset, diskRange.getLength()))), diskRange.getLength()));
+                }
+            }
+        }
+        return inputs.build();
+    }
+
+    private Slice readOnDemand(DiskRange diskRange)
+    {
+        byte[] buffer = new byte[diskRange.getLength()];
+        try {
+            readFully(diskRange.getOffset(), buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return wrappedBuffer(buffer);
+    }
+
+    private void readFromDataSource(long position, byte[] buffer, int bufferOffset, int length)
+            throws IOException
+    {
+        synchronized (readLock) {
+            if (closed) {
+                throw new IOException("Data source is closed: " + dataSource);
+            }
+            try {
+                dataSource.readFully(position, buffer, bufferOffset, length);
+            }
+            finally {
+                readBytes = dataSource.getReadBytes();
+                readTimeNanos = dataSource.getReadTimeNanos();
+            }
+        }
+    }
+
+    private Optional<Slice> getReadAheadSlice(DiskRange diskRange)
+            throws IOException
+    {
+        Iterator<Entry<DiskRange, ListenableFuture<byte[]>>> iterator = buffers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<DiskRange, ListenableFuture<byte[]>> entry = iterator.next();
+            DiskRange bufferRange = entry.getKey();
+            if (!bufferRange.contains(diskRange)) {
+                continue;
+            }
+
+            byte[] buffer;
+            long start = System.nanoTime();
+            try {
+                buffer = entry.getValue().get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for read-ahead of " + bufferRange);
+            }
+            catch (ExecutionException | CancellationException e) {
+                // the read-ahead failed, so read the range on demand where the failure is reported
+                iterator.remove();
+                bufferedBytes -= bufferRange.getLength();
+                systemMemoryContext.setBytes(bufferedBytes);
+                return Optional.empty();
+            }
+            finally {
+                stallTimeNanos += System.nanoTime() - start;
+            }
+            return Optional.of(wrappedBuffer(buffer, toIntExact(diskRange.getOffset() - bufferRange.getOffset()), diskRange.getLength()));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        clearReadAhead();
+        systemMemoryContext.close();
+        // a read-ahead that has already started still uses the data source
+        synchronized (readLock) {
+            closed = true;
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+
+    private class ChunkLoader
+            implements SliceLoader<ChunkBuffer>
+    {
+        private final DiskRange diskRange;
+
+        public ChunkLoader(DiskRange diskRange)
+        {
+            this.diskRange = requireNonNull(diskRange, "diskRange is null");
+        }
+
+        @Override
+        public ChunkBuffer createBuffer(int bufferSize)
+        {
+            return new ChunkBuffer(bufferSize);
+        }
+
+        @Override
+        public long getSize()
+        {
+            return diskRange.getLength();
+        }
+
+        @Override
+        public void load(long position, ChunkBuffer buffer, int length)
+        {
+            try {
+                readFully(diskRange.getOffset() + position, buffer.getBuffer(), 0, length);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class ChunkBuffer
+            implements BufferReference
+    {
+        private final byte[] buffer;
+        private final Slice slice;
+
+        public ChunkBuffer(int bufferSize)
+        {
+            this.buffer = new byte[bufferSize];
+            this.slice = wrappedBuffer(buffer);
+        }
+
+        public byte[] getBuffer()
+        {
+            return buffer;
+        }
+
+        @Override
+        public Slice getSlice()
+        {
+            return slice;
+        }
+    }
+}
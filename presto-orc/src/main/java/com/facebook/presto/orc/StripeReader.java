@@ -501,6 +501,25 @@ public class StripeReader
         }
     }
 
+    /**
+     * Returns the file ranges of the unencrypted streams of the included columns, which are
+     * the ranges {@link #readStripe} reads for the stripe.
+     */
+    public List<DiskRange> getIncludedStreamDiskRanges(StripeInformation stripe, StripeFooter stripeFooter)
+    {
+        Map<StreamId, Stream> includedStreams = new HashMap<>();
+        addIncludedStreams(stripeFooter.getColumnEncodings(), stripeFooter.getStreams(), includedStreams);
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(ImmutableList.of(stripeFooter.getStreams())).entrySet()) {
+            if (includedStreams.containsKey(entry.getKey())) {
+                DiskRange diskRange = entry.getValue();
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
     static boolean isIndexStream(Stream stream)
     {
         return stream.getStreamKind().getStreamArea() == INDEX;
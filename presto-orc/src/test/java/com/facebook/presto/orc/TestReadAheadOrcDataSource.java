@@ -0,0 +1,279 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestReadAheadOrcDataSource
+{
+    private static final int FILE_SIZE = 1024;
+    private static final DataSize MAX_MERGE_DISTANCE = new DataSize(1, MEGABYTE);
+
+    @Test
+    public void testReadsServedFromReadAhead()
+            throws IOException
+    {
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource());
+        OrcAggregatedMemoryContext systemMemoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        ReadAheadOrcDataSource dataSource = createReadAheadDataSource(testingDataSource, directExecutor(), new DataSize(1, MEGABYTE), systemMemoryContext);
+
+        dataSource.readAhead(ImmutableList.of(new DiskRange(10, 20), new DiskRange(40, 10)));
+        assertEquals(testingDataSource.getReadCount(), 1);
+        assertEquals(testingDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(10, 40)));
+        assertEquals(dataSource.getReadAheadBytes(), 40);
+        assertEquals(systemMemoryContext.getBytes(), 40);
+        assertTrue(dataSource.isReadAheadDone(new DiskRange(40, 10)));
+
+        byte[] buffer = new byte[10];
+        dataSource.readFully(15, buffer);
+        assertData(wrappedBuffer(buffer), 15);
+        assertEquals(testingDataSource.getReadCount(), 1);
+
+        Map<String, OrcDataSourceInput> inputs = dataSource.readFully(ImmutableMap.of(
+                "readAhead", new DiskRange(40, 10),
+                "onDemand", new DiskRange(100, 10)));
+        assertData(inputs.get("readAhead").getInput().readSlice(10), 40);
+        assertData(inputs.get("onDemand").getInput().readSlice(10), 100);
+        assertEquals(testingDataSource.getReadCount(), 2);
+        assertEquals(testingDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(100, 10)));
+
+        dataSource.clearReadAhead();
+        assertEquals(systemMemoryContext.getBytes(), 0);
+        dataSource.readFully(15, buffer);
+        assertData(wrappedBuffer(buffer), 15);
+        assertEquals(testingDataSource.getReadCount(), 3);
+    }
+
+    @Test
+    public void testMaxReadAheadSize()
+    {
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource());
+        OrcAggregatedMemoryContext systemMemoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        ReadAheadOrcDataSource dataSource = createReadAheadDataSource(testingDataSource, directExecutor(), new DataSize(16, BYTE), systemMemoryContext);
+
+        // ranges too far apart to be merged, and only the first one fits into the read-ahead buffer
+        dataSource.readAhead(ImmutableList.of(new DiskRange(0, 10), new DiskRange(FILE_SIZE - 10, 10)));
+        assertEquals(testingDataSource.getReadRanges(), ImmutableList.of(new DiskRange(0, 10)));
+        assertEquals(systemMemoryContext.getBytes(), 10);
+        assertTrue(dataSource.isReadAheadDone(new DiskRange(0, 10)));
+        assertFalse(dataSource.isReadAheadDone(new DiskRange(FILE_SIZE - 10, 10)));
+    }
+
+    @Test
+    public void testReadAheadInBackground()
+            throws IOException
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource());
+        ReadAheadOrcDataSource dataSource = createReadAheadDataSource(testingDataSource, tasks::add, new DataSize(1, MEGABYTE), new TestingHiveOrcAggregatedMemoryContext());
+
+        dataSource.readAhead(ImmutableList.of(new DiskRange(200, 50)));
+        assertEquals(tasks.size(), 1);
+        assertFalse(dataSource.isReadAheadDone(new DiskRange(200, 50)));
+
+        tasks.get(0).run();
+        assertTrue(dataSource.isReadAheadDone(new DiskRange(200, 50)));
+
+        byte[] buffer = new byte[50];
+        dataSource.readFully(200, buffer);
+        assertData(wrappedBuffer(buffer), 200);
+        assertEquals(testingDataSource.getReadCount(), 1);
+    }
+
+    @Test
+    public void testCancelledReadAheadReadsOnDemand()
+            throws IOException
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource());
+        ReadAheadOrcDataSource dataSource = createReadAheadDataSource(testingDataSource, tasks::add, new DataSize(1, MEGABYTE), new TestingHiveOrcAggregatedMemoryContext());
+
+        dataSource.readAhead(ImmutableList.of(new DiskRange(200, 50)));
+        dataSource.clearReadAhead();
+        tasks.get(0).run();
+        assertEquals(testingDataSource.getReadCount(), 0);
+
+        byte[] buffer = new byte[50];
+        dataSource.readFully(200, buffer);
+        assertData(wrappedBuffer(buffer), 200);
+        assertEquals(testingDataSource.getReadCount(), 1);
+    }
+
+    @Test
+    public void testLargeRangeReadOnDemandInChunks()
+            throws IOException
+    {
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource());
+        ReadAheadOrcDataSource dataSource = createReadAheadDataSource(testingDataSource, directExecutor(), new DataSize(16, BYTE), new TestingHiveOrcAggregatedMemoryContext());
+
+        Map<String, OrcDataSourceInput> inputs = dataSource.readFully(ImmutableMap.of(
+                "small", new DiskRange(0, 4),
+                "mergedSmall", new DiskRange(8, 4),
+                "large", new DiskRange(100, 40)));
+        assertEquals(testingDataSource.getReadCount(), 0);
+
+        assertData(inputs.get("small").getInput().readSlice(4), 0);
+        assertData(inputs.get("mergedSmall").getInput().readSlice(4), 8);
+        assertEquals(testingDataSource.getReadRanges(), ImmutableList.of(new DiskRange(0, 12)));
+
+        // the large range is read in chunks of the max read-ahead size
+        assertData(inputs.get("large").getInput().readSlice(40), 100);
+        List<DiskRange> chunks = testingDataSource.getReadRanges().subList(1, testingDataSource.getReadCount());
+        assertEquals(chunks.stream().mapToInt(DiskRange::getLength).sum(), 40);
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.getLength() <= 16));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCloseWaitsForInFlightReadAhead()
+            throws Exception
+    {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch finishRead = new CountDownLatch(1);
+        BlockingOrcDataSource blockingDataSource = new BlockingOrcDataSource(readStarted, finishRead);
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-read-ahead-%s"));
+        try {
+            ReadAheadOrcDataSource dataSource = createReadAheadDataSource(blockingDataSource, executor, new DataSize(1, MEGABYTE), new TestingHiveOrcAggregatedMemoryContext());
+            dataSource.readAhead(ImmutableList.of(new DiskRange(0, 10)));
+            readStarted.await();
+
+            Future<?> close = executor.submit(() -> {
+                dataSource.close();
+                return null;
+            });
+            assertThrows(TimeoutException.class, () -> close.get(100, MILLISECONDS));
+            assertFalse(blockingDataSource.isClosed());
+
+            finishRead.countDown();
+            close.get();
+            assertTrue(blockingDataSource.isClosed());
+            assertFalse(blockingDataSource.isReadAfterClose());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ReadAheadOrcDataSource createReadAheadDataSource(OrcDataSource dataSource, Executor executor, DataSize maxReadAheadSize, OrcAggregatedMemoryContext systemMemoryContext)
+    {
+        return new ReadAheadOrcDataSource(
+                dataSource,
+                executor,
+                MAX_MERGE_DISTANCE,
+                maxReadAheadSize,
+                systemMemoryContext.newOrcLocalMemoryContext(ReadAheadOrcDataSource.class.getSimpleName()));
+    }
+
+    private static void assertData(Slice data, long position)
+    {
+        for (int i = 0; i < data.length(); i++) {
+            assertEquals(data.getByte(i), (byte) (position + i));
+        }
+    }
+
+    private static class InMemoryOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private final byte[] data;
+
+        public InMemoryOrcDataSource()
+        {
+            super(new OrcDataSourceId("memory"), FILE_SIZE, MAX_MERGE_DISTANCE, MAX_MERGE_DISTANCE, MAX_MERGE_DISTANCE, false);
+            data = new byte[FILE_SIZE];
+            for (int i = 0; i < FILE_SIZE; i++) {
+                data[i] = (byte) i;
+            }
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            System.arraycopy(data, toIntExact(position), buffer, bufferOffset, bufferLength);
+        }
+    }
+
+    private static class BlockingOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private final CountDownLatch readStarted;
+        private final CountDownLatch finishRead;
+        private volatile boolean closed;
+        private volatile boolean readAfterClose;
+
+        public BlockingOrcDataSource(CountDownLatch readStarted, CountDownLatch finishRead)
+        {
+            super(new OrcDataSourceId("blocking"), FILE_SIZE, MAX_MERGE_DISTANCE, MAX_MERGE_DISTANCE, MAX_MERGE_DISTANCE, false);
+            this.readStarted = readStarted;
+            this.finishRead = finishRead;
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+                throws IOException
+        {
+            readStarted.countDown();
+            try {
+                finishRead.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            readAfterClose |= closed;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        public boolean isClosed()
+        {
+            return closed;
+        }
+
+        public boolean isReadAfterClose()
+        {
+            return readAfterClose;
+        }
+    }
+}
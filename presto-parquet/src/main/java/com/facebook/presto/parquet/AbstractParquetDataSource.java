@@ -13,6 +13,21 @@
  */
 package com.facebook.presto.parquet;
 
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.parquet.ParquetDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.base.Verify.verify;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public abstract class AbstractParquetDataSource
@@ -63,5 +78,70 @@ public abstract class AbstractParquetDataSource
         readTimeNanos += currentReadTimeNanos;
     }
 
+    @Override
+    public final <K> Map<K, Supplier<Slice>> readFully(Map<K, DiskRange> diskRanges, DataSize maxMergeDistance, DataSize maxBufferSize)
+    {
+        requireNonNull(diskRanges, "diskRanges is null");
+        if (diskRanges.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        Set<DiskRange> distinctRanges = ImmutableSet.copyOf(diskRanges.values());
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(distinctRanges, maxMergeDistance, maxBufferSize);
+
+        ImmutableMap.Builder<K, Supplier<Slice>> slices = ImmutableMap.builder();
+        for (DiskRange mergedRange : mergedRanges) {
+            long requestedBytes = 0;
+            for (DiskRange diskRange : distinctRanges) {
+                if (mergedRange.contains(diskRange)) {
+                    requestedBytes += diskRange.getLength();
+                }
+            }
+            MergedRangeLoader loader = new MergedRangeLoader(mergedRange, requestedBytes);
+            for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+                DiskRange diskRange = entry.getValue();
+                if (mergedRange.contains(diskRange)) {
+                    slices.put(entry.getKey(), () -> loader.getSlice(diskRange));
+                }
+            }
+        }
+        Map<K, Supplier<Slice>> result = slices.build();
+        verify(result.keySet().equals(diskRanges.keySet()));
+        return result;
+    }
+
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength);
+
+    /**
+     * Called with the number of bytes read by a merged read that were not requested,
+     * because they are in the gaps between the merged disk ranges.
+     */
+    protected void addOverReadBytes(long bytes)
+    {
+    }
+
+    private final class MergedRangeLoader
+    {
+        private final DiskRange mergedRange;
+        private final long requestedBytes;
+        private Slice buffer;
+
+        private MergedRangeLoader(DiskRange mergedRange, long requestedBytes)
+        {
+            this.mergedRange = requireNonNull(mergedRange, "mergedRange is null");
+            this.requestedBytes = requestedBytes;
+        }
+
+        public Slice getSlice(DiskRange diskRange)
+        {
+            if (buffer == null) {
+                // read full range in one request
+                byte[] bytes = new byte[mergedRange.getLength()];
+                readFully(mergedRange.getOffset(), bytes);
+                addOverReadBytes(mergedRange.getLength() - requestedBytes);
+                buffer = wrappedBuffer(bytes);
+            }
+            return buffer.slice(toIntExact(diskRange.getOffset() - mergedRange.getOffset()), diskRange.getLength());
+        }
+    }
 }
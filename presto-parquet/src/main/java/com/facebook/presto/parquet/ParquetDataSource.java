@@ -13,13 +13,21 @@
  */
 package com.facebook.presto.parquet;
 
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.internal.column.columnindex.ColumnIndex;
 import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Suppliers.memoize;
+import static io.airlift.slice.Slices.wrappedBuffer;
 
 public interface ParquetDataSource
         extends Closeable
@@ -34,6 +42,22 @@ public interface ParquetDataSource
 
     void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength);
 
+    /**
+     * Returns the content of each disk range, which is read on first access. Implementations
+     * may merge ranges closer than {@code maxMergeDistance} into a single read of at most
+     * {@code maxBufferSize} bytes.
+     */
+    default <K> Map<K, Supplier<Slice>> readFully(Map<K, DiskRange> diskRanges, DataSize maxMergeDistance, DataSize maxBufferSize)
+    {
+        ImmutableMap.Builder<K, Supplier<Slice>> slices = ImmutableMap.builder();
+        diskRanges.forEach((key, diskRange) -> slices.put(key, memoize(() -> {
+            byte[] buffer = new byte[diskRange.getLength()];
+            readFully(diskRange.getOffset(), buffer);
+            return wrappedBuffer(buffer);
+        })));
+        return slices.build();
+    }
+
     Optional<ColumnIndex> readColumnIndex(ColumnChunkMetaData column) throws IOException;
 
     Optional<OffsetIndex> readOffsetIndex(ColumnChunkMetaData column) throws IOException;
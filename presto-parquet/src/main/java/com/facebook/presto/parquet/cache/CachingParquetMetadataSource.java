@@ -18,7 +18,9 @@ import com.facebook.presto.parquet.ParquetDataSource;
 import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.google.common.cache.Cache;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.crypto.InternalFileDecryptor;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -30,12 +32,22 @@ import static java.util.Objects.requireNonNull;
 public class CachingParquetMetadataSource
         implements ParquetMetadataSource
 {
-    private final Cache<ParquetDataSourceId, ParquetFileMetadata> cache;
+    private final Optional<Cache<ParquetDataSourceId, ParquetFileMetadata>> metadataCache;
+    private final Optional<Cache<BloomFilterCacheKey, Optional<BloomFilter>>> bloomFilterCache;
     private final ParquetMetadataSource delegate;
 
     public CachingParquetMetadataSource(Cache<ParquetDataSourceId, ParquetFileMetadata> cache, ParquetMetadataSource delegate)
     {
-        this.cache = requireNonNull(cache, "cache is null");
+        this(Optional.of(cache), Optional.empty(), delegate);
+    }
+
+    public CachingParquetMetadataSource(
+            Optional<Cache<ParquetDataSourceId, ParquetFileMetadata>> metadataCache,
+            Optional<Cache<BloomFilterCacheKey, Optional<BloomFilter>>> bloomFilterCache,
+            ParquetMetadataSource delegate)
+    {
+        this.metadataCache = requireNonNull(metadataCache, "metadataCache is null");
+        this.bloomFilterCache = requireNonNull(bloomFilterCache, "bloomFilterCache is null");
         this.delegate = requireNonNull(delegate, "delegate is null");
     }
 
@@ -50,7 +62,8 @@ public class CachingParquetMetadataSource
             throws IOException
     {
         try {
-            if (cacheable) {
+            if (cacheable && metadataCache.isPresent()) {
+                Cache<ParquetDataSourceId, ParquetFileMetadata> cache = metadataCache.get();
                 ParquetFileMetadata fileMetadataCache = cache.get(
                         parquetDataSource.getId(),
                         () -> delegate.getParquetMetadata(parquetDataSource, fileSize, cacheable, modificationTime, fileDecryptor, readMaskedValue));
@@ -68,4 +81,22 @@ public class CachingParquetMetadataSource
             throw new IOException("Unexpected error in parquet metadata reading after cache miss", e.getCause());
         }
     }
+
+    @Override
+    public Optional<BloomFilter> getBloomFilter(ParquetDataSource parquetDataSource, ColumnChunkMetaData columnMetaData, boolean cacheable, long modificationTime)
+            throws IOException
+    {
+        try {
+            if (cacheable && bloomFilterCache.isPresent()) {
+                // the modification time is part of the key, so entries of rewritten files are never returned
+                BloomFilterCacheKey key = new BloomFilterCacheKey(parquetDataSource.getId(), modificationTime, columnMetaData.getBloomFilterOffset());
+                return bloomFilterCache.get().get(key, () -> delegate.getBloomFilter(parquetDataSource, columnMetaData, cacheable, modificationTime));
+            }
+            return delegate.getBloomFilter(parquetDataSource, columnMetaData, cacheable, modificationTime);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throw new IOException("Unexpected error in parquet bloom filter reading after cache miss", e.getCause());
+        }
+    }
 }
@@ -18,6 +18,8 @@ import com.facebook.presto.parquet.ParquetDataSource;
 import com.facebook.presto.parquet.ParquetDataSourceId;
 import io.airlift.slice.BasicSliceInput;
 import io.airlift.slice.Slice;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.crypto.AesCipher;
 import org.apache.parquet.crypto.AesGcmEncryptor;
 import org.apache.parquet.crypto.HiddenColumnChunkMetaData;
@@ -28,6 +30,7 @@ import org.apache.parquet.crypto.ModuleCipherFactory.ModuleType;
 import org.apache.parquet.crypto.ParquetCryptoRuntimeException;
 import org.apache.parquet.crypto.TagVerificationException;
 import org.apache.parquet.format.BlockCipher.Decryptor;
+import org.apache.parquet.format.BloomFilterHeader;
 import org.apache.parquet.format.ColumnChunk;
 import org.apache.parquet.format.ColumnCryptoMetaData;
 import org.apache.parquet.format.ColumnMetaData;
@@ -101,6 +104,7 @@ public final class MetadataReader
     private static final int EXPECTED_FOOTER_SIZE = 16 * 1024;
     private static final ParquetMetadataConverter PARQUET_METADATA_CONVERTER = new ParquetMetadataConverter();
     private static final long MODIFICATION_TIME_NOT_SET = 0L;
+    private static final int BLOOM_FILTER_HEADER_SIZE_ESTIMATE = 64;
 
     public static ParquetFileMetadata readFooter(ParquetDataSource parquetDataSource, long fileSize, Optional<InternalFileDecryptor> fileDecryptor, boolean readMaskedValue)
             throws IOException
@@ -257,6 +261,10 @@ public final class MetadataReader
                     ColumnChunkMetaData column = buildColumnChunkMetaData(metaData, columnPath, messageType.getType(columnPath.toArray()).asPrimitiveType());
                     column.setColumnIndexReference(toColumnIndexReference(columnChunk));
                     column.setOffsetIndexReference(toOffsetIndexReference(columnChunk));
+                    if (cryptoMetaData == null) {
+                        // bloom filters of encrypted columns are encrypted as well and are not supported
+                        setBloomFilterReference(column, metaData);
+                    }
                     blockMetaData.addColumn(column);
                 }
                 blockMetaData.setPath(filePath);
@@ -558,6 +566,52 @@ public final class MetadataReader
         return readFooter(parquetDataSource, fileSize, modificationTime, fileDecryptor, readMaskedValue);
     }
 
+    @Override
+    public Optional<BloomFilter> getBloomFilter(ParquetDataSource parquetDataSource, ColumnChunkMetaData columnMetaData, boolean cacheable, long modificationTime)
+            throws IOException
+    {
+        return readBloomFilter(parquetDataSource, columnMetaData);
+    }
+
+    public static Optional<BloomFilter> readBloomFilter(ParquetDataSource parquetDataSource, ColumnChunkMetaData columnMetaData)
+            throws IOException
+    {
+        long offset = columnMetaData.getBloomFilterOffset();
+        if (offset < 0) {
+            return Optional.empty();
+        }
+
+        // The length of the bloom filter is not recorded by all writers, so read a prefix large enough
+        // for the header first. The file footer always follows the bloom filters.
+        byte[] buffer = new byte[BLOOM_FILTER_HEADER_SIZE_ESTIMATE];
+        parquetDataSource.readFully(offset, buffer);
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(buffer);
+        BloomFilterHeader header = Util.readBloomFilterHeader(inputStream);
+        int headerSize = buffer.length - inputStream.available();
+        int numBytes = header.getNumBytes();
+        if (numBytes <= 0 || numBytes > BlockSplitBloomFilter.UPPER_BOUND_BYTES
+                || !header.getAlgorithm().isSetBLOCK()
+                || !header.getHash().isSetXXHASH()
+                || !header.getCompression().isSetUNCOMPRESSED()) {
+            return Optional.empty();
+        }
+
+        byte[] bitset = new byte[numBytes];
+        int bufferedBytes = min(numBytes, buffer.length - headerSize);
+        System.arraycopy(buffer, headerSize, bitset, 0, bufferedBytes);
+        if (bufferedBytes < numBytes) {
+            parquetDataSource.readFully(offset + headerSize + bufferedBytes, bitset, bufferedBytes, numBytes - bufferedBytes);
+        }
+        return Optional.of(new BlockSplitBloomFilter(bitset));
+    }
+
+    private static void setBloomFilterReference(ColumnChunkMetaData column, ColumnMetaData metaData)
+    {
+        if (metaData.isSetBloom_filter_offset()) {
+            column.setBloomFilterOffset(metaData.getBloom_filter_offset());
+        }
+    }
+
     private static IndexReference toColumnIndexReference(ColumnChunk columnChunk)
     {
         if (columnChunk.isSetColumn_index_offset() && columnChunk.isSetColumn_index_length()) {
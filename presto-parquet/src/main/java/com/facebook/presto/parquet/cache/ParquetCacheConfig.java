@@ -28,6 +28,9 @@ public class ParquetCacheConfig
     private boolean metadataCacheEnabled;
     private DataSize metadataCacheSize = new DataSize(0, BYTE);
     private Duration metadataCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+    private boolean bloomFilterCacheEnabled;
+    private DataSize bloomFilterCacheSize = new DataSize(0, BYTE);
+    private Duration bloomFilterCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
     public boolean isMetadataCacheEnabled()
     {
@@ -69,4 +72,45 @@ public class ParquetCacheConfig
         this.metadataCacheTtlSinceLastAccess = metadataCacheTtlSinceLastAccess;
         return this;
     }
+
+    public boolean isBloomFilterCacheEnabled()
+    {
+        return bloomFilterCacheEnabled;
+    }
+
+    @Config("parquet.bloom-filter-cache-enabled")
+    @ConfigDescription("Enable cache for parquet bloom filters")
+    public ParquetCacheConfig setBloomFilterCacheEnabled(boolean bloomFilterCacheEnabled)
+    {
+        this.bloomFilterCacheEnabled = bloomFilterCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getBloomFilterCacheSize()
+    {
+        return bloomFilterCacheSize;
+    }
+
+    @Config("parquet.bloom-filter-cache-size")
+    @ConfigDescription("Size of the parquet bloom filter cache")
+    public ParquetCacheConfig setBloomFilterCacheSize(DataSize bloomFilterCacheSize)
+    {
+        this.bloomFilterCacheSize = bloomFilterCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getBloomFilterCacheTtlSinceLastAccess()
+    {
+        return bloomFilterCacheTtlSinceLastAccess;
+    }
+
+    @Config("parquet.bloom-filter-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for parquet bloom filter cache entry after last access")
+    public ParquetCacheConfig setBloomFilterCacheTtlSinceLastAccess(Duration bloomFilterCacheTtlSinceLastAccess)
+    {
+        this.bloomFilterCacheTtlSinceLastAccess = bloomFilterCacheTtlSinceLastAccess;
+        return this;
+    }
 }
@@ -14,7 +14,9 @@
 package com.facebook.presto.parquet.cache;
 
 import com.facebook.presto.parquet.ParquetDataSource;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.crypto.InternalFileDecryptor;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -29,4 +31,11 @@ public interface ParquetMetadataSource
             Optional<InternalFileDecryptor> fileDecryptor,
             boolean readMaskedValue)
             throws IOException;
+
+    Optional<BloomFilter> getBloomFilter(
+            ParquetDataSource parquetDataSource,
+            ColumnChunkMetaData columnMetaData,
+            boolean cacheable,
+            long modificationTime)
+            throws IOException;
 }
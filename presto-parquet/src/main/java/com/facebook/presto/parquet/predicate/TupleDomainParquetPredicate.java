@@ -15,6 +15,7 @@ package com.facebook.presto.parquet.predicate;
 
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.SortedRangeSet;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
@@ -31,6 +32,7 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
@@ -63,6 +65,8 @@ import static com.facebook.presto.parquet.ParquetWarningCode.PARQUET_FILE_STATIS
 import static com.facebook.presto.parquet.predicate.PredicateUtils.isStatisticsOverflow;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.util.Objects.requireNonNull;
@@ -393,6 +397,87 @@ public class TupleDomainParquetPredicate
         return true;
     }
 
+    @Override
+    public boolean matches(ColumnDescriptor column, BloomFilter bloomFilter)
+    {
+        requireNonNull(bloomFilter, "bloomFilter is null");
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+        if (effectivePredicateDomain == null || !isBloomFilterApplicable(effectivePredicateDomain)) {
+            return true;
+        }
+
+        for (Range range : effectivePredicateDomain.getValues().getRanges().getOrderedRanges()) {
+            Optional<Long> hash = getBloomFilterHash(effectivePredicateDomain.getType(), column.getPrimitiveType().getPrimitiveTypeName(), range.getSingleValue(), bloomFilter);
+            if (!hash.isPresent() || bloomFilter.findHash(hash.get())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bloom filters do not record nulls and can only be probed with single values, so they are only
+     * useful for domains which are a non nullable set of discrete values.
+     */
+    public static boolean isBloomFilterApplicable(Domain domain)
+    {
+        if (domain.isNullAllowed() || domain.isNone() || !(domain.getValues() instanceof SortedRangeSet)) {
+            return false;
+        }
+        for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+            if (!range.isSingleValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Optional<Long> getBloomFilterHash(Type type, PrimitiveTypeName primitiveType, Object value, BloomFilter bloomFilter)
+    {
+        // Values are hashed by their plain encoding, so only probe types whose values are stored as is
+        switch (primitiveType) {
+            case INT32:
+                if (type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE)) {
+                    return Optional.of(bloomFilter.hash(toIntExact((long) value)));
+                }
+                break;
+            case INT64:
+                if (type.equals(BIGINT)) {
+                    return Optional.of(bloomFilter.hash((long) value));
+                }
+                break;
+            case DOUBLE:
+                // positive and negative zero are equal but hash differently
+                if (type.equals(DOUBLE) && (double) value != 0 && !Double.isNaN((double) value)) {
+                    return Optional.of(bloomFilter.hash((double) value));
+                }
+                break;
+            case FLOAT:
+                if (type.equals(REAL)) {
+                    float floatValue = intBitsToFloat(toIntExact((long) value));
+                    if (floatValue != 0 && !Float.isNaN(floatValue)) {
+                        return Optional.of(bloomFilter.hash(floatValue));
+                    }
+                }
+                break;
+            case BINARY:
+                if (isVarcharType(type)) {
+                    return Optional.of(bloomFilter.hash(Binary.fromConstantByteArray(((Slice) value).getBytes())));
+                }
+                break;
+            default:
+                break;
+        }
+        return Optional.empty();
+    }
+
     @VisibleForTesting
     public Domain getDomain(Type type, long rowCount, ColumnIndex columnIndex, RichColumnDescriptor descriptor)
     {
@@ -29,6 +29,7 @@ import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.parquet.ColumnReader;
 import com.facebook.presto.parquet.ColumnReaderFactory;
+import com.facebook.presto.parquet.DiskRange;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.GroupField;
 import com.facebook.presto.parquet.ParquetCorruptionException;
@@ -39,6 +40,9 @@ import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.predicate.Predicate;
 import com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate;
 import com.facebook.presto.parquet.reader.ColumnIndexFilterUtils.OffsetRange;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
 import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.booleans.BooleanList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -68,12 +72,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.SmallintType.SMALLINT;
@@ -118,7 +125,12 @@ public class ParquetReader
     private final List<RowRanges> blockRowRanges;
     private final Map<ColumnPath, ColumnDescriptor> paths = new HashMap<>();
     private final boolean columnIndexFilterEnabled;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
     private BlockMetaData currentBlockMetadata;
+    // contents of the column chunk ranges of the current row group that are read with merged reads
+    private Map<DiskRange, Supplier<Slice>> currentGroupRanges = ImmutableMap.of();
+    private long currentGroupRangesSize;
     /**
      * Index in the Parquet file of the first row of the current group
      */
@@ -147,6 +159,39 @@ public class ParquetReader
             List<ColumnIndexStore> blockIndexStores,
             boolean columnIndexFilterEnabled,
             Optional<InternalFileDecryptor> fileDecryptor)
+    {
+        this(
+                messageColumnIO,
+                blocks,
+                firstRowsOfBlocks,
+                dataSource,
+                systemMemoryContext,
+                maxReadBlockSize,
+                batchReadEnabled,
+                enableVerification,
+                parquetPredicate,
+                blockIndexStores,
+                columnIndexFilterEnabled,
+                fileDecryptor,
+                new DataSize(0, BYTE),
+                new DataSize(0, BYTE));
+    }
+
+    public ParquetReader(
+            MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            Optional<List<Long>> firstRowsOfBlocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize,
+            boolean batchReadEnabled,
+            boolean enableVerification,
+            Predicate parquetPredicate,
+            List<ColumnIndexStore> blockIndexStores,
+            boolean columnIndexFilterEnabled,
+            Optional<InternalFileDecryptor> fileDecryptor,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize)
     {
         this.blocks = blocks;
         this.firstRowsOfBlocks = requireNonNull(firstRowsOfBlocks, "firstRowsOfBlocks is null");
@@ -183,6 +228,8 @@ public class ParquetReader
         this.columnIndexFilterEnabled = columnIndexFilterEnabled;
         requireNonNull(fileDecryptor, "fileDecryptor is null");
         this.fileDecryptor = fileDecryptor;
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
     }
 
     @Override
@@ -264,9 +311,50 @@ public class ParquetReader
         nextRowInGroup = 0L;
         currentGroupRowCount = currentBlockMetadata.getRowCount();
         initializeColumnReaders();
+        planMergedReads();
         return true;
     }
 
+    /**
+     * Column chunks, or the page ranges of column chunks filtered with the column index, that are
+     * not larger than the max buffer size are read with merged reads of neighbouring ranges, so
+     * that reading the projected columns of a row group takes fewer requests to the file system.
+     */
+    private void planMergedReads()
+    {
+        currentGroupRanges = ImmutableMap.of();
+        currentGroupRangesSize = 0;
+        if (maxBufferSize.toBytes() == 0) {
+            return;
+        }
+
+        Map<DiskRange, DiskRange> smallRanges = new LinkedHashMap<>();
+        for (ColumnChunkMetaData columnChunkMetaData : currentBlockMetadata.getColumns()) {
+            if (HiddenColumnChunkMetaData.isHiddenColumn(columnChunkMetaData) || !paths.containsKey(columnChunkMetaData.getPath())) {
+                continue;
+            }
+            long startingPosition = columnChunkMetaData.getStartingPos();
+            List<OffsetRange> offsetRanges;
+            if (shouldUseColumnIndex(columnChunkMetaData.getPath())) {
+                OffsetIndex offsetIndex = blockIndexStores.get(currentBlock).getOffsetIndex(columnChunkMetaData.getPath());
+                OffsetIndex filteredOffsetIndex = ColumnIndexFilterUtils.filterOffsetIndex(offsetIndex, currentGroupRowRanges, currentBlockMetadata.getRowCount());
+                offsetRanges = concatRanges(ColumnIndexFilterUtils.calculateOffsetRanges(filteredOffsetIndex, columnChunkMetaData, offsetIndex.getOffset(0), startingPosition));
+            }
+            else {
+                offsetRanges = ImmutableList.of(new OffsetRange(0, toIntExact(columnChunkMetaData.getTotalSize())));
+            }
+            for (OffsetRange offsetRange : offsetRanges) {
+                if (offsetRange.getLength() > 0 && offsetRange.getLength() <= maxBufferSize.toBytes()) {
+                    DiskRange diskRange = new DiskRange(startingPosition + offsetRange.getOffset(), toIntExact(offsetRange.getLength()));
+                    smallRanges.put(diskRange, diskRange);
+                }
+            }
+        }
+
+        currentGroupRanges = dataSource.readFully(smallRanges, maxMergeDistance, maxBufferSize);
+        currentGroupRangesSize = smallRanges.keySet().stream().mapToLong(DiskRange::getLength).sum();
+    }
+
     private ColumnChunk readArray(GroupField field)
             throws IOException
     {
@@ -422,6 +510,13 @@ public class ParquetReader
 
     private InputStream dataSourceAsInputStream(long startingPosition, long totalSize)
     {
+        if (totalSize > 0 && totalSize <= Integer.MAX_VALUE) {
+            Supplier<Slice> slice = currentGroupRanges.get(new DiskRange(startingPosition, toIntExact(totalSize)));
+            if (slice != null) {
+                return slice.get().getInput();
+            }
+        }
+
         InputStream dataSourceAsStream = new InputStream()
         {
             private long readBytes;
@@ -567,6 +662,7 @@ public class ParquetReader
             }
         }
         sizeInBytes += sizeOf(maxBytesPerCell);
+        sizeInBytes += currentGroupRangesSize;
         return sizeInBytes;
     }
 
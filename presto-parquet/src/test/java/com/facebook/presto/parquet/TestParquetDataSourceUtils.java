@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.presto.parquet.ParquetDataSourceUtils.mergeAdjacentDiskRanges;
+import static org.testng.Assert.assertEquals;
+
+public class TestParquetDataSourceUtils
+{
+    @Test
+    public void testMergeSingle()
+    {
+        List<DiskRange> diskRanges = mergeAdjacentDiskRanges(
+                ImmutableList.of(new DiskRange(100, 100)),
+                new DataSize(0, BYTE),
+                new DataSize(0, BYTE));
+        assertEquals(diskRanges, ImmutableList.of(new DiskRange(100, 100)));
+    }
+
+    @Test
+    public void testMergeGap()
+    {
+        List<DiskRange> consistent10ByteGap = ImmutableList.of(new DiskRange(300, 90), new DiskRange(100, 90), new DiskRange(200, 90));
+        List<DiskRange> sorted = ImmutableList.of(new DiskRange(100, 90), new DiskRange(200, 90), new DiskRange(300, 90));
+        assertEquals(mergeAdjacentDiskRanges(consistent10ByteGap, new DataSize(9, BYTE), new DataSize(1, GIGABYTE)), sorted);
+        assertEquals(mergeAdjacentDiskRanges(consistent10ByteGap, new DataSize(10, BYTE), new DataSize(1, GIGABYTE)), ImmutableList.of(new DiskRange(100, 290)));
+        assertEquals(mergeAdjacentDiskRanges(consistent10ByteGap, new DataSize(10, BYTE), new DataSize(190, BYTE)),
+                ImmutableList.of(new DiskRange(100, 190), new DiskRange(300, 90)));
+    }
+
+    @Test
+    public void testMergedReads()
+    {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(data);
+
+        Map<String, DiskRange> diskRanges = ImmutableMap.of(
+                "a", new DiskRange(100, 90),
+                "b", new DiskRange(200, 90),
+                "c", new DiskRange(800, 100));
+        Map<String, Supplier<Slice>> slices = dataSource.readFully(diskRanges, new DataSize(10, BYTE), new DataSize(1, GIGABYTE));
+        assertEquals(slices.keySet(), diskRanges.keySet());
+        assertEquals(dataSource.readRequests, 0);
+
+        // the first two ranges are read with a single request, which reads the gap between them too
+        assertSlice(slices.get("b").get(), 200, 90);
+        assertSlice(slices.get("a").get(), 100, 90);
+        assertEquals(dataSource.readRequests, 1);
+        assertEquals(dataSource.overReadBytes, 10);
+
+        assertSlice(slices.get("c").get(), 800, 100);
+        assertEquals(dataSource.readRequests, 2);
+        assertEquals(dataSource.overReadBytes, 10);
+        assertEquals(dataSource.getReadBytes(), 290);
+    }
+
+    private static void assertSlice(Slice slice, int offset, int length)
+    {
+        assertEquals(slice.length(), length);
+        for (int i = 0; i < length; i++) {
+            assertEquals(slice.getByte(i), (byte) (offset + i));
+        }
+    }
+
+    private static class TestingParquetDataSource
+            extends AbstractParquetDataSource
+    {
+        private final byte[] data;
+        private int readRequests;
+        private long overReadBytes;
+
+        public TestingParquetDataSource(byte[] data)
+        {
+            super(new ParquetDataSourceId("test"));
+            this.data = data;
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            readRequests++;
+            System.arraycopy(data, (int) position, buffer, bufferOffset, bufferLength);
+        }
+
+        @Override
+        protected void addOverReadBytes(long bytes)
+        {
+            overReadBytes += bytes;
+        }
+
+        @Override
+        public Optional<ColumnIndex> readColumnIndex(ColumnChunkMetaData column)
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<OffsetIndex> readOffsetIndex(ColumnChunkMetaData column)
+        {
+            return Optional.empty();
+        }
+    }
+}
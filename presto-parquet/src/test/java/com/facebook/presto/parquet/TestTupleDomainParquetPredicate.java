@@ -36,6 +36,9 @@ import org.apache.parquet.column.statistics.FloatStatistics;
 import org.apache.parquet.column.statistics.IntStatistics;
 import org.apache.parquet.column.statistics.LongStatistics;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.PrimitiveType;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -394,6 +397,45 @@ public class TestTupleDomainParquetPredicate
         assertTrue(parquetPredicate.matches(new DictionaryDescriptor(column, Optional.of(page))));
     }
 
+    @Test
+    public void testBigintMatchesWithBloomFilter()
+    {
+        RichColumnDescriptor column = new RichColumnDescriptor(
+                new ColumnDescriptor(new String[] {"path"}, INT64, 0, 0),
+                new PrimitiveType(OPTIONAL, INT64, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(42L));
+        bloomFilter.insertHash(bloomFilter.hash(404L));
+
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 42L), false)).matches(column, bloomFilter));
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 1L, 2L, 404L), false)).matches(column, bloomFilter));
+        assertFalse(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 43L), false)).matches(column, bloomFilter));
+        assertFalse(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 1L, 2L, 3L), false)).matches(column, bloomFilter));
+
+        // nulls and ranges cannot be checked against a bloom filter
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.of(BIGINT, 43L), true)).matches(column, bloomFilter));
+        assertTrue(bigintPredicate(column, Domain.create(ValueSet.ofRanges(range(BIGINT, 43L, true, 50L, true)), false)).matches(column, bloomFilter));
+    }
+
+    @Test
+    public void testVarcharMatchesWithBloomFilter()
+    {
+        ColumnDescriptor columnDescriptor = new ColumnDescriptor(new String[] {"path"}, BINARY, 0, 0);
+        RichColumnDescriptor column = new RichColumnDescriptor(columnDescriptor, new PrimitiveType(OPTIONAL, BINARY, "Test column"));
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(Binary.fromString("present")));
+
+        TupleDomainParquetPredicate matching = new TupleDomainParquetPredicate(getEffectivePredicate(column, createUnboundedVarcharType(), utf8Slice("present")), singletonList(column));
+        assertTrue(matching.matches(column, bloomFilter));
+        TupleDomainParquetPredicate notMatching = new TupleDomainParquetPredicate(getEffectivePredicate(column, createUnboundedVarcharType(), utf8Slice("absent")), singletonList(column));
+        assertFalse(notMatching.matches(column, bloomFilter));
+    }
+
+    private static TupleDomainParquetPredicate bigintPredicate(RichColumnDescriptor column, Domain domain)
+    {
+        return new TupleDomainParquetPredicate(TupleDomain.withColumnDomains(ImmutableMap.of(column, domain)), singletonList(column));
+    }
+
     @Test
     public void testGetRange()
     {
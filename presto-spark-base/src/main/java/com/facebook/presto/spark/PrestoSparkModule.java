@@ -56,8 +56,10 @@ import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskManager;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.execution.TaskSource;
+import com.facebook.presto.execution.executor.AbstractMultilevelSplitQueue;
 import com.facebook.presto.execution.executor.MultilevelSplitQueue;
 import com.facebook.presto.execution.executor.TaskExecutor;
+import com.facebook.presto.execution.executor.WorkStealingMultilevelSplitQueue;
 import com.facebook.presto.execution.resourceGroups.InternalResourceGroupManager;
 import com.facebook.presto.execution.resourceGroups.ResourceGroupManager;
 import com.facebook.presto.execution.scheduler.NodeSchedulerConfig;
@@ -161,6 +163,7 @@ import com.facebook.presto.spiller.SpillerStats;
 import com.facebook.presto.spiller.StandaloneSpillerFactory;
 import com.facebook.presto.spiller.TempStorageSingleStreamSpillerFactory;
 import com.facebook.presto.spiller.TempStorageStandaloneSpillerFactory;
+import com.facebook.presto.split.ForBlockingPageSources;
 import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSinkProvider;
 import com.facebook.presto.split.PageSourceManager;
@@ -189,6 +192,7 @@ import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler;
 import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
+import com.facebook.presto.sql.gen.PersistentClassCache;
 import com.facebook.presto.sql.gen.RowExpressionPredicateCompiler;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.parser.SqlParserOptions;
@@ -408,6 +412,7 @@ public class PrestoSparkModule
         binder.bind(PageIndexerFactory.class).to(GroupByHashPageIndexerFactory.class).in(Scopes.SINGLETON);
 
         // compilers
+        binder.bind(PersistentClassCache.class).in(Scopes.SINGLETON);
         binder.bind(JoinFilterFunctionCompiler.class).in(Scopes.SINGLETON);
         newExporter(binder).export(JoinFilterFunctionCompiler.class).withGeneratedName();
         binder.bind(JoinCompiler.class).in(Scopes.SINGLETON);
@@ -442,7 +447,6 @@ public class PrestoSparkModule
 
         // task executor
         binder.bind(EmbedVersion.class).in(Scopes.SINGLETON);
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
 
         // data stream provider
@@ -594,6 +598,24 @@ public class PrestoSparkModule
         return InMemoryTransactionManager.create(config, scheduledExecutor, catalogManager, executor);
     }
 
+    @Provides
+    @Singleton
+    @ForBlockingPageSources
+    public static ExecutorService createBlockingPageSourceExecutor(FeaturesConfig config)
+    {
+        return newFixedThreadPool(config.getBlockingPageSourceThreads(), daemonThreadsNamed("page-source-io-%s"));
+    }
+
+    @Provides
+    @Singleton
+    public static AbstractMultilevelSplitQueue createMultilevelSplitQueue(TaskManagerConfig config)
+    {
+        if (config.isWorkStealingSplitQueueEnabled()) {
+            return new WorkStealingMultilevelSplitQueue(config.getLevelTimeMultiplier().doubleValue(), config.getMaxWorkerThreads());
+        }
+        return new MultilevelSplitQueue(config);
+    }
+
     @Provides
     @Singleton
     public static FragmentResultCacheManager createFragmentResultCacheManager(FileFragmentResultCacheConfig config, BlockEncodingSerde blockEncodingSerde, FragmentCacheStats fragmentCacheStats)
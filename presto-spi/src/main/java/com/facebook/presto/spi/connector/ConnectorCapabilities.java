@@ -22,5 +22,10 @@ public enum ConnectorCapabilities
     UNIQUE_CONSTRAINT,
     ENFORCE_CONSTRAINTS,
     ALTER_COLUMN,
-    SUPPORTS_JOIN_PUSHDOWN
+    SUPPORTS_JOIN_PUSHDOWN,
+    /**
+     * The page sources of the connector block the calling thread on I/O,
+     * so the engine may read them on dedicated threads.
+     */
+    BLOCKING_PAGE_SOURCE
 }
@@ -29,15 +29,18 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeGroups;
 import org.testng.annotations.Test;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
+import static com.facebook.presto.SystemSessionProperties.PARTIAL_AGGREGATION_STRATEGY;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY_PER_NODE;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_TOTAL_MEMORY;
@@ -368,6 +371,80 @@ public class TestMemoryManager
         }
     }
 
+    @BeforeGroups(groups = {"memoryRevokingBeforeKill"})
+    public void memoryRevokingBeforeKillSetup()
+            throws Exception
+    {
+        Map<String, String> properties = ImmutableMap.<String, String>builder()
+                .put("experimental.reserved-pool-enabled", "false")
+                .put("experimental.spill-enabled", "true")
+                .put("experimental.spiller-spill-path", Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills", UUID.randomUUID().toString()).toString())
+                // keep the workers from spilling on their own, so that only the coordinator asks for it
+                .put("experimental.spiller.task-spilling-strategy", "PER_TASK_MEMORY_THRESHOLD")
+                .put("experimental.spiller.max-revocable-task-memory", "1TB")
+                .put("query.low-memory-killer.delay", "10s")
+                .put("query.low-memory-killer.policy", "total-reservation")
+                .put("query.low-memory-killer.memory-revoking-enabled", "true")
+                .put("query.low-memory-killer.memory-revoking-timeout", "5m")
+                .build();
+
+        queryRunner2 = createQueryRunner(properties);
+    }
+
+    @AfterGroups(groups = {"memoryRevokingBeforeKill"})
+    public void memoryRevokingBeforeKillCleanup()
+    {
+        queryRunner2.close();
+    }
+
+    @Test(timeOut = 240_000, groups = {"memoryRevokingBeforeKill"})
+    public void testMemoryRevokingBeforeKill()
+            throws Exception
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema("sf1")
+                .setSystemProperty(PARTIAL_AGGREGATION_STRATEGY, "NEVER")
+                .build();
+        Future<?> query = executor.submit(() -> queryRunner2.execute(session, "SELECT orderkey, COUNT(*) FROM lineitem GROUP BY orderkey"));
+
+        // Wait for the aggregation to hold revocable memory on some node
+        MemoryPool fullPool = null;
+        while (fullPool == null) {
+            assertFalse(query.isDone(), "query finished before it reserved revocable memory");
+            for (TestingPrestoServer server : queryRunner2.getServers()) {
+                MemoryPool general = server.getLocalMemoryManager().getGeneralPool();
+                if (general.getReservedRevocableBytes() > 0) {
+                    fullPool = general;
+                    break;
+                }
+            }
+            MILLISECONDS.sleep(10);
+        }
+
+        // Fill the node with non-revocable memory, so that only spilling can make room for the query
+        QueryId fakeQueryId = new QueryId("fake");
+        fullPool.reserve(fakeQueryId, "test", fullPool.getMaxBytes());
+
+        // The coordinator asks the query to spill instead of killing it
+        ClusterMemoryPool generalPool = queryRunner2.getCoordinator().getClusterMemoryManager().getPools().get(GENERAL_POOL);
+        while (generalPool.getMemoryRevokingRequests() == 0) {
+            MILLISECONDS.sleep(10);
+        }
+        while (fullPool.getReservedRevocableBytes() > 0) {
+            MILLISECONDS.sleep(10);
+        }
+
+        // Free up the memory we reserved, which relieves the node before the killer is called
+        fullPool.free(fakeQueryId, "test", fullPool.getMaxBytes());
+
+        query.get();
+        assertEquals(queryRunner2.getCoordinator().getClusterMemoryManager().getQueriesKilledDueToOutOfMemory(), 0);
+        while (generalPool.getOutOfMemoryResolvedByRevoking() == 0) {
+            MILLISECONDS.sleep(10);
+        }
+    }
+
     @BeforeGroups(groups = {"outOfMemoryKillerMultiCoordinator"})
     public void outOfMemoryKillerMultiCoordinatorSetup()
             throws Exception